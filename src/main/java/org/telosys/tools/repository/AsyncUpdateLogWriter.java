@@ -0,0 +1,273 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository ;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Update log writer using a background thread <br>
+ * The lines are put in a bounded queue and written by the background thread in buffered UTF-8 batches <br>
+ * The output is flushed only on demand (flush) and on close <br>
+ * When the queue is full "println" waits for a free place (no line is lost) <br>
+ * 
+ * @author Laurent GUERIN
+ * 
+ */
+public class AsyncUpdateLogWriter extends UpdateLogWriter
+{
+	/**
+	 * Default number of lines waiting to be written
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024 ;
+
+	private static final int BUFFER_SIZE = 64 * 1024 ;
+
+	private final BlockingQueue<Object> queue ;
+	
+	private final Writer writer ;
+	
+	private final Thread thread ;
+	
+	private volatile IOException failure = null ;
+	
+	private boolean closed = false ;
+	
+	/**
+	 * Request sent to the background thread (flush or close)
+	 */
+	private static class Request {
+		private final boolean close ;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private Request(boolean close) {
+			this.close = close ;
+		}
+	}
+	
+    //-----------------------------------------------------------------------------
+    //--- CONSTRUCTORS
+    //-----------------------------------------------------------------------------
+	/**
+	 * Constructor for a file logger with the default queue capacity
+	 * @param file
+	 */
+	public AsyncUpdateLogWriter(File file) {
+		this(file, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Constructor for a file logger
+	 * @param file
+	 * @param queueCapacity the maximum number of lines waiting to be written
+	 */
+	public AsyncUpdateLogWriter(File file, int queueCapacity) {
+		this(openFile(file), queueCapacity);
+	}
+
+	/**
+	 * Constructor for any output stream (closed by this writer)
+	 * @param outputStream
+	 * @param queueCapacity the maximum number of lines waiting to be written
+	 */
+	public AsyncUpdateLogWriter(OutputStream outputStream, int queueCapacity) {
+		super();
+		if ( outputStream == null ) {
+			throw new RuntimeException("AsyncUpdateLogWriter constructor : output stream parameter is null");
+		}
+		if ( queueCapacity < 1 ) {
+			throw new IllegalArgumentException("Invalid queue capacity " + queueCapacity);
+		}
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeLoop();
+			}
+		}, "telosys-update-log");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	private static OutputStream openFile(File file) {
+		if ( file == null ) {
+			throw new RuntimeException("AsyncUpdateLogWriter constructor : file parameter is null");
+		}
+		try {
+			return new FileOutputStream(file);
+		} 
+		catch (FileNotFoundException ex) {
+			throw new RuntimeException("AsyncUpdateLogWriter : Cannot create file '" + file.getAbsolutePath() + "'");
+		}
+	}
+	
+    //-----------------------------------------------------------------------------
+	/**
+	 * Background thread : writes the lines in batches (all the lines available in the queue)
+	 */
+	private void writeLoop() {
+		List<Object> batch = new ArrayList<>();
+		boolean running = true ;
+		while ( running ) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				// daemon thread : stop
+				return ;
+			}
+			queue.drainTo(batch);
+			for ( Object element : batch ) {
+				if ( element instanceof Request ) {
+					Request request = (Request) element ;
+					if ( request.close ) {
+						closeWriter();
+						running = false ;
+					}
+					else {
+						flushWriter();
+					}
+					request.done.countDown();
+				}
+				else if ( running ) {
+					writeLine((String) element);
+				}
+			}
+			batch.clear();
+		}
+	}
+	
+	private void writeLine(String line) {
+		if ( failure == null ) {
+			try {
+				writer.write(line);
+				writer.write('\n');
+			} catch (IOException e) {
+				failure = e ;
+			}
+		}
+	}
+	
+	private void flushWriter() {
+		if ( failure == null ) {
+			try {
+				writer.flush();
+			} catch (IOException e) {
+				failure = e ;
+			}
+		}
+	}
+	
+	private void closeWriter() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			if ( failure == null ) {
+				failure = e ;
+			}
+		}
+	}
+	
+	private void checkFailure(String action) {
+		if ( failure != null ) {
+			throw new RuntimeException("AsyncUpdateLogWriter : cannot " + action + " (IOException)");
+		}
+	}
+	
+	private void put(Object element) {
+		try {
+			queue.put(element); // waits if the queue is full
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("AsyncUpdateLogWriter : interrupted");
+		}
+	}
+	
+	private void waitFor(Request request) {
+		try {
+			request.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("AsyncUpdateLogWriter : interrupted");
+		}
+	}
+	
+    //-----------------------------------------------------------------------------
+	@Override
+	public void println( String msg ) 
+	{
+		checkFailure("write");
+		synchronized (this) {
+			if ( closed ) {
+				throw new RuntimeException("AsyncUpdateLogWriter : cannot write (closed)");
+			}
+			put(msg);
+		}
+	}
+	
+    //-----------------------------------------------------------------------------
+	/**
+	 * Writes all the lines already received and flushes the output 
+	 */
+	@Override
+	public void flush()
+	{
+		Request request = new Request(false);
+		synchronized (this) {
+			if ( closed ) {
+				return ;
+			}
+			put(request);
+		}
+		waitFor(request);
+		checkFailure("flush");
+	}
+	
+    //-----------------------------------------------------------------------------
+	/**
+	 * Writes all the lines already received, closes the output and stops the background thread
+	 */
+	@Override
+	public void close()
+	{
+		Request request = new Request(true);
+		synchronized (this) {
+			if ( closed ) {
+				return ;
+			}
+			closed = true ;
+			put(request);
+		}
+		waitFor(request);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		checkFailure("close");
+	}
+}
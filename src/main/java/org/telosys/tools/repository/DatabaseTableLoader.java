@@ -0,0 +1,147 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.telosys.tools.db.model.DatabaseModelManager;
+import org.telosys.tools.db.model.DatabaseTable;
+import org.telosys.tools.db.model.DatabaseTables;
+import org.telosys.tools.repository.metadata.MetadataConverter;
+import org.telosys.tools.repository.metadata.TableMetadata;
+
+/**
+ * Loads the database tables meta-data one table at a time <br>
+ * (the tables identifiers are loaded first, then each table is loaded on demand) 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+class DatabaseTableLoader {
+
+	private final Connection  con ;
+	private final String      catalog ;
+	private final String      schema ;
+	private final String      tableNamePattern ;
+	private final String[]    tableTypes ;
+	private final String      tableNameInclude ;
+	private final String      tableNameExclude ;
+	
+	private final DatabaseModelManager manager = new DatabaseModelManager();
+	
+	private String escape = null ;
+	
+	/**
+	 * Constructor
+	 * @param con
+	 * @param catalog
+	 * @param schema
+	 * @param tableNamePattern
+	 * @param tableTypes
+	 * @param tableNameInclude
+	 * @param tableNameExclude
+	 */
+	protected DatabaseTableLoader(Connection con, String catalog, String schema, 
+			String tableNamePattern, String[] tableTypes, 
+			String tableNameInclude, String tableNameExclude) {
+		super();
+		this.con = con;
+		this.catalog = catalog;
+		this.schema = schema;
+		this.tableNamePattern = tableNamePattern;
+		this.tableTypes = tableTypes;
+		this.tableNameInclude = tableNameInclude;
+		this.tableNameExclude = tableNameExclude;
+	}
+
+	/**
+	 * Returns the identifiers ( catalog, schema, table name ) of all the tables matching the metadata parameters <br>
+	 * (only the identifiers are kept in memory, not the tables) 
+	 * @return
+	 * @throws SQLException
+	 */
+	protected List<String[]> getTablesIdentifiers() throws SQLException {
+		DatabaseMetaData dbmd = con.getMetaData();
+		escape = dbmd.getSearchStringEscape();
+		List<String[]> list = new LinkedList<>();
+		ResultSet rs = dbmd.getTables(catalog, schema, tableNamePattern, tableTypes);
+		try {
+			while ( rs.next() ) {
+				list.add( new String[] { rs.getString("TABLE_CAT"), rs.getString("TABLE_SCHEM"), rs.getString("TABLE_NAME") } );
+			}
+		} finally {
+			rs.close();
+		}
+		return list ;
+	}
+	
+	/**
+	 * Loads the given table (columns, primary key, foreign keys) <br>
+	 * NB : DatabaseModelManager loads tables only from a 'getTables' pattern, so each table costs one more 
+	 * 'getTables' call (a single row, cheap compared to the columns and keys queries). 
+	 * This is the price of loading one table at a time : the memory is bounded by the current table 
+	 * instead of all the tables of the schema. <br>
+	 * The schema and table names are escaped in order to match only this table
+	 * @param tableId the table identifier ( catalog, schema, table name )
+	 * @return the table meta-data or null if the table doesn't exist (or is not included)
+	 * @throws SQLException
+	 */
+	protected TableMetadata loadTable(String[] tableId) throws SQLException {
+		if ( escape == null ) {
+			escape = con.getMetaData().getSearchStringEscape();
+		}
+		String schemaPattern = ( tableId[1] != null ? escapePattern(tableId[1], escape) : null ) ;
+		DatabaseTables dbTables = manager.getDatabaseTables(con, tableId[0], schemaPattern, 
+				escapePattern(tableId[2], escape), tableTypes, tableNameInclude, tableNameExclude);
+		for ( DatabaseTable dbTable : dbTables ) {
+			if ( isSameTable(dbTable, tableId) ) {
+				return MetadataConverter.convertTable(dbTable);
+			}
+		}
+		return null ;
+	}
+	
+	/**
+	 * Escapes the metadata wildcards ( '_' and '%' ) in order to use the given name as an exact pattern
+	 * @param name
+	 * @param escape
+	 * @return
+	 */
+	private String escapePattern(String name, String escape) {
+		if ( escape == null || escape.length() == 0 ) {
+			return name ;
+		}
+		StringBuilder sb = new StringBuilder(name.length() + 8);
+		for ( int i = 0 ; i < name.length() ; i++ ) {
+			char c = name.charAt(i);
+			if ( c == '_' || c == '%' || escape.indexOf(c) >= 0 ) {
+				sb.append(escape);
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+	
+	private boolean isSameTable(DatabaseTable dbTable, String[] tableId) {
+		return tableId[2].equals(dbTable.getTableName()) 
+				&& ( tableId[1] == null || tableId[1].equals(dbTable.getSchemaName()) ) ;
+	}
+}
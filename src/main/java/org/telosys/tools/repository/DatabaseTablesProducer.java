@@ -0,0 +1,90 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.sql.Connection;
+
+import org.telosys.tools.repository.metadata.TableMetadata;
+
+/**
+ * First stage of the pipelined model generation : <br>
+ * loads the database tables one by one and puts each table meta-data in the output queue <br>
+ * The connection is used only by this stage while it is running
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+class DatabaseTablesProducer implements Runnable {
+
+	private final DatabaseTableLoader loader ;
+	
+	private final PipelineQueue<TableMetadata> output ;
+	
+	private int tablesCount = 0 ;
+	
+	/**
+	 * Constructor
+	 * @param con
+	 * @param catalog
+	 * @param schema
+	 * @param tableNamePattern
+	 * @param tableTypes
+	 * @param tableNameInclude
+	 * @param tableNameExclude
+	 * @param output
+	 */
+	protected DatabaseTablesProducer(Connection con, String catalog, String schema, 
+			String tableNamePattern, String[] tableTypes, 
+			String tableNameInclude, String tableNameExclude,
+			PipelineQueue<TableMetadata> output) {
+		super();
+		this.loader = new DatabaseTableLoader(con, catalog, schema, 
+				tableNamePattern, tableTypes, tableNameInclude, tableNameExclude);
+		this.output = output;
+	}
+
+	/**
+	 * Returns the number of tables put in the output queue
+	 * @return
+	 */
+	protected int getTablesCount() {
+		return tablesCount;
+	}
+
+	@Override
+	public void run() {
+		try {
+			for ( String[] tableId : loader.getTablesIdentifiers() ) {
+				//--- Load only this table (columns, primary key, foreign keys)
+				TableMetadata table = loader.loadTable(tableId);
+				if ( table != null ) {
+					output.put(table);
+					tablesCount++;
+				}
+			}
+			output.close();
+		} catch (InterruptedException e) {
+			// Pipeline aborted by the consumer 
+			Thread.currentThread().interrupt();
+		} catch (Throwable t) {
+			try {
+				output.fail(t);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -15,18 +15,33 @@
  */
 package org.telosys.tools.repository;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
 import org.telosys.tools.commons.dbcfg.DbConnectionManager;
-import org.telosys.tools.db.model.DatabaseModelManager;
-import org.telosys.tools.db.model.DatabaseTable;
-import org.telosys.tools.db.model.DatabaseTables;
+import org.telosys.tools.repository.metadata.MetadataSnapshot;
+import org.telosys.tools.repository.metadata.TableMetadata;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
 import org.telosys.tools.repository.model.RepositoryModel;
 
 /**
@@ -37,6 +52,20 @@ import org.telosys.tools.repository.model.RepositoryModel;
  */
 public class DbModelGenerator extends DbModelManager {
 	
+	/**
+	 * Default capacity of the queues used between the stages of the pipelined generation
+	 */
+	public static final int DEFAULT_PIPELINE_QUEUE_CAPACITY = 16 ;
+	
+	private int pipelineQueueCapacity = DEFAULT_PIPELINE_QUEUE_CAPACITY ;
+	
+	/**
+	 * Default maximum number of targets (catalog/schema) extracted concurrently
+	 */
+	public static final int DEFAULT_MAX_PARALLEL_TARGETS = 4 ;
+	
+	private int maxParallelTargets = DEFAULT_MAX_PARALLEL_TARGETS ;
+	
 	/**
 	 * Constructor
 	 * @param dbConnectionManager
@@ -47,6 +76,30 @@ public class DbModelGenerator extends DbModelManager {
 		super(dbConnectionManager, logger);
 	}
 
+	/**
+	 * Set the capacity of the bounded queues used by the pipelined generation <br>
+	 * (the maximum number of tables/entities waiting between 2 stages)
+	 * @param capacity
+	 */
+	public void setPipelineQueueCapacity(int capacity) {
+		if ( capacity < 1 ) {
+			throw new IllegalArgumentException("Invalid pipeline queue capacity " + capacity);
+		}
+		this.pipelineQueueCapacity = capacity;
+	}
+
+	/**
+	 * Set the maximum number of targets (catalog/schema) extracted concurrently by a multi-target generation <br>
+	 * (each target uses its own connection)
+	 * @param max
+	 */
+	public void setMaxParallelTargets(int max) {
+		if ( max < 1 ) {
+			throw new IllegalArgumentException("Invalid max parallel targets " + max);
+		}
+		this.maxParallelTargets = max;
+	}
+
 	/**
 	 * Generates the repository model from the given database configuration<br>
 	 * Generates all the entities and all the links between the entities
@@ -66,6 +119,257 @@ public class DbModelGenerator extends DbModelManager {
 			closeConnection(connection); 
 		}
 		
+		generateLinks(repositoryModel);
+		
+		return repositoryModel ;
+	}
+
+	/**
+	 * Creates a new generation session for the given database configuration <br>
+	 * (with progress reporting, cancellation, per-table timeout and partial result)
+	 * @param databaseConfiguration
+	 * @return
+	 */
+	public GenerationSession createSession(DatabaseConfiguration databaseConfiguration) {
+		return new GenerationSession(this, databaseConfiguration);
+	}
+
+	/**
+	 * Generates the repository model from the given database configuration with checkpoints <br>
+	 * The entities are saved in the given work directory at regular intervals, so that a failed generation 
+	 * can be resumed by a later call with the same database configuration (the tables already generated are skipped). <br>
+	 * The links are always generated over the full model at the end. 
+	 * 
+	 * @param databaseConfiguration
+	 * @param checkpointDirectory the work directory for the checkpoints 
+	 * @param checkpointInterval the number of entities saved at each checkpoint
+	 * @return
+	 * @throws TelosysToolsException if some tables cannot be generated (the checkpoint is kept)
+	 */
+	public RepositoryModel generate(DatabaseConfiguration databaseConfiguration, 
+			File checkpointDirectory, int checkpointInterval) throws TelosysToolsException {
+		GenerationSession session = createSession(databaseConfiguration);
+		session.setCheckpoint(checkpointDirectory, checkpointInterval);
+		GenerationResult result = session.run();
+		if ( ! result.isComplete() ) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(result.getFailedTables().size() + " table(s) not generated (checkpoint kept in '" + checkpointDirectory + "')");
+			for ( TableGenerationFailure failure : result.getFailedTables() ) {
+				sb.append("\n " + failure );
+			}
+			throw new TelosysToolsException(sb.toString());
+		}
+		return result.getRepositoryModel();
+	}
+
+	/**
+	 * Generates a single repository model from several catalog/schema targets <br>
+	 * The targets are extracted concurrently (one connection for each target), 
+	 * the other meta-data parameters (table name pattern, types, include, exclude) are those of the configuration. <br>
+	 * The entities are merged in the targets order : if a table name exists in several targets 
+	 * the table of the first target is kept and the others are ignored (reported as warnings), 
+	 * so the result doesn't depend on the extraction order. 
+	 * A foreign key referencing an ignored table of its own target is ignored (reported as a warning) 
+	 * rather than linked to the table of another target. <br>
+	 * The links are generated over the merged model, including the links for the cross-schema foreign keys. 
+	 * A foreign key referencing a table outside the targets is ignored (reported as a warning).
+	 * 
+	 * @param databaseConfiguration
+	 * @param targets the catalog/schema targets in priority order 
+	 * @return the result with the merged model and the warnings
+	 * @throws TelosysToolsException if a target cannot be extracted
+	 */
+	public GenerationResult generate(DatabaseConfiguration databaseConfiguration, List<GenerationTarget> targets) throws TelosysToolsException {
+		if ( targets == null || targets.isEmpty() ) {
+			throw new TelosysToolsException("No generation target");
+		}
+		getRepositoryLogger().info("--> Repository generation ({} targets) ", targets.size());
+		
+		//--- Init the model with the database information
+		RepositoryModel repositoryModel ;
+		Connection connection = getConnection(databaseConfiguration);
+		try {
+			repositoryModel = createRepositoryModel(getMetaData(connection), databaseConfiguration);
+		} finally {
+			closeConnection(connection); 
+		}
+		GenerationResult result = new GenerationResult(repositoryModel);
+		
+		//--- Extract all the targets concurrently 
+		List<Future<List<EntityInDbModel>>> futures = new LinkedList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(targets.size(), maxParallelTargets), 
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "telosys-model-target-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			for ( GenerationTarget target : targets ) {
+				futures.add( executor.submit( new TargetExtractor(databaseConfiguration, target) ) );
+			}
+			
+			//--- Merge in the targets order 
+			Map<String, GenerationTarget> tablesTargets = new HashMap<>();
+			Map<GenerationTarget, Set<String>> tablesIgnored = new HashMap<>();
+			int i = 0 ;
+			for ( GenerationTarget target : targets ) {
+				List<EntityInDbModel> entities = getTargetEntities(futures.get(i++), target);
+				for ( EntityInDbModel entity : entities ) {
+					GenerationTarget firstTarget = tablesTargets.get(entity.getDatabaseTable());
+					if ( firstTarget == null ) {
+						tablesTargets.put(entity.getDatabaseTable(), target);
+						repositoryModel.storeEntity(entity);
+					}
+					else {
+						result.addWarning("Table '" + entity.getDatabaseTable() + "' of target '" + target 
+								+ "' ignored (same table name in target '" + firstTarget + "')");
+						if ( ! tablesIgnored.containsKey(target) ) {
+							tablesIgnored.put(target, new HashSet<String>());
+						}
+						tablesIgnored.get(target).add(entity.getDatabaseTable());
+					}
+				}
+			}
+			removeForeignKeysToIgnoredTables(repositoryModel, tablesTargets, tablesIgnored, result);
+		} finally {
+			executor.shutdownNow();
+		}
+		getRepositoryLogger().info("   {} table(s) generated.", repositoryModel.getNumberOfEntities());
+		
+		//--- Links over the merged model 
+		result.removeForeignKeysWithoutReferencedEntity();
+		generateLinks(repositoryModel);
+		return result ;
+	}
+	
+	/**
+	 * Removes the foreign keys referencing a table ignored in the same target <br>
+	 * (the table of the same name kept in the model is in another catalog/schema) 
+	 * @param repositoryModel
+	 * @param tablesTargets the target of each table kept in the model
+	 * @param tablesIgnored the tables ignored for each target
+	 * @param result
+	 */
+	private void removeForeignKeysToIgnoredTables(RepositoryModel repositoryModel, 
+			Map<String, GenerationTarget> tablesTargets, Map<GenerationTarget, Set<String>> tablesIgnored, 
+			GenerationResult result) {
+		for ( EntityInDbModel entity : repositoryModel.getEntitiesArraySortedByTableName() ) {
+			GenerationTarget target = tablesTargets.get(entity.getDatabaseTable());
+			Set<String> ignored = tablesIgnored.get(target);
+			if ( ignored != null ) {
+				for ( ForeignKeyInDbModel fk : entity.getForeignKeys() ) {
+					String referencedTable = fk.getReferencedTableName();
+					if ( ignored.contains(referencedTable) ) {
+						entity.removeForeignKey(fk);
+						result.addWarning("Foreign key '" + fk.getName() + "' of target '" + target 
+								+ "' ignored (table '" + referencedTable + "' of target '" + tablesTargets.get(referencedTable) 
+								+ "' is not the referenced table)");
+					}
+				}
+			}
+		}
+	}
+	
+	private List<EntityInDbModel> getTargetEntities(Future<List<EntityInDbModel>> future, GenerationTarget target) throws TelosysToolsException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Repository generation interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw new TelosysToolsException("Cannot generate target '" + target + "' : " + cause.getMessage(), cause);
+		}
+	}
+	
+	/**
+	 * Task loading the tables of a target and building the entities (without storing them in the model)
+	 */
+	private class TargetExtractor implements Callable<List<EntityInDbModel>> {
+		private final DatabaseConfiguration databaseConfiguration ;
+		private final GenerationTarget      target ;
+		
+		private TargetExtractor(DatabaseConfiguration databaseConfiguration, GenerationTarget target) {
+			super();
+			this.databaseConfiguration = databaseConfiguration;
+			this.target = target;
+		}
+
+		@Override
+		public List<EntityInDbModel> call() throws Exception {
+			List<EntityInDbModel> entities = new LinkedList<>();
+			Connection connection = getConnection(databaseConfiguration);
+			try {
+				for ( TableMetadata dbTable : loadTablesMetadata(connection, databaseConfiguration, 
+						target.getCatalog(), target.getSchema()) ) {
+					logTable(dbTable);
+					entities.add( buildEntity(dbTable) );
+				}
+			} finally {
+				closeConnection(connection); 
+			}
+			return entities ;
+		}
+	}
+	
+	/**
+	 * Generates the repository model from the given database configuration using a pipeline <br>
+	 * The tables are loaded one by one in a dedicated thread (I/O) while the entities are built 
+	 * in the current thread, each stage being connected to the next one by a bounded queue. <br>
+	 * So, each database table is released as soon as its entity is built. <br>
+	 * If a sink is provided, each entity is passed to the sink as soon as it is built. <br>
+	 * The links are generated at the end (they require the whole model)
+	 * 
+	 * @param databaseConfiguration
+	 * @param sink the entities sink (or null if none)
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModel generate(DatabaseConfiguration databaseConfiguration, DbModelSink sink) throws TelosysToolsException {
+		Connection connection = getConnection(databaseConfiguration);
+		
+		//--- STEP 1 : Generates the model entities 
+		RepositoryModel repositoryModel;
+		try {
+			repositoryModel = generateRepositoryWithPipeline(connection, databaseConfiguration, sink);
+		} finally {
+			closeConnection(connection); 
+		}
+		
+		generateLinks(repositoryModel);
+		
+		return repositoryModel ;
+	}
+	
+	/**
+	 * Generates the repository model from the given meta-data snapshot (without database connection)<br>
+	 * Generates all the entities and all the links between the entities
+	 * 
+	 * @param snapshot
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModel generate(MetadataSnapshot snapshot) throws TelosysToolsException {
+		logger.log("--> Repository generation from meta-data snapshot (" + snapshot.getSnapshotDate() + ")");
+		
+		//--- STEP 1 : Generates the model entities 
+		RepositoryModel repositoryModel = new RepositoryModel();
+		repositoryModel.setDatabaseName( snapshot.getDatabaseName() );
+		repositoryModel.setDatabaseId( snapshot.getDatabaseId() );
+		repositoryModel.setDatabaseProductName( snapshot.getDatabaseProductName() );
+		repositoryModel.setGenerationDate( new Date() );
+		generateEntities(repositoryModel, snapshot.getTables());
+		
+		generateLinks(repositoryModel);
+		
+		return repositoryModel ;
+	}
+	
+	void generateLinks(RepositoryModel repositoryModel) throws TelosysToolsException {
 		//--- STEP 1.1 : set FK flags on attributes - MUST BE CALLED BEFORE THE LINKS GENERATION
 		ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager() ;
 		fkTypeManager.setAttributesForeignKeyInformation(repositoryModel);
@@ -73,8 +377,6 @@ public class DbModelGenerator extends DbModelManager {
 		//--- STEP 2 : Generates the links between entities 
 		LinksManager linksManager = new LinksManager(getRepositoryRules() );
 		linksManager.generateAllLinks(repositoryModel);
-		
-		return repositoryModel ;
 	}
 
 	/**
@@ -91,8 +393,30 @@ public class DbModelGenerator extends DbModelManager {
 		logger.log(" . get meta-data ");
 		DatabaseMetaData dbmd = getMetaData(con);
 
-		RepositoryModel repositoryModel = new RepositoryModel();
+		RepositoryModel repositoryModel = createRepositoryModel(dbmd, databaseConfig);
+		//--- Schema version before the crawl (a change during the crawl will be detected by the next update)
+		String schemaVersion = getSchemaVersion(con, databaseConfig) ;
+		repositoryModel.setDatabaseSchemaVersion( schemaVersion );
 					
+		try {
+			//--- Add all tables/entities to the new repository	
+			generateEntities(repositoryModel, con, databaseConfig, schemaVersion);
+		} catch (SQLException e) {
+			throw new TelosysToolsException("SQLException", e);
+		}
+
+		return repositoryModel ;
+	}
+	
+	/**
+	 * Creates a new void repository model initialized with the database information
+	 * @param dbmd
+	 * @param databaseConfig
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	RepositoryModel createRepositoryModel(DatabaseMetaData dbmd, DatabaseConfiguration databaseConfig) throws TelosysToolsException {
+		RepositoryModel repositoryModel = new RepositoryModel();
 		try {
 			//--- Init new repository	
 			repositoryModel.setDatabaseName( databaseConfig.getDatabaseName() );
@@ -100,57 +424,45 @@ public class DbModelGenerator extends DbModelManager {
 			repositoryModel.setDatabaseProductName( dbmd.getDatabaseProductName() );
 			repositoryModel.setGenerationDate( new Date() );
 			//repositoryModel.setVersion( DbModelVersion.VERSION ); // v 3.0.0 (in Model class)
-
-			//--- Add all tables/entities to the new repository	
-			generateEntities(repositoryModel, 
-					con, 
-					databaseConfig.getMetadataCatalog(), 
-					databaseConfig.getMetadataSchema(), 
-					databaseConfig.getMetadataTableNamePattern(), 
-					databaseConfig.getMetadataTableTypesArray(),
-					databaseConfig.getMetadataTableNameInclude(),
-					databaseConfig.getMetadataTableNameExclude());
-			
 		} catch (SQLException e) {
 			throw new TelosysToolsException("SQLException", e);
 		}
-
 		return repositoryModel ;
 	}
 	
 	private void generateEntities(RepositoryModel repositoryModel, Connection con,
-			String sCatalog, String sSchema,
-			String sTableNamePattern, String[] arrayTableTypes,
-			String sTableNameInclude, String sTableNameExclude) throws SQLException 
+			DatabaseConfiguration databaseConfig, String schemaVersion) throws SQLException 
 	{
 		// --- Get METADATA parameters
+		String sTableNamePattern = databaseConfig.getMetadataTableNamePattern() ;
 		if (sTableNamePattern == null) {
 			sTableNamePattern = "%";
 		}
 
 		logger.log("   ... Metadata parameters : ");
-		logger.log("   ... * Catalog = " + sCatalog);
-		logger.log("   ... * Schema  = " + sSchema);
+		logger.log("   ... * Catalog = " + databaseConfig.getMetadataCatalog());
+		logger.log("   ... * Schema  = " + databaseConfig.getMetadataSchema());
 		logger.log("   ... * Table Name Pattern  = " + sTableNamePattern);
 
 		StringBuffer sb = new StringBuffer(100);
-		for (String s : arrayTableTypes ) {
+		for (String s : databaseConfig.getMetadataTableTypesArray() ) {
 			sb.append("[" + s + "] ");
 		}
 		logger.log("   ... * Table Types Array  = " + sb.toString());
 
-		//--- Load the Database Model
-		DatabaseModelManager manager = new DatabaseModelManager();
-		DatabaseTables dbTables = manager.getDatabaseTables(con, sCatalog, sSchema, sTableNamePattern, arrayTableTypes, sTableNameInclude, sTableNameExclude);
+		//--- Load the Database Model (not from the cache if loaded for another schema version)
+		List<TableMetadata> tables = loadTablesMetadata(con, databaseConfig, schemaVersion);
 
 		//--- For each table add an Entity in the repository
+		generateEntities(repositoryModel, tables);
+	}
+
+	private void generateEntities(RepositoryModel repositoryModel, List<TableMetadata> tables) 
+	{
 		int iTablesCount = 0;
-		for ( DatabaseTable dbTable : dbTables ) {
+		for ( TableMetadata dbTable : tables ) {
 			iTablesCount++;
-			logger.log("   --------------------------------------------------------------");
-			logger.log("   Table '" + dbTable.getTableName() 
-					+ "' ( catalog = '" + dbTable.getCatalogName() 
-					+ "', schema = '"+ dbTable.getSchemaName() + "' )");
+			logTable(dbTable);
 			addEntity(repositoryModel, dbTable) ;
 		}
 		logger.log("   --------------------------------------------------------------");
@@ -158,4 +470,120 @@ public class DbModelGenerator extends DbModelManager {
 		logger.log("   --------------------------------------------------------------");
 	}
 
+	/**
+	 * Generates the repository model entities using the pipeline : <br>
+	 * . stage 1 (dedicated thread) : tables loading <br>
+	 * . stage 2 (current thread)   : entities building <br>
+	 * . stage 3 (dedicated thread) : sink (optional) <br>
+	 * @param con
+	 * @param databaseConfig
+	 * @param sink
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	private RepositoryModel generateRepositoryWithPipeline(Connection con, DatabaseConfiguration databaseConfig, 
+			DbModelSink sink) throws TelosysToolsException 
+	{
+		logger.log("--> Repository generation (pipeline) ");
+
+		logger.log(" . get meta-data ");
+		DatabaseMetaData dbmd = getMetaData(con);
+
+		RepositoryModel repositoryModel = createRepositoryModel(dbmd, databaseConfig);
+		repositoryModel.setDatabaseSchemaVersion( getSchemaVersion(con, databaseConfig) );
+
+		String tableNamePattern = databaseConfig.getMetadataTableNamePattern() ;
+		if ( tableNamePattern == null) {
+			tableNamePattern = "%";
+		}
+		logger.log("   ... Metadata parameters : ");
+		logger.log("   ... * Catalog = " + databaseConfig.getMetadataCatalog());
+		logger.log("   ... * Schema  = " + databaseConfig.getMetadataSchema());
+		logger.log("   ... * Table Name Pattern  = " + tableNamePattern);
+		logger.log("   ... * Pipeline queue capacity = " + pipelineQueueCapacity);
+
+		//--- Stage 1 : tables producer
+		PipelineQueue<TableMetadata> tablesQueue = new PipelineQueue<>(pipelineQueueCapacity);
+		DatabaseTablesProducer producer = new DatabaseTablesProducer(con, 
+				databaseConfig.getMetadataCatalog(), 
+				databaseConfig.getMetadataSchema(), 
+				tableNamePattern, 
+				databaseConfig.getMetadataTableTypesArray(),
+				databaseConfig.getMetadataTableNameInclude(),
+				databaseConfig.getMetadataTableNameExclude(),
+				tablesQueue);
+		Thread producerThread = new Thread(producer, "telosys-model-tables");
+		producerThread.setDaemon(true);
+		
+		//--- Stage 3 : sink (optional)
+		PipelineQueue<EntityInDbModel> entitiesQueue = null ;
+		DbModelSinkStage sinkStage = null ;
+		Thread sinkThread = null ;
+		if ( sink != null ) {
+			entitiesQueue = new PipelineQueue<>(pipelineQueueCapacity);
+			sinkStage = new DbModelSinkStage(sink, entitiesQueue);
+			sinkThread = new Thread(sinkStage, "telosys-model-sink");
+			sinkThread.setDaemon(true);
+			sinkThread.start();
+		}
+		producerThread.start();
+		
+		//--- Stage 2 : entities builder
+		int iTablesCount = 0;
+		boolean completed = false ;
+		try {
+			TableMetadata dbTable = tablesQueue.take();
+			while ( dbTable != null ) {
+				if ( sinkStage != null && sinkStage.getFailure() != null ) {
+					break ; // the generation will fail : stop now (the producer is interrupted)
+				}
+				iTablesCount++;
+				logTable(dbTable);
+				EntityInDbModel entity = addEntity(repositoryModel, dbTable) ;
+				if ( entitiesQueue != null ) {
+					entitiesQueue.put(entity);
+				}
+				dbTable = tablesQueue.take(); // the previous table is no longer referenced
+			}
+			completed = ( dbTable == null ) ;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Repository generation interrupted", e);
+		} finally {
+			if ( ! completed ) {
+				producerThread.interrupt();
+			}
+			waitForStage(producerThread);
+			if ( sinkThread != null ) {
+				closeQueue(entitiesQueue);
+				waitForStage(sinkThread);
+			}
+		}
+		if ( sinkStage != null && sinkStage.getFailure() != null ) {
+			Throwable t = sinkStage.getFailure();
+			throw new TelosysToolsException("Model sink error : " + t.getMessage(), t);
+		}
+		logger.log("   --------------------------------------------------------------");
+		logger.log("   " + iTablesCount + " table(s) generated.");
+		logger.log("   --------------------------------------------------------------");
+		return repositoryModel ;
+	}
+	
+	private void closeQueue(PipelineQueue<?> queue) throws TelosysToolsException {
+		try {
+			queue.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Repository generation interrupted", e);
+		}
+	}
+	
+	private void waitForStage(Thread thread) throws TelosysToolsException {
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Repository generation interrupted", e);
+		}
+	}
 }
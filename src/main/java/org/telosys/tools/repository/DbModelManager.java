@@ -19,6 +19,10 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
 
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
@@ -28,14 +32,28 @@ import org.telosys.tools.commons.javatypes.JavaTypes;
 import org.telosys.tools.commons.javatypes.JavaTypesManager;
 import org.telosys.tools.db.model.DatabaseColumn;
 import org.telosys.tools.db.model.DatabaseForeignKey;
-import org.telosys.tools.db.model.DatabaseForeignKeyColumn;
+import org.telosys.tools.db.model.DatabaseModelManager;
 import org.telosys.tools.db.model.DatabaseTable;
+import org.telosys.tools.db.model.DatabaseTables;
 import org.telosys.tools.generic.model.DateType;
+import org.telosys.tools.repository.logging.LogLevel;
+import org.telosys.tools.repository.logging.RepositoryLogger;
+import org.telosys.tools.repository.metadata.ColumnMetadata;
+import org.telosys.tools.repository.metadata.ForeignKeyColumnMetadata;
+import org.telosys.tools.repository.metadata.ForeignKeyMetadata;
+import org.telosys.tools.repository.metadata.MetadataCache;
+import org.telosys.tools.repository.metadata.MetadataCacheKey;
+import org.telosys.tools.repository.metadata.MetadataConverter;
+import org.telosys.tools.repository.metadata.MetadataSnapshot;
+import org.telosys.tools.repository.metadata.SchemaVersion;
+import org.telosys.tools.repository.metadata.TableFingerprint;
+import org.telosys.tools.repository.metadata.TableMetadata;
 import org.telosys.tools.repository.model.AttributeInDbModel;
 import org.telosys.tools.repository.model.EntityInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyInDbModel;
 import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.CachingRepositoryRules;
 import org.telosys.tools.repository.rules.RepositoryRules;
 import org.telosys.tools.repository.rules.RepositoryRulesProvider;
 
@@ -51,13 +69,24 @@ public abstract class DbModelManager
 {
 	
 	private final DbConnectionManager   dbConnectionManager ;
-	private final RepositoryRules       repositoryRules ;
+	private final CachingRepositoryRules repositoryRules ;
+	
+	private MetadataCache               metadataCache = null ;
 	
 	protected final TelosysToolsLogger  logger ;
 	protected TelosysToolsLogger getLogger() {
 		return logger;
 	}
 
+	private RepositoryLogger            repositoryLogger ;
+	/**
+	 * Returns the level-gated logger to be used on the paths executed for each table and each column
+	 * @return
+	 */
+	protected RepositoryLogger getRepositoryLogger() {
+		return repositoryLogger;
+	}
+
 	/**
 	 * Constructor
 	 * @param dbConnectionManager
@@ -65,8 +94,32 @@ public abstract class DbModelManager
 	 */
 	protected DbModelManager(DbConnectionManager dbConnectionManager, TelosysToolsLogger logger) {
 		this.dbConnectionManager = dbConnectionManager ;
-		this.repositoryRules = RepositoryRulesProvider.getRepositoryRules() ;
+		//--- One cache per generator/updator (the attribute types depend on the current types configuration)
+		this.repositoryRules = new CachingRepositoryRules( RepositoryRulesProvider.getRepositoryRules() ) ;
 		this.logger = logger;
+		this.repositoryLogger = new RepositoryLogger(logger, LogLevel.DEBUG);
+	}
+
+	/**
+	 * Sets the log level (the default level is DEBUG) <br>
+	 * The 'NONE' level switches to a no-op mode where no log message is built
+	 * @param logLevel
+	 */
+	public void setLogLevel(LogLevel logLevel) {
+		if ( logLevel == null || logLevel == LogLevel.NONE ) {
+			this.repositoryLogger = RepositoryLogger.noOp();
+		}
+		else {
+			this.repositoryLogger = new RepositoryLogger(this.logger, logLevel);
+		}
+	}
+
+	/**
+	 * Returns the current log level
+	 * @return
+	 */
+	public LogLevel getLogLevel() {
+		return this.repositoryLogger.getLevel();
 	}
 
 	/**
@@ -96,6 +149,23 @@ public abstract class DbModelManager
 		}
 	}
 	
+	/**
+	 * Set the meta-data cache to be used before querying the database (no cache by default) <br>
+	 * The same cache can be shared by a generator and an updator
+	 * @param metadataCache the cache (or null to disable the cache)
+	 */
+	public void setMetadataCache(MetadataCache metadataCache) {
+		this.metadataCache = metadataCache;
+	}
+
+	/**
+	 * Returns the current meta-data cache (or null if none)
+	 * @return
+	 */
+	public MetadataCache getMetadataCache() {
+		return metadataCache;
+	}
+
 	/**
 	 * Returns the RepositoryRules initialized in the constructor 
 	 * @return
@@ -104,6 +174,14 @@ public abstract class DbModelManager
 		return this.repositoryRules ;
 	}
 	
+	/**
+	 * Returns the cache of the rules used by this generator/updator (hit/miss statistics)
+	 * @return
+	 */
+	public CachingRepositoryRules getRulesCache() {
+		return this.repositoryRules ;
+	}
+	
 	protected DatabaseMetaData getMetaData(Connection con) throws TelosysToolsException {
 		DatabaseMetaData dbmd = null;
 		try {
@@ -115,6 +193,208 @@ public abstract class DbModelManager
 		return dbmd;
 	}
 
+	/**
+	 * Loads the meta-data of all the tables defined by the given database configuration <br>
+	 * (from the meta-data cache if any) 
+	 * @param con
+	 * @param databaseConfig
+	 * @return
+	 * @throws SQLException
+	 */
+	protected List<TableMetadata> loadTablesMetadata(Connection con, DatabaseConfiguration databaseConfig) throws SQLException {
+		return loadTablesMetadata(con, databaseConfig, 
+				databaseConfig.getMetadataCatalog(), databaseConfig.getMetadataSchema(), null);
+	}
+	
+	/**
+	 * Loads the meta-data of all the tables defined by the given database configuration <br>
+	 * (from the meta-data cache if any, only if the cached tables have been loaded for the given schema version) 
+	 * @param con
+	 * @param databaseConfig
+	 * @param schemaVersion the schema version read before loading the tables (or null if unknown)
+	 * @return
+	 * @throws SQLException
+	 */
+	protected List<TableMetadata> loadTablesMetadata(Connection con, DatabaseConfiguration databaseConfig, 
+			String schemaVersion) throws SQLException {
+		return loadTablesMetadata(con, databaseConfig, 
+				databaseConfig.getMetadataCatalog(), databaseConfig.getMetadataSchema(), schemaVersion);
+	}
+	
+	/**
+	 * Loads the meta-data of all the tables defined by the given database configuration 
+	 * for the given catalog and schema (instead of the catalog and schema of the configuration) <br>
+	 * (from the meta-data cache if any) 
+	 * @param con
+	 * @param databaseConfig
+	 * @param catalog
+	 * @param schema
+	 * @return
+	 * @throws SQLException
+	 */
+	protected List<TableMetadata> loadTablesMetadata(Connection con, DatabaseConfiguration databaseConfig, 
+			String catalog, String schema) throws SQLException {
+		return loadTablesMetadata(con, databaseConfig, catalog, schema, null);
+	}
+	
+	private List<TableMetadata> loadTablesMetadata(Connection con, DatabaseConfiguration databaseConfig, 
+			String catalog, String schema, String schemaVersion) throws SQLException {
+		MetadataCache cache = this.metadataCache ;
+		if ( cache != null ) {
+			MetadataCacheKey key = MetadataCacheKey.build(databaseConfig, catalog, schema);
+			List<TableMetadata> tables = cache.get(key, schemaVersion);
+			if ( tables != null ) {
+				repositoryLogger.debug(" . meta-data found in cache ({} table(s))", tables.size());
+			}
+			else {
+				tables = loadTablesMetadataFromDatabase(con, databaseConfig, catalog, schema);
+				cache.put(key, tables, schemaVersion);
+			}
+			return tables ;
+		}
+		else {
+			return loadTablesMetadataFromDatabase(con, databaseConfig, catalog, schema);
+		}
+	}
+	
+	private List<TableMetadata> loadTablesMetadataFromDatabase(Connection con, DatabaseConfiguration databaseConfig, 
+			String catalog, String schema) throws SQLException {
+		String tableNamePattern = databaseConfig.getMetadataTableNamePattern() ;
+		if ( tableNamePattern == null ) {
+			tableNamePattern = "%";
+		}
+		return loadTablesMetadataFromDatabase(con, databaseConfig, catalog, schema, tableNamePattern);
+	}
+	
+	/**
+	 * Loads (from the database, without cache) the meta-data of the tables matching the given table name pattern 
+	 * (instead of the pattern defined in the database configuration) 
+	 * @param con
+	 * @param databaseConfig
+	 * @param tableNamePattern the table name pattern ( '%' and '_' wildcards )
+	 * @return
+	 * @throws SQLException
+	 */
+	protected List<TableMetadata> loadTablesMetadataByPattern(Connection con, DatabaseConfiguration databaseConfig, 
+			String tableNamePattern) throws SQLException {
+		return loadTablesMetadataFromDatabase(con, databaseConfig, 
+				databaseConfig.getMetadataCatalog(), databaseConfig.getMetadataSchema(), tableNamePattern);
+	}
+	
+	/**
+	 * Loads (from the database, without cache) the meta-data of the given tables <br>
+	 * The tables not found in the database are ignored 
+	 * @param con
+	 * @param databaseConfig
+	 * @param tableNames the exact names of the tables
+	 * @return
+	 * @throws SQLException
+	 */
+	protected List<TableMetadata> loadTablesMetadataByName(Connection con, DatabaseConfiguration databaseConfig, 
+			Collection<String> tableNames) throws SQLException {
+		DatabaseTableLoader loader = new DatabaseTableLoader(con, 
+				databaseConfig.getMetadataCatalog(), 
+				databaseConfig.getMetadataSchema(), 
+				null, // not used to load a single table
+				databaseConfig.getMetadataTableTypesArray(), 
+				databaseConfig.getMetadataTableNameInclude(), 
+				databaseConfig.getMetadataTableNameExclude() );
+		List<TableMetadata> tables = new LinkedList<>();
+		for ( String tableName : new LinkedHashSet<>(tableNames) ) {
+			TableMetadata table = loader.loadTable(new String[] { databaseConfig.getMetadataCatalog(), 
+					databaseConfig.getMetadataSchema(), tableName });
+			if ( table != null ) {
+				tables.add(table);
+			}
+		}
+		return tables ;
+	}
+	
+	private List<TableMetadata> loadTablesMetadataFromDatabase(Connection con, DatabaseConfiguration databaseConfig, 
+			String catalog, String schema, String tableNamePattern) throws SQLException {
+		DatabaseModelManager manager = new DatabaseModelManager();
+		DatabaseTables dbTables = manager.getDatabaseTables(con, 
+				catalog, 
+				schema, 
+				tableNamePattern, 
+				databaseConfig.getMetadataTableTypesArray(), 
+				databaseConfig.getMetadataTableNameInclude(), 
+				databaseConfig.getMetadataTableNameExclude());
+		return MetadataConverter.convertTables(dbTables);
+	}
+	
+	/**
+	 * Loads a snapshot of the database meta-data using the given connection 
+	 * @param con
+	 * @param databaseConfig
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	protected MetadataSnapshot loadMetadataSnapshot(Connection con, DatabaseConfiguration databaseConfig) throws TelosysToolsException {
+		DatabaseMetaData dbmd = getMetaData(con);
+		try {
+			MetadataSnapshot snapshot = new MetadataSnapshot(databaseConfig.getDatabaseId(), 
+					databaseConfig.getDatabaseName(), 
+					dbmd.getDatabaseProductName(),
+					databaseConfig.getMetadataCatalog(), 
+					databaseConfig.getMetadataSchema(), 
+					databaseConfig.getMetadataTableNamePattern(), 
+					databaseConfig.getMetadataTableTypesArray(), 
+					databaseConfig.getMetadataTableNameInclude(), 
+					databaseConfig.getMetadataTableNameExclude() );
+			snapshot.addTables( loadTablesMetadata(con, databaseConfig) );
+			return snapshot ;
+		} catch (SQLException e) {
+			throw new TelosysToolsException("SQLException", e);
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the database meta-data (all the tables defined by the given configuration) <br>
+	 * The snapshot can be saved (see MetadataSnapshotManager) and used later 
+	 * to generate or update a model without database connection
+	 * @param databaseConfiguration
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public MetadataSnapshot takeMetadataSnapshot(DatabaseConfiguration databaseConfiguration) throws TelosysToolsException {
+		Connection connection = getConnection(databaseConfiguration);
+		try {
+			return loadMetadataSnapshot(connection, databaseConfiguration);
+		} finally {
+			closeConnection(connection);
+		}
+	}
+
+	/**
+	 * Returns the current version of the database schema (see SchemaVersion) <br>
+	 * or null if the version cannot be determined for this database (never throws an exception) <br>
+	 * If the version query fails in a transaction, the transaction is rolled back 
+	 * (some databases refuse any other statement in an aborted transaction)
+	 * @param con
+	 * @param databaseConfig
+	 * @return
+	 */
+	protected String getSchemaVersion(Connection con, DatabaseConfiguration databaseConfig) {
+		try {
+			return SchemaVersion.compute(con, databaseConfig);
+		} catch (SQLException e) {
+			repositoryLogger.info(" . schema version not available ({})", e.getMessage());
+			rollback(con);
+			return null ;
+		}
+	}
+
+	private void rollback(Connection con) {
+		try {
+			if ( ! con.getAutoCommit() ) {
+				con.rollback();
+			}
+		} catch (SQLException e) {
+			repositoryLogger.error(" . cannot rollback ({})", e.getMessage());
+		}
+	}
+
 	/**
 	 * Creates an new entity from the given database table and adds it in the repository model
 	 * @param repositoryModel
@@ -123,8 +403,47 @@ public abstract class DbModelManager
 	 */
 	protected EntityInDbModel addEntity(RepositoryModel repositoryModel, DatabaseTable dbTable)
 	{
-		logger.log("addEntity()...");
+		return addEntity(repositoryModel, MetadataConverter.convertTable(dbTable));
+	}
+	
+	/**
+	 * Logs the table currently processed (only at DEBUG level)
+	 * @param dbTable
+	 */
+	protected void logTable(TableMetadata dbTable) {
+		if ( repositoryLogger.isDebugEnabled() ) {
+			repositoryLogger.debug("   --------------------------------------------------------------");
+			repositoryLogger.debug("   Table '{}' ( catalog = '{}', schema = '{}' )", 
+					dbTable.getTableName(), dbTable.getCatalogName(), dbTable.getSchemaName() );
+		}
+	}
+
+	/**
+	 * Creates an new entity from the given table meta-data and adds it in the repository model
+	 * @param repositoryModel
+	 * @param dbTable
+	 * @return the entity created
+	 */
+	protected EntityInDbModel addEntity(RepositoryModel repositoryModel, TableMetadata dbTable)
+	{
+		repositoryLogger.debug("addEntity()...");
+
+		EntityInDbModel entity = buildEntity(dbTable);
+		
+		//--- Add the entity in the repository
+		repositoryModel.storeEntity(entity);
 
+		repositoryLogger.debug("addEntity() : entity {} stored", dbTable.getTableName());
+		return entity ;
+	}
+	
+	/**
+	 * Creates an new entity from the given table meta-data (without storing it in a repository model)
+	 * @param dbTable
+	 * @return the entity created
+	 */
+	protected EntityInDbModel buildEntity(TableMetadata dbTable)
+	{
 		//--- Create Entity from the Database TABLE
 		EntityInDbModel entity = new EntityInDbModel();
 		entity.setDatabaseTable( dbTable.getTableName() );
@@ -137,6 +456,7 @@ public abstract class DbModelManager
 		entity.setDatabaseSchema( dbTable.getSchemaName() ); 
 		entity.setDatabaseType( dbTable.getTableType() ) ; 
 		entity.setDatabaseComment( dbTable.getComment() );
+		entity.setDatabaseFingerprint( TableFingerprint.compute(dbTable) );
 		
 		//--- Add the columns of this table
 		addColumns( entity, dbTable) ;
@@ -144,16 +464,12 @@ public abstract class DbModelManager
 		//--- Add the Foreign Keys of this table
 		addForeignKeyParts( entity, dbTable); 
 		
-		//--- Add the entity in the repository
-		repositoryModel.storeEntity(entity);
-
-		logger.log("addEntity() : entity " + dbTable.getTableName() + "stored");
 		return entity ;
 	}
 	
-	private void addColumns( EntityInDbModel entity, DatabaseTable dbTable) {
+	private void addColumns( EntityInDbModel entity, TableMetadata dbTable) {
 		//--- For each column of the table ...
-		for ( DatabaseColumn dbCol : dbTable.getColumns() ) {
+		for ( ColumnMetadata dbCol : dbTable.getColumns() ) {
 			//--- Create a new column from the database model
 			AttributeInDbModel column = buildColumn( entity, dbCol );
 			//--- Add the "column" element in the XML tree
@@ -194,6 +510,10 @@ public abstract class DbModelManager
     }
 		
 	protected AttributeInDbModel buildColumn(EntityInDbModel entity, DatabaseColumn dbCol ) {	
+		return buildColumn(entity, MetadataConverter.convertColumn(dbCol));
+	}
+	
+	protected AttributeInDbModel buildColumn(EntityInDbModel entity, ColumnMetadata dbCol ) {	
 		String dbColName     = dbCol.getColumnName(); //--- Column Name
 		String dbTypeName    = dbCol.getDbTypeName(); //--- Column Type (original database type)
 
@@ -224,10 +544,12 @@ public abstract class DbModelManager
 			bAttributeLongText = isAttributeLongText ( dbTypeName, iJdbcTypeCode );
 			
 		} catch (Throwable t) {
-			logger.log("   ERROR : " + t.toString() + " - " + t.getMessage());
+			repositoryLogger.error("   ERROR : {} - {}", t, t.getMessage());
 		}
-		logger.log("   - Column : " + dbColName + " ( " + iJdbcTypeCode + " : " + dbTypeName + " ) ---> "
+		if ( repositoryLogger.isDebugEnabled() ) {
+			repositoryLogger.debug("   - Column : " + dbColName + " ( " + iJdbcTypeCode + " : " + dbTypeName + " ) ---> "
 				+ sAttributeName + " ( " + sAttributeType + " ) ");
+		}
 
 		//--- Create a new "column" for this "table/entity"
 		AttributeInDbModel attributeInDbModel = new AttributeInDbModel(entity);
@@ -282,11 +604,16 @@ public abstract class DbModelManager
 	}
 	
 	protected ForeignKeyInDbModel buildForeignKey( DatabaseForeignKey dbFK ) 
+	{
+		return buildForeignKey( MetadataConverter.convertForeignKey(dbFK) );
+	}
+	
+	protected ForeignKeyInDbModel buildForeignKey( ForeignKeyMetadata dbFK ) 
 	{
 		ForeignKeyInDbModel foreignKey = new ForeignKeyInDbModel();
 		foreignKey.setName( dbFK.getForeignKeyName() ); // the name must be set before 'storeForeignKey'
 		
-		for ( DatabaseForeignKeyColumn dbFkCol : dbFK.getForeignKeyColumns() ) {
+		for ( ForeignKeyColumnMetadata dbFkCol : dbFK.getForeignKeyColumns() ) {
 			ForeignKeyColumnInDbModel foreignKeyColumn = new ForeignKeyColumnInDbModel();
 			
 			foreignKeyColumn.setSequence( dbFkCol.getFkSequence() );
@@ -306,9 +633,9 @@ public abstract class DbModelManager
 		return foreignKey ;
 	}
 	
-	private void addForeignKeyParts( EntityInDbModel entity, DatabaseTable dbTable) {
+	private void addForeignKeyParts( EntityInDbModel entity, TableMetadata dbTable) {
 		//--- For each foreign key of the table ...
-		for ( DatabaseForeignKey dbFK : dbTable.getForeignKeys() ) {
+		for ( ForeignKeyMetadata dbFK : dbTable.getForeignKeys() ) {
 			// Build the FK instance
 			ForeignKeyInDbModel fk = buildForeignKey( dbFK ) ;
 			// Attach the FK to the entity
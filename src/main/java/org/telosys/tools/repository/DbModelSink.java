@@ -0,0 +1,39 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.EntityInDbModel;
+
+/**
+ * Optional consumer of the entities produced by the pipelined model generation <br>
+ * Each entity is passed to the sink as soon as it has been built from its database table <br>
+ * (before the links generation, which requires the whole model) <br>
+ * The sink is called from a dedicated thread, always in the same thread for a given generation
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public interface DbModelSink {
+
+	/**
+	 * Called for each entity built from a database table
+	 * @param entity
+	 * @throws TelosysToolsException
+	 */
+	public void entityGenerated(EntityInDbModel entity) throws TelosysToolsException ;
+	
+}
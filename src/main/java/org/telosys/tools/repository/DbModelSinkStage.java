@@ -0,0 +1,77 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.EntityInDbModel;
+
+/**
+ * Last stage of the pipelined model generation : <br>
+ * passes each entity taken from the input queue to the model sink <br>
+ * If the sink fails, the error is kept and the remaining entities are just consumed 
+ * (in order to never block the previous stage)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+class DbModelSinkStage implements Runnable {
+
+	private final DbModelSink sink ;
+	
+	private final PipelineQueue<EntityInDbModel> input ;
+	
+	private volatile Throwable failure = null ;
+	
+	/**
+	 * Constructor
+	 * @param sink
+	 * @param input
+	 */
+	protected DbModelSinkStage(DbModelSink sink, PipelineQueue<EntityInDbModel> input) {
+		super();
+		this.sink = sink;
+		this.input = input;
+	}
+
+	/**
+	 * Returns the error thrown by the sink (or null if none)
+	 * @return
+	 */
+	protected Throwable getFailure() {
+		return failure;
+	}
+
+	@Override
+	public void run() {
+		try {
+			EntityInDbModel entity = input.take() ;
+			while ( entity != null ) {
+				if ( failure == null ) {
+					try {
+						sink.entityGenerated(entity);
+					} catch (Throwable t) {
+						failure = t ;
+					}
+				}
+				entity = input.take() ;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (TelosysToolsException e) {
+			failure = e ;
+		}
+	}
+}
@@ -15,11 +15,21 @@
  */
 package org.telosys.tools.repository;
 
+import java.io.ByteArrayOutputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 import org.telosys.tools.commons.ObjectUtil;
 import org.telosys.tools.commons.StrUtil;
@@ -27,16 +37,18 @@ import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
 import org.telosys.tools.commons.dbcfg.DbConnectionManager;
-import org.telosys.tools.db.model.DatabaseColumn;
-import org.telosys.tools.db.model.DatabaseForeignKey;
-import org.telosys.tools.db.model.DatabaseModelManager;
-import org.telosys.tools.db.model.DatabaseTable;
-import org.telosys.tools.db.model.DatabaseTables;
 import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ChangeLogListener;
 import org.telosys.tools.repository.changelog.ChangeOnColumn;
 import org.telosys.tools.repository.changelog.ChangeOnEntity;
 import org.telosys.tools.repository.changelog.ChangeOnForeignKey;
 import org.telosys.tools.repository.changelog.ChangeType;
+import org.telosys.tools.repository.changelog.ColumnState;
+import org.telosys.tools.repository.metadata.ColumnMetadata;
+import org.telosys.tools.repository.metadata.ForeignKeyMetadata;
+import org.telosys.tools.repository.metadata.MetadataSnapshot;
+import org.telosys.tools.repository.metadata.TableFingerprint;
+import org.telosys.tools.repository.metadata.TableMetadata;
 import org.telosys.tools.repository.model.AttributeInDbModel;
 import org.telosys.tools.repository.model.EntityInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyInDbModel;
@@ -53,7 +65,24 @@ import org.telosys.tools.repository.model.RepositoryModel;
 
 public class DbModelUpdator extends DbModelManager
 {
+	/**
+	 * Default number of threads used to update the tables (1 = serial update)
+	 */
+	public static final int DEFAULT_UPDATE_PARALLELISM = 1 ;
+
 	private final UpdateLogWriter updateLogger ;
+	
+	private int updateParallelism = DEFAULT_UPDATE_PARALLELISM ;
+	
+	private boolean dryRun = false ;
+	
+	private boolean schemaVersionCheck = true ;
+	
+	private UpdateJournal updateJournal = null ;
+	
+	private LinksMaintainer linksMaintainer = null ;
+	
+	private final List<ChangeLogListener> changeLogListeners = new LinkedList<>();
 
 	/**
 	 * Constructor
@@ -67,13 +96,120 @@ public class DbModelUpdator extends DbModelManager
 		this.updateLogger = updateLogger;
 	}
 
+	/**
+	 * Sets the number of threads used to compare and update the tables <br>
+	 * 1 (default) for a serial update, the links are always updated serially after the tables
+	 * @param updateParallelism 
+	 */
+	public void setUpdateParallelism(int updateParallelism) {
+		if ( updateParallelism < 1 ) {
+			throw new IllegalArgumentException("Invalid update parallelism " + updateParallelism);
+		}
+		this.updateParallelism = updateParallelism;
+	}
+
+	/**
+	 * Returns the number of threads used to compare and update the tables
+	 * @return
+	 */
+	public int getUpdateParallelism() {
+		return updateParallelism;
+	}
+
+	/**
+	 * Sets the dry-run mode <br>
+	 * In dry-run mode the update returns the full ChangeLog but the model is not modified : <br>
+	 * . an updated entity is a copy of the entity in the model (only the changed tables are copied) <br>
+	 * . a created entity is not stored in the model <br>
+	 * . a deleted entity is not removed from the model <br>
+	 * . the links are not updated <br>
+	 * The entities "before" in the ChangeLog are the entities of the model (they must not be modified)
+	 * @param dryRun
+	 */
+	public void setDryRun(boolean dryRun) {
+		this.dryRun = dryRun;
+	}
+
+	/**
+	 * Returns true if the dry-run mode is active 
+	 * @return
+	 */
+	public boolean isDryRun() {
+		return dryRun;
+	}
+
+	/**
+	 * Enables or disables the schema version check (enabled by default) <br>
+	 * If enabled, the update is skipped when the current version of the database schema 
+	 * is the version recorded in the model (see SchemaVersion) <br>
+	 * If the version cannot be determined for the database the full update is always done
+	 * @param schemaVersionCheck
+	 */
+	public void setSchemaVersionCheck(boolean schemaVersionCheck) {
+		this.schemaVersionCheck = schemaVersionCheck;
+	}
+
+	/**
+	 * Returns true if the schema version check is enabled
+	 * @return
+	 */
+	public boolean isSchemaVersionCheck() {
+		return schemaVersionCheck;
+	}
+
+	/**
+	 * Sets the journal where each update applied to the model is recorded (or null for no journal) <br>
+	 * Nothing is recorded in dry-run mode or if the update doesn't change the model
+	 * @param updateJournal
+	 */
+	public void setUpdateJournal(UpdateJournal updateJournal) {
+		this.updateJournal = updateJournal;
+	}
+
+	/**
+	 * Returns the update journal (or null if none)
+	 * @return
+	 */
+	public UpdateJournal getUpdateJournal() {
+		return updateJournal;
+	}
+
+	/**
+	 * Sets the links maintainer used to update the links of its model (or null to update the links from the ChangeLog) <br>
+	 * When the maintainer is attached to the model being updated, only the relations of the changed tables are regenerated
+	 * @param linksMaintainer
+	 */
+	public void setLinksMaintainer(LinksMaintainer linksMaintainer) {
+		this.linksMaintainer = linksMaintainer;
+	}
+
+	/**
+	 * Returns the links maintainer (or null if none)
+	 * @return
+	 */
+	public LinksMaintainer getLinksMaintainer() {
+		return linksMaintainer;
+	}
+
+	/**
+	 * Adds a listener notified of each change as soon as it is logged in the ChangeLog <br>
+	 * (in the database order, by the thread calling the update) 
+	 * @param listener
+	 */
+	public void addChangeLogListener(ChangeLogListener listener) {
+		if ( listener == null ) {
+			throw new IllegalArgumentException("ChangeLog listener is null");
+		}
+		changeLogListeners.add(listener);
+	}
+
 	/**
 	 * Adds a new attribute in the given entity
 	 * @param entity
 	 * @param dbColumn
 	 * @return
 	 */
-	private AttributeInDbModel addEntityAttribute(EntityInDbModel entity, DatabaseColumn dbColumn ) 	{
+	private AttributeInDbModel addEntityAttribute(EntityInDbModel entity, ColumnMetadata dbColumn ) 	{
 		AttributeInDbModel column = buildColumn( entity, dbColumn ) ;
 		
 		//--- Add the "column" to the "entity"
@@ -87,18 +223,18 @@ public class DbModelUpdator extends DbModelManager
 	 * @param dbColumn
 	 * @return the number of updates done
 	 */
-	private int updateEntityAttribute(AttributeInDbModel column, DatabaseColumn dbColumn) {
+	private int updateEntityAttribute(AttributeInDbModel column, ColumnMetadata dbColumn, UpdateLogWriter log) {
 		int r = 0;
 
 		//--- Update the column 
-		r = r + updateDbType(column,   dbColumn.getDbTypeName()); // Database native type		
-		r = r + updateTypeCode(column, dbColumn.getJdbcTypeCode()); // JDBC type code 
-		r = r + updateNotNull(column,  dbColumn.getNotNullAsString()); // Not null
-		r = r + updateSize(column,     dbColumn.getSize()); // Size
-		r = r + updateComment(column,  dbColumn.getComment()); // Database comment - v 2.1.1 #LCH 
+		r = r + updateDbType(column,   dbColumn.getDbTypeName(), log); // Database native type		
+		r = r + updateTypeCode(column, dbColumn.getJdbcTypeCode(), log); // JDBC type code 
+		r = r + updateNotNull(column,  dbColumn.getNotNullAsString(), log); // Not null
+		r = r + updateSize(column,     dbColumn.getSize(), log); // Size
+		r = r + updateComment(column,  dbColumn.getComment(), log); // Database comment - v 2.1.1 #LCH 
 
 		//--- If this column is in the Table Primary Key
-		r = r + updatePrimaryKey(column, dbColumn.isInPrimaryKey()); // Column in Primary Key
+		r = r + updatePrimaryKey(column, dbColumn.isInPrimaryKey(), log); // Column in Primary Key
 		
 		// other updates (in the future ?)
 		// . default value
@@ -108,46 +244,46 @@ public class DbModelUpdator extends DbModelManager
 		return r;
 	}
 
-	private int updateTypeCode( AttributeInDbModel column, int iDbTypeCode) {
+	private int updateTypeCode( AttributeInDbModel column, int iDbTypeCode, UpdateLogWriter log) {
 		int r = 0;
 		int i = column.getJdbcTypeCode();
 		if ( i != iDbTypeCode ) {
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : JDBC type code changed to " + iDbTypeCode);
+			log.println(" . Column '" + column.getDatabaseName() + "' : JDBC type code changed to " + iDbTypeCode);
 			column.setJdbcTypeCode(iDbTypeCode);
 			r++;
 		}
 		return r;
 	}
 
-	private int updateDbType( AttributeInDbModel column, String sDbType ) {
+	private int updateDbType( AttributeInDbModel column, String sDbType, UpdateLogWriter log ) {
 		int r = 0;
 		String s = column.getDatabaseType(); // v 3.0.0
 		if ( ! s.equals(sDbType) ) {
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Database type changed to " + sDbType);
+			log.println(" . Column '" + column.getDatabaseName() + "' : Database type changed to " + sDbType);
 			column.setDatabaseTypeName(sDbType);
 			r++;
 		}
 		return r;
 	}
 
-	private int updateNotNull( AttributeInDbModel column, String sNotNull) {
+	private int updateNotNull( AttributeInDbModel column, String sNotNull, UpdateLogWriter log) {
 		int r = 0;
 		String s = column.getDatabaseNotNullAsString();
 		if ( ! s.equals(sNotNull) ) {
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : NotNull changed to " + sNotNull);
+			log.println(" . Column '" + column.getDatabaseName() + "' : NotNull changed to " + sNotNull);
 			column.setDatabaseNotNull(sNotNull);
 			r++;
 		}
 		return r;
 	}
 
-	private int updateSize( AttributeInDbModel column, int iSize) {
+	private int updateSize( AttributeInDbModel column, int iSize, UpdateLogWriter log) {
 		int r = 0;
 		String fullSize = "" + iSize ;
 //		if ( column.getDatabaseSize() != iSize ) 
 		if ( ! fullSize.equals(column.getDatabaseSize()) ) 
 		{
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Size changed to " + iSize);
+			log.println(" . Column '" + column.getDatabaseName() + "' : Size changed to " + iSize);
 //			column.setDatabaseSize(iSize);
 			column.setDatabaseSize(fullSize);
 			r++;
@@ -155,22 +291,22 @@ public class DbModelUpdator extends DbModelManager
 		return r;
 	}
 
-	private int updateComment( AttributeInDbModel column, String sComment) {
+	private int updateComment( AttributeInDbModel column, String sComment, UpdateLogWriter log) {
 		int r = 0;
 		if ( ! column.getDatabaseComment().equals(sComment) )
 		{
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Comment changed to " + sComment);
+			log.println(" . Column '" + column.getDatabaseName() + "' : Comment changed to " + sComment);
 			column.setDatabaseComment(sComment);
 			r++;
 		}
 		return r;
 	}
 
-	private int updatePrimaryKey( AttributeInDbModel column, boolean isPrimaryKey) {
+	private int updatePrimaryKey( AttributeInDbModel column, boolean isPrimaryKey, UpdateLogWriter log) {
 		int r = 0;
 		if ( column.isKeyElement() != isPrimaryKey ) // v 3.0.0
 		{
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Primary Key flag changed to " + isPrimaryKey);
+			log.println(" . Column '" + column.getDatabaseName() + "' : Primary Key flag changed to " + isPrimaryKey);
 			column.setKeyElement(isPrimaryKey);
 			r++;
 		}
@@ -199,19 +335,260 @@ public class DbModelUpdator extends DbModelManager
 //		LinksManager linksManager = new LinksManager(getRepositoryRules(), getLogger() );
 //		linksManager.updateLinks(repositoryModel, changeLog);
 		
+		//--- STEP 0 : Checks the database schema version (before loading the meta-data)
+		String schemaVersion = schemaVersionCheck ? getSchemaVersion(connection, databaseConfiguration) : null ;
+		if ( isSchemaUnchanged(repositoryModel, schemaVersion) ) {
+			closeConnection(connection);
+			getRepositoryLogger().info(" . database schema unchanged (version {})", schemaVersion);
+			updateLogger.println("Update date : " + new Date());
+			updateLogger.println(" (=) database schema unchanged : no table to update");
+			updateLogger.close();
+			return new ChangeLog();
+		}
+		
 		//--- STEP 1 : Updates the repository from the current database meta-data
-		ChangeLog changeLog = updateRepositoryStep1( databaseConfiguration, repositoryModel, connection );
+		ChangeLog changeLog = updateRepositoryStep1( databaseConfiguration, repositoryModel, connection, schemaVersion );
 		closeConnection(connection);
 		
+		UpdateJournalRun journalRun = startJournalRun(repositoryModel, changeLog);
+		updateLinks(repositoryModel, changeLog);
+		
+		if ( ! dryRun ) {
+			//--- Version read before the meta-data (a change during the update will be detected by the next update)
+			repositoryModel.setDatabaseSchemaVersion(schemaVersion);
+		}
+		recordJournalRun(journalRun, repositoryModel, changeLog);
+		return changeLog ;
+	}
+
+	/**
+	 * Returns true if the given schema version is the version recorded in the model <br>
+	 * and if all the entities have a fingerprint (an entity without fingerprint must be compared with its table) <br>
+	 * NB : while the version is unchanged, the entities removed from the model by the user are not added again 
+	 * @param repositoryModel
+	 * @param schemaVersion the current version (or null if unknown)
+	 * @return
+	 */
+	private boolean isSchemaUnchanged(RepositoryModel repositoryModel, String schemaVersion) {
+		if ( schemaVersion == null || ! schemaVersion.equals(repositoryModel.getDatabaseSchemaVersion()) ) {
+			return false ;
+		}
+		for ( EntityInDbModel entity : repositoryModel.getEntitiesArraySortedByTableName() ) {
+			if ( entity.getDatabaseFingerprint().length() == 0 ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	/**
+	 * Updates the given "RepositoryModel" from the given meta-data snapshot (without database connection) <br>
+	 * 
+	 * @param snapshot the meta-data snapshot to be used
+	 * @param repositoryModel the RepositoryModel to be updated
+	 * @return the ChangeLog holding all the changes
+	 * @throws TelosysToolsException if the snapshot has not been taken from the database of the model
+	 */
+	public ChangeLog updateRepository( MetadataSnapshot snapshot, RepositoryModel repositoryModel ) throws TelosysToolsException 
+	{
+		if ( snapshot.getDatabaseId() != repositoryModel.getDatabaseIdAsInt() ) {
+			throw new TelosysToolsException("Meta-data snapshot of database " + snapshot.getDatabaseId() 
+					+ " cannot update the model of database " + repositoryModel.getDatabaseIdAsInt() );
+		}
+		//--- STEP 1 : Updates the repository from the meta-data snapshot
+		ChangeLog changeLog = null ;
+		try {
+			logger.log(" . update repository from meta-data snapshot");
+			updateLogger.println("Update date : " + new Date());
+			updateLogger.println("Meta-data snapshot date : " + snapshot.getSnapshotDate());
+			changeLog = updateRepositoryStep1FromTables(repositoryModel, snapshot.getTables());
+		} catch (Exception t) {
+			throw new TelosysToolsException("Exception", t);
+		}
+		finally {
+			updateLogger.close();
+		}
+		
+		UpdateJournalRun journalRun = startJournalRun(repositoryModel, changeLog);
+		updateLinks(repositoryModel, changeLog);
+		
+		if ( ! dryRun ) {
+			//--- The snapshot can be older or from another database : the next database update must not be skipped
+			repositoryModel.setDatabaseSchemaVersion("");
+		}
+		recordJournalRun(journalRun, repositoryModel, changeLog);
+		
+		return changeLog ;
+	}
+	
+	/**
+	 * Refreshes only the given tables of the "RepositoryModel" from the database <br>
+	 * The other tables are not loaded and their entities are never considered as deleted <br>
+	 * A given table that no longer exists in the database is removed from the model 
+	 * 
+	 * @param databaseConfiguration the DatabaseConfiguration to be used
+	 * @param repositoryModel the RepositoryModel to be updated
+	 * @param tableNames the exact names of the tables to be refreshed
+	 * @return the ChangeLog holding the changes
+	 * @throws TelosysToolsException
+	 */
+	public ChangeLog refreshTables( DatabaseConfiguration databaseConfiguration, RepositoryModel repositoryModel, 
+			List<String> tableNames ) throws TelosysToolsException 
+	{
+		return refreshTables(databaseConfiguration, repositoryModel, tableNames, null);
+	}
+	
+	/**
+	 * Refreshes only the tables matching the given pattern <br>
+	 * The other tables are not loaded and their entities are never considered as deleted <br>
+	 * An entity matching the pattern without table in the database is removed from the model 
+	 * 
+	 * @param databaseConfiguration the DatabaseConfiguration to be used
+	 * @param repositoryModel the RepositoryModel to be updated
+	 * @param tableNamePattern the table name pattern ( '%' and '_' wildcards as in the meta-data configuration )
+	 * @return the ChangeLog holding the changes
+	 * @throws TelosysToolsException
+	 */
+	public ChangeLog refreshTables( DatabaseConfiguration databaseConfiguration, RepositoryModel repositoryModel, 
+			String tableNamePattern ) throws TelosysToolsException 
+	{
+		return refreshTables(databaseConfiguration, repositoryModel, null, tableNamePattern);
+	}
+	
+	private ChangeLog refreshTables( DatabaseConfiguration databaseConfiguration, RepositoryModel repositoryModel, 
+			List<String> tableNames, String tableNamePattern ) throws TelosysToolsException 
+	{
+		ChangeLog changeLog = null ;
+		Connection connection = getConnection(databaseConfiguration);
+		try {
+			getRepositoryLogger().info(" . refresh tables {}", ( tableNames != null ? tableNames.toString() : "'" + tableNamePattern + "'" ) );
+			updateLogger.println("Update date : " + new Date());
+			List<TableMetadata> dbTables ;
+			Collection<String> scope ;
+			if ( tableNames != null ) {
+				dbTables = loadTablesMetadataByName(connection, databaseConfiguration, tableNames);
+				scope = tableNames ;
+			}
+			else {
+				dbTables = loadTablesMetadataByPattern(connection, databaseConfiguration, tableNamePattern);
+				scope = getTablesMatchingPattern(repositoryModel, tableNamePattern);
+			}
+			changeLog = updateRepositoryStep1FromTables(repositoryModel, dbTables, 
+					new TablesReconciliation(repositoryModel, dbTables, scope));
+		} catch (SQLException e) {
+			throw new TelosysToolsException("SQLException", e);
+		}
+		finally {
+			updateLogger.close();
+			closeConnection(connection);
+		}
+		
+		//--- The cached meta-data of this database are no longer valid 
+		if ( getMetadataCache() != null && ! dryRun ) {
+			getMetadataCache().invalidate(databaseConfiguration.getDatabaseId());
+		}
+		
+		UpdateJournalRun journalRun = startJournalRun(repositoryModel, changeLog);
+		updateLinks(repositoryModel, changeLog, true);
+		recordJournalRun(journalRun, repositoryModel, changeLog);
+		
+		return changeLog ;
+	}
+	
+	/**
+	 * Returns the names of the model tables matching the given meta-data pattern ( '%' and '_' wildcards )
+	 * @param repositoryModel
+	 * @param tableNamePattern
+	 * @return
+	 */
+	private List<String> getTablesMatchingPattern(RepositoryModel repositoryModel, String tableNamePattern) {
+		StringBuilder regex = new StringBuilder();
+		for ( char c : tableNamePattern.toCharArray() ) {
+			if ( c == '%' ) {
+				regex.append(".*");
+			}
+			else if ( c == '_' ) {
+				regex.append('.');
+			}
+			else {
+				regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		Pattern pattern = Pattern.compile(regex.toString());
+		List<String> list = new LinkedList<>();
+		for ( String tableName : repositoryModel.getEntitiesNames() ) {
+			if ( pattern.matcher(tableName).matches() ) {
+				list.add(tableName);
+			}
+		}
+		return list ;
+	}
+	
+	/**
+	 * Starts a journal run if a journal is defined (must be called before the links update)
+	 * @param repositoryModel
+	 * @param changeLog
+	 * @return the run started (or null if none)
+	 */
+	private UpdateJournalRun startJournalRun(RepositoryModel repositoryModel, ChangeLog changeLog) {
+		if ( updateJournal != null && ! dryRun ) {
+			return new UpdateJournalRun(repositoryModel, changeLog);
+		}
+		return null ;
+	}
+	
+	/**
+	 * Completes the given run (if any) and records it in the journal 
+	 * @param journalRun
+	 * @param repositoryModel
+	 * @param changeLog
+	 * @throws TelosysToolsException
+	 */
+	private void recordJournalRun(UpdateJournalRun journalRun, RepositoryModel repositoryModel, ChangeLog changeLog) throws TelosysToolsException {
+		if ( journalRun != null ) {
+			journalRun.complete(repositoryModel, changeLog);
+			if ( ! journalRun.isEmpty() ) {
+				updateJournal.record(journalRun);
+			}
+		}
+	}
+
+	private void updateLinks(RepositoryModel repositoryModel, ChangeLog changeLog ) throws TelosysToolsException 
+	{
+		updateLinks(repositoryModel, changeLog, false);
+	}
+	
+	private void updateLinks(RepositoryModel repositoryModel, ChangeLog changeLog, boolean changedEntitiesOnly ) throws TelosysToolsException 
+	{
+		if ( dryRun ) {
+			//--- No change in the model => links unchanged 
+			return ;
+		}
+		//--- Foreign keys changed in the entities updated in place 
+		repositoryModel.invalidateForeignKeyGraph();
+		
 		//--- STEP 1.1 : set FK flags on attributes - MUST BE CALLED BEFORE THE LINKS GENERATION
 		ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager() ;
-		fkTypeManager.setAttributesForeignKeyInformation(repositoryModel);
+		if ( changedEntitiesOnly ) {
+			for ( ChangeOnEntity change : changeLog.getChanges() ) {
+				if ( change.getChangeType() != ChangeType.DELETED ) {
+					fkTypeManager.setAttributesForeignKeyInformation(repositoryModel, change.getEntityAfter());
+				}
+			}
+		}
+		else {
+			fkTypeManager.setAttributesForeignKeyInformation(repositoryModel);
+		}
 
 		//--- STEP 2 : Updates the links between entities ( since v 2.1.1 )
-		LinksManager linksManager = new LinksManager(getRepositoryRules() );
-		linksManager.updateLinks(repositoryModel, changeLog);
-		
-		return changeLog ;
+		if ( linksMaintainer != null && linksMaintainer.getModel() == repositoryModel && linksMaintainer.isAttached() ) {
+			//--- Only the relations of the tables changed 
+			linksMaintainer.repairLinks();
+		}
+		else {
+			LinksManager linksManager = new LinksManager(getRepositoryRules() );
+			linksManager.updateLinks(repositoryModel, changeLog);
+		}
 	}
 
 	/**
@@ -222,21 +599,15 @@ public class DbModelUpdator extends DbModelManager
 	 * @param databaseConfiguration
 	 * @param repositoryModel
 	 * @param connection
+	 * @param schemaVersion the schema version read before loading the tables (or null if unknown)
 	 * @return
 	 * @throws TelosysToolsException
 	 */
 	private ChangeLog updateRepositoryStep1( DatabaseConfiguration databaseConfiguration, RepositoryModel repositoryModel, 
-			Connection connection ) throws TelosysToolsException 
+			Connection connection, String schemaVersion ) throws TelosysToolsException 
 	{
 		ChangeLog changeLog = null ;
 		
-		String catalog           = databaseConfiguration.getMetadataCatalog();
-		String schema            = databaseConfiguration.getMetadataSchema(); 
-		String tableNamePattern  = databaseConfiguration.getMetadataTableNamePattern();
-		String tableTypes[]      = databaseConfiguration.getMetadataTableTypesArray();
-		String tableNameInclude  = databaseConfiguration.getMetadataTableNameInclude();
-		String tableNameExclude  = databaseConfiguration.getMetadataTableNameExclude();
-		
 		Date now = new Date();
 		try {
 			logger.log(" . get meta-data ");
@@ -244,10 +615,8 @@ public class DbModelUpdator extends DbModelManager
 				logger.log(" . update repository from database tables");
 				updateLogger.println("Update date : " + now);
 				
-				//--- Load the Database Model
-				DatabaseModelManager manager = new DatabaseModelManager();
-				DatabaseTables dbTables = manager.getDatabaseTables(connection, catalog, schema, 
-						tableNamePattern, tableTypes, tableNameInclude, tableNameExclude);
+				//--- Load the Database Model (not from the cache if loaded for another schema version)
+				List<TableMetadata> dbTables = loadTablesMetadata(connection, databaseConfiguration, schemaVersion);
 
 				changeLog = updateRepositoryStep1FromTables(repositoryModel, dbTables);
 
@@ -263,88 +632,218 @@ public class DbModelUpdator extends DbModelManager
 		return changeLog ;
 	}
 	
-	private ChangeLog updateRepositoryStep1FromTables(RepositoryModel repositoryModel, DatabaseTables dbTables ) {
+	private ChangeLog updateRepositoryStep1FromTables(RepositoryModel repositoryModel, List<TableMetadata> dbTables ) throws TelosysToolsException {
+		//--- Tables to be created, updated and deleted (computed before any change in the model)
+		return updateRepositoryStep1FromTables(repositoryModel, dbTables, new TablesReconciliation(repositoryModel, dbTables));
+	}
+	
+	private ChangeLog updateRepositoryStep1FromTables(RepositoryModel repositoryModel, List<TableMetadata> dbTables, 
+			TablesReconciliation reconciliation ) throws TelosysToolsException {
 		ChangeLog changeLog = new ChangeLog() ;
+		for ( ChangeLogListener listener : changeLogListeners ) {
+			changeLog.addListener(listener);
+		}
 		
 		int changesCount = 0 ;
 		
-		LinkedList<String> databaseTables = new LinkedList<>();
+		if ( dryRun ) {
+			updateLogger.println("Dry run : the repository model is not modified");
+		}
+		getRepositoryLogger().debug(" . reconciliation : {} table(s) to create, {} to update, {} to delete", 
+				reconciliation.getCreatedTables().size(), reconciliation.getUpdatedTables().size(), 
+				reconciliation.getDeletedTables().size() );
 
 		//-----------------------------------------------------------------------
 		// STEP 1 : Update existing tables and Create new ones
 		//-----------------------------------------------------------------------
-		//--- For each table in the database ...
-		for ( DatabaseTable dbTable : dbTables.getTables() ) {
-			
-			logger.log("   --------------------------------------------------------------");
-			logger.log("   Table '" + dbTable.getTableName() 
-					+ "' ( catalog = '" + dbTable.getCatalogName() 
-					+ "', schema = '"+ dbTable.getSchemaName() + "' )");
-
-			String sTableName = dbTable.getTableName();
-
-			//--- Store the table name in the list used to delete entities
-			databaseTables.add(sTableName);
-
-			updateLogger.println(" ");
-			EntityInDbModel entity = repositoryModel.getEntityByTableName(sTableName);
-			
-			if ( entity != null ) {
-				//------------------------------------------------------------------
-				//   ENTITY FOUND IN MODEL => UPDATE ENTITY
-				//------------------------------------------------------------------
-				updateLogger.println(" Table '" + sTableName + "' found in repository");
-				ChangeOnEntity changeOnEntity = updateEntity(repositoryModel, dbTable, entity);
-				if ( changeOnEntity.getNumberOfChanges() > 0 ) {
-					updateLogger.println(" (*) table '" + sTableName + "' updated : " + changeOnEntity.getNumberOfChanges() + " change(s)");
-					changeLog.log(changeOnEntity);
-				} else {
-					updateLogger.println(" (=) table '" + sTableName + "' unchanged");
+		//--- The same table name can be found twice (created by the first one, updated by the second one) => serial
+		if ( updateParallelism > 1 && dbTables.size() > 1 && ! reconciliation.hasDuplicatedTables() ) {
+			changesCount = updateTablesInParallel(repositoryModel, dbTables, changeLog);
+		}
+		else {
+			//--- For each table in the database ...
+			for ( TableMetadata dbTable : dbTables ) {
+				ChangeOnEntity changeOnEntity = updateTable(repositoryModel, dbTable, updateLogger);
+				if ( changeOnEntity != null ) {
+					storeCreatedEntity(repositoryModel, changeOnEntity);
+					changeLog.log(changeOnEntity); // notifies the listeners (if any)
+					changesCount = changesCount + changeOnEntity.getNumberOfChanges() ;
 				}
-				changesCount = changesCount + changeOnEntity.getNumberOfChanges() ;
-			} else {
-				//------------------------------------------------------------------
-				//   ENTITY NOT FOUND IN MODEL => CREATE ENTITY  (NEW)
-				//------------------------------------------------------------------
-				updateLogger.println(" Table '" + sTableName + "' not found in repository");
-				EntityInDbModel entityCreated = addEntity(repositoryModel, dbTable) ;
-				updateLogger.println(" (+) table '" + sTableName + "' added");
-				changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, entityCreated));
-				changesCount++;
 			}
 		}
 
 		//-----------------------------------------------------------------------
 		// STEP 2 : Remove tables that no longer exist in the database
 		//-----------------------------------------------------------------------
-		//--- For each table in the repository ...
-		String[] tableNames = repositoryModel.getEntitiesNames();
-		for (int i = 0; i < tableNames.length; i++) {
-			String sTableName = tableNames[i];
-			if (checkTableExistsInDatabase(sTableName, databaseTables) != true) {
-				//--- This table in the repository no longer exists in the database
-				updateLogger.println(" ");
-				updateLogger.println(" Table '" + sTableName + "' no longer exists in database");
-				//--- => Remove it
-				EntityInDbModel deletedEntity = repositoryModel.removeEntity(sTableName);
-				updateLogger.println(" (-) table '" + sTableName + "' removed");
-				changeLog.log(new ChangeOnEntity(ChangeType.DELETED, deletedEntity, null));
-				changesCount++;
-			}
+		//--- For each table in the repository that no longer exists in the database ...
+		for ( String sTableName : reconciliation.getDeletedTables() ) {
+			updateLogger.println(" ");
+			updateLogger.println(" Table '" + sTableName + "' no longer exists in database");
+			//--- => Remove it (or keep it in the model in dry-run mode)
+			EntityInDbModel deletedEntity = dryRun ? repositoryModel.getEntityByTableName(sTableName) 
+					: repositoryModel.removeEntity(sTableName);
+			updateLogger.println(" (-) table '" + sTableName + "' removed");
+			changeLog.log(new ChangeOnEntity(ChangeType.DELETED, deletedEntity, null));
+			changesCount++;
 		}
 		return changeLog ;
 	}
 	
-	private ChangeOnEntity updateEntity( RepositoryModel repositoryModel, DatabaseTable dbTable, EntityInDbModel entity) {
+	/**
+	 * Updates the entity of the given table or builds a new entity if the table is not in the model <br>
+	 * A new entity is not stored in the model (see storeCreatedEntity) <br>
+	 * @param repositoryModel the model (not modified, only the existing entity is updated)
+	 * @param dbTable the database table
+	 * @param log the log writer to be used for this table
+	 * @return the change on the entity or null if the entity is unchanged
+	 */
+	private ChangeOnEntity updateTable(RepositoryModel repositoryModel, TableMetadata dbTable, UpdateLogWriter log) {
+		
+		logTable(dbTable);
+
+		String sTableName = dbTable.getTableName();
+
+		log.println(" ");
+		EntityInDbModel entity = repositoryModel.getEntityByTableName(sTableName);
+		
+		if ( entity != null ) {
+			//------------------------------------------------------------------
+			//   ENTITY FOUND IN MODEL => UPDATE ENTITY
+			//------------------------------------------------------------------
+			log.println(" Table '" + sTableName + "' found in repository");
+			String fingerprint = TableFingerprint.compute(dbTable);
+			if ( fingerprint.equals(entity.getDatabaseFingerprint()) ) {
+				//--- Same meta-data as the last generation/update => no comparison 
+				log.println(" (=) table '" + sTableName + "' unchanged (same fingerprint)");
+				return null ;
+			}
+			ChangeOnEntity changeOnEntity ;
+			if ( dryRun ) {
+				//--- Copy on write : the entity in the model is kept unchanged, the update is done on a copy
+				EntityInDbModel entityCopy = ObjectUtil.deepCopy(entity);
+				changeOnEntity = updateEntity(dbTable, entity, entityCopy, log);
+				entityCopy.setDatabaseFingerprint(fingerprint);
+			}
+			else {
+				changeOnEntity = updateEntity(dbTable, null, entity, log);
+				entity.setDatabaseFingerprint(fingerprint);
+			}
+			if ( changeOnEntity.getNumberOfChanges() > 0 ) {
+				log.println(" (*) table '" + sTableName + "' updated : " + changeOnEntity.getNumberOfChanges() + " change(s)");
+				return changeOnEntity ;
+			} else {
+				log.println(" (=) table '" + sTableName + "' unchanged");
+				return null ;
+			}
+		} else {
+			//------------------------------------------------------------------
+			//   ENTITY NOT FOUND IN MODEL => CREATE ENTITY  (NEW)
+			//------------------------------------------------------------------
+			log.println(" Table '" + sTableName + "' not found in repository");
+			EntityInDbModel entityCreated = buildEntity(dbTable) ;
+			log.println(" (+) table '" + sTableName + "' added");
+			return new ChangeOnEntity(ChangeType.CREATED, null, entityCreated);
+		}
+	}
+	
+	private void storeCreatedEntity(RepositoryModel repositoryModel, ChangeOnEntity changeOnEntity) {
+		if ( changeOnEntity.getChangeType() == ChangeType.CREATED && ! dryRun ) {
+			repositoryModel.storeEntity(changeOnEntity.getEntityAfter());
+		}
+	}
+	
+	/**
+	 * Updates the tables in parallel (one task per table) <br>
+	 * Each task writes in its own log buffer and keeps its change in the slot of its table, <br>
+	 * then the new entities, the changes and the logs are merged by the calling thread in the database order <br>
+	 * ( the same order as a serial update )
+	 * @param repositoryModel
+	 * @param dbTables the database tables (without duplicated table name)
+	 * @param changeLog the ChangeLog receiving the changes in the database order
+	 * @return the number of changes
+	 * @throws TelosysToolsException
+	 */
+	private int updateTablesInParallel(final RepositoryModel repositoryModel, List<TableMetadata> dbTables, 
+			ChangeLog changeLog) throws TelosysToolsException {
+		final TableMetadata[] tables = dbTables.toArray(new TableMetadata[dbTables.size()]);
+		final ChangeOnEntity[] changes = new ChangeOnEntity[tables.length];
+		final ByteArrayOutputStream[] logs = new ByteArrayOutputStream[tables.length];
+		
+		int poolSize = Math.min(updateParallelism, tables.length);
+		getRepositoryLogger().debug(" . parallel update : {} table(s), {} thread(s)", tables.length, poolSize);
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "telosys-model-update-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			List<Future<?>> futures = new ArrayList<>(tables.length);
+			for ( int i = 0 ; i < tables.length ; i++ ) {
+				final int slot = i ;
+				futures.add( executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+						logs[slot] = buffer ;
+						changes[slot] = updateTable(repositoryModel, tables[slot], new UpdateLogWriter(buffer));
+					}
+				}) );
+			}
+			for ( int i = 0 ; i < tables.length ; i++ ) {
+				try {
+					futures.get(i).get();
+				} catch (ExecutionException e) {
+					throw new TelosysToolsException("Cannot update table '" + tables[i].getTableName() + "'", e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new TelosysToolsException("Update interrupted", e);
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
 		
-		EntityInDbModel entityBefore = ObjectUtil.deepCopy(entity);
-		ChangeOnEntity changeOnEntity = new ChangeOnEntity(ChangeType.UPDATED, entityBefore, entity);
+		//--- Merge in the database order 
+		int changesCount = 0 ;
+		for ( int i = 0 ; i < tables.length ; i++ ) {
+			String tableLog = logs[i].toString();
+			if ( tableLog.endsWith("\n") ) {
+				tableLog = tableLog.substring(0, tableLog.length() - 1);
+			}
+			updateLogger.println(tableLog); // one write (and flush) per table
+			if ( changes[i] != null ) {
+				storeCreatedEntity(repositoryModel, changes[i]);
+				changeLog.log(changes[i]); // notifies the listeners (if any)
+				changesCount = changesCount + changes[i].getNumberOfChanges() ;
+			}
+		}
+		return changesCount ;
+	}
+	
+	/**
+	 * Updates the given entity from the database table 
+	 * @param dbTable the database table
+	 * @param entityBefore the entity state before the update (not modified) or null if rebuilt on demand
+	 * @param entity the entity to be updated
+	 * @param log
+	 * @return
+	 */
+	private ChangeOnEntity updateEntity( TableMetadata dbTable, EntityInDbModel entityBefore, EntityInDbModel entity, UpdateLogWriter log) {
+		
+		ChangeOnEntity changeOnEntity = entityBefore != null ? 
+				new ChangeOnEntity(ChangeType.UPDATED, entityBefore, entity) 
+				: new ChangeOnEntity(entity) ; // 'before state' rebuilt from the changes if necessary
 		//--------------------------------------------------------------------------------
 		// 0) check if table information has changed
 		//--------------------------------------------------------------------------------
 		//--- Set or update TABLE TYPE ( "TABLE", "VIEW", ... )
-		checkIfTableTypeHasChanged(dbTable, entity, changeOnEntity);
-		checkIfTableCommentHasChanged(dbTable, entity, changeOnEntity);
+		checkIfTableTypeHasChanged(dbTable, entity, changeOnEntity, log);
+		checkIfTableCommentHasChanged(dbTable, entity, changeOnEntity, log);
 		
 		//--------------------------------------------------------------------------------
 		// 1) remove the columns that doesn't exist in the Database 
@@ -357,7 +856,7 @@ public class DbModelUpdator extends DbModelManager
 				//--- This column doesn't exist in the DB => remove it from the model
 				entity.removeAttribute(column);
 				changeOnEntity.addChangeOnColumn( new ChangeOnColumn(ChangeType.DELETED, column, null) );
-				updateLogger.println(" . Column '" + sColumnName + "' deleted");
+				log.println(" . Column '" + sColumnName + "' deleted");
 			}
 		}
 
@@ -372,7 +871,7 @@ public class DbModelUpdator extends DbModelManager
 				//--- This FK doesn't exist in the DB => remove it from the model
 				entity.removeForeignKey(fk);
 				changeOnEntity.addChangeOnForeignKey( new ChangeOnForeignKey(ChangeType.DELETED, fk, null) );
-				updateLogger.println(" . Foreign key '" + sFkName + "' deleted");
+				log.println(" . Foreign key '" + sFkName + "' deleted");
 			}
 		}
 
@@ -380,23 +879,24 @@ public class DbModelUpdator extends DbModelManager
 		// 3) UPDATE existing COLUMNS if necessary and ADD new ones
 		//--------------------------------------------------------------------------------
 		//--- For each column of the table in the DataBase ...
-		for ( DatabaseColumn dbColumn : dbTable.getColumns() ) {
+		for ( ColumnMetadata dbColumn : dbTable.getColumns() ) {
 			String sColumnName = dbColumn.getColumnName();
 			
 			//--- Search this column in the REPOSITORY
 			AttributeInDbModel column = entity.getAttributeByColumnName(sColumnName);
 			if ( column != null ) {
 				//--- The column exists => update it
-				AttributeInDbModel columnBefore = ObjectUtil.deepCopy(column);
-				if ( updateEntityAttribute(column, dbColumn) > 0 ) {
-					changeOnEntity.addChangeOnColumn( new ChangeOnColumn(ChangeType.UPDATED, columnBefore, column ) );
-					updateLogger.println(" . Column '" + sColumnName + "' updated");
+				ColumnState columnBefore = new ColumnState(column); // database and FK fields only (no copy of the column)
+				if ( updateEntityAttribute(column, dbColumn, log) > 0 ) {
+					entity.attributeChanged(column); // notifies the model listeners (if any)
+					changeOnEntity.addChangeOnColumn( new ChangeOnColumn(columnBefore, column ) );
+					log.println(" . Column '" + sColumnName + "' updated");
 				}
 			} else {
 				//--- The column doesn't exist => add it
 				column = addEntityAttribute(entity, dbColumn);
 				changeOnEntity.addChangeOnColumn( new ChangeOnColumn(ChangeType.CREATED, null, column ) );
-				updateLogger.println(" . Column '" + sColumnName + "' added");
+				log.println(" . Column '" + sColumnName + "' added");
 			}
 			//--- If this column is a member of a Foreign Key
 			//setFkAttribute(sColumnName, column, listFK);
@@ -406,8 +906,8 @@ public class DbModelUpdator extends DbModelManager
 		// 4) UPDATE existing FOREIGN KEYS if necessary and ADD new ones
 		//--------------------------------------------------------------------------------
 		//--- For each FK of the table in the DataBase ...( v 0.9.0 )
-		List<DatabaseForeignKey> dbForeignKeys = dbTable.getForeignKeys();
-		for ( DatabaseForeignKey dbForeignKey : dbForeignKeys ) {
+		List<ForeignKeyMetadata> dbForeignKeys = dbTable.getForeignKeys();
+		for ( ForeignKeyMetadata dbForeignKey : dbForeignKeys ) {
 			
 			String sFkName = dbForeignKey.getForeignKeyName();
 			
@@ -422,7 +922,7 @@ public class DbModelUpdator extends DbModelManager
 					// 
 					entity.storeForeignKey(newForeignKey);
 					changeOnEntity.addChangeOnForeignKey( new ChangeOnForeignKey(ChangeType.UPDATED, foreignKey, newForeignKey) );
-					updateLogger.println(" . Foreign key '" + sFkName + "' updated");
+					log.println(" . Foreign key '" + sFkName + "' updated");
 				}
 			}
 			else
@@ -430,7 +930,7 @@ public class DbModelUpdator extends DbModelManager
 				// The FK doesn't exist => add it to the list
 				entity.storeForeignKey(newForeignKey);
 				changeOnEntity.addChangeOnForeignKey( new ChangeOnForeignKey(ChangeType.CREATED, null, newForeignKey) );
-				updateLogger.println(" . Foreign key '" + sFkName + "' added");
+				log.println(" . Foreign key '" + sFkName + "' added");
 			}
 		}
 		//--- Return all the changes for this entity
@@ -443,7 +943,7 @@ public class DbModelUpdator extends DbModelManager
 	 * @param entity
 	 * @param changeOnEntity
 	 */
-	private void checkIfTableTypeHasChanged(DatabaseTable dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity ) {
+	private void checkIfTableTypeHasChanged(TableMetadata dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity, UpdateLogWriter log ) {
 		String tableType = dbTable.getTableType() ;
 		if ( tableType != null ) {
 			if ( StrUtil.nullOrVoid(entity.getDatabaseType()) ) {
@@ -456,7 +956,7 @@ public class DbModelUpdator extends DbModelManager
 					// The type has changed => Update type
 					entity.setDatabaseType(tableType);
 					changeOnEntity.setDatabaseTypeHasChanged(true);
-					updateLogger.println(" . Type has changed '" + originalType + "' --> '" + tableType + "'");
+					log.println(" . Type has changed '" + originalType + "' --> '" + tableType + "'");
 				}
 			}
 		}
@@ -468,7 +968,7 @@ public class DbModelUpdator extends DbModelManager
 	 * @param entity
 	 * @param changeOnEntity
 	 */
-	private void checkIfTableCommentHasChanged(DatabaseTable dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity ) {
+	private void checkIfTableCommentHasChanged(TableMetadata dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity, UpdateLogWriter log ) {
 		String dbComment = dbTable.getComment(); // Can be null (metadata)
 		if ( dbComment == null ) {
 			dbComment = "" ;
@@ -478,20 +978,7 @@ public class DbModelUpdator extends DbModelManager
 			// The comment has changed => Update it
 			entity.setDatabaseComment(dbComment);
 			changeOnEntity.setDatabaseCommentHasChanged(true);
-			updateLogger.println(" . Comment has changed '" + originalComment + "' --> '" + dbComment + "'");
-		}
-	}
-	
-	private boolean checkTableExistsInDatabase(String sTableName, LinkedList<String> databaseTables) {
-		// --- Search the Table Name in the Database Tables
-		int n = databaseTables.size();
-		for (int i = 0; i < n; i++) {
-			String s = databaseTables.get(i);
-			if (s != null) {
-				if (s.equals(sTableName))
-					return true;
-			}
+			log.println(" . Comment has changed '" + originalComment + "' --> '" + dbComment + "'");
 		}
-		return false;
 	}
 }
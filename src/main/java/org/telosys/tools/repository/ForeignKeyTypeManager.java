@@ -15,14 +15,11 @@
  */
 package org.telosys.tools.repository;
 
-import java.util.List;
-
-import org.telosys.tools.generic.model.Entity;
-import org.telosys.tools.generic.model.ForeignKey;
-import org.telosys.tools.generic.model.ForeignKeyColumn;
 import org.telosys.tools.generic.model.ForeignKeyPart;
 import org.telosys.tools.repository.model.AttributeInDbModel;
 import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyPartInDbModel;
 import org.telosys.tools.repository.model.RepositoryModel;
 
@@ -30,6 +27,8 @@ import org.telosys.tools.repository.model.RepositoryModel;
 /**
  * Utility class providing the unique method to set the Foreign Key type <br>
  * for each attribute involved in a Foreign Key ( Simple or Composite FK ) <br>
+ * The resolution is incremental : an entity is processed only if its Foreign Keys <br>
+ * (or the referenced entities and attributes) changed since the last resolution <br>
  *  
  * @author Laurent GUERIN
  *
@@ -48,24 +47,102 @@ public class ForeignKeyTypeManager
 	 * @since v 3.0.0
 	 */
 	public void setAttributesForeignKeyInformation(RepositoryModel repositoryModel) {
-		
-		for ( Entity entity : repositoryModel.getEntities() ) {
-			List<ForeignKey> foreignKeys = entity.getDatabaseForeignKeys();
-			for ( ForeignKey fk : foreignKeys ) {
-				EntityInDbModel referencedEntity = repositoryModel.getEntityByTableName( fk.getReferencedTableName() );
-				// Check if found
-				if ( referencedEntity == null ) {
-					String msg = "Table '" + fk.getReferencedTableName() + "' not found in model." 
-							+ " Referenced by Foreign Key '" + fk.getName() + "' : "
-							+ " table '" + fk.getTableName() + "' --> '" + fk.getReferencedTableName() +"'" ;
-					throw new RuntimeException(msg);
+		for ( EntityInDbModel entity : repositoryModel.getEntitiesArray() ) {
+			setAttributesForeignKeyInformation(repositoryModel, entity);
+		}		
+	}
+	
+	/**
+	 * Set the Foreign Key type for each attribute of the given entity involved in a Foreign Key <br>
+	 * (used to process only the entities created or updated) <br>
+	 * Nothing is done if the Foreign Keys are already resolved
+	 * 
+	 * @param repositoryModel
+	 * @param entity
+	 * @return true if the entity has been processed, false if already resolved
+	 */
+	public boolean setAttributesForeignKeyInformation(RepositoryModel repositoryModel, EntityInDbModel entity) {
+		ForeignKeyInDbModel[] foreignKeys = entity.getForeignKeys();
+		EntityInDbModel[] referencedEntities = new EntityInDbModel[foreignKeys.length];
+		for ( int i = 0 ; i < foreignKeys.length ; i++ ) {
+			ForeignKeyInDbModel fk = foreignKeys[i];
+			referencedEntities[i] = repositoryModel.getEntityByTableName( fk.getReferencedTableName() );
+			// Check if found
+			if ( referencedEntities[i] == null ) {
+				String msg = "Table '" + fk.getReferencedTableName() + "' not found in model." 
+						+ " Referenced by Foreign Key '" + fk.getName() + "' : "
+						+ " table '" + fk.getTableName() + "' --> '" + fk.getReferencedTableName() +"'" ;
+				throw new RuntimeException(msg);
+			}
+		}
+		String signature = buildSignature(foreignKeys, referencedEntities);
+		if ( signature.equals(entity.getForeignKeysSignature()) && isResolved(entity, foreignKeys) ) {
+			return false ;
+		}
+		//--- Reset the FK information (no duplicated FK parts) 
+		for ( AttributeInDbModel attribute : entity.getAttributesArray() ) {
+			attribute.setFKSimple(false);
+			attribute.setFKComposite(false);
+			attribute.setReferencedEntityClassName(null);
+			attribute.removeAllFKParts();
+		}
+		for ( int i = 0 ; i < foreignKeys.length ; i++ ) {
+			// Set FK type for each attribute involved in a FK  
+			setAttributesFKInfo(entity, foreignKeys[i], referencedEntities[i]); 
+			// Set FK parts for each attribute involved in one or more FK  ( ver 3.3.0 )
+			setAttributesFKParts(entity, foreignKeys[i], referencedEntities[i]); 
+		}
+		entity.setForeignKeysSignature(signature);
+		return true ;
+	}
+	
+	/**
+	 * Builds the signature of all the information used to resolve the given Foreign Keys 
+	 * @param foreignKeys
+	 * @param referencedEntities
+	 * @return
+	 */
+	private String buildSignature(ForeignKeyInDbModel[] foreignKeys, EntityInDbModel[] referencedEntities) {
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 0 ; i < foreignKeys.length ; i++ ) {
+			EntityInDbModel referencedEntity = referencedEntities[i] ;
+			sb.append(foreignKeys[i].getName()).append('>').append(referencedEntity.getClassName()).append('(');
+			for ( ForeignKeyColumnInDbModel fkCol : foreignKeys[i].getForeignKeyColumns() ) {
+				AttributeInDbModel referencedAttribute = referencedEntity.getAttributeByColumnName(fkCol.getReferencedColumnName());
+				sb.append(fkCol.getColumnName()).append('=').append(fkCol.getReferencedColumnName())
+					.append(':').append(referencedAttribute != null ? referencedAttribute.getName() : null).append(',');
+			}
+			sb.append(')');
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns true if all the attributes involved in the given Foreign Keys are still resolved <br>
+	 * (an attribute can be replaced in an entity updated in place) 
+	 * @param entity
+	 * @param foreignKeys
+	 * @return
+	 */
+	private boolean isResolved(EntityInDbModel entity, ForeignKeyInDbModel[] foreignKeys) {
+		for ( ForeignKeyInDbModel fk : foreignKeys ) {
+			for ( ForeignKeyColumnInDbModel fkCol : fk.getForeignKeyColumns() ) {
+				AttributeInDbModel attribute = entity.getAttributeByColumnName(fkCol.getColumnName());
+				if ( attribute == null || ! attribute.isFK() || ! hasFKPart(attribute, fk.getName()) ) {
+					return false ;
 				}
-				// Set FK type for each attribute involved in a FK  
-				setAttributesFKInfo((EntityInDbModel)entity, fk, referencedEntity); 
-				// Set FK parts for each attribute involved in one or more FK  ( ver 3.3.0 )
-				setAttributesFKParts((EntityInDbModel)entity, fk, referencedEntity); 
 			}
-		}		
+		}
+		return true ;
+	}
+	
+	private boolean hasFKPart(AttributeInDbModel attribute, String fkName) {
+		for ( ForeignKeyPart fkPart : attribute.getFKParts() ) {
+			if ( fkName.equals(fkPart.getFkName()) ) {
+				return true ;
+			}
+		}
+		return false ;
 	}
 	
 	/**
@@ -75,21 +152,18 @@ public class ForeignKeyTypeManager
 	 * @param referencedEntity
 	 * @since v 3.0.0
 	 */
-	private void setAttributesFKInfo(EntityInDbModel entity, ForeignKey fk, EntityInDbModel referencedEntity ) {
-		List<ForeignKeyColumn> fkColumns = fk.getColumns() ;
-		if ( fkColumns != null ) {
-			if ( fkColumns.size() > 1 ) {
-				//--- Composite FK ( many columns )
-				for ( ForeignKeyColumn fkCol : fkColumns ) {
-					setAttributeFKInfo(entity, fkCol, FK_COMPOSITE, referencedEntity) ;
-				}
-			}
-			else if ( fk.getColumns().size() == 1 ) {
-				//--- Simple FK ( only one column )
-				ForeignKeyColumn fkCol = fkColumns.get(0);
-				setAttributeFKInfo(entity, fkCol, FK_SIMPLE, referencedEntity) ;
+	private void setAttributesFKInfo(EntityInDbModel entity, ForeignKeyInDbModel fk, EntityInDbModel referencedEntity ) {
+		ForeignKeyColumnInDbModel[] fkColumns = fk.getForeignKeyColumns() ;
+		if ( fkColumns.length > 1 ) {
+			//--- Composite FK ( many columns )
+			for ( ForeignKeyColumnInDbModel fkCol : fkColumns ) {
+				setAttributeFKInfo(entity, fkCol, FK_COMPOSITE, referencedEntity) ;
 			}
 		}
+		else if ( fkColumns.length == 1 ) {
+			//--- Simple FK ( only one column )
+			setAttributeFKInfo(entity, fkColumns[0], FK_SIMPLE, referencedEntity) ;
+		}
 	}
 	
 	/**
@@ -99,24 +173,21 @@ public class ForeignKeyTypeManager
 	 * @param fk
 	 * @param referencedEntity
 	 */
-	private void setAttributesFKParts(EntityInDbModel entity, ForeignKey fk, EntityInDbModel referencedEntity ) {
-		List<ForeignKeyColumn> fkColumns = fk.getColumns() ;
-		if ( fkColumns != null ) {
-			for ( ForeignKeyColumn fkCol : fkColumns ) {
-				AttributeInDbModel attribute = entity.getAttributeByColumnName(fkCol.getColumnName());
-				if ( attribute != null ) {
-					// Build FK part
-					AttributeInDbModel referencedAttribute = referencedEntity.getAttributeByColumnName(
-							fkCol.getReferencedColumnName());
-					ForeignKeyPart fkPart = new ForeignKeyPartInDbModel(
-							fk.getName(),
-							fk.getReferencedTableName(), 
-							fkCol.getReferencedColumnName(),
-							referencedEntity.getClassName(), 
-							referencedAttribute.getName());
-					// Add FK part
-					attribute.addFKPart(fkPart);
-				}
+	private void setAttributesFKParts(EntityInDbModel entity, ForeignKeyInDbModel fk, EntityInDbModel referencedEntity ) {
+		for ( ForeignKeyColumnInDbModel fkCol : fk.getForeignKeyColumns() ) {
+			AttributeInDbModel attribute = entity.getAttributeByColumnName(fkCol.getColumnName());
+			if ( attribute != null ) {
+				// Build FK part
+				AttributeInDbModel referencedAttribute = referencedEntity.getAttributeByColumnName(
+						fkCol.getReferencedColumnName());
+				ForeignKeyPartInDbModel fkPart = new ForeignKeyPartInDbModel(
+						fk.getName(),
+						fk.getReferencedTableName(), 
+						fkCol.getReferencedColumnName(),
+						referencedEntity.getClassName(), 
+						referencedAttribute.getName());
+				// Add FK part
+				attribute.addFKPart(fkPart);
 			}
 		}
 	}
@@ -129,7 +200,7 @@ public class ForeignKeyTypeManager
 	 * @param referencedEntity
 	 * @since v 3.0.0
 	 */
-	private void setAttributeFKInfo(EntityInDbModel entity, ForeignKeyColumn fkCol, int fkType, EntityInDbModel referencedEntity ) {
+	private void setAttributeFKInfo(EntityInDbModel entity, ForeignKeyColumnInDbModel fkCol, int fkType, EntityInDbModel referencedEntity ) {
 		String fkColName = fkCol.getColumnName();
 		AttributeInDbModel attribute = entity.getAttributeByColumnName(fkColName);
 		if ( attribute != null ) {
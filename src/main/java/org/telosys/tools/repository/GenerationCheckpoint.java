@@ -0,0 +1,226 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.EntityInDbModel;
+
+/**
+ * Checkpoint of a model generation stored in a work directory : <br>
+ * . a header file identifying the database configuration <br>
+ * . one part file for each group of entities generated (written at regular intervals) <br>
+ * Each file is written in a temporary file and then renamed, so a checkpoint is never partially written. <br>
+ * The entities are stored without links (the links are generated at the end over the full model)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+class GenerationCheckpoint {
+
+	private static final int    FILE_MAGIC_NUMBER   = 0x54474350 ; // "TGCP"
+	private static final int    FILE_FORMAT_VERSION = 1 ;
+	
+	private static final String HEADER_FILE_NAME = "checkpoint.header" ;
+	private static final String PART_FILE_PREFIX = "checkpoint-" ;
+	private static final String PART_FILE_SUFFIX = ".part" ;
+	private static final String TEMP_FILE_SUFFIX = ".tmp" ;
+	
+	private final File   directory ;
+	private final String configurationKey ;
+	private final int    interval ;
+	
+	private final List<EntityInDbModel> pendingEntities = new LinkedList<>();
+	
+	private int partsCount = 0 ;
+	
+	/**
+	 * Constructor
+	 * @param directory the work directory (created if it doesn't exist)
+	 * @param configurationKey the key identifying the database configuration 
+	 * @param interval the number of entities in each part file
+	 */
+	protected GenerationCheckpoint(File directory, String configurationKey, int interval) {
+		super();
+		this.directory = directory;
+		this.configurationKey = configurationKey;
+		this.interval = interval;
+	}
+
+	/**
+	 * Returns the table key used to identify the tables already generated 
+	 * @param catalog
+	 * @param schema
+	 * @param tableName
+	 * @return
+	 */
+	protected static String tableKey(String catalog, String schema, String tableName) {
+		return ( catalog != null ? catalog : "" ) + "." + ( schema != null ? schema : "" ) + "." + tableName ;
+	}
+	
+	/**
+	 * Returns the table key for the given entity
+	 * @param entity
+	 * @return
+	 */
+	protected static String tableKey(EntityInDbModel entity) {
+		return tableKey(entity.getDatabaseCatalog(), entity.getDatabaseSchema(), entity.getDatabaseTable());
+	}
+	
+	/**
+	 * Opens the checkpoint : <br>
+	 * . if the checkpoint exists for the same configuration : returns all the entities already generated <br>
+	 * . else : removes the existing checkpoint files (if any) and starts a new checkpoint 
+	 * @return the entities already generated (void list if none)
+	 * @throws TelosysToolsException
+	 */
+	protected List<EntityInDbModel> open() throws TelosysToolsException {
+		List<EntityInDbModel> entities = new LinkedList<>();
+		if ( ! directory.isDirectory() && ! directory.mkdirs() ) {
+			throw new TelosysToolsException("Cannot create checkpoint directory '" + directory + "'");
+		}
+		File headerFile = new File(directory, HEADER_FILE_NAME);
+		if ( headerFile.isFile() && configurationKey.equals(readObject(headerFile)) ) {
+			//--- Resume 
+			File[] partFiles = getPartFiles();
+			for ( File partFile : partFiles ) {
+				@SuppressWarnings("unchecked")
+				List<EntityInDbModel> part = (List<EntityInDbModel>) readObject(partFile) ;
+				entities.addAll(part);
+			}
+			partsCount = partFiles.length ;
+		}
+		else {
+			//--- New checkpoint 
+			delete();
+			writeObject(headerFile, configurationKey);
+			partsCount = 0 ;
+		}
+		return entities ;
+	}
+	
+	/**
+	 * Adds an entity generated (the entities are written when the interval is reached)
+	 * @param entity
+	 * @throws TelosysToolsException
+	 */
+	protected void add(EntityInDbModel entity) throws TelosysToolsException {
+		pendingEntities.add(entity);
+		if ( pendingEntities.size() >= interval ) {
+			flush();
+		}
+	}
+	
+	/**
+	 * Writes the pending entities (if any) in a new part file 
+	 * @throws TelosysToolsException
+	 */
+	protected void flush() throws TelosysToolsException {
+		if ( ! pendingEntities.isEmpty() ) {
+			partsCount++;
+			File partFile = new File(directory, String.format("%s%06d%s", PART_FILE_PREFIX, partsCount, PART_FILE_SUFFIX) );
+			writeObject(partFile, new LinkedList<>(pendingEntities));
+			pendingEntities.clear();
+		}
+	}
+	
+	/**
+	 * Deletes all the checkpoint files (the directory is kept)
+	 */
+	protected void delete() {
+		pendingEntities.clear();
+		File headerFile = new File(directory, HEADER_FILE_NAME);
+		if ( headerFile.exists() ) {
+			headerFile.delete();
+		}
+		for ( File partFile : getPartFiles() ) {
+			partFile.delete();
+		}
+	}
+	
+	/**
+	 * Returns the number of part files written
+	 * @return
+	 */
+	protected int getPartsCount() {
+		return partsCount;
+	}
+
+	private File[] getPartFiles() {
+		File[] files = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return file.isFile() && file.getName().startsWith(PART_FILE_PREFIX) 
+						&& file.getName().endsWith(PART_FILE_SUFFIX) ;
+			}
+		});
+		if ( files == null ) {
+			return new File[0];
+		}
+		Arrays.sort(files); // fixed length numbering => names order = parts order
+		return files ;
+	}
+	
+	private void writeObject(File file, Object object) throws TelosysToolsException {
+		File tempFile = new File(file.getParentFile(), file.getName() + TEMP_FILE_SUFFIX);
+		try ( ObjectOutputStream out = new ObjectOutputStream( new GZIPOutputStream(
+				new BufferedOutputStream( new FileOutputStream(tempFile) ) ) ) ) {
+			out.writeInt(FILE_MAGIC_NUMBER);
+			out.writeInt(FILE_FORMAT_VERSION);
+			out.writeObject(object);
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot write checkpoint file '" + tempFile + "'", e);
+		}
+		if ( file.exists() ) {
+			file.delete();
+		}
+		if ( ! tempFile.renameTo(file) ) {
+			throw new TelosysToolsException("Cannot rename checkpoint file '" + tempFile + "'");
+		}
+	}
+	
+	private Object readObject(File file) throws TelosysToolsException {
+		try ( ObjectInputStream in = new ObjectInputStream( new GZIPInputStream(
+				new BufferedInputStream( new FileInputStream(file) ) ) ) ) {
+			if ( in.readInt() != FILE_MAGIC_NUMBER ) {
+				throw new TelosysToolsException("Invalid checkpoint file '" + file + "'");
+			}
+			int version = in.readInt();
+			if ( version != FILE_FORMAT_VERSION ) {
+				throw new TelosysToolsException("Unsupported checkpoint version " + version + " (file '" + file + "')");
+			}
+			return in.readObject();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot read checkpoint file '" + file + "'", e);
+		} catch (ClassNotFoundException e) {
+			throw new TelosysToolsException("Cannot read checkpoint file '" + file + "'", e);
+		}
+	}
+}
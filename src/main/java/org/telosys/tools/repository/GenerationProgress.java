@@ -0,0 +1,95 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+/**
+ * Progress of a model generation session (immutable)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class GenerationProgress {
+
+	private final GenerationPhase phase ;
+	private final int    tablesDone ;
+	private final int    tablesTotal ;
+	private final int    tablesFailed ;
+	private final String currentTable ;
+	
+	/**
+	 * Constructor
+	 * @param phase
+	 * @param tablesDone
+	 * @param tablesTotal
+	 * @param tablesFailed
+	 * @param currentTable
+	 */
+	public GenerationProgress(GenerationPhase phase, int tablesDone, int tablesTotal, int tablesFailed, String currentTable) {
+		super();
+		this.phase = phase;
+		this.tablesDone = tablesDone;
+		this.tablesTotal = tablesTotal;
+		this.tablesFailed = tablesFailed;
+		this.currentTable = currentTable;
+	}
+
+	/**
+	 * Returns the current phase
+	 * @return
+	 */
+	public GenerationPhase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Returns the number of tables processed (generated or failed)
+	 * @return
+	 */
+	public int getTablesDone() {
+		return tablesDone;
+	}
+
+	/**
+	 * Returns the total number of tables (0 until the tables are listed)
+	 * @return
+	 */
+	public int getTablesTotal() {
+		return tablesTotal;
+	}
+
+	/**
+	 * Returns the number of tables in error 
+	 * @return
+	 */
+	public int getTablesFailed() {
+		return tablesFailed;
+	}
+
+	/**
+	 * Returns the name of the table currently processed (or null if none)
+	 * @return
+	 */
+	public String getCurrentTable() {
+		return currentTable;
+	}
+
+	@Override
+	public String toString() {
+		return phase + " : " + tablesDone + "/" + tablesTotal 
+				+ ( tablesFailed > 0 ? " (" + tablesFailed + " failed)" : "" )
+				+ ( currentTable != null ? " table '" + currentTable + "'" : "" ) ;
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Result of a model generation session : <br>
+ * the model (complete or partial) with the tables in error 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class GenerationResult {
+
+	private final RepositoryModel repositoryModel ;
+	
+	private final List<TableGenerationFailure> failedTables = new LinkedList<>();
+	
+	private final List<String> warnings = new LinkedList<>();
+	
+	private boolean cancelled = false ;
+	
+	private int tablesResumed = 0 ;
+	
+	/**
+	 * Constructor
+	 * @param repositoryModel
+	 */
+	protected GenerationResult(RepositoryModel repositoryModel) {
+		super();
+		this.repositoryModel = repositoryModel;
+	}
+
+	protected void addFailure(TableGenerationFailure failure) {
+		failedTables.add(failure);
+	}
+	
+	protected void addWarning(String warning) {
+		warnings.add(warning);
+	}
+	
+	protected void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+	}
+	
+	protected void setTablesResumed(int tablesResumed) {
+		this.tablesResumed = tablesResumed;
+	}
+	
+	/**
+	 * Removes the foreign keys referencing a table not present in the model 
+	 * (the links cannot be generated for these foreign keys) 
+	 */
+	protected void removeForeignKeysWithoutReferencedEntity() {
+		for ( EntityInDbModel entity : repositoryModel.getEntitiesArraySortedByTableName() ) {
+			for ( ForeignKeyInDbModel fk : entity.getForeignKeys() ) {
+				if ( repositoryModel.getEntityByTableName(fk.getReferencedTableName()) == null ) {
+					entity.removeForeignKey(fk);
+					addWarning("Foreign key '" + fk.getName() + "' ignored (table '" 
+							+ fk.getReferencedTableName() + "' not generated)");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the model generated (partial if some tables failed or if the session has been cancelled)
+	 * @return
+	 */
+	public RepositoryModel getRepositoryModel() {
+		return repositoryModel;
+	}
+
+	/**
+	 * Returns the tables in error (void list if none)
+	 * @return
+	 */
+	public List<TableGenerationFailure> getFailedTables() {
+		return Collections.unmodifiableList(failedTables);
+	}
+
+	/**
+	 * Returns the warnings (e.g. foreign keys ignored because the referenced table is in error)
+	 * @return
+	 */
+	public List<String> getWarnings() {
+		return Collections.unmodifiableList(warnings);
+	}
+
+	/**
+	 * Returns true if the session has been cancelled before the end 
+	 * @return
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns the number of tables restored from a checkpoint (not generated again)
+	 * @return
+	 */
+	public int getTablesResumed() {
+		return tablesResumed;
+	}
+
+	/**
+	 * Returns true if all the tables have been generated (not cancelled and no failure)
+	 * @return
+	 */
+	public boolean isComplete() {
+		return ! cancelled && failedTables.isEmpty() ;
+	}
+}
@@ -0,0 +1,405 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
+import org.telosys.tools.repository.metadata.MetadataCacheKey;
+import org.telosys.tools.repository.metadata.TableMetadata;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Model generation session with progress reporting, cooperative cancellation and per-table timeout <br>
+ * A table in error doesn't stop the generation : the session returns a partial model 
+ * with the list of the tables in error. <br>
+ * Usage : 
+ * <pre>
+ *   GenerationSession session = generator.createSession(databaseConfiguration);
+ *   session.setProgressListener(listener);
+ *   session.setTableTimeout(30000);
+ *   GenerationResult result = session.run();  // 'session.cancel()' can be called from another thread
+ * </pre>
+ * A session can be run only once. <br>
+ * With a checkpoint directory the entities are saved at regular intervals and a later session 
+ * (with the same database configuration) resumes from the last checkpoint.
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class GenerationSession {
+
+	private static final long POLLING_PERIOD = 100 ; // milliseconds
+	
+	private final DbModelGenerator      generator ;
+	private final DatabaseConfiguration databaseConfiguration ;
+	
+	/**
+	 * Default number of entities written in each checkpoint part
+	 */
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 100 ;
+	
+	private GenerationProgressListener  progressListener = null ;
+	private long                        tableTimeout = 0 ;
+	private File                        checkpointDirectory = null ;
+	private int                         checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL ;
+	private GenerationCheckpoint        checkpoint = null ;
+	
+	private volatile boolean cancelled = false ;
+	private boolean          started   = false ;
+	
+	private int    tablesDone   = 0 ;
+	private int    tablesTotal  = 0 ;
+	private int    tablesFailed = 0 ;
+	
+	private String  timedOutTable = null ;  // last table in timeout (its task may still use the executor thread)
+	private boolean executorBlocked = false ; // the executor thread doesn't stop : the next tables cannot be generated
+	
+	/**
+	 * Constructor
+	 * @param generator
+	 * @param databaseConfiguration
+	 */
+	protected GenerationSession(DbModelGenerator generator, DatabaseConfiguration databaseConfiguration) {
+		super();
+		this.generator = generator;
+		this.databaseConfiguration = databaseConfiguration;
+	}
+
+	/**
+	 * Set the listener to be notified of the progress
+	 * @param progressListener
+	 */
+	public void setProgressListener(GenerationProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Set the maximum duration for the generation of each table (meta-data loading and entity building) <br>
+	 * A table in timeout is interrupted, if it ignores the interruption and still runs after a second timeout 
+	 * all the remaining tables are considered in timeout
+	 * @param timeout the timeout in milliseconds ( 0 for no timeout )
+	 */
+	public void setTableTimeout(long timeout) {
+		if ( timeout < 0 ) {
+			throw new IllegalArgumentException("Invalid table timeout " + timeout);
+		}
+		this.tableTimeout = timeout;
+	}
+
+	/**
+	 * Enables the checkpoints : the entities generated are saved in the given work directory at regular intervals <br>
+	 * If this directory contains a checkpoint for the same database configuration the session resumes from this checkpoint 
+	 * (the tables already generated are skipped). <br>
+	 * The checkpoint is removed when the generation is complete. 
+	 * @param directory the work directory 
+	 * @param interval the number of entities saved at each checkpoint
+	 */
+	public void setCheckpoint(File directory, int interval) {
+		if ( interval < 1 ) {
+			throw new IllegalArgumentException("Invalid checkpoint interval " + interval);
+		}
+		this.checkpointDirectory = directory;
+		this.checkpointInterval = interval;
+	}
+
+	/**
+	 * Requests the cancellation of the session (can be called from any thread) <br>
+	 * The session stops before the next table and returns the entities already generated (with their links)
+	 */
+	public void cancel() {
+		this.cancelled = true ;
+	}
+
+	/**
+	 * Returns true if the cancellation has been requested
+	 * @return
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Runs the generation 
+	 * @return the result containing the model (complete or partial) and the tables in error 
+	 * @throws TelosysToolsException if the database cannot be used (connection, tables list, etc)
+	 */
+	public GenerationResult run() throws TelosysToolsException {
+		synchronized (this) {
+			if ( started ) {
+				throw new IllegalStateException("Generation session already started");
+			}
+			started = true ;
+		}
+		
+		fireProgress(GenerationPhase.CONNECTING, null);
+		Connection connection = generator.getConnection(databaseConfiguration);
+		GenerationResult result ;
+		try {
+			DatabaseMetaData dbmd = generator.getMetaData(connection);
+			RepositoryModel repositoryModel = generator.createRepositoryModel(dbmd, databaseConfiguration);
+			result = new GenerationResult(repositoryModel);
+			if ( checkpointDirectory != null ) {
+				checkpoint = new GenerationCheckpoint(checkpointDirectory, 
+						MetadataCacheKey.build(databaseConfiguration).toString(), checkpointInterval);
+			}
+			generateEntities(connection, result);
+		} finally {
+			generator.closeConnection(connection); 
+		}
+		if ( cancelled ) {
+			result.setCancelled(true); // before the completeness check (a cancelled session keeps its checkpoint)
+		}
+		if ( checkpoint != null && result.isComplete() ) {
+			checkpoint.delete();
+		}
+		
+		//--- The links are generated even for a partial model (in memory, no database access)
+		fireProgress(GenerationPhase.GENERATING_LINKS, null);
+		if ( tablesFailed > 0 || cancelled ) {
+			result.removeForeignKeysWithoutReferencedEntity();
+		}
+		generator.generateLinks(result.getRepositoryModel());
+		
+		if ( cancelled ) {
+			result.setCancelled(true);
+			fireProgress(GenerationPhase.CANCELLED, null);
+		}
+		else {
+			fireProgress(GenerationPhase.COMPLETED, null);
+		}
+		return result ;
+	}
+	
+	private void generateEntities(Connection connection, GenerationResult result) throws TelosysToolsException {
+		fireProgress(GenerationPhase.LISTING_TABLES, null);
+		String tableNamePattern = databaseConfiguration.getMetadataTableNamePattern() ;
+		if ( tableNamePattern == null) {
+			tableNamePattern = "%";
+		}
+		DatabaseTableLoader loader = new DatabaseTableLoader(connection, 
+				databaseConfiguration.getMetadataCatalog(), 
+				databaseConfiguration.getMetadataSchema(), 
+				tableNamePattern, 
+				databaseConfiguration.getMetadataTableTypesArray(),
+				databaseConfiguration.getMetadataTableNameInclude(),
+				databaseConfiguration.getMetadataTableNameExclude() );
+		List<String[]> tablesIdentifiers ;
+		try {
+			tablesIdentifiers = loader.getTablesIdentifiers();
+		} catch (SQLException e) {
+			throw new TelosysToolsException("Cannot get tables list (SQLException)", e);
+		}
+		tablesTotal = tablesIdentifiers.size();
+		
+		Set<String> tablesResumed = resumeFromCheckpoint(tablesIdentifiers, result);
+		
+		ExecutorService executor = ( tableTimeout > 0 ? createExecutor() : null ) ;
+		try {
+			for ( String[] tableId : tablesIdentifiers ) {
+				if ( tablesResumed.contains(GenerationCheckpoint.tableKey(tableId[0], tableId[1], tableId[2])) ) {
+					continue ; // already generated 
+				}
+				fireProgress(GenerationPhase.GENERATING_ENTITIES, tableId[2]);
+				if ( cancelled ) {
+					break ;
+				}
+				EntityInDbModel entity = null ;
+				try {
+					entity = ( executor != null ? 
+							generateEntityWithTimeout(executor, loader, tableId) : generateEntity(loader, tableId) ) ;
+					if ( entity != null ) {
+						result.getRepositoryModel().storeEntity(entity);
+					}
+				} catch (TimeoutException e) {
+					addFailure(result, tableId, "Timeout (" + tableTimeout + " ms)", e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					cancel();
+				} catch (Exception e) {
+					addFailure(result, tableId, e.getClass().getSimpleName() + " : " + e.getMessage(), e);
+				}
+				if ( entity != null && checkpoint != null ) {
+					checkpoint.add(entity);
+				}
+				if ( ! cancelled ) {
+					tablesDone++;
+				}
+			}
+			fireProgress(GenerationPhase.GENERATING_ENTITIES, null);
+		} finally {
+			if ( executor != null ) {
+				executor.shutdownNow();
+			}
+			if ( checkpoint != null ) {
+				checkpoint.flush();
+			}
+		}
+	}
+	
+	/**
+	 * Opens the checkpoint (if any) and stores the entities already generated in the model
+	 * @param tablesIdentifiers the tables currently in the database
+	 * @param result
+	 * @return the keys of the tables already generated
+	 * @throws TelosysToolsException
+	 */
+	private Set<String> resumeFromCheckpoint(List<String[]> tablesIdentifiers, GenerationResult result) throws TelosysToolsException {
+		Set<String> tablesResumed = new HashSet<>();
+		if ( checkpoint != null ) {
+			Set<String> tablesKeys = new HashSet<>();
+			for ( String[] tableId : tablesIdentifiers ) {
+				tablesKeys.add(GenerationCheckpoint.tableKey(tableId[0], tableId[1], tableId[2]));
+			}
+			for ( EntityInDbModel entity : checkpoint.open() ) {
+				String key = GenerationCheckpoint.tableKey(entity);
+				//--- Keep only the entities of the tables still in the database 
+				if ( tablesKeys.contains(key) && tablesResumed.add(key) ) {
+					result.getRepositoryModel().storeEntity(entity);
+				}
+			}
+			tablesDone = tablesResumed.size();
+			result.setTablesResumed(tablesResumed.size());
+			if ( ! tablesResumed.isEmpty() ) {
+				generator.getRepositoryLogger().info("Generation resumed from checkpoint : {} table(s) already generated", tablesResumed.size());
+			}
+		}
+		return tablesResumed ;
+	}
+	
+	/**
+	 * Loads the given table and builds its entity 
+	 * @param loader
+	 * @param tableId
+	 * @return the entity (or null if the table no longer exists)
+	 * @throws SQLException
+	 */
+	private EntityInDbModel generateEntity(DatabaseTableLoader loader, String[] tableId) throws SQLException {
+		TableMetadata dbTable = loader.loadTable(tableId);
+		if ( dbTable != null ) {
+			generator.logTable(dbTable);
+			return generator.buildEntity(dbTable);
+		}
+		return null ;
+	}
+
+	/**
+	 * Loads the given table and builds its entity in the executor thread with a timeout <br>
+	 * The timeout starts when the task starts (a previous task in timeout may still use the connection) <br>
+	 * If the task doesn't start before the timeout the executor thread is considered as blocked
+	 * @param executor
+	 * @param loader
+	 * @param tableId
+	 * @return the entity (or null if the table no longer exists or if the session has been cancelled)
+	 * @throws Exception
+	 */
+	private EntityInDbModel generateEntityWithTimeout(ExecutorService executor, 
+			final DatabaseTableLoader loader, final String[] tableId) throws Exception {
+		if ( executorBlocked ) {
+			throw new TimeoutException("Table '" + tableId[2] + "' not generated (generation thread blocked by table '" + timedOutTable + "')");
+		}
+		final CountDownLatch taskStarted = new CountDownLatch(1);
+		Future<EntityInDbModel> future = executor.submit(new Callable<EntityInDbModel>() {
+			@Override
+			public EntityInDbModel call() throws Exception {
+				taskStarted.countDown();
+				return generateEntity(loader, tableId);
+			}
+		});
+		try {
+			//--- Wait for the task start (the previous task in timeout may still run)
+			long deadline = System.currentTimeMillis() + tableTimeout ;
+			while ( ! taskStarted.await(POLLING_PERIOD, TimeUnit.MILLISECONDS) ) {
+				if ( cancelled ) {
+					return null ;
+				}
+				if ( System.currentTimeMillis() >= deadline ) {
+					executorBlocked = true ;
+					throw new TimeoutException("Table '" + tableId[2] + "' not started after " + tableTimeout 
+							+ " ms (generation thread blocked by table '" + timedOutTable + "')");
+				}
+			}
+			//--- Wait for the task end
+			deadline = System.currentTimeMillis() + tableTimeout ;
+			while ( true ) {
+				if ( cancelled ) {
+					return null ;
+				}
+				long remaining = deadline - System.currentTimeMillis() ;
+				if ( remaining <= 0 ) {
+					timedOutTable = tableId[2] ;
+					throw new TimeoutException("Table '" + tableId[2] + "' not generated after " + tableTimeout + " ms");
+				}
+				try {
+					return future.get(Math.min(remaining, POLLING_PERIOD), TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// not yet terminated : continue to wait
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw ( cause instanceof Exception ? (Exception) cause : e ) ;
+		} finally {
+			if ( ! future.isDone() ) {
+				future.cancel(true);
+			}
+		}
+	}
+	
+	private ExecutorService createExecutor() {
+		return Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "telosys-generation-session");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	private void addFailure(GenerationResult result, String[] tableId, String message, Throwable cause) {
+		tablesFailed++;
+		generator.getRepositoryLogger().error("Table '{}' not generated : {}", tableId[2], message);
+		result.addFailure(new TableGenerationFailure(tableId[0], tableId[1], tableId[2], message, cause));
+	}
+	
+	private void fireProgress(GenerationPhase phase, String currentTable) {
+		if ( progressListener != null ) {
+			try {
+				progressListener.progress(new GenerationProgress(phase, tablesDone, tablesTotal, tablesFailed, currentTable));
+			} catch (RuntimeException e) {
+				generator.getRepositoryLogger().error("Generation progress listener error : {}", e.getMessage());
+			}
+		}
+	}
+}
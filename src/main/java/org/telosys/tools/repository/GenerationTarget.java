@@ -0,0 +1,52 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+/**
+ * Catalog and schema to be used as a meta-data target for a multi-schema generation 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class GenerationTarget {
+
+	private final String catalog ;
+	private final String schema ;
+	
+	/**
+	 * Constructor
+	 * @param catalog the catalog (or null if none)
+	 * @param schema the schema (or null if none)
+	 */
+	public GenerationTarget(String catalog, String schema) {
+		super();
+		this.catalog = catalog;
+		this.schema = schema;
+	}
+
+	public String getCatalog() {
+		return catalog;
+	}
+
+	public String getSchema() {
+		return schema;
+	}
+
+	@Override
+	public String toString() {
+		return ( catalog != null ? catalog : "" ) + "." + ( schema != null ? schema : "" ) ;
+	}
+}
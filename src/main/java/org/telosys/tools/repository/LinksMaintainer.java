@@ -0,0 +1,299 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.model.RepositoryModelListener;
+import org.telosys.tools.repository.rules.RepositoryRules;
+
+/**
+ * Links maintainer subscribed to the changes of a model <br>
+ * Each change marks the entity as 'to be repaired' and 'repairLinks' regenerates only the relations <br>
+ * based on the foreign keys of these entities (the other links of the model are not searched) <br>
+ * The relations referencing a table not yet in the model are generated when this table is added <br>
+ * 
+ * The relations generated by each entity ( 'ManyToOne' relations for the foreign keys of a standard entity, 
+ * 'ManyToMany' relation for a join table ) are kept with the entities holding their links : <br>
+ * . owning side link of a 'ManyToOne' relation : held by the entity having the foreign key <br>
+ * . inverse side link of a 'ManyToOne' relation : held by the referenced entity <br>
+ * . both sides of a 'ManyToMany' relation : held by the entities referenced by the join table 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class LinksMaintainer implements RepositoryModelListener {
+
+	private final RepositoryModel model ;
+	
+	private final LinksManager linksManager ;
+	
+	private final ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager();
+
+	//--- Table name --> links generated by the relations of this table 
+	private final Map<String, List<LinkInDbModel>> generatedLinks = new HashMap<>();
+	
+	//--- Table name --> tables having generated links held by this table
+	private final Map<String, Set<String>> generators = new HashMap<>();
+	
+	//--- Missing table name --> tables waiting for this table to generate their relations
+	private final Map<String, Set<String>> pending = new HashMap<>();
+	
+	//--- Tables to be repaired (sorted for a deterministic repair order)
+	private final Set<String> tablesToRepair = new TreeSet<>();
+	
+	private boolean attached = false ;
+	
+	/**
+	 * Constructor
+	 * @param model
+	 * @param repositoryRules
+	 */
+	public LinksMaintainer(RepositoryModel model, RepositoryRules repositoryRules) {
+		super();
+		this.model = model ;
+		this.linksManager = new LinksManager(repositoryRules);
+	}
+
+	/**
+	 * Returns the model maintained 
+	 * @return
+	 */
+	public RepositoryModel getModel() {
+		return model;
+	}
+	
+	/**
+	 * Subscribes to the model changes <br>
+	 * The existing links of the model are assigned to the relations generating them (one pass on all the links)
+	 */
+	public synchronized void attach() {
+		if ( ! attached ) {
+			generatedLinks.clear();
+			generators.clear();
+			pending.clear();
+			tablesToRepair.clear();
+			for ( EntityInDbModel entity : model.getEntitiesArray() ) {
+				for ( LinkInDbModel link : entity.getLinksArray() ) {
+					String generator = getGeneratorTable(link);
+					if ( generator != null ) {
+						registerLink(generator, link);
+					}
+				}
+				for ( ForeignKeyInDbModel fk : entity.getForeignKeys() ) {
+					if ( model.getEntityByTableName(fk.getReferencedTableName()) == null ) {
+						getSet(pending, fk.getReferencedTableName()).add(entity.getDatabaseTable());
+					}
+				}
+			}
+			model.addModelListener(this);
+			attached = true ;
+		}
+	}
+	
+	/**
+	 * Unsubscribes from the model changes
+	 */
+	public synchronized void detach() {
+		model.removeModelListener(this);
+		attached = false ;
+	}
+	
+	/**
+	 * Returns true if the maintainer is subscribed to the model changes
+	 * @return
+	 */
+	public synchronized boolean isAttached() {
+		return attached;
+	}
+
+	/**
+	 * Returns the number of tables to be repaired
+	 * @return
+	 */
+	public synchronized int getNumberOfTablesToRepair() {
+		return tablesToRepair.size();
+	}
+	
+	/**
+	 * Regenerates the relations of all the tables changed since the last repair <br>
+	 * The FK information of the attributes is set before the links generation
+	 * @return the number of links generated 
+	 * @throws TelosysToolsException
+	 */
+	public synchronized int repairLinks() throws TelosysToolsException {
+		int count = 0 ;
+		while ( ! tablesToRepair.isEmpty() ) {
+			String[] tables = tablesToRepair.toArray(new String[tablesToRepair.size()]);
+			tablesToRepair.clear();
+			for ( String table : tables ) {
+				count = count + repairTable(table);
+			}
+		}
+		return count ;
+	}
+	
+	private int repairTable(String table) throws TelosysToolsException {
+		//--- Remove the links previously generated by this table 
+		List<LinkInDbModel> links = generatedLinks.remove(table);
+		if ( links != null ) {
+			for ( LinkInDbModel link : links ) {
+				EntityInDbModel holder = model.getEntityByTableName(link.getSourceTableName());
+				if ( holder != null && holder.getLink(link.getId()) == link ) {
+					holder.removeLink(link);
+				}
+				Set<String> holderGenerators = generators.get(link.getSourceTableName());
+				if ( holderGenerators != null ) {
+					holderGenerators.remove(table);
+				}
+			}
+		}
+		for ( Set<String> waitingTables : pending.values() ) {
+			waitingTables.remove(table);
+		}
+		//--- Generate the relations of this table (if still in the model)
+		EntityInDbModel entity = model.getEntityByTableName(table);
+		if ( entity == null ) {
+			return 0 ;
+		}
+		Set<String> missingTables = new HashSet<>();
+		for ( ForeignKeyInDbModel fk : entity.getForeignKeys() ) {
+			if ( model.getEntityByTableName(fk.getReferencedTableName()) == null ) {
+				missingTables.add(fk.getReferencedTableName());
+			}
+		}
+		if ( missingTables.isEmpty() ) {
+			fkTypeManager.setAttributesForeignKeyInformation(model, entity);
+		}
+		List<LinkInDbModel> newLinks = linksManager.generateEntityRelations(model, entity, missingTables);
+		for ( LinkInDbModel link : newLinks ) {
+			registerLink(table, link);
+		}
+		for ( String missingTable : missingTables ) {
+			getSet(pending, missingTable).add(table);
+		}
+		return newLinks.size() ;
+	}
+	
+	/**
+	 * Returns the table generating the given link ( null if unknown )
+	 * @param link
+	 * @return
+	 */
+	private String getGeneratorTable(LinkInDbModel link) {
+		if ( ! StrUtil.nullOrVoid(link.getJoinTableName()) ) {
+			return link.getJoinTableName(); // 'ManyToMany' 
+		}
+		else if ( StrUtil.nullOrVoid(link.getForeignKeyName()) ) {
+			return null ;
+		}
+		else {
+			// 'ManyToOne' : the table having the foreign key
+			return link.isOwningSide() ? link.getSourceTableName() : link.getTargetTableName() ;
+		}
+	}
+	
+	private void registerLink(String generator, LinkInDbModel link) {
+		List<LinkInDbModel> links = generatedLinks.get(generator);
+		if ( links == null ) {
+			links = new LinkedList<>();
+			generatedLinks.put(generator, links);
+		}
+		links.add(link);
+		getSet(generators, link.getSourceTableName()).add(generator);
+	}
+	
+	private Set<String> getSet(Map<String, Set<String>> map, String key) {
+		Set<String> set = map.get(key);
+		if ( set == null ) {
+			set = new HashSet<>();
+			map.put(key, set);
+		}
+		return set ;
+	}
+	
+	private synchronized void tableChanged(EntityInDbModel entity) {
+		tablesToRepair.add(entity.getDatabaseTable());
+	}
+	
+	//-----------------------------------------------------------------------------------------
+	// MODEL CHANGES
+	//-----------------------------------------------------------------------------------------
+	@Override
+	public synchronized void entityAdded(EntityInDbModel entity) {
+		String table = entity.getDatabaseTable();
+		tablesToRepair.add(table);
+		//--- The tables waiting for this table 
+		Set<String> waitingTables = pending.remove(table);
+		if ( waitingTables != null ) {
+			tablesToRepair.addAll(waitingTables);
+		}
+	}
+
+	@Override
+	public synchronized void entityRemoved(EntityInDbModel entity) {
+		String table = entity.getDatabaseTable();
+		tablesToRepair.add(table);
+		//--- The tables having relations held by this table 
+		Set<String> holderGenerators = generators.remove(table);
+		if ( holderGenerators != null ) {
+			tablesToRepair.addAll(holderGenerators);
+		}
+	}
+
+	@Override
+	public void foreignKeyAdded(EntityInDbModel entity, ForeignKeyInDbModel foreignKey) {
+		tableChanged(entity);
+	}
+
+	@Override
+	public void foreignKeyRemoved(EntityInDbModel entity, ForeignKeyInDbModel foreignKey) {
+		tableChanged(entity);
+	}
+
+	@Override
+	public void foreignKeyChanged(EntityInDbModel entity, ForeignKeyInDbModel foreignKeyBefore, ForeignKeyInDbModel foreignKeyAfter) {
+		tableChanged(entity);
+	}
+
+	@Override
+	public void attributeAdded(EntityInDbModel entity, AttributeInDbModel attribute) {
+		tableChanged(entity); // can change the 'join table' status
+	}
+
+	@Override
+	public void attributeRemoved(EntityInDbModel entity, AttributeInDbModel attribute) {
+		tableChanged(entity); // can change the 'join table' status
+	}
+
+	@Override
+	public void attributeChanged(EntityInDbModel entity, AttributeInDbModel attribute) {
+		tableChanged(entity); // can change the 'join table' status
+	}
+}
@@ -15,9 +15,24 @@
  */
 package org.telosys.tools.repository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
+import org.telosys.tools.commons.ObjectUtil;
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.generic.model.Cardinality;
 import org.telosys.tools.generic.model.FetchType;
@@ -41,8 +56,17 @@ import org.telosys.tools.repository.rules.RepositoryRules;
  */
 public class LinksManager {
 
+	/**
+	 * Default minimum number of entities for a parallel generation of all the links
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 200 ;
+
 	private final RepositoryRules repositoryRules ;
 	
+	private int parallelism = Runtime.getRuntime().availableProcessors() ;
+	
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD ;
+	
 	private static final Logger logger = null ; 
 	// TODO: TelosysLoggerProvider.getLogger()
 
@@ -60,6 +84,43 @@ public class LinksManager {
 		}
 	}
 
+	/**
+	 * Sets the number of threads used to generate all the links (1 for a serial generation) <br>
+	 * By default : the number of available processors 
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		if ( parallelism < 1 ) {
+			throw new IllegalArgumentException("Invalid parallelism " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the number of threads used to generate all the links
+	 * @return
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the minimum number of entities for a parallel generation of all the links <br>
+	 * (smaller models are always generated serially)
+	 * @param parallelThreshold
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Returns the minimum number of entities for a parallel generation of all the links
+	 * @return
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
 	/**
 	 * Generates all the links from all the Foreign Keys defined in the repository <br>
 	 * Existing links (if any) are removed and re-generate
@@ -71,13 +132,282 @@ public class LinksManager {
 	public int generateAllLinks(RepositoryModel model) throws TelosysToolsException 
 	{
 		log("generateAllLinks()...");
+		EntityInDbModel[] entities = model.getEntitiesArraySortedByTableName();
+		if ( parallelism > 1 && entities.length >= parallelThreshold ) {
+			return generateAllLinksInParallel(model, entities);
+		}
 		int count = 0 ;
-		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+		for ( EntityInDbModel entity : entities ) {
 			count = count + createRelations(model, entity);
 		}
 		return count ;
 	}
 	
+	//----------------------------------------------------------------------------------------------------
+	// PARALLEL GENERATION OF ALL THE LINKS 
+	//----------------------------------------------------------------------------------------------------
+	/**
+	 * A relation to be generated (2 links) : "ManyToOne" for a Foreign Key or "ManyToMany" for a Join Table
+	 */
+	private static final class PlannedRelation {
+		private final EntityInDbModel owningSideEntity ;
+		private final EntityInDbModel inverseSideEntity ;
+		private final LinkInDbModel   owningSideLink ;
+		private final LinkInDbModel   inverseSideLink ;
+		private final boolean         manyToMany ;
+		
+		private PlannedRelation(EntityInDbModel owningSideEntity, EntityInDbModel inverseSideEntity,
+				LinkInDbModel owningSideLink, LinkInDbModel inverseSideLink, boolean manyToMany) {
+			this.owningSideEntity = owningSideEntity;
+			this.inverseSideEntity = inverseSideEntity;
+			this.owningSideLink = owningSideLink;
+			this.inverseSideLink = inverseSideLink;
+			this.manyToMany = manyToMany;
+		}
+	}
+	
+	/**
+	 * A change on the links of an entity : removal of an existing link or storage of a planned link
+	 */
+	private static final class LinkEvent {
+		private final String          removedLinkId ;
+		private final PlannedRelation relation ;
+		private final boolean         owningSide ;
+		
+		private LinkEvent(String removedLinkId, PlannedRelation relation, boolean owningSide) {
+			this.removedLinkId = removedLinkId;
+			this.relation = relation;
+			this.owningSide = owningSide;
+		}
+		private LinkInDbModel getStoredLink() {
+			return owningSide ? relation.owningSideLink : relation.inverseSideLink ;
+		}
+	}
+	
+	/**
+	 * Generates all the links in 3 steps : <br>
+	 * 1) the relations are planned serially in the same order as a serial generation, <br>
+	 *    with the changes (links removed and stored) on each entity <br>
+	 * 2) the field names are resolved in parallel (one task per entity) on a copy of each entity <br>
+	 * 3) the links are committed serially in the model <br>
+	 * The links (ids and field names) are the same as those produced by a serial generation
+	 * @param model
+	 * @param entities the entities sorted by table name
+	 * @return the number of links generated 
+	 * @throws TelosysToolsException
+	 */
+	private int generateAllLinksInParallel(RepositoryModel model, EntityInDbModel[] entities) throws TelosysToolsException 
+	{
+		List<PlannedRelation> relations = planRelations(model, entities);
+		final Map<EntityInDbModel, List<LinkEvent>> events = planLinkEvents(model, entities, relations);
+
+		//--- Field names resolution
+		int poolSize = Math.min(parallelism, Math.max(1, events.size()));
+		log("generateAllLinksInParallel() : " + relations.size() + " relation(s), " + poolSize + " thread(s)");
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "telosys-links-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			List<EntityInDbModel> tasksEntities = new ArrayList<>(events.size());
+			List<Future<Void>> futures = new ArrayList<>(events.size());
+			for ( final Map.Entry<EntityInDbModel, List<LinkEvent>> entry : events.entrySet() ) {
+				tasksEntities.add(entry.getKey());
+				futures.add( executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						resolveFieldNames(entry.getKey(), entry.getValue());
+						return null;
+					}
+				}) );
+			}
+			for ( int i = 0 ; i < futures.size() ; i++ ) {
+				try {
+					futures.get(i).get();
+				} catch (ExecutionException e) {
+					throw new TelosysToolsException("Cannot generate links for entity '" 
+							+ tasksEntities.get(i).getDatabaseTable() + "'", e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new TelosysToolsException("Links generation interrupted", e);
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		//--- Commit in the model 
+		for ( Map.Entry<EntityInDbModel, List<LinkEvent>> entry : events.entrySet() ) {
+			applyLinkEvents(entry.getKey(), entry.getValue());
+		}
+		for ( PlannedRelation relation : relations ) {
+			relation.inverseSideLink.setMappedBy( relation.owningSideLink.getFieldName() );
+		}
+		return relations.size() * 2 ;
+	}
+	
+	/**
+	 * Plans all the relations in the serial generation order (the links are built without field name) 
+	 * @param model
+	 * @param entities the entities sorted by table name
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	private List<PlannedRelation> planRelations(RepositoryModel model, EntityInDbModel[] entities) throws TelosysToolsException 
+	{
+		List<PlannedRelation> relations = new ArrayList<>();
+		for ( EntityInDbModel entity : entities ) {
+			ForeignKeyInDbModel[] foreignKeys = entity.getForeignKeys() ;
+			if ( entity.isJoinTable() ) {
+				if ( foreignKeys.length != 2 ) {
+					throw new TelosysToolsException("Entity '" + entity.getDatabaseTable()
+							+ "' (Join Table) has " + foreignKeys.length + " Foreign Key(s) (2 FK expected)") ;
+				}
+				EntityInDbModel owningSideEntity  = getReferencedEntity(model, foreignKeys[0]);
+				EntityInDbModel inverseSideEntity = getReferencedEntity(model, foreignKeys[1]);
+				String owningSideId = LinkInDbModel.buildId(entity, true) ;
+				LinkInDbModel owningSideLink = newManyToManyLinkOwningSide(owningSideId, inverseSideEntity, 
+						entity, foreignKeys[0], foreignKeys[1]);
+				LinkInDbModel inverseSideLink = newManyToManyLinkInverseSide(LinkInDbModel.buildId(entity, false), owningSideEntity, 
+						entity, foreignKeys[0], foreignKeys[1], owningSideId);
+				relations.add(new PlannedRelation(owningSideEntity, inverseSideEntity, owningSideLink, inverseSideLink, true));
+			}
+			else {
+				for ( ForeignKeyInDbModel fk : foreignKeys ) {
+					EntityInDbModel inverseSideEntity = getReferencedEntity(model, fk);
+					String owningSideId = LinkInDbModel.buildId(fk, true) ;
+					LinkInDbModel owningSideLink = newManyToOneLinkOwningSide(owningSideId, inverseSideEntity, fk);
+					LinkInDbModel inverseSideLink = newManyToOneLinkInverseSide(LinkInDbModel.buildId(fk, false), entity, fk, owningSideId);
+					relations.add(new PlannedRelation(entity, inverseSideEntity, owningSideLink, inverseSideLink, false));
+				}
+			}
+		}
+		return relations ;
+	}
+	
+	private EntityInDbModel getReferencedEntity(RepositoryModel model, ForeignKeyInDbModel foreignKey) throws TelosysToolsException {
+		EntityInDbModel entity = model.getEntityByTableName( foreignKey.getReferencedTableName() );
+		if ( null == entity ) {
+			throw new TelosysToolsException("No referenced table for Foreign Key '" + foreignKey.getName() + "'");
+		}
+		return entity ;
+	}
+	
+	/**
+	 * Plans the changes on the links of each entity, replaying the serial generation : <br>
+	 * for each relation 'removeLinkById' for the 2 link ids (same search as the model), then the 2 links stored 
+	 * @param model
+	 * @param entities the entities sorted by table name
+	 * @param relations the relations in the serial generation order
+	 * @return the changes for each entity (in the order of the serial generation)
+	 */
+	private Map<EntityInDbModel, List<LinkEvent>> planLinkEvents(RepositoryModel model, EntityInDbModel[] entities, 
+			List<PlannedRelation> relations) 
+	{
+		//--- Link id --> entities holding a link with this id ( table name --> link source table ) sorted by table name
+		Map<String, TreeMap<String, String>> holders = new HashMap<>();
+		for ( EntityInDbModel entity : entities ) {
+			for ( LinkInDbModel link : entity.getLinksArray() ) {
+				getHolders(holders, link.getId()).put(entity.getDatabaseTable(), link.getSourceTableName());
+			}
+		}
+		Map<EntityInDbModel, List<LinkEvent>> events = new IdentityHashMap<>();
+		for ( PlannedRelation relation : relations ) {
+			//--- Remove the links if they are already in the model
+			for ( String id : new String[] { relation.inverseSideLink.getId(), relation.owningSideLink.getId() } ) {
+				TreeMap<String, String> idHolders = holders.get(id);
+				if ( idHolders != null && ! idHolders.isEmpty() ) {
+					// the first link found is removed from its source entity (if any)
+					String sourceTableName = idHolders.firstEntry().getValue();
+					if ( sourceTableName != null && idHolders.containsKey(sourceTableName) ) {
+						idHolders.remove(sourceTableName);
+						getEvents(events, model.getEntityByTableName(sourceTableName)).add(new LinkEvent(id, null, false));
+					}
+				}
+			}
+			//--- Store the 2 links
+			getEvents(events, relation.owningSideEntity).add(new LinkEvent(null, relation, true));
+			getHolders(holders, relation.owningSideLink.getId()).put(relation.owningSideEntity.getDatabaseTable(), 
+					relation.owningSideLink.getSourceTableName());
+			getEvents(events, relation.inverseSideEntity).add(new LinkEvent(null, relation, false));
+			getHolders(holders, relation.inverseSideLink.getId()).put(relation.inverseSideEntity.getDatabaseTable(), 
+					relation.inverseSideLink.getSourceTableName());
+		}
+		return events ;
+	}
+	
+	private TreeMap<String, String> getHolders(Map<String, TreeMap<String, String>> holders, String id) {
+		TreeMap<String, String> idHolders = holders.get(id);
+		if ( idHolders == null ) {
+			idHolders = new TreeMap<>();
+			holders.put(id, idHolders);
+		}
+		return idHolders ;
+	}
+	
+	private List<LinkEvent> getEvents(Map<EntityInDbModel, List<LinkEvent>> events, EntityInDbModel entity) {
+		List<LinkEvent> list = events.get(entity);
+		if ( list == null ) {
+			list = new ArrayList<>();
+			events.put(entity, list);
+		}
+		return list ;
+	}
+	
+	/**
+	 * Resolves the field names of the links stored in the given entity <br>
+	 * The changes are applied on a copy of the entity (the model is not modified)
+	 * @param entity
+	 * @param entityEvents
+	 */
+	private void resolveFieldNames(EntityInDbModel entity, List<LinkEvent> entityEvents) {
+		EntityInDbModel view = ObjectUtil.deepCopy(entity);
+		for ( LinkEvent event : entityEvents ) {
+			if ( event.removedLinkId != null ) {
+				removeLink(view, event.removedLinkId);
+			}
+			else {
+				PlannedRelation relation = event.relation ;
+				LinkInDbModel link = event.getStoredLink();
+				EntityInDbModel referencedEntity = event.owningSide ? relation.inverseSideEntity : relation.owningSideEntity ;
+				if ( referencedEntity == entity ) {
+					referencedEntity = view ; // self reference
+				}
+				if ( event.owningSide && ! relation.manyToMany ) {
+					link.setFieldName( repositoryRules.getAttributeNameForLinkToOne(view, referencedEntity) ) ;
+				}
+				else {
+					link.setFieldName( repositoryRules.getAttributeNameForLinkToMany(view, referencedEntity) ) ;
+				}
+				view.storeLink(link);
+			}
+		}
+	}
+	
+	private void applyLinkEvents(EntityInDbModel entity, List<LinkEvent> entityEvents) {
+		for ( LinkEvent event : entityEvents ) {
+			if ( event.removedLinkId != null ) {
+				removeLink(entity, event.removedLinkId);
+			}
+			else {
+				entity.storeLink(event.getStoredLink());
+			}
+		}
+	}
+	
+	private void removeLink(EntityInDbModel entity, String linkId) {
+		LinkInDbModel link = entity.getLink(linkId);
+		if ( link != null ) {
+			entity.removeLink(link);
+		}
+	}
+	
 	/**
 	 * Removes all the relations regarding the given entity
 	 * @param model
@@ -134,6 +464,61 @@ public class LinksManager {
 		return count ;
 	}
 
+	/**
+	 * Generates all the relations ( owning side and inverse side links ) for the given entity <br>
+	 * without searching and removing the existing links in the model <br>
+	 * (the links previously generated for this entity must have been removed by the caller) <br>
+	 * The relations referencing an entity not in the model are not generated 
+	 * @param model
+	 * @param entity a 'standard entity' or a 'join table entity'
+	 * @param missingTables the referenced tables not found in the model (populated by the method)
+	 * @return the links generated 
+	 * @throws TelosysToolsException
+	 */
+	protected List<LinkInDbModel> generateEntityRelations(RepositoryModel model, EntityInDbModel entity, 
+			Set<String> missingTables) throws TelosysToolsException 
+	{
+		List<LinkInDbModel> links = new ArrayList<>();
+		ForeignKeyInDbModel[] foreignKeys = entity.getForeignKeys() ;
+		if ( entity.isJoinTable() ) {
+			EntityInDbModel owningSideEntity  = model.getEntityByTableName( foreignKeys[0].getReferencedTableName() );
+			EntityInDbModel inverseSideEntity = model.getEntityByTableName( foreignKeys[1].getReferencedTableName() );
+			if ( owningSideEntity == null || inverseSideEntity == null ) {
+				addMissingTable(missingTables, owningSideEntity, foreignKeys[0]);
+				addMissingTable(missingTables, inverseSideEntity, foreignKeys[1]);
+			}
+			else {
+				LinkInDbModel owningSideLink = generateManyToManyLinkOwningSide( LinkInDbModel.buildId(entity, true), 
+						owningSideEntity, inverseSideEntity, entity, foreignKeys[0], foreignKeys[1] );
+				links.add(owningSideLink);
+				links.add( generateManyToManyLinkInverseSide( LinkInDbModel.buildId(entity, false), 
+						owningSideEntity, inverseSideEntity, entity, foreignKeys[0], foreignKeys[1], owningSideLink ) );
+			}
+		}
+		else {
+			for ( ForeignKeyInDbModel fk : foreignKeys ) {
+				EntityInDbModel inverseSideEntity = model.getEntityByTableName( fk.getReferencedTableName() );
+				if ( inverseSideEntity == null ) {
+					addMissingTable(missingTables, inverseSideEntity, fk);
+				}
+				else {
+					LinkInDbModel owningSideLink = generateManyToOneLinkOwningSide( LinkInDbModel.buildId(fk, true), 
+							entity, inverseSideEntity, fk);
+					links.add(owningSideLink);
+					links.add( generateManyToOneLinkInverseSide( LinkInDbModel.buildId(fk, false), 
+							entity, inverseSideEntity, fk, owningSideLink) );
+				}
+			}
+		}
+		return links ;
+	}
+	
+	private void addMissingTable(Set<String> missingTables, EntityInDbModel referencedEntity, ForeignKeyInDbModel fk) {
+		if ( referencedEntity == null ) {
+			missingTables.add(fk.getReferencedTableName());
+		}
+	}
+
 	//----------------------------------------------------------------------------------------------------
 	// RELATION "* --> 1" ( "ManyToOne" and "OneToMany" links )
 	//----------------------------------------------------------------------------------------------------
@@ -185,6 +570,26 @@ public class LinksManager {
 		log("generateManyToOneLinkOwningSide() : linkId = " + linkId + " "
 				+ owningSideEntity.getDatabaseTable() + " --> " + inverseSideEntity.getDatabaseTable() );
 		
+		LinkInDbModel link = newManyToOneLinkOwningSide(linkId, inverseSideEntity, owningSideForeignKey);
+		//--- Updated in ver 2.1.1 (the link manages multiple references to the same inverse-side entity)
+		link.setFieldName( repositoryRules.getAttributeNameForLinkToOne(owningSideEntity, inverseSideEntity) ) ; // #LGU v 2.1.1
+
+		//--- Store the link in the entity
+		owningSideEntity.storeLink(link);
+		return link;		
+	}
+	
+	/**
+	 * Builds the owning side link of a "ManyToOne" relation (without field name)
+	 * @param linkId
+	 * @param inverseSideEntity
+	 * @param owningSideForeignKey
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	private LinkInDbModel newManyToOneLinkOwningSide( String linkId, EntityInDbModel inverseSideEntity, 
+			ForeignKeyInDbModel owningSideForeignKey  ) throws TelosysToolsException 
+	{
 		LinkInDbModel link = new LinkInDbModel();
 		link.setId(linkId);
 		link.setForeignKeyName( owningSideForeignKey.getName() );
@@ -202,11 +607,6 @@ public class LinksManager {
 		
 		link.setTargetEntityClassName( inverseSideEntity.getClassName() ); // ie "Book" // v 3.0.0
 		// REMOVED in v 3.3.0 : link.setFieldType( inverseSideEntity.getClassName() ); // ie "Book" // v 3.0.0
-		//--- Updated in ver 2.1.1 (the link manages multiple references to the same inverse-side entity)
-		link.setFieldName( repositoryRules.getAttributeNameForLinkToOne(owningSideEntity, inverseSideEntity) ) ; // #LGU v 2.1.1
-
-		//--- Store the link in the entity
-		owningSideEntity.storeLink(link);
 		return link;		
 	}
 	
@@ -222,19 +622,37 @@ public class LinksManager {
 	 */
 	private LinkInDbModel generateManyToOneLinkInverseSide(String linkId, EntityInDbModel owningSideEntity, EntityInDbModel inverseSideEntity, 
 			ForeignKeyInDbModel owningSideForeignKey, LinkInDbModel owningSideLink ) throws TelosysToolsException 
+	{
+		LinkInDbModel link = newManyToOneLinkInverseSide(linkId, owningSideEntity, owningSideForeignKey, owningSideLink.getId());
+		//--- Inverse side => "Mapped By"
+		link.setMappedBy( owningSideLink.getFieldName() ); // v 3.0.0
+		link.setFieldName( repositoryRules.getAttributeNameForLinkToMany(inverseSideEntity, owningSideEntity ) ) ; // v 3.0.0
+
+		//--- Store the link in the entity
+		inverseSideEntity.storeLink(link);
+		return link;		
+	}
+
+	/**
+	 * Builds the inverse side link of a "ManyToOne" relation (without field name and 'mapped by')
+	 * @param linkId
+	 * @param owningSideEntity
+	 * @param owningSideForeignKey
+	 * @param owningSideLinkId
+	 * @return
+	 */
+	private LinkInDbModel newManyToOneLinkInverseSide(String linkId, EntityInDbModel owningSideEntity, 
+			ForeignKeyInDbModel owningSideForeignKey, String owningSideLinkId ) 
 	{
 		LinkInDbModel link = new LinkInDbModel();
 		link.setId(linkId);
 		link.setForeignKeyName( owningSideForeignKey.getName() );
 
 		link.setOwningSide(false); // Inverse Side
-		link.setInverseSideLinkId(owningSideLink.getId()); // v 3.0.0
+		link.setInverseSideLinkId(owningSideLinkId); // v 3.0.0
 		
 		//--- Inverse side => No "Join Table", No "Join Columns", No "Inverse Join Columns"
 
-		//--- Inverse side => "Mapped By"
-		link.setMappedBy( owningSideLink.getFieldName() ); // v 3.0.0
-
 		link.setCardinality(Cardinality.ONE_TO_MANY); // v 3.0.0
 		link.setFetchType(FetchType.DEFAULT); // v 3.0.0
 		link.setSourceTableName(owningSideForeignKey.getReferencedTableName()); // v 3.0.0
@@ -242,12 +660,7 @@ public class LinksManager {
 
 		// REMOVED in v 3.3.0 : link.setFieldType(RepositoryConst.COLLECTION_JAVA_TYPE); // ie "java.util.List" // v 3.0.0
 		
-		link.setFieldName( repositoryRules.getAttributeNameForLinkToMany(inverseSideEntity, owningSideEntity ) ) ; // v 3.0.0
-		
 		link.setTargetEntityClassName( owningSideEntity.getClassName() ); // ie "Book" // v 3.0.0
-
-		//--- Store the link in the entity
-		inverseSideEntity.storeLink(link);
 		return link;		
 	}
 
@@ -338,6 +751,29 @@ public class LinksManager {
 	private LinkInDbModel generateManyToManyLinkOwningSide( String linkId, EntityInDbModel owningSideEntity, EntityInDbModel inverseSideEntity, 
 			EntityInDbModel joinTableEntity, ForeignKeyInDbModel owningSideForeignKey, ForeignKeyInDbModel inverseSideForeignKey
 			 ) throws TelosysToolsException 
+	{		
+		LinkInDbModel link = newManyToManyLinkOwningSide(linkId, inverseSideEntity, joinTableEntity, owningSideForeignKey, inverseSideForeignKey);
+		//--- Java attribute for this link
+		link.setFieldName( repositoryRules.getAttributeNameForLinkToMany(owningSideEntity, inverseSideEntity) ) ; // v 3.0.0
+
+		//--- Store the link in the entity
+		owningSideEntity.storeLink(link);
+		return link;		
+	}
+	
+	/**
+	 * Builds the owning side of the "ManyToMany" relation (without field name)
+	 * @param linkId
+	 * @param inverseSideEntity
+	 * @param joinTableEntity
+	 * @param owningSideForeignKey
+	 * @param inverseSideForeignKey
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	private LinkInDbModel newManyToManyLinkOwningSide( String linkId, EntityInDbModel inverseSideEntity, 
+			EntityInDbModel joinTableEntity, ForeignKeyInDbModel owningSideForeignKey, ForeignKeyInDbModel inverseSideForeignKey
+			 ) throws TelosysToolsException 
 	{		
 		LinkInDbModel link = new LinkInDbModel();
 		link.setId(linkId);
@@ -366,14 +802,8 @@ public class LinksManager {
 		link.setSourceTableName(owningSideForeignKey.getReferencedTableName()); // v 3.0.0
 		link.setTargetTableName(inverseSideForeignKey.getReferencedTableName()); // v 3.0.0
 		
-		//--- Java attribute for this link
 		// REMOVED in v 3.3.0 : link.setFieldType( RepositoryConst.COLLECTION_JAVA_TYPE ); // ie "java.util.List" // v 3.0.0
-		link.setFieldName( repositoryRules.getAttributeNameForLinkToMany(owningSideEntity, inverseSideEntity) ) ; // v 3.0.0
-		
 		link.setTargetEntityClassName( inverseSideEntity.getClassName() ); // ie "Book" // v 3.0.0
-
-		//--- Store the link in the entity
-		owningSideEntity.storeLink(link);
 		return link;		
 	}
 	
@@ -392,32 +822,49 @@ public class LinksManager {
 	private LinkInDbModel generateManyToManyLinkInverseSide( String linkId, EntityInDbModel owningSideEntity, EntityInDbModel inverseSideEntity, 
 			EntityInDbModel joinTableEntity, ForeignKeyInDbModel owningSideForeignKey, ForeignKeyInDbModel inverseSideForeignKey, 
 			 LinkInDbModel owningSideLink ) throws TelosysToolsException 
+	{		
+		LinkInDbModel link = newManyToManyLinkInverseSide(linkId, owningSideEntity, joinTableEntity, 
+				owningSideForeignKey, inverseSideForeignKey, owningSideLink.getId());
+		//--- Inverse side => "Mapped By"
+		link.setMappedBy( owningSideLink.getFieldName() ); // v 3.0.0
+		//--- Attribute for this link
+		link.setFieldName( repositoryRules.getAttributeNameForLinkToMany(inverseSideEntity, owningSideEntity ) ) ; // v 3.0.0
+
+		//--- Store the link in the entity
+		inverseSideEntity.storeLink(link);
+		return link;		
+	}
+	
+	/**
+	 * Builds the inverse side of the "ManyToMany" relation (without field name and 'mapped by')
+	 * @param linkId
+	 * @param owningSideEntity
+	 * @param joinTableEntity
+	 * @param owningSideForeignKey
+	 * @param inverseSideForeignKey
+	 * @param owningSideLinkId
+	 * @return
+	 */
+	private LinkInDbModel newManyToManyLinkInverseSide( String linkId, EntityInDbModel owningSideEntity, 
+			EntityInDbModel joinTableEntity, ForeignKeyInDbModel owningSideForeignKey, ForeignKeyInDbModel inverseSideForeignKey, 
+			String owningSideLinkId ) 
 	{		
 		LinkInDbModel link = new LinkInDbModel();
 		link.setId(linkId);
 		link.setJoinTableName( joinTableEntity.getDatabaseTable() );
 		
 		link.setOwningSide(false); // Owning Side
-		link.setInverseSideLinkId( owningSideLink.getId() ); // v 3.0.0
+		link.setInverseSideLinkId( owningSideLinkId ); // v 3.0.0
 		link.setCardinality(Cardinality.MANY_TO_MANY); // v 3.0.0
 		link.setFetchType(FetchType.DEFAULT); // v 3.0.0
 		
 		//--- Inverse side => No "Join Table", No "Join Columns", No "Inverse Join Columns"
 
-		//--- Inverse side => "Mapped By"
-		link.setMappedBy( owningSideLink.getFieldName() ); // v 3.0.0
-		
 		link.setSourceTableName(inverseSideForeignKey.getReferencedTableName()); // v 3.0.0
 		link.setTargetTableName(owningSideForeignKey.getReferencedTableName());  // v 3.0.0
 		
-		//--- Attribute for this link
 		// REMOVED in v 3.3.0 : link.setFieldType( RepositoryConst.COLLECTION_JAVA_TYPE ); // ie "java.util.List"  // v 3.0.0
-		link.setFieldName( repositoryRules.getAttributeNameForLinkToMany(inverseSideEntity, owningSideEntity ) ) ; // v 3.0.0
-
 		link.setTargetEntityClassName( owningSideEntity.getClassName() ); // ie "Book" // v 3.0.0
-
-		//--- Store the link in the entity
-		inverseSideEntity.storeLink(link);
 		return link;		
 	}
 	
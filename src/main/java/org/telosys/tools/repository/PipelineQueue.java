@@ -0,0 +1,104 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.telosys.tools.commons.TelosysToolsException;
+
+/**
+ * Bounded queue connecting two stages of the model generation pipeline <br>
+ * The producer stage calls 'put' for each item, then 'close' (or 'fail' in case of error) <br>
+ * The consumer stage calls 'take' until it returns null (end of stream) <br>
+ * 
+ * @author Laurent GUERIN
+ *
+ * @param <T>
+ */
+class PipelineQueue<T> {
+
+	private static final Object END_OF_STREAM = new Object() ;
+	
+	private final BlockingQueue<Object> queue ;
+	
+	private volatile Throwable failure = null ;
+	
+	/**
+	 * Constructor
+	 * @param capacity the maximum number of items waiting in the queue
+	 */
+	protected PipelineQueue(int capacity) {
+		super();
+		this.queue = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/**
+	 * Puts the given item in the queue, waiting if the queue is full
+	 * @param item
+	 * @throws InterruptedException
+	 */
+	protected void put(T item) throws InterruptedException {
+		queue.put(item);
+	}
+
+	/**
+	 * Signals the normal end of the stream (no more item)
+	 * @throws InterruptedException
+	 */
+	protected void close() throws InterruptedException {
+		queue.put(END_OF_STREAM);
+	}
+	
+	/**
+	 * Signals the end of the stream due to an error in the producer stage
+	 * @param t
+	 * @throws InterruptedException
+	 */
+	protected void fail(Throwable t) throws InterruptedException {
+		this.failure = t ;
+		queue.put(END_OF_STREAM);
+	}
+	
+	/**
+	 * Returns true if the producer stage has signaled an error
+	 * @return
+	 */
+	protected boolean isFailed() {
+		return failure != null ;
+	}
+	
+	/**
+	 * Takes the next item, waiting if the queue is empty
+	 * @return the next item or null if the end of the stream has been reached
+	 * @throws InterruptedException
+	 * @throws TelosysToolsException if the producer stage has failed
+	 */
+	@SuppressWarnings("unchecked")
+	protected T take() throws InterruptedException, TelosysToolsException {
+		Object item = queue.take() ;
+		if ( item == END_OF_STREAM ) {
+			if ( failure != null ) {
+				if ( failure instanceof TelosysToolsException ) {
+					throw (TelosysToolsException) failure ;
+				}
+				throw new TelosysToolsException("Pipeline stage failure : " + failure.getMessage(), failure);
+			}
+			return null ;
+		}
+		return (T) item ;
+	}
+}
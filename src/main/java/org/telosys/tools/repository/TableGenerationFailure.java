@@ -0,0 +1,73 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+/**
+ * Table not generated in a model generation session 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class TableGenerationFailure {
+
+	private final String    catalogName ;
+	private final String    schemaName ;
+	private final String    tableName ;
+	private final String    message ;
+	private final Throwable cause ;
+	
+	/**
+	 * Constructor
+	 * @param catalogName
+	 * @param schemaName
+	 * @param tableName
+	 * @param message
+	 * @param cause (can be null)
+	 */
+	public TableGenerationFailure(String catalogName, String schemaName, String tableName, String message, Throwable cause) {
+		super();
+		this.catalogName = catalogName;
+		this.schemaName = schemaName;
+		this.tableName = tableName;
+		this.message = message;
+		this.cause = cause;
+	}
+
+	public String getCatalogName() {
+		return catalogName;
+	}
+
+	public String getSchemaName() {
+		return schemaName;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public Throwable getCause() {
+		return cause;
+	}
+
+	@Override
+	public String toString() {
+		return "Table '" + tableName + "' : " + message ;
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.telosys.tools.repository.metadata.TableMetadata;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Hash based reconciliation between the model entities and the database tables <br>
+ * Computes in linear time the tables to be created, updated and deleted in the model : <br>
+ * . created : tables in the database without entity in the model (database order) <br>
+ * . updated : tables in the database with an entity in the model (database order) <br>
+ * . deleted : entities in the model without table in the database (table name order) <br>
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+class TablesReconciliation {
+
+	private final Set<String>  createdTables = new LinkedHashSet<>();
+	private final Set<String>  updatedTables = new LinkedHashSet<>();
+	private final List<String> deletedTables = new LinkedList<>();
+	private boolean duplicatedTables = false ;
+	
+	/**
+	 * Constructor 
+	 * @param repositoryModel the model before the update
+	 * @param dbTables the tables currently in the database
+	 */
+	protected TablesReconciliation(RepositoryModel repositoryModel, List<TableMetadata> dbTables) {
+		this(repositoryModel, dbTables, Arrays.asList(repositoryModel.getEntitiesNames()));
+	}
+
+	/**
+	 * Constructor for a partial reconciliation (only a part of the database tables) 
+	 * @param repositoryModel the model before the update
+	 * @param dbTables the tables currently in the database (in the scope)
+	 * @param scope the names of the model tables that can be deleted (the tables in the scope)
+	 */
+	protected TablesReconciliation(RepositoryModel repositoryModel, List<TableMetadata> dbTables, Collection<String> scope) {
+		super();
+		Set<String> databaseTables = new HashSet<>(dbTables.size() * 2);
+		for ( TableMetadata dbTable : dbTables ) {
+			String tableName = dbTable.getTableName();
+			if ( databaseTables.add(tableName) ) {
+				if ( repositoryModel.getEntityByTableName(tableName) != null ) {
+					updatedTables.add(tableName);
+				}
+				else {
+					createdTables.add(tableName);
+				}
+			}
+			else {
+				duplicatedTables = true ;
+			}
+		}
+		for ( String tableName : new HashSet<>(scope) ) {
+			if ( ! databaseTables.contains(tableName) && repositoryModel.getEntityByTableName(tableName) != null ) {
+				deletedTables.add(tableName);
+			}
+		}
+		Collections.sort(deletedTables);
+	}
+
+	/**
+	 * Returns the names of the tables to be created in the model (in the database order)
+	 * @return
+	 */
+	protected Set<String> getCreatedTables() {
+		return Collections.unmodifiableSet(createdTables);
+	}
+
+	/**
+	 * Returns the names of the tables to be updated in the model (in the database order)
+	 * @return
+	 */
+	protected Set<String> getUpdatedTables() {
+		return Collections.unmodifiableSet(updatedTables);
+	}
+
+	/**
+	 * Returns the names of the tables to be deleted from the model (sorted)
+	 * @return
+	 */
+	protected List<String> getDeletedTables() {
+		return Collections.unmodifiableList(deletedTables);
+	}
+
+	/**
+	 * Returns true if the same table name has been found more than once in the database tables
+	 * @return
+	 */
+	protected boolean hasDuplicatedTables() {
+		return duplicatedTables;
+	}
+}
@@ -0,0 +1,330 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Journal of the updates applied to a model (one run for each update, see DbModelUpdator) <br>
+ * The last runs can be undone (in reverse order) and redone in memory without reloading the model. <br>
+ * Recording a new run after an undo discards the runs that can no longer be redone. <br>
+ * If a file is defined, the journal is persisted in an append-only file 
+ * (a record for each run, each undo and each redo) and reloaded in the same state in the next session. <br>
+ * A torn last record (crash during a write) is ignored when the file is loaded.
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class UpdateJournal {
+
+	private static final int  FILE_MAGIC_NUMBER   = 0x54554A4C ; // "TUJL"
+	private static final int  FILE_FORMAT_VERSION = 1 ;
+	
+	private static final byte RECORD_RUN  = 'R' ;
+	private static final byte RECORD_UNDO = 'U' ;
+	private static final byte RECORD_REDO = 'D' ;
+	
+	private final File file ;
+	
+	private final List<UpdateJournalRun> runs = new ArrayList<>();
+	
+	private int position = 0 ; // number of runs currently applied
+	
+	/**
+	 * Constructor for a journal in memory 
+	 */
+	public UpdateJournal() {
+		super();
+		this.file = null ;
+	}
+
+	/**
+	 * Constructor for a journal persisted in the given file <br>
+	 * (the existing records are loaded if the file exists)
+	 * @param file
+	 * @throws TelosysToolsException
+	 */
+	public UpdateJournal(File file) throws TelosysToolsException {
+		super();
+		if ( file == null ) {
+			throw new IllegalArgumentException("Update journal file is null");
+		}
+		this.file = file ;
+		if ( file.isFile() && file.length() > 0 ) {
+			load();
+		}
+	}
+	
+	/**
+	 * Records a new run (applied to the model) 
+	 * @param run
+	 * @throws TelosysToolsException
+	 */
+	public void record(UpdateJournalRun run) throws TelosysToolsException {
+		append(RECORD_RUN, run);
+		addRun(run);
+	}
+	
+	private void addRun(UpdateJournalRun run) {
+		runs.subList(position, runs.size()).clear();
+		runs.add(run);
+		position = runs.size();
+	}
+	
+	/**
+	 * Returns true if a run can be undone
+	 * @return
+	 */
+	public boolean canUndo() {
+		return position > 0 ;
+	}
+
+	/**
+	 * Returns true if a run can be redone
+	 * @return
+	 */
+	public boolean canRedo() {
+		return position < runs.size() ;
+	}
+
+	/**
+	 * Reverts the last run applied to the given model <br>
+	 * The model must be in the state resulting from the last run (same schema version), 
+	 * otherwise nothing is changed
+	 * @param model the model in the state resulting from the last run
+	 * @return the run undone
+	 * @throws TelosysToolsException
+	 */
+	public UpdateJournalRun undo(RepositoryModel model) throws TelosysToolsException {
+		if ( ! canUndo() ) {
+			throw new TelosysToolsException("Update journal : nothing to undo");
+		}
+		UpdateJournalRun run = runs.get(position - 1);
+		//--- The model is changed only after the record (the file never says 'applied' for a reverted model)
+		run.checkUndo(model);
+		append(RECORD_UNDO, null);
+		position-- ;
+		run.undo(model);
+		return run ;
+	}
+	
+	/**
+	 * Applies again the last run undone <br>
+	 * The model must be in the state resulting from the last undo (same schema version), 
+	 * otherwise nothing is changed
+	 * @param model the model in the state resulting from the last undo
+	 * @return the run redone
+	 * @throws TelosysToolsException
+	 */
+	public UpdateJournalRun redo(RepositoryModel model) throws TelosysToolsException {
+		if ( ! canRedo() ) {
+			throw new TelosysToolsException("Update journal : nothing to redo");
+		}
+		UpdateJournalRun run = runs.get(position);
+		run.checkRedo(model);
+		append(RECORD_REDO, null);
+		position++ ;
+		run.redo(model);
+		return run ;
+	}
+	
+	/**
+	 * Returns all the runs (including the runs undone that can be redone)
+	 * @return
+	 */
+	public List<UpdateJournalRun> getRuns() {
+		return Collections.unmodifiableList(runs);
+	}
+
+	/**
+	 * Returns the number of runs currently applied 
+	 * @return
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns the journal file (or null if the journal is in memory)
+	 * @return
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	//-------------------------------------------------------------------------------------
+	// Persistence 
+	//-------------------------------------------------------------------------------------
+	private void append(byte recordType, UpdateJournalRun run) throws TelosysToolsException {
+		if ( file == null ) {
+			return ;
+		}
+		//--- The whole record is built before writing (a record is written with a single call)
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		try {
+			DataOutputStream out = new DataOutputStream(record);
+			if ( file.length() == 0 ) {
+				out.writeInt(FILE_MAGIC_NUMBER);
+				out.writeInt(FILE_FORMAT_VERSION);
+			}
+			out.writeByte(recordType);
+			if ( run != null ) {
+				byte[] bytes = serialize(run);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			out.flush();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot serialize update journal record", e);
+		}
+		try ( FileOutputStream fos = new FileOutputStream(file, true) ) {
+			record.writeTo(fos);
+			fos.getFD().sync();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot write update journal file '" + file + "'", e);
+		}
+	}
+	
+	private byte[] serialize(UpdateJournalRun run) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try ( ObjectOutputStream out = new ObjectOutputStream(baos) ) {
+			out.writeObject(run);
+		}
+		return baos.toByteArray();
+	}
+	
+	/**
+	 * Loads all the records <br>
+	 * A torn last record (crash during an append) is ignored and removed from the file
+	 * @throws TelosysToolsException
+	 */
+	private void load() throws TelosysToolsException {
+		long fileLength = file.length();
+		long validLength = 0 ; // length of the file up to the end of the last complete record
+		try ( CountingInputStream counter = new CountingInputStream( new BufferedInputStream( new FileInputStream(file) ) ) ;
+				DataInputStream in = new DataInputStream(counter) ) {
+			if ( in.readInt() != FILE_MAGIC_NUMBER || in.readInt() != FILE_FORMAT_VERSION ) {
+				throw new TelosysToolsException("Invalid update journal file '" + file + "'");
+			}
+			validLength = counter.getCount();
+			int recordType ;
+			while ( ( recordType = in.read() ) >= 0 ) {
+				switch ( recordType ) {
+				case RECORD_RUN :
+					int length = in.readInt();
+					if ( length < 0 ) {
+						throw new TelosysToolsException("Invalid record length in update journal file '" + file + "'");
+					}
+					if ( length > fileLength - counter.getCount() ) {
+						throw new EOFException("Torn record"); // not fully written 
+					}
+					byte[] bytes = new byte[length];
+					in.readFully(bytes);
+					addRun(deserialize(bytes));
+					break;
+				case RECORD_UNDO :
+					position-- ;
+					break;
+				case RECORD_REDO :
+					position++ ;
+					break;
+				default :
+					throw new TelosysToolsException("Invalid record in update journal file '" + file + "'");
+				}
+				if ( position < 0 || position > runs.size() ) {
+					throw new TelosysToolsException("Inconsistent update journal file '" + file + "'");
+				}
+				validLength = counter.getCount();
+			}
+		} catch (EOFException e) {
+			//--- Torn last record : the previous records are valid 
+			truncate(validLength);
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot read update journal file '" + file + "'", e);
+		} catch (ClassNotFoundException e) {
+			throw new TelosysToolsException("Cannot read update journal file '" + file + "'", e);
+		}
+	}
+	
+	private void truncate(long length) throws TelosysToolsException {
+		try ( RandomAccessFile raf = new RandomAccessFile(file, "rw") ) {
+			raf.setLength(length);
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot truncate update journal file '" + file + "'", e);
+		}
+	}
+	
+	/**
+	 * Input stream counting the bytes read 
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+		private long count = 0 ;
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if ( b >= 0 ) {
+				count++;
+			}
+			return b;
+		}
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if ( n > 0 ) {
+				count += n ;
+			}
+			return n;
+		}
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped ;
+			return skipped;
+		}
+		private long getCount() {
+			return count;
+		}
+	}
+	
+	private UpdateJournalRun deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		try ( ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) ) {
+			return (UpdateJournalRun) in.readObject();
+		}
+	}
+}
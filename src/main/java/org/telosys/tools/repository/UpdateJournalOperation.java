@@ -0,0 +1,176 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.telosys.tools.commons.ObjectUtil;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Operation applied to one entity of the model by an update (see UpdateJournal) <br>
+ * The 'before' and 'after' states are private copies (never shared with the model)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class UpdateJournalOperation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Operation type 
+	 */
+	public enum Type {
+		CREATE,  // entity added 
+		UPDATE,  // entity replaced 
+		DELETE,  // entity removed
+		LINKS    // links replaced in an entity not changed by the update (inverse side links)
+	}
+	
+	private final Type   type ;
+	private final String tableName ;
+	
+	private final EntityInDbModel      entityBefore ;
+	private final EntityInDbModel      entityAfter ;
+	private final List<LinkInDbModel>  linksBefore ;
+	private final List<LinkInDbModel>  linksAfter ;
+	
+	private UpdateJournalOperation(Type type, String tableName, EntityInDbModel entityBefore, EntityInDbModel entityAfter,
+			List<LinkInDbModel> linksBefore, List<LinkInDbModel> linksAfter) {
+		super();
+		this.type = type;
+		this.tableName = tableName;
+		this.entityBefore = entityBefore;
+		this.entityAfter = entityAfter;
+		this.linksBefore = linksBefore;
+		this.linksAfter = linksAfter;
+	}
+
+	protected static UpdateJournalOperation create(EntityInDbModel entityAfter) {
+		return new UpdateJournalOperation(Type.CREATE, entityAfter.getDatabaseTable(), null, ObjectUtil.deepCopy(entityAfter), null, null);
+	}
+
+	protected static UpdateJournalOperation update(EntityInDbModel entityBefore, EntityInDbModel entityAfter) {
+		Object[] copy = ObjectUtil.deepCopy(new Object[] { entityBefore, entityAfter });
+		return new UpdateJournalOperation(Type.UPDATE, entityAfter.getDatabaseTable(), 
+				(EntityInDbModel) copy[0], (EntityInDbModel) copy[1], null, null);
+	}
+
+	protected static UpdateJournalOperation delete(EntityInDbModel entityBefore) {
+		return new UpdateJournalOperation(Type.DELETE, entityBefore.getDatabaseTable(), ObjectUtil.deepCopy(entityBefore), null, null, null);
+	}
+
+	protected static UpdateJournalOperation links(String tableName, List<LinkInDbModel> linksBefore, List<LinkInDbModel> linksAfter) {
+		@SuppressWarnings("unchecked")
+		List<LinkInDbModel>[] copy = ObjectUtil.deepCopy(new List[] { linksBefore, linksAfter });
+		return new UpdateJournalOperation(Type.LINKS, tableName, null, null, copy[0], copy[1]);
+	}
+	
+	/**
+	 * Returns the operation type
+	 * @return
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the table name of the entity 
+	 * @return
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * Checks that the operation can be reverted (undo) or applied again (redo) in the given model <br>
+	 * (the model is not modified)
+	 * @param model
+	 * @param undo true for undo, false for redo
+	 * @throws TelosysToolsException if the entity is not in the expected state
+	 */
+	protected void check(RepositoryModel model, boolean undo) throws TelosysToolsException {
+		boolean expected ;
+		switch ( type ) {
+		case CREATE :
+			expected = undo ; // removed by undo, added by redo
+			break;
+		case DELETE :
+			expected = ! undo ; // added by undo, removed by redo
+			break;
+		default :
+			expected = true ;
+			break;
+		}
+		if ( ( model.getEntityByTableName(tableName) != null ) != expected ) {
+			throw new TelosysToolsException("Update journal : entity '" + tableName + "' " 
+					+ ( expected ? "not found in the model" : "already in the model" ) );
+		}
+	}
+
+	/**
+	 * Reverts the operation in the given model 
+	 * @param model
+	 * @return the entity restored in the model (or null if the entity has been removed)
+	 * @throws TelosysToolsException
+	 */
+	protected EntityInDbModel undo(RepositoryModel model) throws TelosysToolsException {
+		return apply(model, entityBefore, linksBefore);
+	}
+
+	/**
+	 * Applies the operation again in the given model 
+	 * @param model
+	 * @return the entity restored in the model (or null if the entity has been removed)
+	 * @throws TelosysToolsException
+	 */
+	protected EntityInDbModel redo(RepositoryModel model) throws TelosysToolsException {
+		return apply(model, entityAfter, linksAfter);
+	}
+	
+	private EntityInDbModel apply(RepositoryModel model, EntityInDbModel entityState, List<LinkInDbModel> linksState) throws TelosysToolsException {
+		if ( type == Type.LINKS ) {
+			EntityInDbModel entity = model.getEntityByTableName(tableName);
+			if ( entity == null ) {
+				throw new TelosysToolsException("Update journal : entity '" + tableName + "' not found in the model");
+			}
+			entity.removeAllLinks();
+			for ( LinkInDbModel link : ObjectUtil.deepCopy(linksState) ) {
+				entity.storeLink(link);
+			}
+			return null ;
+		}
+		else if ( entityState != null ) {
+			EntityInDbModel entity = ObjectUtil.deepCopy(entityState);
+			model.storeEntity(entity);
+			return entity ;
+		}
+		else {
+			model.removeEntity(tableName);
+			return null ;
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return type + " " + tableName ;
+	}
+}
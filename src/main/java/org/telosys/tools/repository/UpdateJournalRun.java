@@ -0,0 +1,219 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ChangeOnEntity;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * All the operations applied to the model by one update (see UpdateJournal) <br>
+ * The run is started after the entities update (before the links update) and completed at the end of the update : <br>
+ * . one operation for each entity in the ChangeLog (with the links of the 'after state') <br>
+ * . one 'LINKS' operation for each other entity having links changed by the links update 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class UpdateJournalRun implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Date   date ;
+	
+	private final String schemaVersionBefore ;
+	
+	private String       schemaVersionAfter ;
+	
+	private final List<UpdateJournalOperation> operations = new LinkedList<>();
+	
+	//--- Links of the entities not in the ChangeLog (same list instances : the links are replaced, not modified) 
+	private transient Map<String, List<LinkInDbModel>> linksBefore ;
+	
+	/**
+	 * Starts a new run (to be called before the links update)
+	 * @param model
+	 * @param changeLog
+	 */
+	protected UpdateJournalRun(RepositoryModel model, ChangeLog changeLog) {
+		super();
+		this.date = new Date();
+		this.schemaVersionBefore = model.getDatabaseSchemaVersion();
+		this.linksBefore = new HashMap<>();
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			if ( changeLog.getChangeByEntityName(entity.getDatabaseTable()) == null ) {
+				linksBefore.put(entity.getDatabaseTable(), entity.getAllLinks());
+			}
+		}
+	}
+	
+	/**
+	 * Completes the run (to be called at the end of the update)
+	 * @param model
+	 * @param changeLog
+	 */
+	protected void complete(RepositoryModel model, ChangeLog changeLog) {
+		this.schemaVersionAfter = model.getDatabaseSchemaVersion();
+		for ( ChangeOnEntity change : changeLog.getChanges() ) {
+			switch ( change.getChangeType() ) {
+			case CREATED :
+				operations.add(UpdateJournalOperation.create(change.getEntityCreated()));
+				break;
+			case UPDATED :
+				operations.add(UpdateJournalOperation.update(change.getEntityBefore(), change.getEntityAfter()));
+				break;
+			case DELETED :
+				operations.add(UpdateJournalOperation.delete(change.getEntityDeleted()));
+				break;
+			}
+		}
+		for ( Map.Entry<String, List<LinkInDbModel>> entry : linksBefore.entrySet() ) {
+			EntityInDbModel entity = model.getEntityByTableName(entry.getKey());
+			if ( entity != null && ! sameLinks(entry.getValue(), entity.getAllLinks()) ) {
+				operations.add(UpdateJournalOperation.links(entry.getKey(), entry.getValue(), entity.getAllLinks()));
+			}
+		}
+		linksBefore = null ;
+	}
+	
+	private boolean sameLinks(List<LinkInDbModel> links1, List<LinkInDbModel> links2) {
+		// same instances expected (a regenerated link is a new instance)
+		Set<LinkInDbModel> set = Collections.newSetFromMap(new IdentityHashMap<LinkInDbModel, Boolean>());
+		set.addAll(links1);
+		return links1.size() == links2.size() && set.containsAll(links2) ;
+	}
+	
+	/**
+	 * Returns true if the run doesn't contain any operation and doesn't change the schema version
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return operations.isEmpty() && schemaVersionBefore.equals(schemaVersionAfter) ;
+	}
+	
+	/**
+	 * Returns the date of the update
+	 * @return
+	 */
+	public Date getDate() {
+		return date;
+	}
+
+	/**
+	 * Returns the operations in the order of application
+	 * @return
+	 */
+	public List<UpdateJournalOperation> getOperations() {
+		return Collections.unmodifiableList(operations);
+	}
+
+	/**
+	 * Checks that the given model is in the state resulting from this run and that all the operations can be reverted
+	 * @param model
+	 * @throws TelosysToolsException
+	 */
+	protected void checkUndo(RepositoryModel model) throws TelosysToolsException {
+		check(model, schemaVersionAfter, true);
+	}
+
+	/**
+	 * Checks that the given model is in the state preceding this run and that all the operations can be applied again
+	 * @param model
+	 * @throws TelosysToolsException
+	 */
+	protected void checkRedo(RepositoryModel model) throws TelosysToolsException {
+		check(model, schemaVersionBefore, false);
+	}
+	
+	private void check(RepositoryModel model, String expectedSchemaVersion, boolean undo) throws TelosysToolsException {
+		if ( ! expectedSchemaVersion.equals(model.getDatabaseSchemaVersion()) ) {
+			throw new TelosysToolsException("Update journal : unexpected model state (schema version '" 
+					+ model.getDatabaseSchemaVersion() + "' instead of '" + expectedSchemaVersion + "')");
+		}
+		for ( UpdateJournalOperation operation : operations ) {
+			operation.check(model, undo);
+		}
+	}
+
+	/**
+	 * Reverts all the operations (in reverse order) in the given model <br>
+	 * Nothing is changed if an operation cannot be reverted
+	 * @param model
+	 * @throws TelosysToolsException
+	 */
+	protected void undo(RepositoryModel model) throws TelosysToolsException {
+		checkUndo(model);
+		List<EntityInDbModel> restored = new LinkedList<>();
+		for ( ListIterator<UpdateJournalOperation> it = operations.listIterator(operations.size()) ; it.hasPrevious() ; ) {
+			addIfNotNull(restored, it.previous().undo(model));
+		}
+		model.setDatabaseSchemaVersion(schemaVersionBefore);
+		setForeignKeyInformation(model, restored);
+	}
+
+	/**
+	 * Applies all the operations again in the given model <br>
+	 * Nothing is changed if an operation cannot be applied
+	 * @param model
+	 * @throws TelosysToolsException
+	 */
+	protected void redo(RepositoryModel model) throws TelosysToolsException {
+		checkRedo(model);
+		List<EntityInDbModel> restored = new LinkedList<>();
+		for ( UpdateJournalOperation operation : operations ) {
+			addIfNotNull(restored, operation.redo(model));
+		}
+		model.setDatabaseSchemaVersion(schemaVersionAfter);
+		setForeignKeyInformation(model, restored);
+	}
+	
+	private void addIfNotNull(List<EntityInDbModel> list, EntityInDbModel entity) {
+		if ( entity != null ) {
+			list.add(entity);
+		}
+	}
+	
+	/**
+	 * Sets the FK flags of the restored entities (when all the entities are in the model)
+	 * @param model
+	 * @param entities
+	 */
+	private void setForeignKeyInformation(RepositoryModel model, List<EntityInDbModel> entities) {
+		ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager() ;
+		for ( EntityInDbModel entity : entities ) {
+			fkTypeManager.setAttributesForeignKeyInformation(model, entity);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "UpdateJournalRun [date=" + date + ", operations=" + operations + "]";
+	}
+}
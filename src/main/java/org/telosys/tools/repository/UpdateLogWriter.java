@@ -39,6 +39,13 @@ public class UpdateLogWriter
     //-----------------------------------------------------------------------------
     //--- CONSTRUCTORS
     //-----------------------------------------------------------------------------
+    /**
+     * Constructor for a subclass managing its own output
+     */
+    protected UpdateLogWriter() {
+    	super();
+    }
+    
     /**
      * Constructor for a file logger
      * @param file
@@ -92,6 +99,19 @@ public class UpdateLogWriter
         }
     }
     
+    //-----------------------------------------------------------------------------
+    public synchronized void flush()
+    {
+        if (outputStream != null) {
+        	try {
+				outputStream.flush();
+			} 
+        	catch (IOException e) {
+				throw new RuntimeException("UpdateLogWriter : cannot flush (IOException)");
+			}
+        }
+    }
+    
     //-----------------------------------------------------------------------------
     public synchronized void close()
     {
@@ -16,13 +16,24 @@
 package org.telosys.tools.repository.changelog;
 
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ChangeLog {
 
 	private final List<ChangeOnEntity> list = new LinkedList<ChangeOnEntity>();
+	//--- Indexes updated for each change logged (rebuilt if the list may have been modified by a caller)
+	private final Map<String, ChangeOnEntity> changesByName = new HashMap<>();
+	private final Set<String> duplicatedNames = new HashSet<>();
+	private final Map<ChangeType, List<ChangeOnEntity>> changesByType = new EnumMap<>(ChangeType.class);
+	private boolean indexesValid = true ;
 	private final Date date = new Date();
+	private final List<ChangeLogListener> listeners = new LinkedList<>();
 	
 	private void check(boolean expression, String errorMessage ) {
 		if ( expression != true ) throw new RuntimeException(errorMessage);
@@ -38,6 +49,54 @@ public class ChangeLog {
 			check( changeOnEntity.getChangesOnForeignKey().size() == 0, "Entity CREATED must not have changes on foreign keys" );
 		}
 		list.add(changeOnEntity);
+		if ( indexesValid ) {
+			index(changeOnEntity);
+		}
+		notifyListeners(changeOnEntity);
+	}
+	
+	private void index(ChangeOnEntity changeOnEntity) {
+		if ( changesByName.put(changeOnEntity.getEntityName(), changeOnEntity) != null ) {
+			duplicatedNames.add(changeOnEntity.getEntityName());
+		}
+		List<ChangeOnEntity> bucket = changesByType.get(changeOnEntity.getChangeType());
+		if ( bucket == null ) {
+			bucket = new LinkedList<>();
+			changesByType.put(changeOnEntity.getChangeType(), bucket);
+		}
+		bucket.add(changeOnEntity);
+	}
+	
+	private void checkIndexes() {
+		if ( ! indexesValid ) {
+			changesByName.clear();
+			duplicatedNames.clear();
+			changesByType.clear();
+			for ( ChangeOnEntity change : list ) {
+				index(change);
+			}
+			indexesValid = true ;
+		}
+	}
+	
+	/**
+	 * Adds a listener notified for each change logged (after this call)
+	 * @param listener
+	 */
+	public void addListener(ChangeLogListener listener) {
+		listeners.add(listener);
+	}
+	
+	private void notifyListeners(ChangeOnEntity changeOnEntity) {
+		for ( ChangeLogListener listener : listeners ) {
+			for ( ChangeOnColumn changeOnColumn : changeOnEntity.getChangesOnColumn() ) {
+				listener.columnChanged(changeOnEntity, changeOnColumn);
+			}
+			for ( ChangeOnForeignKey changeOnForeignKey : changeOnEntity.getChangesOnForeignKey() ) {
+				listener.foreignKeyChanged(changeOnEntity, changeOnForeignKey);
+			}
+			listener.entityChanged(changeOnEntity);
+		}
 	}
 	
 	public Date getDate() {
@@ -45,38 +104,40 @@ public class ChangeLog {
 	}
 	
 	/**
-	 * Returns the list of all the changes (all the entities created, updated or deleted)
+	 * Returns the list of all the changes (all the entities created, updated or deleted) <br>
+	 * The list can be modified by the caller (the indexes are rebuilt on the next search)
 	 * @return
 	 */
 	public List<ChangeOnEntity> getChanges() {
+		indexesValid = false ; 
 		return list ;
 	}
 
 	/**
-	 * Returns the list of the changes by type : entities created or updated or deleted
+	 * Returns the list of the changes by type : entities created or updated or deleted <br>
+	 * (a new list)
 	 * @param changeType
 	 * @return
 	 */
 	public List<ChangeOnEntity> getChangesByType(ChangeType changeType) {
-		LinkedList<ChangeOnEntity> selection = new LinkedList<ChangeOnEntity>();
-		for ( ChangeOnEntity change : list ) {
-			if ( change.getChangeType() == changeType ) {
-				selection.add(change);
-			}
+		checkIndexes();
+		List<ChangeOnEntity> bucket = changesByType.get(changeType);
+		if ( bucket == null ) {
+			return new LinkedList<>();
 		}
-		return selection ;
+		return new LinkedList<>(bucket) ;
 	}
 	
+	/**
+	 * Returns the change for the given entity name (or null if none)
+	 * @param entityName
+	 * @return
+	 */
 	public ChangeOnEntity getChangeByEntityName(String entityName) {
-		ChangeOnEntity changeFound = null ;
 		if ( entityName == null ) throw new IllegalArgumentException("Entity name is null");
-		for ( ChangeOnEntity change : list ) {
-			if ( entityName.equals(change.getEntityName()) ) {
-				if ( changeFound != null ) throw new RuntimeException("Duplicated name '" + entityName +"' in changeLog");
-				changeFound = change ;
-			}
-		}
-		return changeFound ;
+		checkIndexes();
+		if ( duplicatedNames.contains(entityName) ) throw new RuntimeException("Duplicated name '" + entityName +"' in changeLog");
+		return changesByName.get(entityName) ;
 	}
 	
 	/**
@@ -109,12 +170,8 @@ public class ChangeLog {
 	}
 
 	private int getNumberOfEntities(ChangeType changeType) {
-		int count = 0 ;
-		for ( ChangeOnEntity change : list ) {
-			if ( change.getChangeType() == changeType ) {
-				count++;
-			}
-		}
-		return count ;
+		checkIndexes();
+		List<ChangeOnEntity> bucket = changesByType.get(changeType);
+		return bucket != null ? bucket.size() : 0 ;
 	}
 }
@@ -0,0 +1,46 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.changelog;
+
+/**
+ * Listener notified of each change logged in a ChangeLog <br>
+ * For each entity : the changes on columns, then the changes on foreign keys, then the entity change itself 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public interface ChangeLogListener {
+
+	/**
+	 * Called for each change on a column 
+	 * @param changeOnEntity the entity owning the column
+	 * @param changeOnColumn
+	 */
+	public void columnChanged(ChangeOnEntity changeOnEntity, ChangeOnColumn changeOnColumn);
+
+	/**
+	 * Called for each change on a foreign key 
+	 * @param changeOnEntity the entity owning the foreign key
+	 * @param changeOnForeignKey
+	 */
+	public void foreignKeyChanged(ChangeOnEntity changeOnEntity, ChangeOnForeignKey changeOnForeignKey);
+
+	/**
+	 * Called for each entity created, updated or deleted (after the changes on its columns and foreign keys)
+	 * @param changeOnEntity
+	 */
+	public void entityChanged(ChangeOnEntity changeOnEntity);
+}
@@ -15,6 +15,7 @@
  */
 package org.telosys.tools.repository.changelog;
 
+import org.telosys.tools.commons.ObjectUtil;
 import org.telosys.tools.repository.model.AttributeInDbModel;
 
 public class ChangeOnColumn {
@@ -22,6 +23,9 @@ public class ChangeOnColumn {
 	private final ChangeType  changeType ;
 	private final AttributeInDbModel      columnBefore ;
 	private final AttributeInDbModel      columnAfter ;
+	private final ColumnState             columnStateBefore ;
+	private ChangeOnEntity                changeOnEntity = null ; // set when added to the entity changes
+	private AttributeInDbModel            columnBeforeRebuilt = null ; // built once, on the first call
 	
 	/**
 	 * Constructor
@@ -34,16 +38,69 @@ public class ChangeOnColumn {
 		this.changeType   = changeType ;
 		this.columnBefore = columnBefore;
 		this.columnAfter  = columnAfter;
+		this.columnStateBefore = null ;
+	}
+	
+	/**
+	 * Constructor for an UPDATED column keeping only the database fields of the 'before state' <br>
+	 * (the 'before state' column is rebuilt on demand)
+	 * @param columnStateBefore
+	 * @param columnAfter
+	 */
+	public ChangeOnColumn(ColumnState columnStateBefore, AttributeInDbModel columnAfter) {
+		super();
+		this.changeType   = ChangeType.UPDATED ;
+		this.columnBefore = null ;
+		this.columnAfter  = columnAfter;
+		this.columnStateBefore = columnStateBefore ;
 	}
 	
 	public ChangeType getChangeType() {
 		return this.changeType;
 	}
 
-	public AttributeInDbModel getColumnBefore() {
+	/**
+	 * Sets the changes of the entity holding this column (used to find the 'before state' column)
+	 * @param changeOnEntity
+	 */
+	void setChangeOnEntity(ChangeOnEntity changeOnEntity) {
+		this.changeOnEntity = changeOnEntity ;
+	}
+	
+	/**
+	 * Returns the 'before state' of the column <br>
+	 * If only the state has been kept, the column is taken from the 'before state' of the entity 
+	 * (or from a copy of the 'after state' if not attached to an entity change), 
+	 * the same instance is returned by the next calls 
+	 * @return
+	 */
+	public synchronized AttributeInDbModel getColumnBefore() {
+		if ( this.columnBefore == null && this.columnStateBefore != null ) {
+			if ( columnBeforeRebuilt == null ) {
+				if ( changeOnEntity != null ) {
+					columnBeforeRebuilt = changeOnEntity.getEntityBefore().getAttributeByColumnName(columnAfter.getDatabaseName());
+				}
+				else {
+					columnBeforeRebuilt = ObjectUtil.deepCopy(this.columnAfter);
+					this.columnStateBefore.applyTo(columnBeforeRebuilt);
+				}
+			}
+			return columnBeforeRebuilt ;
+		}
 		return this.columnBefore;
 	}
 
+	/**
+	 * Returns the database fields of the 'before state' (or null if no 'before state')
+	 * @return
+	 */
+	public ColumnState getColumnStateBefore() {
+		if ( this.columnStateBefore == null && this.columnBefore != null ) {
+			return new ColumnState(this.columnBefore);
+		}
+		return this.columnStateBefore;
+	}
+
 	public AttributeInDbModel getColumnAfter() {
 		return this.columnAfter;
 	}
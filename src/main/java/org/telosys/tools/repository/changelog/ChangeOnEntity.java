@@ -15,11 +15,18 @@
  */
 package org.telosys.tools.repository.changelog;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
+import org.telosys.tools.commons.ObjectUtil;
 import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.repository.model.AttributeInDbModel;
 import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
 
 /**
  * Changes summary for one Entity
@@ -38,6 +45,17 @@ public class ChangeOnEntity {
 	private final List<ChangeOnForeignKey> changesOnForeignKeys = new LinkedList<>();
 	private boolean databaseTypeHasChanged    = false ; 
 	private boolean databaseCommentHasChanged = false ;  // since DbModel 3.0.3 (dec 2018)
+	private int     numberOfChanges = 0 ; // updated for each change 
+
+	//--- 'before state' fields for an entity updated in place (no 'before state' copy)
+	private final boolean              beforeStateRebuilt ;
+	private final String               databaseTypeBefore ;
+	private final String               databaseCommentBefore ;
+	private final String               databaseFingerprintBefore ;
+	private final List<LinkInDbModel>  linksBefore ;
+	private final String               foreignKeysSignatureBefore ;
+	private final Map<String, ColumnState> fkColumnsBefore ; // FK information reset by the links update
+	private EntityInDbModel            entityBeforeRebuilt = null ; // built once, on the first call
 
 	private void check(boolean expression, String errorMessage ) {
 		if ( expression != true ) throw new RuntimeException(errorMessage);
@@ -55,6 +73,13 @@ public class ChangeOnEntity {
 		this.changeType   = changeType ;
 		this.entityBefore = entityBefore;
 		this.entityAfter  = entityAfter;
+		this.beforeStateRebuilt        = false ;
+		this.databaseTypeBefore        = null ;
+		this.databaseCommentBefore     = null ;
+		this.databaseFingerprintBefore = null ;
+		this.linksBefore               = null ;
+		this.foreignKeysSignatureBefore = null ;
+		this.fkColumnsBefore           = null ;
 		if ( changeType == ChangeType.CREATED ) {
 			check ( entityBefore == null , "Entity CREATED must not have a 'before state'" ) ;
 			check ( entityAfter  != null , "Entity CREATED must have an 'after state'" ) ;
@@ -76,6 +101,33 @@ public class ChangeOnEntity {
 		}
 	}
 	
+	/**
+	 * Constructor for an UPDATED entity that is going to be updated in place <br>
+	 * Only the entity fields and the changes are kept (no copy of the entity), <br>
+	 * the 'before state' is rebuilt on demand from the 'after state' and the changes 
+	 * @param entityUpdated the entity (before any update)
+	 */
+	public ChangeOnEntity(EntityInDbModel entityUpdated) {
+		super();
+		check ( entityUpdated != null , "Entity UPDATED must have an 'after state'" ) ;
+		this.changeType   = ChangeType.UPDATED ;
+		this.entityBefore = null ;
+		this.entityAfter  = entityUpdated ;
+		this.entityName   = entityUpdated.getDatabaseTable();
+		this.beforeStateRebuilt        = true ;
+		this.databaseTypeBefore        = entityUpdated.getDatabaseType();
+		this.databaseCommentBefore     = entityUpdated.getDatabaseComment();
+		this.databaseFingerprintBefore = entityUpdated.getDatabaseFingerprint();
+		this.linksBefore               = entityUpdated.getAllLinks(); // new list (the links are replaced, not modified)
+		this.foreignKeysSignatureBefore = entityUpdated.getForeignKeysSignature();
+		this.fkColumnsBefore           = new HashMap<>();
+		for ( AttributeInDbModel attribute : entityUpdated.getAttributesArray() ) {
+			if ( attribute.isFK() || attribute.hasFKParts() ) {
+				fkColumnsBefore.put(attribute.getDatabaseName(), new ColumnState(attribute));
+			}
+		}
+	}
+	
 	//----------------------------------------------------------------------------------------------------------
 	/**
 	 * Returns the change type ( CREATED / UPDATED / DELETED )
@@ -94,12 +146,102 @@ public class ChangeOnEntity {
 	}
 
 	/**
-	 * Returns the 'before state' of the changed entity 
+	 * Returns the 'before state' of the changed entity (must not be modified) <br>
+	 * If the entity has been updated in place, the 'before state' is rebuilt on the first call 
+	 * from the current 'after state' and the changes, then kept for the next calls. <br>
+	 * The FK information and the links updated after the entity are restored from their initial state 
+	 * (the result does not depend on the time of the first call)
 	 * @return
 	 */
-	public EntityInDbModel getEntityBefore() {
+	public synchronized EntityInDbModel getEntityBefore() {
+		if ( beforeStateRebuilt ) {
+			if ( entityBeforeRebuilt == null ) {
+				entityBeforeRebuilt = rebuildEntityBefore();
+			}
+			return entityBeforeRebuilt;
+		}
 		return this.entityBefore;
 	}
+	
+	/**
+	 * Rebuilds the 'before state' by reverting the changes on a copy of the 'after state' <br>
+	 * (the foreign keys and the links 'before' are copied with the entity)
+	 * @return
+	 */
+	private EntityInDbModel rebuildEntityBefore() {
+		//--- The deleted columns still refer to the entity : copied with the entity (in the same graph) 
+		LinkedList<AttributeInDbModel> deletedColumns = new LinkedList<>();
+		for ( ChangeOnColumn change : changesOnColumns ) {
+			if ( change.getChangeType() == ChangeType.DELETED ) {
+				deletedColumns.add(change.getColumnBefore());
+			}
+		}
+		LinkedList<ForeignKeyInDbModel> foreignKeysBefore = new LinkedList<>();
+		for ( ChangeOnForeignKey change : changesOnForeignKeys ) {
+			if ( change.getChangeType() != ChangeType.CREATED ) {
+				foreignKeysBefore.add(change.getForeignKeyBefore());
+			}
+		}
+		Object[] copy = ObjectUtil.deepCopy(new Object[] { this.entityAfter, deletedColumns, foreignKeysBefore, linksBefore });
+		EntityInDbModel entity = (EntityInDbModel) copy[0];
+		@SuppressWarnings("unchecked")
+		List<AttributeInDbModel> deletedColumnsCopy = (List<AttributeInDbModel>) copy[1];
+		@SuppressWarnings("unchecked")
+		List<ForeignKeyInDbModel> foreignKeysBeforeCopy = (List<ForeignKeyInDbModel>) copy[2];
+		@SuppressWarnings("unchecked")
+		List<LinkInDbModel> linksBeforeCopy = (List<LinkInDbModel>) copy[3];
+		for ( AttributeInDbModel column : deletedColumnsCopy ) {
+			entity.storeAttribute(column);
+		}
+		entity.setDatabaseType(databaseTypeBefore);
+		entity.setDatabaseComment(databaseCommentBefore);
+		entity.setDatabaseFingerprint(databaseFingerprintBefore);
+		//--- Columns 
+		for ( ChangeOnColumn change : changesOnColumns ) {
+			if ( change.getChangeType() == ChangeType.CREATED ) {
+				AttributeInDbModel column = entity.getAttributeByColumnName(change.getColumnAfter().getDatabaseName());
+				if ( column != null ) {
+					entity.removeAttribute(column);
+				}
+			}
+			else if ( change.getChangeType() == ChangeType.UPDATED ) {
+				AttributeInDbModel column = entity.getAttributeByColumnName(change.getColumnAfter().getDatabaseName());
+				change.getColumnStateBefore().applyTo(column);
+			}
+		}
+		//--- FK information of all the columns (reset and rebuilt by the links update)
+		for ( AttributeInDbModel column : entity.getAttributesArray() ) {
+			ColumnState state = fkColumnsBefore.get(column.getDatabaseName());
+			if ( state != null ) {
+				state.applyForeignKeyInformationTo(column);
+			}
+			else {
+				column.setFKSimple(false);
+				column.setFKComposite(false);
+				column.setReferencedEntityClassName(null);
+				column.removeAllFKParts();
+			}
+		}
+		entity.setForeignKeysSignature(foreignKeysSignatureBefore);
+		//--- Foreign keys 
+		for ( ChangeOnForeignKey change : changesOnForeignKeys ) {
+			if ( change.getChangeType() == ChangeType.CREATED ) {
+				ForeignKeyInDbModel foreignKey = entity.getForeignKey(change.getForeignKeyName());
+				if ( foreignKey != null ) {
+					entity.removeForeignKey(foreignKey);
+				}
+			}
+		}
+		for ( ForeignKeyInDbModel foreignKey : foreignKeysBeforeCopy ) {
+			entity.storeForeignKey(foreignKey);
+		}
+		//--- Links 
+		entity.removeAllLinks();
+		for ( LinkInDbModel link : linksBeforeCopy ) {
+			entity.storeLink(link);
+		}
+		return entity ;
+	}
 
 	/**
 	 * Returns the 'after state' of the changed entity 
@@ -132,7 +274,9 @@ public class ChangeOnEntity {
 	 * @param changeOnColumn
 	 */
 	public void addChangeOnColumn(ChangeOnColumn changeOnColumn) {
+		changeOnColumn.setChangeOnEntity(this);
 		changesOnColumns.add(changeOnColumn);
+		numberOfChanges++;
 	}
 	
 	/**
@@ -140,7 +284,7 @@ public class ChangeOnEntity {
 	 * @return
 	 */
 	public List<ChangeOnColumn> getChangesOnColumn() {
-		return changesOnColumns ;
+		return Collections.unmodifiableList(changesOnColumns) ;
 	}
 
 	//----------------------------------------------------------------------------------------------------------
@@ -150,6 +294,7 @@ public class ChangeOnEntity {
 	 */
 	public void addChangeOnForeignKey(ChangeOnForeignKey changeOnForeignKey) {
 		changesOnForeignKeys.add(changeOnForeignKey);
+		numberOfChanges++;
 	}
 	
 	/**
@@ -157,11 +302,14 @@ public class ChangeOnEntity {
 	 * @return
 	 */
 	public List<ChangeOnForeignKey> getChangesOnForeignKey() {
-		return changesOnForeignKeys ;
+		return Collections.unmodifiableList(changesOnForeignKeys) ;
 	}
 
 	//----------------------------------------------------------------------------------------------------------
 	public void setDatabaseTypeHasChanged(boolean value) {
+		if ( databaseTypeHasChanged != value ) {
+			numberOfChanges += value ? 1 : -1 ;
+		}
 		databaseTypeHasChanged = value ;
 	}
 	public boolean isDatabaseTypeHasChanged() {
@@ -175,6 +323,9 @@ public class ChangeOnEntity {
 	 * @since DbModel 3.0.3 (dec 2018)
 	 */
 	public void setDatabaseCommentHasChanged(boolean value) {
+		if ( databaseCommentHasChanged != value ) {
+			numberOfChanges += value ? 1 : -1 ;
+		}
 		databaseCommentHasChanged = value ;
 	}
 	/**
@@ -193,12 +344,6 @@ public class ChangeOnEntity {
 	 * @return
 	 */
 	public int getNumberOfChanges() {
-		//return changesOnColumns.size() + changesOnForeignKeys.size() + ( databaseTypeHasChanged ? 1 : 0 );
-		int count = 0 ;
-		count += databaseTypeHasChanged ? 1 : 0 ;
-		count += databaseCommentHasChanged ? 1 : 0 ;
-		count += changesOnColumns.size() ;
-		count += changesOnForeignKeys.size() ;
-		return count ;
+		return numberOfChanges ;
 	}
 }
@@ -0,0 +1,131 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.changelog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.telosys.tools.generic.model.ForeignKeyPart;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+
+/**
+ * The database fields of a column at a given time (used as 'before state' of an updated column) <br>
+ * Only the fields that can be changed by a model update are kept 
+ * (database fields and foreign key information)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class ColumnState {
+
+	private final String  databaseType ;
+	private final int     jdbcTypeCode ;
+	private final String  databaseNotNull ;
+	private final String  databaseSize ;
+	private final String  databaseComment ;
+	private final boolean keyElement ;
+	private final boolean fkSimple ;
+	private final boolean fkComposite ;
+	private final String  referencedEntityClassName ;
+	private final List<ForeignKeyPart> fkParts ;
+	
+	/**
+	 * Constructor : keeps the current state of the given column
+	 * @param column
+	 */
+	public ColumnState(AttributeInDbModel column) {
+		super();
+		this.databaseType    = column.getDatabaseType();
+		this.jdbcTypeCode    = column.getJdbcTypeCode() ;
+		this.databaseNotNull = column.getDatabaseNotNullAsString();
+		this.databaseSize    = column.getDatabaseSize();
+		this.databaseComment = column.getDatabaseComment();
+		this.keyElement      = column.isKeyElement();
+		this.fkSimple        = column.isFKSimple();
+		this.fkComposite     = column.isFKComposite();
+		this.referencedEntityClassName = column.getReferencedEntityClassName();
+		this.fkParts         = Collections.unmodifiableList(new ArrayList<>(column.getFKParts())); // parts are never modified
+	}
+	
+	/**
+	 * Sets this state in the given column
+	 * @param column
+	 */
+	public void applyTo(AttributeInDbModel column) {
+		column.setDatabaseTypeName(databaseType);
+		column.setJdbcTypeCode(jdbcTypeCode);
+		column.setDatabaseNotNull(databaseNotNull);
+		column.setDatabaseSize(databaseSize);
+		column.setDatabaseComment(databaseComment);
+		column.setKeyElement(keyElement);
+		applyForeignKeyInformationTo(column);
+	}
+
+	/**
+	 * Sets only the foreign key information of this state in the given column
+	 * @param column
+	 */
+	public void applyForeignKeyInformationTo(AttributeInDbModel column) {
+		column.setFKSimple(fkSimple);
+		column.setFKComposite(fkComposite);
+		column.setReferencedEntityClassName(referencedEntityClassName);
+		column.removeAllFKParts();
+		for ( ForeignKeyPart fkPart : fkParts ) {
+			column.addFKPart(fkPart);
+		}
+	}
+
+	public String getDatabaseType() {
+		return databaseType;
+	}
+
+	public int getJdbcTypeCode() {
+		return jdbcTypeCode;
+	}
+
+	public String getDatabaseNotNull() {
+		return databaseNotNull;
+	}
+
+	public String getDatabaseSize() {
+		return databaseSize;
+	}
+
+	public String getDatabaseComment() {
+		return databaseComment;
+	}
+
+	public boolean isKeyElement() {
+		return keyElement;
+	}
+
+	public boolean isFKSimple() {
+		return fkSimple;
+	}
+
+	public boolean isFKComposite() {
+		return fkComposite;
+	}
+
+	public String getReferencedEntityClassName() {
+		return referencedEntityClassName;
+	}
+
+	public List<ForeignKeyPart> getFKParts() {
+		return fkParts;
+	}
+}
@@ -0,0 +1,244 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.changelog;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+
+/**
+ * ChangeLog listener writing each change as a JSON object on a single line (JSON Lines format) <br>
+ * The changes are written as soon as they are received (nothing is kept in memory) <br>
+ * and the output is flushed after each entity <br>
+ * Examples : <br>
+ * {"type":"column","change":"UPDATED","entity":"TEACHER","column":"NAME","before":{...},"after":{...}} <br>
+ * {"type":"foreignKey","change":"CREATED","entity":"TEACHER","foreignKey":"FK_1","before":null,"after":{...}} <br>
+ * {"type":"entity","change":"UPDATED","entity":"TEACHER","changes":2,"typeChanged":false,"commentChanged":false} <br>
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class JsonLinesChangeLogWriter implements ChangeLogListener, Closeable {
+
+	private final Writer writer ;
+	
+	/**
+	 * Constructor for a file (UTF-8)
+	 * @param file
+	 */
+	public JsonLinesChangeLogWriter(File file) {
+		this(openFile(file));
+	}
+
+	/**
+	 * Constructor for any writer (closed by this writer)
+	 * @param writer
+	 */
+	public JsonLinesChangeLogWriter(Writer writer) {
+		super();
+		if ( writer == null ) {
+			throw new IllegalArgumentException("Writer is null");
+		}
+		this.writer = new BufferedWriter(writer);
+	}
+	
+	private static Writer openFile(File file) {
+		if ( file == null ) {
+			throw new IllegalArgumentException("File is null");
+		}
+		try {
+			return new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new RuntimeException("JsonLinesChangeLogWriter : cannot create file '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------------------
+	@Override
+	public void columnChanged(ChangeOnEntity changeOnEntity, ChangeOnColumn changeOnColumn) {
+		AttributeInDbModel column = changeOnColumn.getColumnAfter() != null ? 
+				changeOnColumn.getColumnAfter() : changeOnColumn.getColumnBefore() ;
+		StringBuilder sb = begin("column", changeOnColumn.getChangeType(), changeOnEntity);
+		sb.append(',');
+		property(sb, "column", column != null ? column.getDatabaseName() : null);
+		sb.append(",\"before\":");
+		column(sb, column, changeOnColumn.getColumnStateBefore()); // no copy of the 'before state' column
+		sb.append(",\"after\":");
+		AttributeInDbModel columnAfter = changeOnColumn.getColumnAfter() ;
+		column(sb, column, columnAfter != null ? new ColumnState(columnAfter) : null);
+		writeLine(sb, false);
+	}
+
+	@Override
+	public void foreignKeyChanged(ChangeOnEntity changeOnEntity, ChangeOnForeignKey changeOnForeignKey) {
+		StringBuilder sb = begin("foreignKey", changeOnForeignKey.getChangeType(), changeOnEntity);
+		sb.append(',');
+		property(sb, "foreignKey", changeOnForeignKey.getForeignKeyName());
+		sb.append(",\"before\":");
+		foreignKey(sb, changeOnForeignKey.getForeignKeyBefore());
+		sb.append(",\"after\":");
+		foreignKey(sb, changeOnForeignKey.getForeignKeyAfter());
+		writeLine(sb, false);
+	}
+
+	@Override
+	public void entityChanged(ChangeOnEntity changeOnEntity) {
+		StringBuilder sb = begin("entity", changeOnEntity.getChangeType(), changeOnEntity);
+		sb.append(",\"changes\":").append(changeOnEntity.getNumberOfChanges());
+		sb.append(",\"typeChanged\":").append(changeOnEntity.isDatabaseTypeHasChanged());
+		sb.append(",\"commentChanged\":").append(changeOnEntity.isDatabaseCommentHasChanged());
+		writeLine(sb, true);
+	}
+
+	//----------------------------------------------------------------------------------------------------------
+	/**
+	 * Flushes all the changes already written
+	 */
+	public synchronized void flush() {
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new RuntimeException("JsonLinesChangeLogWriter : cannot flush (IOException)", e);
+		}
+	}
+	
+	@Override
+	public synchronized void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			throw new RuntimeException("JsonLinesChangeLogWriter : cannot close (IOException)", e);
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------------------
+	private synchronized void writeLine(StringBuilder sb, boolean flush) {
+		sb.append("}\n");
+		try {
+			writer.write(sb.toString());
+			if ( flush ) {
+				writer.flush();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("JsonLinesChangeLogWriter : cannot write (IOException)", e);
+		}
+	}
+	
+	private StringBuilder begin(String type, ChangeType changeType, ChangeOnEntity changeOnEntity) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append('{');
+		property(sb, "type", type);
+		sb.append(',');
+		property(sb, "change", changeType.name());
+		sb.append(',');
+		property(sb, "entity", changeOnEntity.getEntityName());
+		return sb ;
+	}
+	
+	private void column(StringBuilder sb, AttributeInDbModel column, ColumnState state) {
+		if ( state == null ) {
+			sb.append("null");
+			return ;
+		}
+		sb.append('{');
+		property(sb, "name", column.getDatabaseName());
+		sb.append(',');
+		property(sb, "attribute", column.getName());
+		sb.append(',');
+		property(sb, "dbType", state.getDatabaseType());
+		sb.append(",\"jdbcType\":").append(state.getJdbcTypeCode());
+		sb.append(',');
+		property(sb, "size", state.getDatabaseSize());
+		sb.append(",\"notNull\":").append(state.getDatabaseNotNull());
+		sb.append(",\"primaryKey\":").append(state.isKeyElement());
+		sb.append(',');
+		property(sb, "comment", state.getDatabaseComment());
+		sb.append('}');
+	}
+	
+	private void foreignKey(StringBuilder sb, ForeignKeyInDbModel foreignKey) {
+		if ( foreignKey == null ) {
+			sb.append("null");
+			return ;
+		}
+		sb.append('{');
+		property(sb, "name", foreignKey.getName());
+		sb.append(',');
+		property(sb, "table", foreignKey.getTableName());
+		sb.append(',');
+		property(sb, "referencedTable", foreignKey.getReferencedTableName());
+		sb.append(",\"columns\":[");
+		boolean first = true ;
+		for ( ForeignKeyColumnInDbModel fkColumn : foreignKey.getForeignKeyColumns() ) {
+			if ( ! first ) {
+				sb.append(',');
+			}
+			sb.append('{');
+			property(sb, "column", fkColumn.getColumnName());
+			sb.append(',');
+			property(sb, "referencedColumn", fkColumn.getReferencedColumnName());
+			sb.append('}');
+			first = false ;
+		}
+		sb.append("]}");
+	}
+	
+	private void property(StringBuilder sb, String name, String value) {
+		sb.append('"').append(name).append("\":");
+		if ( value == null ) {
+			sb.append("null");
+		}
+		else {
+			sb.append('"');
+			escape(sb, value);
+			sb.append('"');
+		}
+	}
+	
+	/**
+	 * Appends the given string with the JSON escape sequences
+	 * @param sb
+	 * @param s
+	 */
+	protected static void escape(StringBuilder sb, String s) {
+		for ( int i = 0 ; i < s.length() ; i++ ) {
+			char c = s.charAt(i);
+			switch ( c ) {
+			case '"'  : sb.append("\\\""); break;
+			case '\\' : sb.append("\\\\"); break;
+			case '\n' : sb.append("\\n"); break;
+			case '\r' : sb.append("\\r"); break;
+			case '\t' : sb.append("\\t"); break;
+			default :
+				if ( c < 0x20 ) {
+					sb.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					sb.append(c);
+				}
+			}
+		}
+	}
+}
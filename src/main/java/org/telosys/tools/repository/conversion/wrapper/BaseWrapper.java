@@ -34,6 +34,7 @@ public class BaseWrapper {
 		//model.setGenerationDate(RepositoryConst.getDate(base.getAttribute(RepositoryConst.TABLELIST_GENERATION)));
 		model.setGenerationDate(RepositoryConst.parseDate(base.getAttribute(RepositoryConst.TABLELIST_GENERATION))); // v 2.1.1 (parseDate)
 		model.setDatabaseId(StrUtil.getInt(base.getAttribute(RepositoryConst.TABLELIST_DATABASE_ID), -1) );	 // v 2.1.0	
+		model.setDatabaseSchemaVersion(base.getAttribute(RepositoryConst.TABLELIST_DATABASE_SCHEMA_VERSION)); 
 		return model;
 	}
 
@@ -44,6 +45,9 @@ public class BaseWrapper {
 		//table.setAttribute(RepositoryConst.TABLELIST_GENERATION, RepositoryConst.DATE_TIME_ISO_FORMAT.format(model.getGenerationDate()));
 		table.setAttribute(RepositoryConst.TABLELIST_GENERATION, RepositoryConst.formatDate(model.getGenerationDate()));
 		table.setAttribute(RepositoryConst.TABLELIST_DATABASE_ID, Integer.toString( model.getDatabaseId() ) ); // v 2.1.0
+		if ( model.getDatabaseSchemaVersion().length() > 0 ) {
+			table.setAttribute(RepositoryConst.TABLELIST_DATABASE_SCHEMA_VERSION, model.getDatabaseSchemaVersion()); 
+		}
 		
 		return table;
 	}
@@ -0,0 +1,60 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.logging;
+
+/**
+ * Log levels for the repository logger 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public enum LogLevel {
+
+	/**
+	 * Nothing is logged (no-op mode)
+	 */
+	NONE(0),
+	
+	/**
+	 * Errors only
+	 */
+	ERROR(1),
+	
+	/**
+	 * Errors and main steps 
+	 */
+	INFO(2),
+	
+	/**
+	 * Everything including the details for each table and each column
+	 */
+	DEBUG(3);
+	
+	private final int value ;
+	
+	private LogLevel(int value) {
+		this.value = value ;
+	}
+	
+	/**
+	 * Returns true if a message with the given level is logged with this current level
+	 * @param messageLevel
+	 * @return
+	 */
+	public boolean isEnabled(LogLevel messageLevel) {
+		return messageLevel.value <= this.value && messageLevel != NONE ;
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.logging;
+
+import org.telosys.tools.commons.TelosysToolsLogger;
+
+/**
+ * Logging facade used on the generation and update paths <br>
+ * Each message is checked against the current level before any string building : <br>
+ * . the messages with parameters use '{}' placeholders and are formatted only if logged <br>
+ * . the messages can be supplied lazily with a 'LogMessage' <br>
+ * . the 'NONE' level (or a null logger) is a no-op mode <br>
+ * <br>
+ * DEBUG and INFO messages are sent to 'TelosysToolsLogger.log', ERROR messages to 'TelosysToolsLogger.error'
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class RepositoryLogger {
+
+	private static final String PLACEHOLDER = "{}" ;
+	
+	private static final RepositoryLogger NO_OP_LOGGER = new RepositoryLogger(null, LogLevel.NONE);
+	
+	private final TelosysToolsLogger logger ;
+	
+	private final LogLevel level ;
+	
+	/**
+	 * Constructor
+	 * @param logger the logger to be used (if null nothing is logged)
+	 * @param level the current level
+	 */
+	public RepositoryLogger(TelosysToolsLogger logger, LogLevel level) {
+		super();
+		this.logger = logger;
+		this.level = ( logger != null && level != null ) ? level : LogLevel.NONE ;
+	}
+
+	/**
+	 * Returns a logger that never logs anything
+	 * @return
+	 */
+	public static RepositoryLogger noOp() {
+		return NO_OP_LOGGER ;
+	}
+	
+	public LogLevel getLevel() {
+		return level;
+	}
+
+	public boolean isDebugEnabled() {
+		return level.isEnabled(LogLevel.DEBUG) ;
+	}
+
+	public boolean isInfoEnabled() {
+		return level.isEnabled(LogLevel.INFO) ;
+	}
+
+	public boolean isErrorEnabled() {
+		return level.isEnabled(LogLevel.ERROR) ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	// DEBUG
+	//-------------------------------------------------------------------------------------
+	public void debug(String message) {
+		if ( isDebugEnabled() ) {
+			logger.log(message);
+		}
+	}
+	
+	public void debug(String pattern, Object arg) {
+		if ( isDebugEnabled() ) {
+			logger.log(format(pattern, arg, null, null, 1));
+		}
+	}
+	
+	public void debug(String pattern, Object arg1, Object arg2) {
+		if ( isDebugEnabled() ) {
+			logger.log(format(pattern, arg1, arg2, null, 2));
+		}
+	}
+	
+	public void debug(String pattern, Object arg1, Object arg2, Object arg3) {
+		if ( isDebugEnabled() ) {
+			logger.log(format(pattern, arg1, arg2, arg3, 3));
+		}
+	}
+	
+	public void debug(LogMessage message) {
+		if ( isDebugEnabled() ) {
+			logger.log(message.getMessage());
+		}
+	}
+	
+	//-------------------------------------------------------------------------------------
+	// INFO
+	//-------------------------------------------------------------------------------------
+	public void info(String message) {
+		if ( isInfoEnabled() ) {
+			logger.log(message);
+		}
+	}
+	
+	public void info(String pattern, Object arg) {
+		if ( isInfoEnabled() ) {
+			logger.log(format(pattern, arg, null, null, 1));
+		}
+	}
+	
+	public void info(String pattern, Object arg1, Object arg2) {
+		if ( isInfoEnabled() ) {
+			logger.log(format(pattern, arg1, arg2, null, 2));
+		}
+	}
+	
+	public void info(LogMessage message) {
+		if ( isInfoEnabled() ) {
+			logger.log(message.getMessage());
+		}
+	}
+	
+	//-------------------------------------------------------------------------------------
+	// ERROR
+	//-------------------------------------------------------------------------------------
+	public void error(String message) {
+		if ( isErrorEnabled() ) {
+			logger.error(message);
+		}
+	}
+	
+	public void error(String pattern, Object arg) {
+		if ( isErrorEnabled() ) {
+			logger.error(format(pattern, arg, null, null, 1));
+		}
+	}
+	
+	public void error(String pattern, Object arg1, Object arg2) {
+		if ( isErrorEnabled() ) {
+			logger.error(format(pattern, arg1, arg2, null, 2));
+		}
+	}
+	
+	//-------------------------------------------------------------------------------------
+	/**
+	 * Replaces the '{}' placeholders by the given arguments (in order) 
+	 * @param pattern
+	 * @param arg1
+	 * @param arg2
+	 * @param arg3
+	 * @param argsCount
+	 * @return
+	 */
+	protected static String format(String pattern, Object arg1, Object arg2, Object arg3, int argsCount) {
+		if ( pattern == null ) {
+			return null ;
+		}
+		StringBuilder sb = new StringBuilder(pattern.length() + 32);
+		int start = 0 ;
+		int argIndex = 0 ;
+		int i = pattern.indexOf(PLACEHOLDER);
+		while ( i >= 0 && argIndex < argsCount ) {
+			sb.append(pattern, start, i);
+			argIndex++ ;
+			sb.append( argIndex == 1 ? arg1 : ( argIndex == 2 ? arg2 : arg3 ) );
+			start = i + PLACEHOLDER.length() ;
+			i = pattern.indexOf(PLACEHOLDER, start);
+		}
+		sb.append(pattern, start, pattern.length());
+		return sb.toString();
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.io.Serializable;
+
+/**
+ * Database column meta-data ( detached copy of the JDBC meta-data )
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class ColumnMetadata implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String  columnName ;
+	private final String  dbTypeName ;
+	private final int     jdbcTypeCode ;
+	private final int     size ;
+	private final boolean notNull ;
+	private final boolean inPrimaryKey ;
+	private final boolean autoIncremented ;
+	private final int     ordinalPosition ;
+	private final String  defaultValue ;
+	private final String  comment ;
+
+	/**
+	 * Constructor
+	 * @param columnName
+	 * @param dbTypeName
+	 * @param jdbcTypeCode
+	 * @param size
+	 * @param notNull
+	 * @param inPrimaryKey
+	 * @param autoIncremented
+	 * @param ordinalPosition
+	 * @param defaultValue
+	 * @param comment
+	 */
+	public ColumnMetadata(String columnName, String dbTypeName, int jdbcTypeCode, int size, 
+			boolean notNull, boolean inPrimaryKey, boolean autoIncremented, 
+			int ordinalPosition, String defaultValue, String comment) {
+		super();
+		this.columnName = columnName;
+		this.dbTypeName = dbTypeName;
+		this.jdbcTypeCode = jdbcTypeCode;
+		this.size = size;
+		this.notNull = notNull;
+		this.inPrimaryKey = inPrimaryKey;
+		this.autoIncremented = autoIncremented;
+		this.ordinalPosition = ordinalPosition;
+		this.defaultValue = defaultValue;
+		this.comment = comment;
+	}
+
+	public String getColumnName() {
+		return columnName;
+	}
+
+	public String getDbTypeName() {
+		return dbTypeName;
+	}
+
+	public int getJdbcTypeCode() {
+		return jdbcTypeCode;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public boolean isNotNull() {
+		return notNull;
+	}
+
+	/**
+	 * Returns the 'not null' flag as a string ( "true" or "false" )
+	 * @return
+	 */
+	public String getNotNullAsString() {
+		return notNull ? "true" : "false" ;
+	}
+
+	public boolean isInPrimaryKey() {
+		return inPrimaryKey;
+	}
+
+	public boolean isAutoIncremented() {
+		return autoIncremented;
+	}
+
+	public int getOrdinalPosition() {
+		return ordinalPosition;
+	}
+
+	public String getDefaultValue() {
+		return defaultValue;
+	}
+
+	public String getComment() {
+		return comment;
+	}
+
+	@Override
+	public String toString() {
+		return columnName + " " + dbTypeName + "(" + size + ")" 
+				+ ( notNull ? " NOT NULL" : "" ) + ( inPrimaryKey ? " PK" : "" ) ;
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.io.Serializable;
+
+/**
+ * Database foreign key column meta-data ( detached copy of the JDBC meta-data )
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class ForeignKeyColumnMetadata implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int    fkSequence ;
+	private final String fkTableName ;
+	private final String fkColumnName ;
+	private final String pkTableName ;
+	private final String pkColumnName ;
+	private final int    updateRule ;
+	private final int    deleteRule ;
+	private final int    deferrability ;
+
+	/**
+	 * Constructor
+	 * @param fkSequence
+	 * @param fkTableName
+	 * @param fkColumnName
+	 * @param pkTableName
+	 * @param pkColumnName
+	 * @param updateRule
+	 * @param deleteRule
+	 * @param deferrability
+	 */
+	public ForeignKeyColumnMetadata(int fkSequence, String fkTableName, String fkColumnName, 
+			String pkTableName, String pkColumnName, 
+			int updateRule, int deleteRule, int deferrability) {
+		super();
+		this.fkSequence = fkSequence;
+		this.fkTableName = fkTableName;
+		this.fkColumnName = fkColumnName;
+		this.pkTableName = pkTableName;
+		this.pkColumnName = pkColumnName;
+		this.updateRule = updateRule;
+		this.deleteRule = deleteRule;
+		this.deferrability = deferrability;
+	}
+
+	public int getFkSequence() {
+		return fkSequence;
+	}
+
+	public String getFkTableName() {
+		return fkTableName;
+	}
+
+	public String getFkColumnName() {
+		return fkColumnName;
+	}
+
+	public String getPkTableName() {
+		return pkTableName;
+	}
+
+	public String getPkColumnName() {
+		return pkColumnName;
+	}
+
+	public int getUpdateRule() {
+		return updateRule;
+	}
+
+	public int getDeleteRule() {
+		return deleteRule;
+	}
+
+	public int getDeferrability() {
+		return deferrability;
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Database foreign key meta-data ( detached copy of the JDBC meta-data )
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class ForeignKeyMetadata implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String foreignKeyName ;
+	
+	private final List<ForeignKeyColumnMetadata> foreignKeyColumns = new LinkedList<>();
+
+	/**
+	 * Constructor
+	 * @param foreignKeyName
+	 */
+	public ForeignKeyMetadata(String foreignKeyName) {
+		super();
+		this.foreignKeyName = foreignKeyName;
+	}
+
+	public String getForeignKeyName() {
+		return foreignKeyName;
+	}
+
+	/**
+	 * Adds a column in the foreign key
+	 * @param foreignKeyColumn
+	 */
+	public void addForeignKeyColumn(ForeignKeyColumnMetadata foreignKeyColumn) {
+		foreignKeyColumns.add(foreignKeyColumn);
+	}
+
+	/**
+	 * Returns the columns of the foreign key
+	 * @return
+	 */
+	public List<ForeignKeyColumnMetadata> getForeignKeyColumns() {
+		return Collections.unmodifiableList(foreignKeyColumns);
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Schema version strategy for H2 <br>
+ * The "SQL" column of the INFORMATION_SCHEMA tables holds the current DDL of each table and constraint
+ * (including the column types, the NOT NULL flags and the comments) 
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class H2SchemaVersionStrategy extends SchemaVersionStrategy {
+
+	private static final String TABLES_ALL_SCHEMAS = 
+			"SELECT TABLE_SCHEMA, TABLE_NAME, TABLE_TYPE, REMARKS, SQL FROM INFORMATION_SCHEMA.TABLES "
+			+ "WHERE TABLE_SCHEMA <> 'INFORMATION_SCHEMA' ORDER BY TABLE_SCHEMA, TABLE_NAME" ;
+	
+	private static final String TABLES_ONE_SCHEMA = 
+			"SELECT TABLE_SCHEMA, TABLE_NAME, TABLE_TYPE, REMARKS, SQL FROM INFORMATION_SCHEMA.TABLES "
+			+ "WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME" ;
+	
+	private static final String CONSTRAINTS_ALL_SCHEMAS = 
+			"SELECT TABLE_SCHEMA, TABLE_NAME, CONSTRAINT_NAME, SQL FROM INFORMATION_SCHEMA.CONSTRAINTS "
+			+ "ORDER BY TABLE_SCHEMA, TABLE_NAME, CONSTRAINT_NAME" ;
+	
+	private static final String CONSTRAINTS_ONE_SCHEMA = 
+			"SELECT TABLE_SCHEMA, TABLE_NAME, CONSTRAINT_NAME, SQL FROM INFORMATION_SCHEMA.CONSTRAINTS "
+			+ "WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME, CONSTRAINT_NAME" ;
+	
+	/**
+	 * Constructor
+	 */
+	public H2SchemaVersionStrategy() {
+		super("h2");
+	}
+
+	@Override
+	public boolean accept(String databaseProductName) {
+		return "H2".equalsIgnoreCase(databaseProductName);
+	}
+
+	@Override
+	public int appendSchemaState(Connection con, String schema, StringBuilder sb) throws SQLException {
+		int tables ;
+		if ( schema != null && schema.length() > 0 ) {
+			tables = appendQueryResult(con, TABLES_ONE_SCHEMA, schema, sb);
+			appendQueryResult(con, CONSTRAINTS_ONE_SCHEMA, schema, sb);
+		}
+		else {
+			tables = appendQueryResult(con, TABLES_ALL_SCHEMAS, sb);
+			appendQueryResult(con, CONSTRAINTS_ALL_SCHEMAS, sb);
+		}
+		return tables ;
+	}
+}
@@ -0,0 +1,234 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process cache for the tables meta-data <br>
+ * Can be shared by several generators/updators (thread-safe) <br>
+ * . each entry expires after the 'time to live' <br>
+ * . the least recently used entry is evicted when the maximum size is reached <br>
+ * . entries can be explicitly invalidated (for a database or for all) <br>
+ * . an entry can hold the schema version read before loading its tables (see SchemaVersion) <br>
+ *   and is considered as stale for another version
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class MetadataCache {
+
+	public static final long DEFAULT_TIME_TO_LIVE = 5 * 60 * 1000L ; // 5 minutes
+	
+	public static final int  DEFAULT_MAX_SIZE     = 16 ;
+	
+	private static class CacheEntry {
+		private final List<TableMetadata> tables ;
+		private final String schemaVersion ;
+		private final long creationTime ;
+		private CacheEntry(List<TableMetadata> tables, String schemaVersion, long creationTime) {
+			this.tables = tables ;
+			this.schemaVersion = schemaVersion ;
+			this.creationTime = creationTime ;
+		}
+	}
+	
+	private final long timeToLive ;
+	
+	private final int  maxSize ;
+	
+	private final LinkedHashMap<MetadataCacheKey, CacheEntry> entries ;
+	
+	private long hitCount      = 0 ;
+	private long missCount     = 0 ;
+	private long evictionCount = 0 ;
+	
+	/**
+	 * Constructor with default 'time to live' and default maximum size
+	 */
+	public MetadataCache() {
+		this(DEFAULT_TIME_TO_LIVE, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param timeToLive the time to live of each entry in milliseconds
+	 * @param maxSize the maximum number of entries
+	 */
+	public MetadataCache(long timeToLive, int maxSize) {
+		super();
+		if ( timeToLive <= 0 ) {
+			throw new IllegalArgumentException("Invalid time to live " + timeToLive);
+		}
+		if ( maxSize <= 0 ) {
+			throw new IllegalArgumentException("Invalid max size " + maxSize);
+		}
+		this.timeToLive = timeToLive ;
+		this.maxSize = maxSize ;
+		this.entries = new LinkedHashMap<MetadataCacheKey, CacheEntry>(16, 0.75f, true) { // access order (LRU)
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<MetadataCacheKey, CacheEntry> eldest) {
+				if ( size() > MetadataCache.this.maxSize ) {
+					evictionCount++;
+					return true ;
+				}
+				return false ;
+			}
+		};
+	}
+
+	/**
+	 * Returns the current time in milliseconds 
+	 * @return
+	 */
+	protected long currentTime() {
+		return System.currentTimeMillis() ;
+	}
+	
+	/**
+	 * Returns the tables stored for the given key or null if none (or expired)
+	 * @param key
+	 * @return
+	 */
+	public synchronized List<TableMetadata> get(MetadataCacheKey key) {
+		return get(key, null);
+	}
+	
+	/**
+	 * Returns the tables stored for the given key and the given schema version <br>
+	 * or null if none (or expired, or stored for another schema version)
+	 * @param key
+	 * @param schemaVersion the current schema version (or null if unknown : the version is not checked)
+	 * @return
+	 */
+	public synchronized List<TableMetadata> get(MetadataCacheKey key, String schemaVersion) {
+		CacheEntry entry = entries.get(key);
+		if ( entry != null ) {
+			if ( schemaVersion != null && ! schemaVersion.equals(entry.schemaVersion) ) {
+				//--- Tables loaded for another version of the schema 
+				entries.remove(key);
+				evictionCount++;
+			}
+			else if ( currentTime() - entry.creationTime < timeToLive ) {
+				hitCount++;
+				return entry.tables ;
+			}
+			else {
+				entries.remove(key);
+				evictionCount++;
+			}
+		}
+		missCount++;
+		return null ;
+	}
+	
+	/**
+	 * Stores the given tables for the given key
+	 * @param key
+	 * @param tables
+	 */
+	public synchronized void put(MetadataCacheKey key, List<TableMetadata> tables) {
+		put(key, tables, null);
+	}
+	
+	/**
+	 * Stores the given tables for the given key with the schema version read before loading them
+	 * @param key
+	 * @param tables
+	 * @param schemaVersion the schema version (or null if unknown)
+	 */
+	public synchronized void put(MetadataCacheKey key, List<TableMetadata> tables, String schemaVersion) {
+		entries.put(key, new CacheEntry(Collections.unmodifiableList(new ArrayList<>(tables)), schemaVersion, currentTime()) );
+	}
+	
+	/**
+	 * Removes all the entries for the given database id
+	 * @param databaseId
+	 * @return the number of entries removed
+	 */
+	public synchronized int invalidate(int databaseId) {
+		int n = 0 ;
+		Iterator<MetadataCacheKey> iterator = entries.keySet().iterator();
+		while ( iterator.hasNext() ) {
+			if ( iterator.next().getDatabaseId() == databaseId ) {
+				iterator.remove();
+				n++;
+			}
+		}
+		return n ;
+	}
+	
+	/**
+	 * Removes the entry for the given key
+	 * @param key
+	 * @return true if an entry has been removed
+	 */
+	public synchronized boolean invalidate(MetadataCacheKey key) {
+		return entries.remove(key) != null ;
+	}
+	
+	/**
+	 * Removes all the entries
+	 */
+	public synchronized void invalidateAll() {
+		entries.clear();
+	}
+	
+	/**
+	 * Returns the current number of entries (including expired entries not yet removed)
+	 * @return
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the number of entries removed due to expiration or maximum size 
+	 * @return
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Resets the hit/miss/eviction counters
+	 */
+	public synchronized void resetStatistics() {
+		hitCount = 0 ;
+		missCount = 0 ;
+		evictionCount = 0 ;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "MetadataCache : size = " + entries.size() + "/" + maxSize + ", time to live = " + timeToLive 
+				+ " ms, hits = " + hitCount + ", misses = " + missCount + ", evictions = " + evictionCount ;
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.util.Arrays;
+
+import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
+
+/**
+ * Key of the meta-data cache <br>
+ * Identifies a set of tables by the database id and all the meta-data parameters
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class MetadataCacheKey {
+
+	private final int      databaseId ;
+	private final String   catalog ;
+	private final String   schema ;
+	private final String   tableNamePattern ;
+	private final String[] tableTypes ;
+	private final String   tableNameInclude ;
+	private final String   tableNameExclude ;
+	
+	/**
+	 * Constructor
+	 * @param databaseId
+	 * @param catalog
+	 * @param schema
+	 * @param tableNamePattern
+	 * @param tableTypes
+	 * @param tableNameInclude
+	 * @param tableNameExclude
+	 */
+	public MetadataCacheKey(int databaseId, String catalog, String schema, String tableNamePattern, String[] tableTypes,
+			String tableNameInclude, String tableNameExclude) {
+		super();
+		this.databaseId = databaseId;
+		this.catalog = catalog;
+		this.schema = schema;
+		this.tableNamePattern = tableNamePattern;
+		this.tableTypes = tableTypes != null ? tableTypes.clone() : new String[0] ;
+		this.tableNameInclude = tableNameInclude;
+		this.tableNameExclude = tableNameExclude;
+	}
+
+	/**
+	 * Builds the key for the given database configuration
+	 * @param databaseConfig
+	 * @return
+	 */
+	public static MetadataCacheKey build(DatabaseConfiguration databaseConfig) {
+		return build(databaseConfig, databaseConfig.getMetadataCatalog(), databaseConfig.getMetadataSchema());
+	}
+	
+	/**
+	 * Builds the key for the given database configuration with a specific catalog and schema
+	 * @param databaseConfig
+	 * @param catalog
+	 * @param schema
+	 * @return
+	 */
+	public static MetadataCacheKey build(DatabaseConfiguration databaseConfig, String catalog, String schema) {
+		return new MetadataCacheKey(databaseConfig.getDatabaseId(), 
+				catalog, 
+				schema, 
+				databaseConfig.getMetadataTableNamePattern(), 
+				databaseConfig.getMetadataTableTypesArray(), 
+				databaseConfig.getMetadataTableNameInclude(), 
+				databaseConfig.getMetadataTableNameExclude() );
+	}
+	
+	public int getDatabaseId() {
+		return databaseId;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + databaseId;
+		result = prime * result + ((catalog == null) ? 0 : catalog.hashCode());
+		result = prime * result + ((schema == null) ? 0 : schema.hashCode());
+		result = prime * result + ((tableNamePattern == null) ? 0 : tableNamePattern.hashCode());
+		result = prime * result + Arrays.hashCode(tableTypes);
+		result = prime * result + ((tableNameInclude == null) ? 0 : tableNameInclude.hashCode());
+		result = prime * result + ((tableNameExclude == null) ? 0 : tableNameExclude.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if ( ! ( obj instanceof MetadataCacheKey ) ) {
+			return false;
+		}
+		MetadataCacheKey other = (MetadataCacheKey) obj;
+		return databaseId == other.databaseId 
+				&& same(catalog, other.catalog)
+				&& same(schema, other.schema)
+				&& same(tableNamePattern, other.tableNamePattern)
+				&& Arrays.equals(tableTypes, other.tableTypes)
+				&& same(tableNameInclude, other.tableNameInclude)
+				&& same(tableNameExclude, other.tableNameExclude) ;
+	}
+	
+	private boolean same(String s1, String s2) {
+		return s1 == null ? s2 == null : s1.equals(s2) ;
+	}
+
+	@Override
+	public String toString() {
+		return "databaseId=" + databaseId + ", catalog=" + catalog + ", schema=" + schema 
+				+ ", pattern=" + tableNamePattern + ", types=" + Arrays.toString(tableTypes) 
+				+ ", include=" + tableNameInclude + ", exclude=" + tableNameExclude ;
+	}
+}
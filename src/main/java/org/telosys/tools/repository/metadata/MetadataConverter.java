@@ -0,0 +1,96 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.telosys.tools.db.model.DatabaseColumn;
+import org.telosys.tools.db.model.DatabaseForeignKey;
+import org.telosys.tools.db.model.DatabaseForeignKeyColumn;
+import org.telosys.tools.db.model.DatabaseTable;
+import org.telosys.tools.db.model.DatabaseTables;
+
+/**
+ * Conversion from the JDBC meta-data model ( DatabaseTable, DatabaseColumn, etc ) 
+ * to the detached meta-data classes
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class MetadataConverter {
+
+	private MetadataConverter() {
+	}
+	
+	/**
+	 * Converts all the given database tables
+	 * @param dbTables
+	 * @return
+	 */
+	public static List<TableMetadata> convertTables(DatabaseTables dbTables) {
+		List<TableMetadata> list = new LinkedList<>();
+		for ( DatabaseTable dbTable : dbTables ) {
+			list.add( convertTable(dbTable) );
+		}
+		return list ;
+	}
+	
+	/**
+	 * Converts the given database table with its columns and foreign keys
+	 * @param dbTable
+	 * @return
+	 */
+	public static TableMetadata convertTable(DatabaseTable dbTable) {
+		TableMetadata table = new TableMetadata(dbTable.getCatalogName(), dbTable.getSchemaName(), 
+				dbTable.getTableName(), dbTable.getTableType(), dbTable.getComment() ) ;
+		for ( DatabaseColumn dbColumn : dbTable.getColumns() ) {
+			table.addColumn( convertColumn(dbColumn) );
+		}
+		for ( DatabaseForeignKey dbForeignKey : dbTable.getForeignKeys() ) {
+			table.addForeignKey( convertForeignKey(dbForeignKey) );
+		}
+		return table ;
+	}
+
+	/**
+	 * Converts the given database column
+	 * @param dbColumn
+	 * @return
+	 */
+	public static ColumnMetadata convertColumn(DatabaseColumn dbColumn) {
+		return new ColumnMetadata(dbColumn.getColumnName(), dbColumn.getDbTypeName(), 
+				dbColumn.getJdbcTypeCode(), dbColumn.getSize(), 
+				dbColumn.isNotNull(), dbColumn.isInPrimaryKey(), dbColumn.isAutoIncremented(), 
+				dbColumn.getOrdinalPosition(), dbColumn.getDefaultValue(), dbColumn.getComment() );
+	}
+
+	/**
+	 * Converts the given database foreign key with its columns
+	 * @param dbForeignKey
+	 * @return
+	 */
+	public static ForeignKeyMetadata convertForeignKey(DatabaseForeignKey dbForeignKey) {
+		ForeignKeyMetadata foreignKey = new ForeignKeyMetadata(dbForeignKey.getForeignKeyName());
+		for ( DatabaseForeignKeyColumn dbFkCol : dbForeignKey.getForeignKeyColumns() ) {
+			foreignKey.addForeignKeyColumn( new ForeignKeyColumnMetadata(dbFkCol.getFkSequence(), 
+					dbFkCol.getFkTableName(), dbFkCol.getFkColumnName(),
+					dbFkCol.getPkTableName(), dbFkCol.getPkColumnName(),
+					dbFkCol.getUpdateRule(), dbFkCol.getDeleteRule(), dbFkCol.getDeferrability() ) );
+		}
+		return foreignKey ;
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Snapshot of the database meta-data used to generate or update a model <br>
+ * Holds the database information, the meta-data parameters used to load the tables 
+ * and all the tables meta-data. <br>
+ * A snapshot can be saved in a file and reused later without any database connection.
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class MetadataSnapshot implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int      databaseId ;
+	private final String   databaseName ;
+	private final String   databaseProductName ;
+	
+	private final String   catalog ;
+	private final String   schema ;
+	private final String   tableNamePattern ;
+	private final String[] tableTypes ;
+	private final String   tableNameInclude ;
+	private final String   tableNameExclude ;
+	
+	private final Date     snapshotDate ;
+	
+	private final List<TableMetadata> tables = new LinkedList<>();
+
+	/**
+	 * Constructor
+	 * @param databaseId
+	 * @param databaseName
+	 * @param databaseProductName
+	 * @param catalog
+	 * @param schema
+	 * @param tableNamePattern
+	 * @param tableTypes
+	 * @param tableNameInclude
+	 * @param tableNameExclude
+	 */
+	public MetadataSnapshot(int databaseId, String databaseName, String databaseProductName, 
+			String catalog, String schema, String tableNamePattern, String[] tableTypes,
+			String tableNameInclude, String tableNameExclude) {
+		super();
+		this.databaseId = databaseId;
+		this.databaseName = databaseName;
+		this.databaseProductName = databaseProductName;
+		this.catalog = catalog;
+		this.schema = schema;
+		this.tableNamePattern = tableNamePattern;
+		this.tableTypes = tableTypes != null ? tableTypes.clone() : new String[0] ;
+		this.tableNameInclude = tableNameInclude;
+		this.tableNameExclude = tableNameExclude;
+		this.snapshotDate = new Date();
+	}
+
+	public int getDatabaseId() {
+		return databaseId;
+	}
+
+	public String getDatabaseName() {
+		return databaseName;
+	}
+
+	public String getDatabaseProductName() {
+		return databaseProductName;
+	}
+
+	public String getCatalog() {
+		return catalog;
+	}
+
+	public String getSchema() {
+		return schema;
+	}
+
+	public String getTableNamePattern() {
+		return tableNamePattern;
+	}
+
+	public String[] getTableTypes() {
+		return tableTypes.clone();
+	}
+
+	public String getTableNameInclude() {
+		return tableNameInclude;
+	}
+
+	public String getTableNameExclude() {
+		return tableNameExclude;
+	}
+
+	/**
+	 * Returns the date of the snapshot (when the meta-data has been loaded)
+	 * @return
+	 */
+	public Date getSnapshotDate() {
+		return snapshotDate;
+	}
+
+	/**
+	 * Adds the given table in the snapshot
+	 * @param table
+	 */
+	public void addTable(TableMetadata table) {
+		tables.add(table);
+	}
+
+	/**
+	 * Adds all the given tables in the snapshot
+	 * @param tablesList
+	 */
+	public void addTables(List<TableMetadata> tablesList) {
+		tables.addAll(tablesList);
+	}
+
+	/**
+	 * Returns all the tables of the snapshot
+	 * @return
+	 */
+	public List<TableMetadata> getTables() {
+		return Collections.unmodifiableList(tables);
+	}
+
+	public int getNumberOfTables() {
+		return tables.size();
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.telosys.tools.commons.TelosysToolsException;
+
+/**
+ * Meta-data snapshot file manager <br>
+ * Saves and loads a snapshot in a compressed binary file <br>
+ * A snapshot file can be shared, so only the meta-data classes (and the basic Java types) are accepted when loading
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class MetadataSnapshotManager {
+
+	private static final int FILE_MAGIC_NUMBER = 0x54444253 ; // "TDBS"
+	
+	private static final int FILE_FORMAT_VERSION = 1 ;
+	
+	private final File file ;
+	
+	/**
+	 * Object input stream accepting only the classes of a snapshot 
+	 */
+	private static class SnapshotInputStream extends ObjectInputStream {
+		
+		private static final String METADATA_PACKAGE = MetadataSnapshot.class.getPackage().getName() + "." ;
+		
+		private SnapshotInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if ( ! isAccepted(desc.getName()) ) {
+				throw new InvalidClassException(desc.getName(), "class not accepted in a meta-data snapshot");
+			}
+			return super.resolveClass(desc);
+		}
+		
+		private static boolean isAccepted(String className) {
+			String name = className ;
+			//--- Array : check the element type ( e.g. "[Ljava.lang.String;" or "[I" )
+			while ( name.startsWith("[") ) {
+				name = name.substring(1);
+			}
+			if ( name.startsWith("L") && name.endsWith(";") ) {
+				name = name.substring(1, name.length() - 1);
+			}
+			else if ( name.length() == 1 ) {
+				return true ; // primitive type 
+			}
+			return isInPackage(name, METADATA_PACKAGE) 
+					|| isInPackage(name, "java.lang.") 
+					|| isInPackage(name, "java.util.") ;
+		}
+		
+		private static boolean isInPackage(String className, String packagePrefix) {
+			// only the classes of the package (not the sub-packages)
+			return className.startsWith(packagePrefix) && className.indexOf('.', packagePrefix.length()) < 0 ;
+		}
+	}
+	
+	/**
+	 * Constructor
+	 * @param file the snapshot file
+	 */
+	public MetadataSnapshotManager(File file) {
+		super();
+		this.file = file;
+	}
+
+	/**
+	 * Saves the given snapshot in the file
+	 * @param snapshot
+	 * @throws TelosysToolsException
+	 */
+	public void save(MetadataSnapshot snapshot) throws TelosysToolsException {
+		try ( ObjectOutputStream out = new ObjectOutputStream( new GZIPOutputStream(
+				new BufferedOutputStream( new FileOutputStream(file) ) ) ) ) {
+			out.writeInt(FILE_MAGIC_NUMBER);
+			out.writeInt(FILE_FORMAT_VERSION);
+			out.writeObject(snapshot);
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot save meta-data snapshot in file '" + file + "'", e);
+		}
+	}
+
+	/**
+	 * Loads the snapshot from the file
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public MetadataSnapshot load() throws TelosysToolsException {
+		if ( ! file.isFile() ) {
+			throw new TelosysToolsException("Meta-data snapshot file '" + file + "' not found");
+		}
+		try ( ObjectInputStream in = new SnapshotInputStream( new GZIPInputStream(
+				new BufferedInputStream( new FileInputStream(file) ) ) ) ) {
+			if ( in.readInt() != FILE_MAGIC_NUMBER ) {
+				throw new TelosysToolsException("Invalid meta-data snapshot file '" + file + "'");
+			}
+			int version = in.readInt();
+			if ( version != FILE_FORMAT_VERSION ) {
+				throw new TelosysToolsException("Unsupported meta-data snapshot version " + version + " (file '" + file + "')");
+			}
+			return (MetadataSnapshot) in.readObject();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot load meta-data snapshot from file '" + file + "'", e);
+		} catch (ClassNotFoundException e) {
+			throw new TelosysToolsException("Cannot load meta-data snapshot from file '" + file + "'", e);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Schema version strategy for PostgreSQL <br>
+ * Reads the relations, the columns (with their formatted type) and the constraint definitions 
+ * from the system catalogs of the schema (the current schema if not defined)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class PostgreSqlSchemaVersionStrategy extends SchemaVersionStrategy {
+
+	private static final String SCHEMA_CONDITION = "n.nspname = COALESCE(CAST(? AS TEXT), current_schema()) " ;
+	
+	private static final String TABLES = 
+			"SELECT c.relname, c.relkind, obj_description(c.oid, 'pg_class'), "
+			+ "a.attname, format_type(a.atttypid, a.atttypmod), a.attnotnull, col_description(c.oid, a.attnum) "
+			+ "FROM pg_class c "
+			+ "JOIN pg_namespace n ON n.oid = c.relnamespace "
+			+ "JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped "
+			+ "WHERE " + SCHEMA_CONDITION 
+			+ "AND c.relkind IN ('r', 'v', 'm', 'f', 'p') "
+			+ "ORDER BY c.relname, a.attnum" ;
+
+	private static final String CONSTRAINTS = 
+			"SELECT c.relname, o.conname, pg_get_constraintdef(o.oid) "
+			+ "FROM pg_constraint o "
+			+ "JOIN pg_class c ON c.oid = o.conrelid "
+			+ "JOIN pg_namespace n ON n.oid = c.relnamespace "
+			+ "WHERE " + SCHEMA_CONDITION 
+			+ "ORDER BY c.relname, o.conname" ;
+	
+	/**
+	 * Constructor
+	 */
+	public PostgreSqlSchemaVersionStrategy() {
+		super("postgresql");
+	}
+
+	@Override
+	public boolean accept(String databaseProductName) {
+		return "PostgreSQL".equalsIgnoreCase(databaseProductName);
+	}
+
+	@Override
+	public int appendSchemaState(Connection con, String schema, StringBuilder sb) throws SQLException {
+		// 1 row per column ( a table has at least 1 column )
+		int columns = appendQueryResult(con, TABLES, schema, sb);
+		appendQueryResult(con, CONSTRAINTS, schema, sb);
+		return columns ;
+	}
+}
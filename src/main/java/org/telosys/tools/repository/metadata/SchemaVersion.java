@@ -0,0 +1,82 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
+
+/**
+ * Schema version : SHA-256 hash of the schema state returned by a database specific strategy <br>
+ * If 2 versions are equal the database schema has not changed and the meta-data don't need to be loaded. <br>
+ * The version is null if there's no strategy for the database or if the schema is void 
+ * (the full meta-data crawl must be done).
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class SchemaVersion {
+
+	private static final List<SchemaVersionStrategy> STRATEGIES = Arrays.asList(
+			new H2SchemaVersionStrategy(), 
+			new PostgreSqlSchemaVersionStrategy() );
+	
+	/**
+	 * Private constructor
+	 */
+	private SchemaVersion() {
+	}
+	
+	/**
+	 * Returns the strategy usable for the given database product (or null if none)
+	 * @param databaseProductName
+	 * @return
+	 */
+	public static SchemaVersionStrategy getStrategy(String databaseProductName) {
+		for ( SchemaVersionStrategy strategy : STRATEGIES ) {
+			if ( strategy.accept(databaseProductName) ) {
+				return strategy ;
+			}
+		}
+		return null ;
+	}
+	
+	/**
+	 * Computes the current version of the schema defined by the given database configuration 
+	 * @param con
+	 * @param databaseConfig
+	 * @return the version (strategy name and hexadecimal hash) or null if not available
+	 * @throws SQLException
+	 */
+	public static String compute(Connection con, DatabaseConfiguration databaseConfig) throws SQLException {
+		SchemaVersionStrategy strategy = getStrategy(con.getMetaData().getDatabaseProductName());
+		if ( strategy == null ) {
+			return null ;
+		}
+		StringBuilder sb = new StringBuilder(4096);
+		//--- The meta-data parameters are part of the version (a new parameter requires a full crawl)
+		TableFingerprint.append(sb, MetadataCacheKey.build(databaseConfig).toString());
+		int count = strategy.appendSchemaState(con, databaseConfig.getMetadataSchema(), sb);
+		if ( count == 0 ) {
+			// nothing found : the schema is not visible with this strategy 
+			return null ;
+		}
+		return strategy.getName() + ":" + TableFingerprint.hash(sb.toString());
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Database specific strategy used to read the state of a schema with a few catalog queries <br>
+ * (much cheaper than the full JDBC meta-data crawl) <br>
+ * The state must change as soon as a table, a column, a comment or a constraint changes.
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public abstract class SchemaVersionStrategy {
+
+	private final String name ;
+	
+	/**
+	 * Constructor
+	 * @param name the strategy name (part of the schema version)
+	 */
+	protected SchemaVersionStrategy(String name) {
+		this.name = name ;
+	}
+	
+	/**
+	 * Returns the strategy name
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns true if the strategy can be used with the given database product
+	 * @param databaseProductName the product name returned by the JDBC meta-data
+	 * @return
+	 */
+	public abstract boolean accept(String databaseProductName) ;
+	
+	/**
+	 * Appends the current state of the given schema 
+	 * @param con
+	 * @param schema the schema name (or null or void for the default schema(s))
+	 * @param sb
+	 * @return the number of tables found in the schema
+	 * @throws SQLException
+	 */
+	public abstract int appendSchemaState(Connection con, String schema, StringBuilder sb) throws SQLException ;
+	
+	/**
+	 * Executes the given query (without parameter) and appends all the values of all the rows
+	 * @param con
+	 * @param sql
+	 * @param sb
+	 * @return the number of rows
+	 * @throws SQLException
+	 */
+	protected int appendQueryResult(Connection con, String sql, StringBuilder sb) throws SQLException {
+		try ( PreparedStatement ps = con.prepareStatement(sql) ) {
+			return appendQueryResult(ps, sb);
+		}
+	}
+	
+	/**
+	 * Executes the given query with its single parameter and appends all the values of all the rows
+	 * @param con
+	 * @param sql
+	 * @param parameter the single query parameter (bound as SQL NULL if null or void)
+	 * @param sb
+	 * @return the number of rows
+	 * @throws SQLException
+	 */
+	protected int appendQueryResult(Connection con, String sql, String parameter, StringBuilder sb) throws SQLException {
+		try ( PreparedStatement ps = con.prepareStatement(sql) ) {
+			if ( parameter != null && parameter.length() > 0 ) {
+				ps.setString(1, parameter);
+			}
+			else {
+				ps.setNull(1, Types.VARCHAR);
+			}
+			return appendQueryResult(ps, sb);
+		}
+	}
+	
+	private int appendQueryResult(PreparedStatement ps, StringBuilder sb) throws SQLException {
+		int rows = 0 ;
+		try ( ResultSet rs = ps.executeQuery() ) {
+			ResultSetMetaData rsmd = rs.getMetaData();
+			int n = rsmd.getColumnCount();
+			while ( rs.next() ) {
+				rows++ ;
+				sb.append('R');
+				for ( int i = 1 ; i <= n ; i++ ) {
+					TableFingerprint.append(sb, rs.getString(i));
+				}
+			}
+		}
+		sb.append('#').append(rows).append(';');
+		return rows ;
+	}
+}
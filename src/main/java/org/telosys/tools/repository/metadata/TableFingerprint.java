@@ -0,0 +1,157 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fingerprint of a table : SHA-256 hash of the meta-data used to update an entity <br>
+ * (table type and comment, columns, foreign keys) <br>
+ * The columns and the foreign keys are sorted by name, the foreign key columns by sequence, 
+ * so the fingerprint doesn't depend on the order returned by the JDBC driver. <br>
+ * If 2 fingerprints are equal the entity doesn't need to be compared with the table.
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class TableFingerprint {
+
+	private static final String ALGORITHM = "SHA-256" ;
+	
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	private static final Comparator<ColumnMetadata> COLUMN_COMPARATOR = new Comparator<ColumnMetadata>() {
+		@Override
+		public int compare(ColumnMetadata c1, ColumnMetadata c2) {
+			return compareStrings(c1.getColumnName(), c2.getColumnName());
+		}
+	};
+	
+	private static final Comparator<ForeignKeyMetadata> FOREIGN_KEY_COMPARATOR = new Comparator<ForeignKeyMetadata>() {
+		@Override
+		public int compare(ForeignKeyMetadata fk1, ForeignKeyMetadata fk2) {
+			return compareStrings(fk1.getForeignKeyName(), fk2.getForeignKeyName());
+		}
+	};
+	
+	private static final Comparator<ForeignKeyColumnMetadata> FOREIGN_KEY_COLUMN_COMPARATOR = new Comparator<ForeignKeyColumnMetadata>() {
+		@Override
+		public int compare(ForeignKeyColumnMetadata c1, ForeignKeyColumnMetadata c2) {
+			int r = Integer.compare(c1.getFkSequence(), c2.getFkSequence());
+			return r != 0 ? r : compareStrings(c1.getFkColumnName(), c2.getFkColumnName());
+		}
+	};
+	
+	/**
+	 * Private constructor
+	 */
+	private TableFingerprint() {
+	}
+	
+	private static int compareStrings(String s1, String s2) {
+		if ( s1 == null ) {
+			return s2 == null ? 0 : -1 ;
+		}
+		return s2 == null ? 1 : s1.compareTo(s2) ;
+	}
+	
+	/**
+	 * Computes the fingerprint of the given table 
+	 * @param table
+	 * @return the fingerprint (hexadecimal string)
+	 */
+	public static String compute(TableMetadata table) {
+		StringBuilder sb = new StringBuilder(256);
+		//--- Table
+		append(sb, table.getTableType());
+		append(sb, table.getComment());
+		//--- Columns
+		List<ColumnMetadata> columns = new ArrayList<>(table.getColumns());
+		Collections.sort(columns, COLUMN_COMPARATOR);
+		sb.append('C').append(columns.size());
+		for ( ColumnMetadata column : columns ) {
+			append(sb, column.getColumnName());
+			append(sb, column.getDbTypeName());
+			append(sb, column.getJdbcTypeCode());
+			append(sb, column.getSize());
+			append(sb, column.isNotNull() ? 1 : 0);
+			append(sb, column.isInPrimaryKey() ? 1 : 0);
+			append(sb, column.getComment());
+		}
+		//--- Foreign keys 
+		List<ForeignKeyMetadata> foreignKeys = new ArrayList<>(table.getForeignKeys());
+		Collections.sort(foreignKeys, FOREIGN_KEY_COMPARATOR);
+		sb.append('F').append(foreignKeys.size());
+		for ( ForeignKeyMetadata foreignKey : foreignKeys ) {
+			append(sb, foreignKey.getForeignKeyName());
+			List<ForeignKeyColumnMetadata> fkColumns = new ArrayList<>(foreignKey.getForeignKeyColumns());
+			Collections.sort(fkColumns, FOREIGN_KEY_COLUMN_COMPARATOR);
+			sb.append('K').append(fkColumns.size());
+			for ( ForeignKeyColumnMetadata fkColumn : fkColumns ) {
+				append(sb, fkColumn.getFkSequence());
+				append(sb, fkColumn.getFkTableName());
+				append(sb, fkColumn.getFkColumnName());
+				append(sb, fkColumn.getPkTableName());
+				append(sb, fkColumn.getPkColumnName());
+				append(sb, fkColumn.getUpdateRule());
+				append(sb, fkColumn.getDeleteRule());
+				append(sb, fkColumn.getDeferrability());
+			}
+		}
+		return hash(sb.toString());
+	}
+	
+	/**
+	 * Appends a string with its length (no ambiguity between 2 consecutive values)
+	 * @param sb
+	 * @param s
+	 */
+	static void append(StringBuilder sb, String s) {
+		if ( s == null ) {
+			sb.append('N');
+		}
+		else {
+			sb.append('S').append(s.length()).append(':').append(s);
+		}
+	}
+
+	static void append(StringBuilder sb, int i) {
+		sb.append('I').append(i).append(';');
+	}
+	
+	static String hash(String s) {
+		MessageDigest digest ;
+		try {
+			digest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is supported by all the JVM 
+			throw new IllegalStateException("Cannot get '" + ALGORITHM + "' message digest", e);
+		}
+		byte[] bytes = digest.digest(s.getBytes(StandardCharsets.UTF_8));
+		char[] chars = new char[bytes.length * 2];
+		for ( int i = 0 ; i < bytes.length ; i++ ) {
+			chars[i * 2]     = HEX_DIGITS[(bytes[i] >> 4) & 0x0F];
+			chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0F];
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.metadata;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Database table meta-data ( detached copy of the JDBC meta-data ) <br>
+ * Holds the columns and the foreign keys of the table
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class TableMetadata implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String catalogName ;
+	private final String schemaName ;
+	private final String tableName ;
+	private final String tableType ;
+	private final String comment ;
+	
+	private final List<ColumnMetadata>     columns     = new LinkedList<>();
+	private final List<ForeignKeyMetadata> foreignKeys = new LinkedList<>();
+
+	// Indexes (rebuilt after deserialization)
+	private transient volatile Map<String, ColumnMetadata>     columnsByName     = null ;
+	private transient volatile Map<String, ForeignKeyMetadata> foreignKeysByName = null ;
+
+	/**
+	 * Constructor
+	 * @param catalogName
+	 * @param schemaName
+	 * @param tableName
+	 * @param tableType
+	 * @param comment
+	 */
+	public TableMetadata(String catalogName, String schemaName, String tableName, String tableType, String comment) {
+		super();
+		this.catalogName = catalogName;
+		this.schemaName = schemaName;
+		this.tableName = tableName;
+		this.tableType = tableType;
+		this.comment = comment;
+	}
+
+	public String getCatalogName() {
+		return catalogName;
+	}
+
+	public String getSchemaName() {
+		return schemaName;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public String getTableType() {
+		return tableType;
+	}
+
+	/**
+	 * Returns the table comment (can be null)
+	 * @return
+	 */
+	public String getComment() {
+		return comment;
+	}
+
+	/**
+	 * Adds a column in the table
+	 * @param column
+	 */
+	public void addColumn(ColumnMetadata column) {
+		columns.add(column);
+		columnsByName = null ;
+	}
+
+	/**
+	 * Adds a foreign key in the table
+	 * @param foreignKey
+	 */
+	public void addForeignKey(ForeignKeyMetadata foreignKey) {
+		foreignKeys.add(foreignKey);
+		foreignKeysByName = null ;
+	}
+
+	/**
+	 * Returns the columns of the table (in the original order)
+	 * @return
+	 */
+	public List<ColumnMetadata> getColumns() {
+		return Collections.unmodifiableList(columns);
+	}
+
+	/**
+	 * Returns the foreign keys of the table (in the original order)
+	 * @return
+	 */
+	public List<ForeignKeyMetadata> getForeignKeys() {
+		return Collections.unmodifiableList(foreignKeys);
+	}
+
+	/**
+	 * Returns the column for the given name (or null if not found)
+	 * @param columnName
+	 * @return
+	 */
+	public ColumnMetadata getColumnByName(String columnName) {
+		if ( columnsByName == null ) {
+			Map<String, ColumnMetadata> map = new HashMap<>();
+			for ( ColumnMetadata c : columns ) {
+				map.put(c.getColumnName(), c);
+			}
+			columnsByName = map ;
+		}
+		return columnsByName.get(columnName);
+	}
+
+	/**
+	 * Returns the foreign key for the given name (or null if not found)
+	 * @param foreignKeyName
+	 * @return
+	 */
+	public ForeignKeyMetadata getForeignKeyByName(String foreignKeyName) {
+		if ( foreignKeysByName == null ) {
+			Map<String, ForeignKeyMetadata> map = new HashMap<>();
+			for ( ForeignKeyMetadata fk : foreignKeys ) {
+				map.put(fk.getForeignKeyName(), fk);
+			}
+			foreignKeysByName = map ;
+		}
+		return foreignKeysByName.get(foreignKeyName);
+	}
+
+	@Override
+	public String toString() {
+		return tableName + " ( catalog = '" + catalogName + "', schema = '" + schemaName + "', type = '" + tableType 
+				+ "', " + columns.size() + " column(s), " + foreignKeys.size() + " foreign key(s) )" ;
+	}
+}
@@ -952,6 +952,10 @@ public class AttributeInDbModel implements Comparable<AttributeInDbModel>, Seria
 		fkParts.add(fkPart);
 	}
 
+	public void removeAllFKParts() {
+		fkParts.clear();
+	}
+
 	@Override
 	public List<ForeignKeyPart> getFKParts() {
 		return fkParts;
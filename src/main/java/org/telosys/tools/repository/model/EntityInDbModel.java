@@ -49,6 +49,12 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	private String databaseType ; // v 2.0.7 #LGU
 	
 	private String databaseComment = "";  // v 3.1.0
+	
+	private String databaseFingerprint = "";
+
+	private transient String foreignKeysSignature = null ; // not persisted
+
+	private transient RepositoryModel model = null ; // the model owning the entity (not persisted)
 
 	private String className ; // v 3.0.0
 	
@@ -143,6 +149,45 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 		this.databaseComment = s != null ? s : "" ; // never null 
 	}	
 	
+	//--------------------------------------------------------------------------
+	/**
+	 * Returns the fingerprint of the database table meta-data (void if unknown)
+	 * @return
+	 */
+	public String getDatabaseFingerprint() {
+		return databaseFingerprint;
+	}
+	/**
+	 * Set the fingerprint of the database table meta-data 
+	 * @param s
+	 */
+	public void setDatabaseFingerprint(String s) {
+		this.databaseFingerprint = s != null ? s : "" ; // never null 
+	}	
+	
+	/**
+	 * Returns the signature of the Foreign Keys resolved by the ForeignKeyTypeManager (null if not yet resolved)
+	 * @return
+	 */
+	public String getForeignKeysSignature() {
+		return foreignKeysSignature;
+	}
+	/**
+	 * Set the signature of the Foreign Keys resolved by the ForeignKeyTypeManager
+	 * @param s
+	 */
+	public void setForeignKeysSignature(String s) {
+		this.foreignKeysSignature = s ;
+	}
+	
+	/**
+	 * Set the model owning the entity (the changes are notified to this model listeners)
+	 * @param model the model or null if the entity is not in a model
+	 */
+	protected void setModel(RepositoryModel model) {
+		this.model = model ;
+	}
+	
 	//--------------------------------------------------------------------------
 	
 	/**
@@ -242,7 +287,25 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 		if ( attribute.getEntity() != this ) {
 			throw new IllegalStateException("Invalid entity in attribute '" + attribute.getName() + "'");
 		}
-		attributes.put(attribute.getDatabaseName(), attribute);
+		AttributeInDbModel previous = attributes.put(attribute.getDatabaseName(), attribute);
+		if ( model != null ) {
+			if ( previous != null ) {
+				model.fireAttributeChanged(this, attribute);
+			}
+			else {
+				model.fireAttributeAdded(this, attribute);
+			}
+		}
+	}
+	
+	/**
+	 * Notifies the model listeners (if any) of a change of the given attribute updated in place
+	 * @param attribute
+	 */
+	public void attributeChanged(AttributeInDbModel attribute) {
+		if ( model != null ) {
+			model.fireAttributeChanged(this, attribute);
+		}
 	}
 
 	public AttributeInDbModel getAttributeByColumnName(String name) {
@@ -250,7 +313,10 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	}
 
 	public void removeAttribute(AttributeInDbModel attribute) { // 'removeColumn' renamed in v 3.0.0
-		attributes.remove(attribute.getDatabaseName());
+		AttributeInDbModel removed = attributes.remove(attribute.getDatabaseName());
+		if ( model != null && removed != null ) {
+			model.fireAttributeRemoved(this, removed);
+		}
 	}
 
 	//--------------------------------------------------------------------------
@@ -283,7 +349,15 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	}
 	
 	public void storeForeignKey(ForeignKeyInDbModel foreignKey) {
-		foreignKeys.put(foreignKey.getName(), foreignKey);
+		ForeignKeyInDbModel previous = foreignKeys.put(foreignKey.getName(), foreignKey);
+		if ( model != null ) {
+			if ( previous != null ) {
+				model.fireForeignKeyChanged(this, previous, foreignKey);
+			}
+			else {
+				model.fireForeignKeyAdded(this, foreignKey);
+			}
+		}
 	}
 	
 	public ForeignKeyInDbModel getForeignKey(String name) {
@@ -291,7 +365,10 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	}
 	
 	public void removeForeignKey(ForeignKeyInDbModel foreignKey) {
-		foreignKeys.remove(foreignKey.getName() );
+		ForeignKeyInDbModel removed = foreignKeys.remove(foreignKey.getName() );
+		if ( model != null && removed != null ) {
+			model.fireForeignKeyRemoved(this, removed);
+		}
 	}
 
 	//--------------------------------------------------------------------------
@@ -0,0 +1,455 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foreign keys graph of a model : "who references whom" <br>
+ * The entities are numbered from 0 to n-1 (table names order) and the edges 
+ * ( referencing entity --> referenced entity ) are stored in int arrays (CSR layout) 
+ * in both directions. <br>
+ * The strongly connected components (cycles), the insertion order and the deletion order 
+ * are computed once when the graph is built. <br>
+ * The foreign keys referencing a table that is not in the model are ignored. <br>
+ * The graph is immutable : it must be rebuilt when the model changes (see RepositoryModel.getForeignKeyGraph)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class ForeignKeyGraph {
+
+	private final int      size ;
+	private final String[] tableNames ;
+	private final Map<String, Integer> indexes ;
+	
+	//--- Referenced entities (CSR) : targets of 'i' in refTargets[ refStart[i] .. refStart[i+1]-1 ]
+	private final int[]    refStart ;
+	private final int[]    refTargets ;
+	
+	//--- Referencing entities (CSR) : sources of 'i' in revSources[ revStart[i] .. revStart[i+1]-1 ]
+	private final int[]    revStart ;
+	private final int[]    revSources ;
+	
+	private final boolean[] selfReference ;
+	private final int      unresolvedForeignKeys ;
+	
+	//--- Strongly connected components (numbered in the insertion order)
+	private final int[]    component ;
+	private final int[]    componentSize ;
+	private final int      componentCount ;
+	private final int[]    insertionOrder ;
+	
+	//--- Work arrays for the reachability queries (no allocation per query)
+	private final int[]    visitStamp ;
+	private final int[]    visitStack ;
+	private int            currentStamp = 0 ;
+	
+	/**
+	 * Builds the graph of the given model
+	 * @param model
+	 */
+	public ForeignKeyGraph(RepositoryModel model) {
+		EntityInDbModel[] entities = model.getEntitiesArraySortedByTableName();
+		this.size = entities.length ;
+		this.tableNames = new String[size];
+		this.indexes = new HashMap<>(size * 2);
+		for ( int i = 0 ; i < size ; i++ ) {
+			tableNames[i] = entities[i].getDatabaseTable();
+			indexes.put(tableNames[i], i);
+		}
+		
+		//--- Referenced entities (duplicated edges removed)
+		this.refStart = new int[size + 1];
+		this.selfReference = new boolean[size];
+		int[] targets = new int[Math.max(16, size)];
+		int[] mark = new int[size];
+		int edgesCount = 0 ;
+		int unresolved = 0 ;
+		for ( int i = 0 ; i < size ; i++ ) {
+			refStart[i] = edgesCount ;
+			for ( ForeignKeyInDbModel fk : entities[i].getForeignKeys() ) {
+				Integer j = indexes.get(fk.getReferencedTableName());
+				if ( j == null ) {
+					unresolved++ ;
+				}
+				else if ( mark[j] != i + 1 ) {
+					mark[j] = i + 1 ;
+					if ( edgesCount == targets.length ) {
+						targets = Arrays.copyOf(targets, targets.length * 2);
+					}
+					targets[edgesCount++] = j ;
+					if ( j == i ) {
+						selfReference[i] = true ;
+					}
+				}
+			}
+			Arrays.sort(targets, refStart[i], edgesCount);
+		}
+		refStart[size] = edgesCount ;
+		this.refTargets = Arrays.copyOf(targets, edgesCount);
+		this.unresolvedForeignKeys = unresolved ;
+		
+		//--- Referencing entities (reverse edges)
+		this.revStart = new int[size + 1];
+		for ( int e = 0 ; e < edgesCount ; e++ ) {
+			revStart[refTargets[e] + 1]++ ;
+		}
+		for ( int i = 0 ; i < size ; i++ ) {
+			revStart[i + 1] += revStart[i] ;
+		}
+		this.revSources = new int[edgesCount];
+		int[] fill = Arrays.copyOf(revStart, size);
+		for ( int i = 0 ; i < size ; i++ ) {
+			for ( int e = refStart[i] ; e < refStart[i + 1] ; e++ ) {
+				revSources[fill[refTargets[e]]++] = i ; // sources in ascending order
+			}
+		}
+		
+		//--- Components 
+		this.component = new int[size];
+		this.insertionOrder = new int[size];
+		this.componentCount = computeComponents();
+		this.componentSize = new int[componentCount];
+		for ( int i = 0 ; i < size ; i++ ) {
+			componentSize[component[i]]++ ;
+		}
+		
+		this.visitStamp = new int[size];
+		this.visitStack = new int[size];
+	}
+	
+	/**
+	 * Computes the strongly connected components (iterative Tarjan algorithm) <br>
+	 * A component is completed after all the components it references, 
+	 * so the completion order is an insertion order (referenced entities first)
+	 * @return the number of components
+	 */
+	private int computeComponents() {
+		int[] index = new int[size];
+		int[] low = new int[size];
+		boolean[] onStack = new boolean[size];
+		int[] stack = new int[size];
+		int[] callNode = new int[size];
+		int[] callEdge = new int[size];
+		Arrays.fill(index, -1);
+		int counter = 0 ;
+		int sp = 0 ;
+		int count = 0 ;
+		int position = 0 ;
+		for ( int s = 0 ; s < size ; s++ ) {
+			if ( index[s] >= 0 ) {
+				continue ;
+			}
+			index[s] = low[s] = counter++ ;
+			stack[sp++] = s ;
+			onStack[s] = true ;
+			callNode[0] = s ;
+			callEdge[0] = refStart[s] ;
+			int csp = 1 ;
+			while ( csp > 0 ) {
+				int v = callNode[csp - 1] ;
+				int e = callEdge[csp - 1] ;
+				if ( e < refStart[v + 1] ) {
+					callEdge[csp - 1]++ ;
+					int w = refTargets[e] ;
+					if ( index[w] < 0 ) {
+						index[w] = low[w] = counter++ ;
+						stack[sp++] = w ;
+						onStack[w] = true ;
+						callNode[csp] = w ;
+						callEdge[csp] = refStart[w] ;
+						csp++ ;
+					}
+					else if ( onStack[w] && index[w] < low[v] ) {
+						low[v] = index[w] ;
+					}
+				}
+				else {
+					csp-- ;
+					if ( low[v] == index[v] ) {
+						int x ;
+						do {
+							x = stack[--sp] ;
+							onStack[x] = false ;
+							component[x] = count ;
+							insertionOrder[position++] = x ;
+						} while ( x != v ) ;
+						count++ ;
+					}
+					if ( csp > 0 ) {
+						int u = callNode[csp - 1] ;
+						if ( low[v] < low[u] ) {
+							low[u] = low[v] ;
+						}
+					}
+				}
+			}
+		}
+		return count ;
+	}
+	
+	/**
+	 * Returns the number of entities 
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of edges (distinct referencing/referenced pairs)
+	 * @return
+	 */
+	public int getEdgesCount() {
+		return refTargets.length;
+	}
+
+	/**
+	 * Returns the number of foreign keys referencing a table that is not in the model 
+	 * @return
+	 */
+	public int getUnresolvedForeignKeysCount() {
+		return unresolvedForeignKeys;
+	}
+
+	/**
+	 * Returns the index of the given table (or -1 if not in the graph)
+	 * @param tableName
+	 * @return
+	 */
+	public int getIndex(String tableName) {
+		Integer i = indexes.get(tableName);
+		return i != null ? i : -1 ;
+	}
+	
+	/**
+	 * Returns the table name of the given entity index
+	 * @param i
+	 * @return
+	 */
+	public String getTableName(int i) {
+		return tableNames[i];
+	}
+	
+	/**
+	 * Returns the number of entities referenced by the given entity 
+	 * @param i
+	 * @return
+	 */
+	public int getReferencedCount(int i) {
+		return refStart[i + 1] - refStart[i];
+	}
+
+	/**
+	 * Returns the k-th entity referenced by the given entity (ascending indexes)
+	 * @param i
+	 * @param k from 0 to getReferencedCount(i) - 1
+	 * @return
+	 */
+	public int getReferenced(int i, int k) {
+		return refTargets[refStart[i] + k];
+	}
+
+	/**
+	 * Returns the number of entities referencing the given entity 
+	 * @param i
+	 * @return
+	 */
+	public int getReferencingCount(int i) {
+		return revStart[i + 1] - revStart[i];
+	}
+
+	/**
+	 * Returns the k-th entity referencing the given entity (ascending indexes)
+	 * @param i
+	 * @param k from 0 to getReferencingCount(i) - 1
+	 * @return
+	 */
+	public int getReferencing(int i, int k) {
+		return revSources[revStart[i] + k];
+	}
+
+	/**
+	 * Returns true if the given entity has a foreign key referencing itself
+	 * @param i
+	 * @return
+	 */
+	public boolean isSelfReferencing(int i) {
+		return selfReference[i];
+	}
+
+	//-------------------------------------------------------------------------------------
+	// Components and cycles
+	//-------------------------------------------------------------------------------------
+	/**
+	 * Returns the number of strongly connected components 
+	 * @return
+	 */
+	public int getComponentsCount() {
+		return componentCount;
+	}
+
+	/**
+	 * Returns the component of the given entity <br>
+	 * (the components are numbered in the insertion order)
+	 * @param i
+	 * @return
+	 */
+	public int getComponent(int i) {
+		return component[i];
+	}
+
+	/**
+	 * Returns the number of entities in the given component 
+	 * @param c
+	 * @return
+	 */
+	public int getComponentSize(int c) {
+		return componentSize[c];
+	}
+
+	/**
+	 * Returns true if the given entity is in a cycle (including a self reference)
+	 * @param i
+	 * @return
+	 */
+	public boolean isInCycle(int i) {
+		return componentSize[component[i]] > 1 || selfReference[i] ;
+	}
+
+	/**
+	 * Returns true if the graph contains at least one cycle (self references excluded)
+	 * @return
+	 */
+	public boolean hasCycles() {
+		return componentCount < size ;
+	}
+
+	/**
+	 * Returns the entities indexes in the insertion order : 
+	 * each entity is after the entities it references <br>
+	 * (except in a cycle, the entities of a cycle are consecutive)
+	 * @return a new array 
+	 */
+	public int[] getInsertionOrder() {
+		return insertionOrder.clone();
+	}
+
+	/**
+	 * Returns the entities indexes in the deletion order (reverse of the insertion order)
+	 * @return a new array 
+	 */
+	public int[] getDeletionOrder() {
+		int[] order = new int[size];
+		for ( int k = 0 ; k < size ; k++ ) {
+			order[k] = insertionOrder[size - 1 - k];
+		}
+		return order ;
+	}
+
+	/**
+	 * Returns the table names in the insertion order
+	 * @return
+	 */
+	public List<String> getTableNamesInInsertionOrder() {
+		List<String> list = new LinkedList<>();
+		for ( int i : insertionOrder ) {
+			list.add(tableNames[i]);
+		}
+		return list ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	// Reachability (no allocation, serialized on the graph work arrays)
+	//-------------------------------------------------------------------------------------
+	private int nextStamp() {
+		if ( currentStamp == Integer.MAX_VALUE ) {
+			Arrays.fill(visitStamp, 0);
+			currentStamp = 0 ;
+		}
+		return ++currentStamp ;
+	}
+	
+	/**
+	 * Returns true if the entity 'from' references the entity 'to' directly or indirectly <br>
+	 * ( true for from == to only if the entity is in a cycle )
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	public synchronized boolean isReachable(int from, int to) {
+		//--- A referenced component is always before in the insertion order 
+		if ( component[to] > component[from] ) {
+			return false ;
+		}
+		if ( component[to] == component[from] ) {
+			return from != to || isInCycle(from) ;
+		}
+		int minComponent = component[to] ;
+		int stamp = nextStamp();
+		int sp = 0 ;
+		visitStack[sp++] = from ;
+		visitStamp[from] = stamp ;
+		while ( sp > 0 ) {
+			int v = visitStack[--sp] ;
+			for ( int e = refStart[v] ; e < refStart[v + 1] ; e++ ) {
+				int w = refTargets[e] ;
+				if ( w == to ) {
+					return true ;
+				}
+				if ( visitStamp[w] != stamp && component[w] >= minComponent ) {
+					visitStamp[w] = stamp ;
+					visitStack[sp++] = w ;
+				}
+			}
+		}
+		return false ;
+	}
+	
+	/**
+	 * Returns the number of entities referenced by the given entity directly or indirectly <br>
+	 * (the entity itself is counted only if it is in a cycle)
+	 * @param from
+	 * @return
+	 */
+	public synchronized int getReachableCount(int from) {
+		int stamp = nextStamp();
+		int count = 0 ;
+		int sp = 0 ;
+		visitStack[sp++] = from ;
+		boolean fromReached = false ;
+		while ( sp > 0 ) {
+			int v = visitStack[--sp] ;
+			for ( int e = refStart[v] ; e < refStart[v + 1] ; e++ ) {
+				int w = refTargets[e] ;
+				if ( w == from ) {
+					fromReached = true ;
+				}
+				else if ( visitStamp[w] != stamp ) {
+					visitStamp[w] = stamp ;
+					visitStack[sp++] = w ;
+					count++ ;
+				}
+			}
+		}
+		return fromReached ? count + 1 : count ;
+	}
+}
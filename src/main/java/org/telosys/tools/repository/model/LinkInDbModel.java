@@ -45,6 +45,8 @@ public class LinkInDbModel implements Serializable, Link
 	private String  sourceTableName; // the source of the link
 	private String  targetTableName; // the target of the link
 	
+	private transient String sortKey = null ; // built on demand, reset when the source or the target changes
+	
 	/**
 	 * Relationship's cardinality
 	 * "OneToOne", "OneToMany", "ManyToOne", "ManyToMany"
@@ -168,6 +170,7 @@ public class LinkInDbModel implements Serializable, Link
 
 	public void setSourceTableName(String srcTableName) {
 		this.sourceTableName = srcTableName;
+		this.sortKey = null ;
 	}
 
 	//--------------------------------------------------------------------------
@@ -177,6 +180,21 @@ public class LinkInDbModel implements Serializable, Link
 	}
 	public void setTargetTableName(String targetTableName) {
 		this.targetTableName = targetTableName;
+		this.sortKey = null ;
+	}
+
+	/**
+	 * Returns the key used to sort the links : 'SourceTableName' + '-' + 'TargetTableName' <br>
+	 * (built on the first call and kept until the source or the target changes)
+	 * @return
+	 */
+	public String getSortKey() {
+		String key = sortKey ;
+		if ( key == null ) {
+			key = sourceTableName + "-" + targetTableName ;
+			sortKey = key ;
+		}
+		return key ;
 	}
 
 	//--------------------------------------------------------------------------
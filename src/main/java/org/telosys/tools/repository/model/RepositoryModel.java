@@ -22,6 +22,7 @@ import java.util.Date;
 import java.util.Hashtable;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generic.model.Cardinality;
@@ -30,7 +31,7 @@ import org.telosys.tools.generic.model.Model;
 import org.telosys.tools.generic.model.ModelType;
 import org.telosys.tools.repository.model.comparators.EntityComparatorOnClassName;
 import org.telosys.tools.repository.model.comparators.EntityComparatorOnTableName;
-import org.telosys.tools.repository.model.comparators.LinkComparator;
+import org.telosys.tools.repository.model.comparators.LinkComparatorOnTableNames;
 
 public class RepositoryModel implements Model
 {
@@ -48,7 +49,18 @@ public class RepositoryModel implements Model
 	
 	private Date   lastUpdateDate ;
 	
+	private String databaseSchemaVersion = "" ; 
+	
 	private Hashtable<String,EntityInDbModel> htEntities = new Hashtable<String,EntityInDbModel>() ; 
+	
+	private ForeignKeyGraph foreignKeyGraph = null ; // built on demand 
+	
+	private final List<RepositoryModelListener> listeners = new CopyOnWriteArrayList<>();
+	
+	//--- Stateless comparators shared by all the sorts
+	private static final EntityComparatorOnTableName ENTITY_COMPARATOR_ON_TABLE_NAME = new EntityComparatorOnTableName();
+	private static final EntityComparatorOnClassName ENTITY_COMPARATOR_ON_CLASS_NAME = new EntityComparatorOnClassName();
+	private static final LinkComparatorOnTableNames  LINK_COMPARATOR = new LinkComparatorOnTableNames(LinkComparatorOnTableNames.ASC);
 
 	//--------------------------------------------------------------------------------------
 	@Override
@@ -146,6 +158,23 @@ public class RepositoryModel implements Model
 		this.databaseProductName = databaseType;
 	}
 
+	//--------------------------------------------------------------------------------------
+	/**
+	 * Returns the version of the database schema when the model was generated or updated (void if unknown)
+	 * @return
+	 */
+	public String getDatabaseSchemaVersion() {
+		return databaseSchemaVersion;
+	}
+
+	/**
+	 * Set the version of the database schema 
+	 * @param s
+	 */
+	public void setDatabaseSchemaVersion(String s) {
+		this.databaseSchemaVersion = s != null ? s : "" ; // never null 
+	}
+
 	//--------------------------------------------------------------------------------------
 	public Date getGenerationDate() {
 		return generationDate;
@@ -172,7 +201,11 @@ public class RepositoryModel implements Model
 		return htEntities.size();
 	}
 
-	private EntityInDbModel[] getEntitiesArray() {
+	/**
+	 * Returns an array of all the entities defined in the model (not sorted)
+	 * @return
+	 */
+	public EntityInDbModel[] getEntitiesArray() {
 		return (EntityInDbModel[]) htEntities.values().toArray( new EntityInDbModel[htEntities.size()] ) ;
 	}
 	/**
@@ -182,7 +215,7 @@ public class RepositoryModel implements Model
 	 */
 	public EntityInDbModel[] getEntitiesArraySortedByTableName() {
 		EntityInDbModel[] array = getEntitiesArray();
-		Arrays.sort(array, new EntityComparatorOnTableName());
+		Arrays.sort(array, ENTITY_COMPARATOR_ON_TABLE_NAME);
 		return array ;
 	}
 	/**
@@ -192,7 +225,7 @@ public class RepositoryModel implements Model
 	 */
 	public EntityInDbModel[] getEntitiesArraySortedByClassName() {
 		EntityInDbModel[] array = getEntitiesArray();
-		Arrays.sort(array, new EntityComparatorOnClassName());
+		Arrays.sort(array, ENTITY_COMPARATOR_ON_CLASS_NAME);
 		return array ;
 	}
 	
@@ -241,7 +274,20 @@ public class RepositoryModel implements Model
 	
 	public void storeEntity(EntityInDbModel entity) {
 //		htEntities.put(entity.getName(), entity);
-		htEntities.put(entity.getDatabaseTable(), entity); // v 3.0.0
+		EntityInDbModel previous = htEntities.put(entity.getDatabaseTable(), entity); // v 3.0.0
+		foreignKeyGraph = null ;
+		if ( previous != null && previous != entity ) {
+			previous.setModel(null);
+			for ( RepositoryModelListener listener : listeners ) {
+				listener.entityRemoved(previous);
+			}
+		}
+		entity.setModel(this);
+		if ( previous != entity ) {
+			for ( RepositoryModelListener listener : listeners ) {
+				listener.entityAdded(entity);
+			}
+		}
 	}
 	
 	/**
@@ -250,7 +296,103 @@ public class RepositoryModel implements Model
 	 * @return the entity removed (or null if none)
 	 */
 	public EntityInDbModel removeEntity(String entityTableName) {
-		return htEntities.remove(entityTableName);
+		foreignKeyGraph = null ;
+		EntityInDbModel removed = htEntities.remove(entityTableName);
+		if ( removed != null ) {
+			removed.setModel(null);
+			for ( RepositoryModelListener listener : listeners ) {
+				listener.entityRemoved(removed);
+			}
+		}
+		return removed ;
+	}
+	
+	//-------------------------------------------------------------------------------
+	// CHANGES notification
+	//-------------------------------------------------------------------------------
+	/**
+	 * Adds a listener notified of each change in the model <br>
+	 * (entities stored or removed, foreign keys and attributes of the entities stored in the model)
+	 * @param listener
+	 */
+	public void addModelListener(RepositoryModelListener listener) {
+		if ( listener == null ) {
+			throw new IllegalArgumentException("Model listener is null");
+		}
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes the given listener
+	 * @param listener
+	 * @return true if removed
+	 */
+	public boolean removeModelListener(RepositoryModelListener listener) {
+		return listeners.remove(listener);
+	}
+	
+	protected void fireForeignKeyAdded(EntityInDbModel entity, ForeignKeyInDbModel foreignKey) {
+		foreignKeyGraph = null ;
+		for ( RepositoryModelListener listener : listeners ) {
+			listener.foreignKeyAdded(entity, foreignKey);
+		}
+	}
+	
+	protected void fireForeignKeyRemoved(EntityInDbModel entity, ForeignKeyInDbModel foreignKey) {
+		foreignKeyGraph = null ;
+		for ( RepositoryModelListener listener : listeners ) {
+			listener.foreignKeyRemoved(entity, foreignKey);
+		}
+	}
+	
+	protected void fireForeignKeyChanged(EntityInDbModel entity, ForeignKeyInDbModel before, ForeignKeyInDbModel after) {
+		foreignKeyGraph = null ;
+		for ( RepositoryModelListener listener : listeners ) {
+			listener.foreignKeyChanged(entity, before, after);
+		}
+	}
+	
+	protected void fireAttributeAdded(EntityInDbModel entity, AttributeInDbModel attribute) {
+		for ( RepositoryModelListener listener : listeners ) {
+			listener.attributeAdded(entity, attribute);
+		}
+	}
+	
+	protected void fireAttributeRemoved(EntityInDbModel entity, AttributeInDbModel attribute) {
+		for ( RepositoryModelListener listener : listeners ) {
+			listener.attributeRemoved(entity, attribute);
+		}
+	}
+	
+	protected void fireAttributeChanged(EntityInDbModel entity, AttributeInDbModel attribute) {
+		for ( RepositoryModelListener listener : listeners ) {
+			listener.attributeChanged(entity, attribute);
+		}
+	}
+	
+	//-------------------------------------------------------------------------------
+	// FOREIGN KEYS graph
+	//-------------------------------------------------------------------------------
+	/**
+	 * Returns the foreign keys graph of the model (built on the first call after a change) <br>
+	 * The graph is invalidated when an entity is stored or removed, 
+	 * a change of the foreign keys inside an entity requires a call to 'invalidateForeignKeyGraph'
+	 * @return
+	 */
+	public ForeignKeyGraph getForeignKeyGraph() {
+		ForeignKeyGraph graph = foreignKeyGraph ;
+		if ( graph == null ) {
+			graph = new ForeignKeyGraph(this);
+			foreignKeyGraph = graph ;
+		}
+		return graph ;
+	}
+	
+	/**
+	 * Invalidates the foreign keys graph (to be called after a change of foreign keys in an entity)
+	 */
+	public void invalidateForeignKeyGraph() {
+		foreignKeyGraph = null ;
 	}
 	
 	//-------------------------------------------------------------------------------
@@ -270,7 +412,7 @@ public class RepositoryModel implements Model
 	
 	//----------------------------------------------------------------------------------------
 	private void sortLinks( List<LinkInDbModel> linksList ) { // v 3.0.0
-        Collections.sort(linksList, new LinkComparator( LinkComparator.ASC ) );
+        Collections.sort(linksList, LINK_COMPARATOR );
 	}
 	
 	//----------------------------------------------------------------------------------------
@@ -0,0 +1,82 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.model;
+
+/**
+ * Listener notified of each change in a RepositoryModel <br>
+ * The changes inside an entity are notified only when the entity is stored in the model <br>
+ * NB : the events can be fired by many threads (parallel update of the entities)
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public interface RepositoryModelListener {
+
+	/**
+	 * Called when an entity is stored in the model 
+	 * @param entity
+	 */
+	public void entityAdded(EntityInDbModel entity);
+
+	/**
+	 * Called when an entity is removed from the model (or replaced by another entity with the same table name)
+	 * @param entity
+	 */
+	public void entityRemoved(EntityInDbModel entity);
+
+	/**
+	 * Called when a foreign key is added in an entity
+	 * @param entity
+	 * @param foreignKey
+	 */
+	public void foreignKeyAdded(EntityInDbModel entity, ForeignKeyInDbModel foreignKey);
+
+	/**
+	 * Called when a foreign key is removed from an entity
+	 * @param entity
+	 * @param foreignKey
+	 */
+	public void foreignKeyRemoved(EntityInDbModel entity, ForeignKeyInDbModel foreignKey);
+
+	/**
+	 * Called when a foreign key is replaced by a new one with the same name
+	 * @param entity
+	 * @param foreignKeyBefore
+	 * @param foreignKeyAfter
+	 */
+	public void foreignKeyChanged(EntityInDbModel entity, ForeignKeyInDbModel foreignKeyBefore, ForeignKeyInDbModel foreignKeyAfter);
+
+	/**
+	 * Called when an attribute is added in an entity
+	 * @param entity
+	 * @param attribute
+	 */
+	public void attributeAdded(EntityInDbModel entity, AttributeInDbModel attribute);
+
+	/**
+	 * Called when an attribute is removed from an entity
+	 * @param entity
+	 * @param attribute
+	 */
+	public void attributeRemoved(EntityInDbModel entity, AttributeInDbModel attribute);
+
+	/**
+	 * Called when an attribute is replaced or updated in place (see EntityInDbModel.attributeChanged)
+	 * @param entity
+	 * @param attribute the attribute after the change
+	 */
+	public void attributeChanged(EntityInDbModel entity, AttributeInDbModel attribute);
+}
@@ -63,9 +63,8 @@ public class LinkComparator implements Comparator<LinkInDbModel> // v 3.0.0
             return +1; // obj1 > obj2
         }
 
-        String s1 = link1.getSourceTableName() + "-" + link1.getTargetTableName() ;
-        String s2 = link2.getSourceTableName() + "-" + link2.getTargetTableName() ;
-        return s1.compareTo(s2);
+        //--- Cached keys : no String built for each comparison
+        return link1.getSortKey().compareTo(link2.getSortKey());
     }
     
     /* (non-Javadoc)
@@ -0,0 +1,107 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.model.comparators;
+
+import java.util.Comparator;
+
+import org.telosys.tools.repository.model.LinkInDbModel;
+
+/**
+ * Links comparator without String allocation <br>
+ * Same order as LinkComparator ( 'SourceTableName' + '-' + 'TargetTableName' ) <br>
+ * but the characters of the two names are compared directly, without building the keys 
+ * 
+ * @author Laurent GUERIN
+ *  
+ */
+public class LinkComparatorOnTableNames implements Comparator<LinkInDbModel>
+{
+    public final static boolean DESC = true;
+
+    public final static boolean ASC  = false;
+
+    private static final String NULL_NAME = "null" ; // same as the String concatenation
+
+    private static final char   SEPARATOR = '-' ;
+    
+    private final boolean descendingOrder ;
+
+    public LinkComparatorOnTableNames(boolean descendingOrder)
+    {
+        super();
+        this.descendingOrder = descendingOrder;
+    }
+
+    /**
+     * Returns the character at the given position in the virtual key 'source' + '-' + 'target'
+     * @param source
+     * @param target
+     * @param i
+     * @return
+     */
+    private char charAt(String source, String target, int i) {
+        if ( i < source.length() ) {
+            return source.charAt(i);
+        }
+        else if ( i == source.length() ) {
+            return SEPARATOR ;
+        }
+        else {
+            return target.charAt(i - source.length() - 1);
+        }
+    }
+
+    private int compareASC(LinkInDbModel link1, LinkInDbModel link2) 
+    {
+        //--- Check parameters
+        if (link1 == null && link2 == null) {
+            return 0; // obj1 == obj2
+        }
+        if (link1 == null) {
+            return -1; // obj1 < obj2
+        }
+        if (link2 == null) {
+            return +1; // obj1 > obj2
+        }
+        String source1 = link1.getSourceTableName() != null ? link1.getSourceTableName() : NULL_NAME ;
+        String target1 = link1.getTargetTableName() != null ? link1.getTargetTableName() : NULL_NAME ;
+        String source2 = link2.getSourceTableName() != null ? link2.getSourceTableName() : NULL_NAME ;
+        String target2 = link2.getTargetTableName() != null ? link2.getTargetTableName() : NULL_NAME ;
+        int length1 = source1.length() + 1 + target1.length() ;
+        int length2 = source2.length() + 1 + target2.length() ;
+        //--- Same sources : compare the targets
+        int start = 0 ;
+        if ( source1.equals(source2) ) {
+            start = source1.length() + 1 ; 
+        }
+        int n = Math.min(length1, length2);
+        for ( int i = start ; i < n ; i++ ) {
+            char c1 = charAt(source1, target1, i);
+            char c2 = charAt(source2, target2, i);
+            if ( c1 != c2 ) {
+                return c1 - c2 ;
+            }
+        }
+        return length1 - length2 ;
+    }
+
+    @Override
+    public int compare(LinkInDbModel link1, LinkInDbModel link2)
+    {
+        int result = compareASC(link1, link2);
+        return descendingOrder ? Integer.signum(-result) : Integer.signum(result) ;
+    }
+}
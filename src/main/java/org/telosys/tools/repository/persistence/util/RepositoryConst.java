@@ -61,6 +61,7 @@ public class RepositoryConst {
 	public static final String TABLELIST_DATABASE_NAME         = "databaseName";
 	public static final String TABLELIST_DATABASE_PRODUCT_NAME = "databaseProductName";
 	public static final String TABLELIST_DATABASE_ID           = "databaseId";
+	public static final String TABLELIST_DATABASE_SCHEMA_VERSION = "databaseSchemaVersion";
 
 	//--------------------------------------------------------------------------------------------------
 	//--- XML <table> element and attributes
@@ -71,6 +72,7 @@ public class RepositoryConst {
 	public static final String TABLE_JAVA_BEAN         = "javaBean";
 	public static final String TABLE_DATABASE_TYPE     = "databaseType"; // added in v 2.0.7
 	public static final String TABLE_DATABASE_COMMENT  = "databaseComment"; // added in v 3.0.3
+	public static final String TABLE_DATABASE_FINGERPRINT = "databaseFingerprint"; 
 	
 
 	//--------------------------------------------------------------------------------------------------
@@ -0,0 +1,242 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.rules;
+
+import org.telosys.tools.repository.model.EntityInDbModel;
+
+/**
+ * Repository rules decorator memoizing the pure naming and type-mapping functions <br>
+ * ( class name, attribute name, attribute type, GUI label and GUI type ) <br>
+ * The names for links depend on the current state of the entities and are never cached. <br>
+ * Thread-safe : can be shared by parallel generations <br>
+ * The attribute types depend on the types configuration : the cache must be cleared if this configuration changes 
+ * 
+ * @author Laurent GUERIN
+ * 
+ */
+public class CachingRepositoryRules implements RepositoryRules
+{
+	public static final int DEFAULT_MAX_SIZE = 10000 ;
+	
+	/**
+	 * Key for the functions with a type code 
+	 */
+	private static final class TypeKey {
+		private final String  typeName ;
+		private final int     jdbcTypeCode ;
+		private final boolean notNull ;
+		private TypeKey(String typeName, int jdbcTypeCode, boolean notNull) {
+			this.typeName = typeName ;
+			this.jdbcTypeCode = jdbcTypeCode ;
+			this.notNull = notNull ;
+		}
+		@Override
+		public int hashCode() {
+			int h = ( typeName != null ? typeName.hashCode() : 0 ) ;
+			h = 31 * h + jdbcTypeCode ;
+			return 31 * h + ( notNull ? 1 : 0 ) ;
+		}
+		@Override
+		public boolean equals(Object obj) {
+			if ( this == obj ) {
+				return true ;
+			}
+			if ( ! ( obj instanceof TypeKey ) ) {
+				return false ;
+			}
+			TypeKey other = (TypeKey) obj ;
+			return jdbcTypeCode == other.jdbcTypeCode && notNull == other.notNull 
+					&& ( typeName == null ? other.typeName == null : typeName.equals(other.typeName) ) ;
+		}
+	}
+	
+	private final RepositoryRules rules ;
+	
+	private final RulesCache<String, String>  entityClassNames ;
+	private final RulesCache<String, String>  attributeNames ;
+	private final RulesCache<TypeKey, String> attributeTypes ;
+	private final RulesCache<String, String>  attributeGuiLabels ;
+	private final RulesCache<TypeKey, String> attributeGuiTypes ;
+	
+	/**
+	 * Constructor with the default maximum size for each function cache
+	 * @param rules the rules to be decorated
+	 */
+	public CachingRepositoryRules(RepositoryRules rules) {
+		this(rules, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param rules the rules to be decorated
+	 * @param maxSize the maximum number of values kept for each function
+	 */
+	public CachingRepositoryRules(RepositoryRules rules, int maxSize) {
+		super();
+		if ( rules == null ) {
+			throw new IllegalArgumentException("Rules are null");
+		}
+		if ( maxSize <= 0 ) {
+			throw new IllegalArgumentException("Invalid max size " + maxSize);
+		}
+		this.rules = rules ;
+		this.entityClassNames   = new RulesCache<>(maxSize);
+		this.attributeNames     = new RulesCache<>(maxSize);
+		this.attributeTypes     = new RulesCache<>(maxSize);
+		this.attributeGuiLabels = new RulesCache<>(maxSize);
+		this.attributeGuiTypes  = new RulesCache<>(maxSize);
+	}
+
+	/**
+	 * Returns the decorated rules
+	 * @return
+	 */
+	public RepositoryRules getRules() {
+		return rules;
+	}
+
+	//------------------------------------------------------------------------------
+	@Override
+	public String getEntityClassName(String databaseTableName) {
+		if ( databaseTableName == null ) {
+			return rules.getEntityClassName(databaseTableName);
+		}
+		String s = entityClassNames.get(databaseTableName);
+		if ( s == null ) {
+			s = rules.getEntityClassName(databaseTableName);
+			entityClassNames.put(databaseTableName, s);
+		}
+		return s ;
+	}
+
+	@Override
+	public String getAttributeName(String databaseColumnName) {
+		if ( databaseColumnName == null ) {
+			return rules.getAttributeName(databaseColumnName);
+		}
+		String s = attributeNames.get(databaseColumnName);
+		if ( s == null ) {
+			s = rules.getAttributeName(databaseColumnName);
+			attributeNames.put(databaseColumnName, s);
+		}
+		return s ;
+	}
+
+	@Override
+	public String getAttributeType(String databaseColumnType, int jdbcTypeCode, boolean columnNotNull) {
+		TypeKey key = new TypeKey(databaseColumnType, jdbcTypeCode, columnNotNull);
+		String s = attributeTypes.get(key);
+		if ( s == null ) {
+			s = rules.getAttributeType(databaseColumnType, jdbcTypeCode, columnNotNull);
+			attributeTypes.put(key, s);
+		}
+		return s ;
+	}
+
+	@Override
+	public String getAttributeGuiType(String columnTypeName, int jdbcTypeCode) {
+		TypeKey key = new TypeKey(columnTypeName, jdbcTypeCode, false);
+		String s = attributeGuiTypes.get(key);
+		if ( s == null ) {
+			s = rules.getAttributeGuiType(columnTypeName, jdbcTypeCode);
+			attributeGuiTypes.put(key, s);
+		}
+		return s ;
+	}
+
+	@Override
+	public String getAttributeGuiLabel(String databaseColumnName) {
+		if ( databaseColumnName == null ) {
+			return rules.getAttributeGuiLabel(databaseColumnName);
+		}
+		String s = attributeGuiLabels.get(databaseColumnName);
+		if ( s == null ) {
+			s = rules.getAttributeGuiLabel(databaseColumnName);
+			attributeGuiLabels.put(databaseColumnName, s);
+		}
+		return s ;
+	}
+
+	//------------------------------------------------------------------------------
+	// Not cached (depends on the entity state)
+	//------------------------------------------------------------------------------
+	@Override
+	public String getAttributeNameForLinkToOne(EntityInDbModel entity, EntityInDbModel referencedEntity) {
+		return rules.getAttributeNameForLinkToOne(entity, referencedEntity);
+	}
+
+	@Override
+	public String getAttributeNameForLinkToMany(EntityInDbModel entity, EntityInDbModel referencedEntity) {
+		return rules.getAttributeNameForLinkToMany(entity, referencedEntity);
+	}
+
+	//------------------------------------------------------------------------------
+	// Statistics
+	//------------------------------------------------------------------------------
+	/**
+	 * Returns the number of calls resolved by the cache (all functions)
+	 * @return
+	 */
+	public long getHitCount() {
+		return entityClassNames.getHitCount() + attributeNames.getHitCount() + attributeTypes.getHitCount() 
+				+ attributeGuiLabels.getHitCount() + attributeGuiTypes.getHitCount() ;
+	}
+
+	/**
+	 * Returns the number of calls delegated to the decorated rules (all functions)
+	 * @return
+	 */
+	public long getMissCount() {
+		return entityClassNames.getMissCount() + attributeNames.getMissCount() + attributeTypes.getMissCount() 
+				+ attributeGuiLabels.getMissCount() + attributeGuiTypes.getMissCount() ;
+	}
+
+	/**
+	 * Returns the hit rate ( between 0.0 and 1.0 ) 
+	 * @return
+	 */
+	public double getHitRate() {
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		return total > 0 ? (double) hits / total : 0.0 ;
+	}
+
+	/**
+	 * Returns the total number of values currently in the cache 
+	 * @return
+	 */
+	public int getSize() {
+		return entityClassNames.size() + attributeNames.size() + attributeTypes.size() 
+				+ attributeGuiLabels.size() + attributeGuiTypes.size() ;
+	}
+
+	/**
+	 * Clears all the cached values and the statistics
+	 */
+	public void clear() {
+		entityClassNames.clear();
+		attributeNames.clear();
+		attributeTypes.clear();
+		attributeGuiLabels.clear();
+		attributeGuiTypes.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "CachingRepositoryRules : size = " + getSize() + ", hits = " + getHitCount() 
+				+ ", misses = " + getMissCount() ;
+	}
+}
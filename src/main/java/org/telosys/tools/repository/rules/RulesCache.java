@@ -0,0 +1,96 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.rules;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread-safe memoization map used by the caching rules <br>
+ * When the maximum size is reached the map is cleared (simple and cheap bound for pure functions)
+ * 
+ * @author Laurent GUERIN
+ *
+ * @param <K>
+ * @param <V>
+ */
+class RulesCache<K, V> {
+
+	private final int maxSize ;
+	
+	private final ConcurrentHashMap<K, V> map ;
+	
+	private final AtomicLong hitCount  = new AtomicLong() ;
+	private final AtomicLong missCount = new AtomicLong() ;
+	
+	/**
+	 * Constructor
+	 * @param maxSize
+	 */
+	protected RulesCache(int maxSize) {
+		super();
+		this.maxSize = maxSize ;
+		this.map = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+	}
+	
+	/**
+	 * Returns the value for the given key or null if not in the cache
+	 * @param key
+	 * @return
+	 */
+	protected V get(K key) {
+		V value = map.get(key);
+		if ( value != null ) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+		}
+		return value ;
+	}
+	
+	/**
+	 * Stores the given value (null values are not stored)
+	 * @param key
+	 * @param value
+	 */
+	protected void put(K key, V value) {
+		if ( value != null ) {
+			if ( map.size() >= maxSize ) {
+				map.clear();
+			}
+			map.put(key, value);
+		}
+	}
+	
+	protected int size() {
+		return map.size();
+	}
+
+	protected long getHitCount() {
+		return hitCount.get();
+	}
+
+	protected long getMissCount() {
+		return missCount.get();
+	}
+	
+	protected void clear() {
+		map.clear();
+		hitCount.set(0);
+		missCount.set(0);
+	}
+}
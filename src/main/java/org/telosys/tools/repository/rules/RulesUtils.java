@@ -15,6 +15,7 @@
  */
 package org.telosys.tools.repository.rules;
 
+import java.util.Locale;
 import java.util.StringTokenizer;
 
 import org.telosys.tools.repository.model.AttributeInDbModel;
@@ -67,10 +68,94 @@ public class RulesUtils {
      * Transform the given string to "CamelCase", using the given word separator  
      * ie : "ORDER_ITEM" --> "OrderItem"
      * @param inputString eg "ORDER_ITEM"
-     * @param separator   eg "_"
+     * @param separator   eg "_" (each character is a separator)
      * @return
      */
     public String camelCase(String inputString, String separator) {
+        if (inputString != null)
+        {
+        	if ( ! isAsciiCaseMappingSafe(inputString) ) {
+        		return camelCaseWithTokenizer(inputString, separator);
+        	}
+        	//--- Single pass on the characters (same result as the tokenizer version)
+        	int start = trimStart(inputString);
+        	int end = trimEnd(inputString, start);
+        	char[] chars = new char[end - start];
+        	int n = 0 ;
+        	boolean wordStart = true ;
+        	for ( int i = start ; i < end ; i++ ) {
+        		char c = inputString.charAt(i);
+        		if ( separator.indexOf(c) >= 0 ) {
+        			wordStart = true ;
+        		}
+        		else {
+        			chars[n++] = wordStart ? toUpperCaseAscii(c) : toLowerCaseAscii(c) ;
+        			wordStart = false ;
+        		}
+        	}
+        	return new String(chars, 0, n);
+        }
+        else
+        {
+            return "";
+        }
+    }
+    
+    /**
+     * Transform the given string to "Separated words", using the given word separator  
+     * ie : "ORDER_ITEM" --> "Order item"
+     * @param inputString eg "ORDER_ITEM"
+     * @param separator   eg "_" (each character is a separator)
+     * @return
+     */
+    public String separatedWords(String inputString, String separator) {
+        if (inputString != null)
+        {
+        	if ( ! isAsciiCaseMappingSafe(inputString) ) {
+        		return separatedWordsWithTokenizer(inputString, separator);
+        	}
+        	//--- Single pass on the characters (same result as the tokenizer version)
+        	int start = trimStart(inputString);
+        	int end = trimEnd(inputString, start);
+        	char[] chars = new char[end - start];
+        	int n = 0 ;
+        	int words = 0 ;
+        	boolean inWord = false ;
+        	for ( int i = start ; i < end ; i++ ) {
+        		char c = toLowerCaseAscii( inputString.charAt(i) ); // separators are searched after conversion
+        		if ( separator.indexOf(c) >= 0 ) {
+        			inWord = false ;
+        		}
+        		else {
+        			if ( ! inWord ) {
+        				words++;
+        				if ( words > 1 ) {
+        					chars[n++] = ' ' ;
+        				}
+        				else {
+        					c = toUpperCaseAscii(c) ;
+        				}
+        				inWord = true ;
+        			}
+        			chars[n++] = c ;
+        		}
+        	}
+        	return new String(chars, 0, n);
+        }
+        else
+        {
+            return "";
+        }
+    }
+
+    /**
+     * Original implementation of 'camelCase' (based on StringTokenizer) <br>
+     * Used for the strings that cannot be converted character by character
+     * @param inputString
+     * @param separator
+     * @return
+     */
+    /* package */ String camelCaseWithTokenizer(String inputString, String separator) {
         if (inputString != null)
         {
             StringBuffer sb = new StringBuffer( inputString.length() );
@@ -90,7 +175,14 @@ public class RulesUtils {
         }
     }
     
-    public String separatedWords(String inputString, String separator) {
+    /**
+     * Original implementation of 'separatedWords' (based on StringTokenizer) <br>
+     * Used for the strings that cannot be converted character by character
+     * @param inputString
+     * @param separator
+     * @return
+     */
+    /* package */ String separatedWordsWithTokenizer(String inputString, String separator) {
         if (inputString != null)
         {
             StringBuffer sb = new StringBuffer( inputString.length() );
@@ -118,6 +210,62 @@ public class RulesUtils {
         }
     }
 
+    /**
+     * Returns true if the case of each character of the given string can be converted 
+     * without the JDK String conversion, with exactly the same result <br>
+     * ( ASCII characters only and default locale without specific rules for ASCII letters )
+     * @param s
+     * @return
+     */
+    private boolean isAsciiCaseMappingSafe(String s) {
+    	String language = Locale.getDefault().getLanguage() ;
+    	if ( "tr".equals(language) || "az".equals(language) ) {
+    		// Turkish and Azeri have specific case rules for 'i' and 'I'
+    		return false ;
+    	}
+    	for ( int i = 0 ; i < s.length() ; i++ ) {
+    		if ( s.charAt(i) > 127 ) {
+    			return false ;
+    		}
+    	}
+    	return true ;
+    }
+    
+    private char toUpperCaseAscii(char c) {
+    	return ( c >= 'a' && c <= 'z' ) ? (char) ( c - 32 ) : c ;
+    }
+    
+    private char toLowerCaseAscii(char c) {
+    	return ( c >= 'A' && c <= 'Z' ) ? (char) ( c + 32 ) : c ;
+    }
+    
+    /**
+     * Returns the index of the first character after the leading spaces (same rule as String.trim)
+     * @param s
+     * @return
+     */
+    private int trimStart(String s) {
+    	int i = 0 ;
+    	while ( i < s.length() && s.charAt(i) <= ' ' ) {
+    		i++ ;
+    	}
+    	return i ;
+    }
+
+    /**
+     * Returns the index after the last character before the trailing spaces (same rule as String.trim)
+     * @param s
+     * @param start
+     * @return
+     */
+    private int trimEnd(String s, int start) {
+    	int i = s.length() ;
+    	while ( i > start && s.charAt(i - 1) <= ' ' ) {
+    		i-- ;
+    	}
+    	return i ;
+    }
+
     public boolean attributeNameAlreadyUsed(String attributeName, EntityInDbModel entity ) {
     	//--- Search in all columns/attributes
     	AttributeInDbModel[] columns = entity.getAttributesArray();
@@ -27,7 +27,7 @@ import junit.env.telosys.tools.commons.TestsEnv;
 
 public abstract class AbstractTestCase {
 	
-	private   static final String PROJECT_FOLDER = "project2" ;
+	protected static final String PROJECT_FOLDER = "project2" ;
 	
 	protected static final int    DEFAULT_DATABASE_ID  = 1 ;
 	
@@ -99,6 +99,32 @@ public abstract class AbstractTestCase {
 		return repositoryModel ;
 	}
 	
+	/**
+	 * Initialize a database in memory using the given SQL Script ID, <br>
+	 * then generate the RepositoryModel from this Database using the pipelined generation
+	 * 
+	 * @param sqlScriptId
+	 * @param sink
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	protected RepositoryModel generateRepositoryModelWithPipeline(int sqlScriptId, DbModelSink sink) throws TelosysToolsException {
+		
+		System.out.println("Database initialization... ");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(sqlScriptId);
+		
+		System.out.println("Repository generation (pipeline)... ");
+		DbModelGenerator repositoryGenerator = getDbModelGenerator(PROJECT_FOLDER);
+		repositoryGenerator.setPipelineQueueCapacity(1);
+
+		RepositoryModel repositoryModel = repositoryGenerator.generate( databaseInMemory.getDatabaseConfiguration(), sink );
+		
+		databaseInMemory.close();
+		
+		return repositoryModel ;
+	}
+	
 	/**
 	 * Initialize an database in memory using the given SQL Script ID, <br>
 	 * then generate the RepositoryModel from this Database, <br>
@@ -151,7 +177,7 @@ public abstract class AbstractTestCase {
 		return telosysToolsCfg ;
 	}
 	
-	private DbConnectionManager getDbConnectionManager(String projectName) throws TelosysToolsException {
+	protected DbConnectionManager getDbConnectionManager(String projectName) throws TelosysToolsException {
 		TelosysToolsCfg telosysToolsCfg = getTelosysToolsCfg(projectName);
 		return new DbConnectionManager(telosysToolsCfg);
 	}
@@ -0,0 +1,72 @@
+package org.telosys.tools.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class AsyncUpdateLogWriterTest extends AbstractTestCase {
+
+	@Test
+	public void testFlushAndClose() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		AsyncUpdateLogWriter writer = new AsyncUpdateLogWriter(baos, 2); // small queue => backpressure
+		for ( int i = 1 ; i <= 100 ; i++ ) {
+			writer.println("line " + i);
+		}
+		writer.println("café");
+		writer.flush();
+		String s = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(s.startsWith("line 1\nline 2\n"));
+		assertTrue(s.endsWith("line 100\ncafé\n"));
+		
+		writer.println("last");
+		writer.close();
+		writer.close(); // no effect
+		writer.flush(); // no effect
+		s = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(s.endsWith("café\nlast\n"));
+		assertEquals(102, s.split("\n").length);
+	}
+
+	@Test(expected=RuntimeException.class)
+	public void testPrintlnAfterClose() {
+		AsyncUpdateLogWriter writer = new AsyncUpdateLogWriter(new ByteArrayOutputStream(), 10);
+		writer.close();
+		writer.println("too late");
+	}
+
+	@Test
+	public void testUpdateWithAsyncLog() throws Exception {
+		printSeparator("testUpdateWithAsyncLog");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel repositoryModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.executeSqlAlter(5);
+		
+		File file = new File(TestsEnv.getTmpExistingFolder("asynclog"), "update.log");
+		TelosysToolsLogger logger = LoggerProviderForUnitTests.getLogger();
+		DbModelUpdator dbModelUpdator = new DbModelUpdator(getDbConnectionManager(PROJECT_FOLDER), logger, 
+				new AsyncUpdateLogWriter(file));
+		ChangeLog changeLog = dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		databaseInMemory.close();
+		assertEquals(2, changeLog.getNumberOfEntitiesCreated());
+		
+		//--- Log file closed (and complete) at the end of the update 
+		String log = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		System.out.println(log);
+		assertTrue(log.startsWith("Update date : "));
+		assertTrue(log.contains(" (+) table 'BADGE' added\n"));
+	}
+}
@@ -0,0 +1,134 @@
+package org.telosys.tools.repository;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.metadata.TableMetadata;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+
+public class DbModelGeneratorPipelineTest extends AbstractTestCase {
+	
+	private class EntitiesCollector implements DbModelSink {
+		private final List<String> tables = new LinkedList<>();
+		@Override
+		public void entityGenerated(EntityInDbModel entity) throws TelosysToolsException {
+			tables.add(entity.getDatabaseTable());
+		}
+	}
+
+	private void checkSameModel(RepositoryModel expected, RepositoryModel model) {
+		assertEquals(expected.getDatabaseId(), model.getDatabaseId());
+		assertEquals(expected.getNumberOfEntities(), model.getNumberOfEntities());
+		for ( EntityInDbModel expectedEntity : expected.getEntitiesArraySortedByTableName() ) {
+			EntityInDbModel entity = model.getEntityByTableName(expectedEntity.getDatabaseTable());
+			assertNotNull(entity);
+			assertEquals(expectedEntity.getClassName(), entity.getClassName());
+			assertEquals(expectedEntity.getAttributesArray().length, entity.getAttributesArray().length);
+			assertEquals(expectedEntity.getForeignKeys().length, entity.getForeignKeys().length);
+			LinkInDbModel[] expectedLinks = expectedEntity.getLinksArray();
+			LinkInDbModel[] links = entity.getLinksArray();
+			assertEquals(expectedLinks.length, links.length);
+			for ( int i = 0 ; i < links.length ; i++ ) {
+				assertEquals(expectedLinks[i].getFieldName(), links[i].getFieldName());
+				assertEquals(expectedLinks[i].getCardinality(), links[i].getCardinality());
+			}
+		}
+	}
+	
+	@Test
+	public void testPipelineWithoutSink() throws TelosysToolsException {
+		printSeparator("testPipelineWithoutSink");
+		for ( int scriptId = 1 ; scriptId <= 3 ; scriptId++ ) {
+			RepositoryModel expected = generateRepositoryModel(scriptId);
+			RepositoryModel model = generateRepositoryModelWithPipeline(scriptId, null);
+			printModel(model);
+			checkSameModel(expected, model);
+		}
+	}
+
+	@Test
+	public void testPipelineWithSink() throws TelosysToolsException {
+		printSeparator("testPipelineWithSink");
+		EntitiesCollector collector = new EntitiesCollector();
+		RepositoryModel expected = generateRepositoryModel(2);
+		RepositoryModel model = generateRepositoryModelWithPipeline(2, collector);
+		checkSameModel(expected, model);
+		assertEquals(2, collector.tables.size());
+		assertTrue(collector.tables.contains("STUDENT"));
+		assertTrue(collector.tables.contains("TEACHER"));
+	}
+
+	@Test
+	public void testPipelineSinkError() throws TelosysToolsException {
+		printSeparator("testPipelineSinkError");
+		DbModelSink sink = new DbModelSink() {
+			@Override
+			public void entityGenerated(EntityInDbModel entity) throws TelosysToolsException {
+				throw new TelosysToolsException("Sink error");
+			}
+		};
+		try {
+			generateRepositoryModelWithPipeline(2, sink);
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+	}
+
+	@Test
+	public void testPipelineStopsOnSinkError() throws TelosysToolsException, InterruptedException {
+		printSeparator("testPipelineStopsOnSinkError");
+		final CountDownLatch sinkFailed = new CountDownLatch(1);
+		final AtomicInteger entitiesBuilt = new AtomicInteger();
+		DbModelSink sink = new DbModelSink() {
+			@Override
+			public void entityGenerated(EntityInDbModel entity) throws TelosysToolsException {
+				sinkFailed.countDown();
+				throw new TelosysToolsException("Sink error");
+			}
+		};
+		DbModelGenerator generator = new DbModelGenerator(getDbConnectionManager(PROJECT_FOLDER), 
+				LoggerProviderForUnitTests.getLogger()) {
+			@Override
+			protected EntityInDbModel buildEntity(TableMetadata dbTable) {
+				if ( entitiesBuilt.incrementAndGet() == 2 ) {
+					//--- 2nd table (if built) : wait for the sink failure on the 1rst entity 
+					try {
+						sinkFailed.await(5, TimeUnit.SECONDS);
+						Thread.sleep(100);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.buildEntity(dbTable);
+			}
+		};
+		generator.setPipelineQueueCapacity(1);
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(4); // 3 tables
+		try {
+			generator.generate( databaseInMemory.getDatabaseConfiguration(), sink );
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		} finally {
+			databaseInMemory.close();
+		}
+		//--- The 3rd table is never built 
+		assertTrue(entitiesBuilt.get() < 3);
+	}
+}
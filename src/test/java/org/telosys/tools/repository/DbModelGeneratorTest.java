@@ -330,4 +330,26 @@ public class DbModelGeneratorTest extends AbstractTestCase {
 		System.out.println("Number of  links : " + teacherLinks.length);
 		assertEquals(1, teacherLinks.length);
 	}
+
+	@Test
+	public void testRulesCacheStatistics() throws TelosysToolsException {
+		printSeparator("testRulesCacheStatistics");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		try {
+			DbModelGenerator generator = getDbModelGenerator(PROJECT_FOLDER);
+			assertEquals(0, generator.getRulesCache().getMissCount());
+			generator.generate( databaseInMemory.getDatabaseConfiguration() );
+			long misses = generator.getRulesCache().getMissCount();
+			long hits = generator.getRulesCache().getHitCount();
+			assertTrue(misses > 0);
+			//--- 2nd generation with the same generator : only cache hits
+			generator.generate( databaseInMemory.getDatabaseConfiguration() );
+			assertEquals(misses, generator.getRulesCache().getMissCount());
+			assertTrue(generator.getRulesCache().getHitCount() > hits);
+			assertTrue(generator.getRulesCache().getHitRate() > 0);
+		} finally {
+			databaseInMemory.close();
+		}
+	}
 }
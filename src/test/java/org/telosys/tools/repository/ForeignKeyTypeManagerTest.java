@@ -0,0 +1,60 @@
+package org.telosys.tools.repository;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ForeignKeyTypeManagerTest extends AbstractTestCase {
+
+	@Test
+	public void testIncrementalResolution() throws TelosysToolsException {
+		printSeparator("testIncrementalResolution");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.close();
+
+		EntityInDbModel student = model.getEntityByTableName("STUDENT");
+		EntityInDbModel teacher = model.getEntityByTableName("TEACHER");
+		AttributeInDbModel teacherCode = student.getAttributeByColumnName("TEACHER_CODE");
+		assertTrue(teacherCode.isFKSimple());
+		assertEquals(1, teacherCode.getFKParts().size());
+		assertEquals(teacher.getClassName(), teacherCode.getReferencedEntityClassName());
+
+		//--- Already resolved : nothing done, no duplicated FK parts
+		ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager();
+		fkTypeManager.setAttributesForeignKeyInformation(model);
+		assertFalse(fkTypeManager.setAttributesForeignKeyInformation(model, student));
+		assertEquals(1, teacherCode.getFKParts().size());
+
+		//--- Referenced entity renamed
+		teacher.setClassName("Professor");
+		assertTrue(fkTypeManager.setAttributesForeignKeyInformation(model, student));
+		assertEquals(1, teacherCode.getFKParts().size());
+		assertEquals("Professor", teacherCode.getFKParts().get(0).getReferencedEntity());
+		assertEquals("Professor", teacherCode.getReferencedEntityClassName());
+		assertFalse(fkTypeManager.setAttributesForeignKeyInformation(model, student));
+
+		//--- FK parts lost (attribute replaced)
+		teacherCode.removeAllFKParts();
+		assertTrue(fkTypeManager.setAttributesForeignKeyInformation(model, student));
+		assertEquals(1, teacherCode.getFKParts().size());
+
+		//--- Foreign Key removed
+		for ( ForeignKeyInDbModel fk : student.getForeignKeys() ) {
+			student.removeForeignKey(fk);
+		}
+		assertTrue(fkTypeManager.setAttributesForeignKeyInformation(model, student));
+		assertFalse(teacherCode.isFK());
+		assertFalse(teacherCode.hasFKParts());
+		assertNull(teacherCode.getReferencedEntityClassName());
+	}
+}
@@ -0,0 +1,392 @@
+package org.telosys.tools.repository;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.metadata.TableMetadata;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class GenerationSessionTest extends AbstractTestCase {
+	
+	private class ProgressCollector implements GenerationProgressListener {
+		private final List<GenerationProgress> events = new LinkedList<>();
+		@Override
+		public void progress(GenerationProgress progress) {
+			System.out.println("Progress : " + progress);
+			events.add(progress);
+		}
+		private GenerationProgress last() {
+			return events.get(events.size() - 1);
+		}
+	}
+	
+	/**
+	 * Generator failing (or blocked) on the given table 
+	 */
+	private class FailingGenerator extends DbModelGenerator {
+		private final String failingTable ;
+		private final long   sleep ;
+		public FailingGenerator(String failingTable, long sleep) throws TelosysToolsException {
+			super(getDbConnectionManager(PROJECT_FOLDER), LoggerProviderForUnitTests.getLogger());
+			this.failingTable = failingTable ;
+			this.sleep = sleep ;
+		}
+		@Override
+		protected EntityInDbModel buildEntity(TableMetadata dbTable) {
+			if ( failingTable.equals(dbTable.getTableName()) ) {
+				if ( sleep > 0 ) {
+					try {
+						Thread.sleep(sleep);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				else {
+					throw new IllegalStateException("Table error");
+				}
+			}
+			return super.buildEntity(dbTable);
+		}
+	}
+	
+	/**
+	 * Generator blocked on the given table until released (the interruptions are ignored)
+	 */
+	private class BlockingGenerator extends DbModelGenerator {
+		private final String blockingTable ;
+		private final CountDownLatch released = new CountDownLatch(1);
+		public BlockingGenerator(String blockingTable) throws TelosysToolsException {
+			super(getDbConnectionManager(PROJECT_FOLDER), LoggerProviderForUnitTests.getLogger());
+			this.blockingTable = blockingTable ;
+		}
+		@Override
+		protected EntityInDbModel buildEntity(TableMetadata dbTable) {
+			if ( blockingTable.equals(dbTable.getTableName()) ) {
+				long end = System.currentTimeMillis() + 10000 ;
+				while ( released.getCount() > 0 && System.currentTimeMillis() < end ) {
+					try {
+						released.await(100, TimeUnit.MILLISECONDS);
+					} catch (InterruptedException e) {
+						// interruption ignored (as a blocked JDBC call)
+					}
+				}
+			}
+			return super.buildEntity(dbTable);
+		}
+		private void release() {
+			released.countDown();
+		}
+	}
+	
+	private GenerationResult runSession(int sqlScriptId, DbModelGenerator generator, GenerationSessionInitializer initializer) throws TelosysToolsException {
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(sqlScriptId);
+		try {
+			GenerationSession session = generator.createSession(databaseInMemory.getDatabaseConfiguration());
+			initializer.init(session);
+			return session.run();
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+	
+	private interface GenerationSessionInitializer {
+		void init(GenerationSession session);
+	}
+	
+	@Test
+	public void testCompleteSession() throws TelosysToolsException {
+		printSeparator("testCompleteSession");
+		RepositoryModel expected = generateRepositoryModel(2);
+		final ProgressCollector collector = new ProgressCollector();
+		GenerationResult result = runSession(2, getDbModelGenerator(PROJECT_FOLDER), new GenerationSessionInitializer() {
+			@Override
+			public void init(GenerationSession session) {
+				session.setProgressListener(collector);
+			}
+		});
+		assertTrue(result.isComplete());
+		assertFalse(result.isCancelled());
+		assertEquals(0, result.getFailedTables().size());
+		assertEquals(0, result.getWarnings().size());
+		RepositoryModel model = result.getRepositoryModel();
+		printModel(model);
+		assertEquals(expected.getNumberOfEntities(), model.getNumberOfEntities());
+		assertEquals(expected.getEntityByTableName("STUDENT").getLinksArray().length, 
+				model.getEntityByTableName("STUDENT").getLinksArray().length);
+		
+		assertEquals(GenerationPhase.CONNECTING, collector.events.get(0).getPhase());
+		assertEquals(GenerationPhase.COMPLETED, collector.last().getPhase());
+		assertEquals(2, collector.last().getTablesDone());
+		assertEquals(2, collector.last().getTablesTotal());
+		int tablesEvents = 0 ;
+		for ( GenerationProgress progress : collector.events ) {
+			if ( progress.getCurrentTable() != null ) {
+				assertEquals(GenerationPhase.GENERATING_ENTITIES, progress.getPhase());
+				tablesEvents++;
+			}
+		}
+		assertEquals(2, tablesEvents);
+	}
+
+	@Test
+	public void testCancelledSession() throws TelosysToolsException {
+		printSeparator("testCancelledSession");
+		final ProgressCollector collector = new ProgressCollector();
+		GenerationResult result = runSession(2, getDbModelGenerator(PROJECT_FOLDER), new GenerationSessionInitializer() {
+			@Override
+			public void init(final GenerationSession session) {
+				session.setProgressListener(new GenerationProgressListener() {
+					@Override
+					public void progress(GenerationProgress progress) {
+						collector.progress(progress);
+						if ( progress.getTablesDone() == 1 ) {
+							session.cancel();
+						}
+					}
+				});
+			}
+		});
+		assertTrue(result.isCancelled());
+		assertFalse(result.isComplete());
+		assertEquals(1, result.getRepositoryModel().getNumberOfEntities());
+		assertEquals(GenerationPhase.CANCELLED, collector.last().getPhase());
+		assertEquals(1, collector.last().getTablesDone());
+		assertEquals(2, collector.last().getTablesTotal());
+	}
+
+	@Test
+	public void testTableFailure() throws TelosysToolsException {
+		printSeparator("testTableFailure");
+		GenerationResult result = runSession(2, new FailingGenerator("TEACHER", 0), new GenerationSessionInitializer() {
+			@Override
+			public void init(GenerationSession session) {
+				// default configuration 
+			}
+		});
+		assertFalse(result.isComplete());
+		assertFalse(result.isCancelled());
+		assertEquals(1, result.getFailedTables().size());
+		TableGenerationFailure failure = result.getFailedTables().get(0);
+		assertEquals("TEACHER", failure.getTableName());
+		assertTrue(failure.getCause() instanceof IllegalStateException);
+		
+		//--- Partial model : the student FKs referencing the teacher table are ignored
+		RepositoryModel model = result.getRepositoryModel();
+		assertEquals(1, model.getNumberOfEntities());
+		assertNull(model.getEntityByTableName("TEACHER"));
+		EntityInDbModel student = model.getEntityByTableName("STUDENT");
+		assertNotNull(student);
+		assertEquals(0, student.getForeignKeys().length);
+		assertEquals(0, student.getLinksArray().length);
+		assertEquals(2, result.getWarnings().size());
+	}
+
+	@Test
+	public void testTableTimeout() throws TelosysToolsException {
+		printSeparator("testTableTimeout");
+		final ProgressCollector collector = new ProgressCollector();
+		GenerationResult result = runSession(2, new FailingGenerator("STUDENT", 5000), new GenerationSessionInitializer() {
+			@Override
+			public void init(GenerationSession session) {
+				session.setTableTimeout(300);
+				session.setProgressListener(collector);
+			}
+		});
+		assertEquals(1, result.getFailedTables().size());
+		TableGenerationFailure failure = result.getFailedTables().get(0);
+		assertEquals("STUDENT", failure.getTableName());
+		assertTrue(failure.getCause() instanceof TimeoutException);
+		
+		RepositoryModel model = result.getRepositoryModel();
+		assertEquals(1, model.getNumberOfEntities());
+		assertNotNull(model.getEntityByTableName("TEACHER"));
+		assertEquals(0, result.getWarnings().size());
+		assertEquals(GenerationPhase.COMPLETED, collector.last().getPhase());
+		assertEquals(2, collector.last().getTablesDone());
+		assertEquals(1, collector.last().getTablesFailed());
+	}
+
+	@Test
+	public void testTableTimeoutWithBlockedThread() throws TelosysToolsException {
+		printSeparator("testTableTimeoutWithBlockedThread");
+		final ProgressCollector collector = new ProgressCollector();
+		BlockingGenerator generator = new BlockingGenerator("COUNTRY");
+		long start = System.currentTimeMillis();
+		GenerationResult result ;
+		try {
+			result = runSession(93, generator, new GenerationSessionInitializer() {
+				@Override
+				public void init(GenerationSession session) {
+					session.setTableTimeout(300);
+					session.setProgressListener(collector);
+				}
+			});
+		} finally {
+			generator.release();
+		}
+		long duration = System.currentTimeMillis() - start ;
+		System.out.println("Duration : " + duration + " ms");
+		assertTrue(duration < 5000);
+		
+		//--- The tables after the blocked table are in timeout 
+		assertEquals(3, result.getFailedTables().size());
+		assertEquals("COUNTRY", result.getFailedTables().get(0).getTableName());
+		for ( TableGenerationFailure failure : result.getFailedTables() ) {
+			assertTrue(failure.getCause() instanceof TimeoutException);
+		}
+		assertTrue(result.getFailedTables().get(2).getCause().getMessage().contains("COUNTRY"));
+		assertEquals(0, result.getRepositoryModel().getNumberOfEntities());
+		assertEquals(GenerationPhase.COMPLETED, collector.last().getPhase());
+		assertEquals(3, collector.last().getTablesDone());
+		assertEquals(3, collector.last().getTablesFailed());
+	}
+
+	private File getCheckpointDirectory(String name) {
+		File directory = TestsEnv.getTmpExistingFolder("checkpoints/" + name);
+		for ( File file : directory.listFiles() ) {
+			file.delete();
+		}
+		return directory ;
+	}
+	
+	@Test
+	public void testCheckpointResume() throws TelosysToolsException {
+		printSeparator("testCheckpointResume");
+		final File directory = getCheckpointDirectory("resume");
+		GenerationSessionInitializer withCheckpoint = new GenerationSessionInitializer() {
+			@Override
+			public void init(GenerationSession session) {
+				session.setCheckpoint(directory, 1);
+			}
+		};
+		
+		//--- 1rst run : TEACHER in error 
+		GenerationResult result = runSession(2, new FailingGenerator("TEACHER", 0), withCheckpoint);
+		assertFalse(result.isComplete());
+		assertEquals(0, result.getTablesResumed());
+		assertEquals(1, result.getRepositoryModel().getNumberOfEntities());
+		assertTrue(new File(directory, "checkpoint.header").isFile());
+		assertEquals(2, directory.listFiles().length); // header + 1 part (STUDENT)
+		
+		//--- 2nd run : resumed from the checkpoint (STUDENT already generated)
+		RepositoryModel expected = generateRepositoryModel(2);
+		result = runSession(2, new FailingGenerator("STUDENT", 0), withCheckpoint);
+		assertTrue(result.isComplete());
+		assertEquals(1, result.getTablesResumed());
+		RepositoryModel model = result.getRepositoryModel();
+		printModel(model);
+		assertEquals(2, model.getNumberOfEntities());
+		//--- Links generated over the full model 
+		assertEquals(expected.getEntityByTableName("STUDENT").getForeignKeys().length, 
+				model.getEntityByTableName("STUDENT").getForeignKeys().length);
+		assertEquals(expected.getEntityByTableName("STUDENT").getLinksArray().length, 
+				model.getEntityByTableName("STUDENT").getLinksArray().length);
+		assertEquals(expected.getEntityByTableName("TEACHER").getLinksArray().length, 
+				model.getEntityByTableName("TEACHER").getLinksArray().length);
+		
+		//--- Checkpoint removed when complete 
+		assertEquals(0, directory.listFiles().length);
+	}
+
+	@Test
+	public void testCheckpointResumeAfterCancel() throws TelosysToolsException {
+		printSeparator("testCheckpointResumeAfterCancel");
+		final File directory = getCheckpointDirectory("cancel");
+		
+		//--- 1rst run : cancelled after the first table 
+		GenerationResult result = runSession(2, getDbModelGenerator(PROJECT_FOLDER), new GenerationSessionInitializer() {
+			@Override
+			public void init(final GenerationSession session) {
+				session.setCheckpoint(directory, 1);
+				session.setProgressListener(new GenerationProgressListener() {
+					@Override
+					public void progress(GenerationProgress progress) {
+						if ( progress.getTablesDone() == 1 ) {
+							session.cancel();
+						}
+					}
+				});
+			}
+		});
+		assertTrue(result.isCancelled());
+		assertFalse(result.isComplete());
+		assertEquals(0, result.getFailedTables().size());
+		assertEquals(1, result.getRepositoryModel().getNumberOfEntities());
+		//--- Checkpoint kept 
+		assertTrue(new File(directory, "checkpoint.header").isFile());
+		assertEquals(2, directory.listFiles().length); // header + 1 part
+		
+		//--- 2nd run : resumed from the checkpoint 
+		result = runSession(2, getDbModelGenerator(PROJECT_FOLDER), new GenerationSessionInitializer() {
+			@Override
+			public void init(GenerationSession session) {
+				session.setCheckpoint(directory, 1);
+			}
+		});
+		assertTrue(result.isComplete());
+		assertEquals(1, result.getTablesResumed());
+		assertEquals(2, result.getRepositoryModel().getNumberOfEntities());
+		assertEquals(0, directory.listFiles().length);
+	}
+
+	@Test
+	public void testCheckpointOtherConfiguration() throws TelosysToolsException {
+		printSeparator("testCheckpointOtherConfiguration");
+		File directory = getCheckpointDirectory("other");
+		GenerationCheckpoint checkpoint = new GenerationCheckpoint(directory, "config-A", 2);
+		assertEquals(0, checkpoint.open().size());
+		RepositoryModel model = generateRepositoryModel(2);
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			checkpoint.add(entity);
+		}
+		assertEquals(1, checkpoint.getPartsCount());
+		
+		//--- Same configuration => resume
+		checkpoint = new GenerationCheckpoint(directory, "config-A", 2);
+		List<EntityInDbModel> entities = checkpoint.open();
+		assertEquals(2, entities.size());
+		assertEquals("STUDENT", entities.get(0).getDatabaseTable());
+		
+		//--- Other configuration => new checkpoint
+		checkpoint = new GenerationCheckpoint(directory, "config-B", 2);
+		assertEquals(0, checkpoint.open().size());
+		assertEquals(1, directory.listFiles().length); // new header only
+	}
+
+	@Test
+	public void testGenerateWithCheckpointError() throws TelosysToolsException {
+		printSeparator("testGenerateWithCheckpointError");
+		File directory = getCheckpointDirectory("error");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		try {
+			new FailingGenerator("TEACHER", 0).generate(databaseInMemory.getDatabaseConfiguration(), directory, 10);
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+			assertTrue(e.getMessage().contains("TEACHER"));
+		}
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate(databaseInMemory.getDatabaseConfiguration(), directory, 10);
+		databaseInMemory.close();
+		assertEquals(2, model.getNumberOfEntities());
+		assertEquals(0, directory.listFiles().length);
+	}
+}
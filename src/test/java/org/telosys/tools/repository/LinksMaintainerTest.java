@@ -0,0 +1,146 @@
+package org.telosys.tools.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.RepositoryRulesProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LinksMaintainerTest extends AbstractTestCase {
+
+	private EntityInDbModel buildEntity(String tableName, String className, String... referencedTables) {
+		EntityInDbModel entity = new EntityInDbModel();
+		entity.setDatabaseTable(tableName);
+		entity.setClassName(className);
+		addAttribute(entity, "ID", "id");
+		addAttribute(entity, "NAME", "name"); // not a join table
+		int n = 0 ;
+		for ( String referencedTable : referencedTables ) {
+			n++ ;
+			addForeignKey(entity, "FK_" + tableName + "_" + n, referencedTable);
+		}
+		return entity ;
+	}
+
+	private void addAttribute(EntityInDbModel entity, String columnName, String name) {
+		AttributeInDbModel attribute = new AttributeInDbModel(entity);
+		attribute.setDatabaseName(columnName);
+		attribute.setName(name);
+		entity.storeAttribute(attribute);
+	}
+
+	private void addForeignKey(EntityInDbModel entity, String name, String referencedTable) {
+		addAttribute(entity, "COL_" + name, "col" + name);
+		entity.storeForeignKey(buildForeignKey(name, entity.getDatabaseTable(), referencedTable));
+	}
+
+	private ForeignKeyInDbModel buildForeignKey(String name, String tableName, String referencedTable) {
+		ForeignKeyInDbModel fk = new ForeignKeyInDbModel();
+		fk.setName(name);
+		ForeignKeyColumnInDbModel fkColumn = new ForeignKeyColumnInDbModel();
+		fkColumn.setTableName(tableName);
+		fkColumn.setColumnName("COL_" + name);
+		fkColumn.setSequence(1);
+		fkColumn.setTableRef(referencedTable);
+		fkColumn.setReferencedColumnName("ID");
+		fk.storeForeignKeyColumn(fkColumn);
+		return fk ;
+	}
+
+	private List<String> links(RepositoryModel model) {
+		List<String> list = new LinkedList<>();
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			LinkInDbModel[] links = entity.getLinksArray();
+			String[] descriptions = new String[links.length];
+			for ( int i = 0 ; i < links.length ; i++ ) {
+				descriptions[i] = entity.getDatabaseTable() + " : " + links[i].getId() + " " + links[i].getFieldName()
+						+ " mappedBy=" + links[i].getMappedBy() ;
+			}
+			Arrays.sort(descriptions);
+			list.addAll(Arrays.asList(descriptions));
+		}
+		return list ;
+	}
+
+	@Test
+	public void testUpdateWithMaintainer() throws TelosysToolsException {
+		printSeparator("testUpdateWithMaintainer");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		RepositoryModel expectedModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.executeSqlAlter(5);
+
+		getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).updateRepository(databaseInMemory.getDatabaseConfiguration(), expectedModel);
+
+		LinksMaintainer linksMaintainer = new LinksMaintainer(model, RepositoryRulesProvider.getRepositoryRules());
+		linksMaintainer.attach();
+		DbModelUpdator updator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		updator.setLinksMaintainer(linksMaintainer);
+		updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+
+		assertEquals(0, linksMaintainer.getNumberOfTablesToRepair());
+		System.out.println(links(model));
+		assertEquals(links(expectedModel), links(model));
+		assertTrue(model.getEntityByTableName("STUDENT").getLinksCount() == 0);
+	}
+
+	@Test
+	public void testPendingRelations() throws TelosysToolsException {
+		RepositoryModel model = new RepositoryModel();
+		model.storeEntity(buildEntity("AUTHOR", "Author"));
+		model.storeEntity(buildEntity("BOOK", "Book", "AUTHOR", "AUTHOR"));
+		model.storeEntity(buildEntity("SHOP", "Shop"));
+		new LinksManager(RepositoryRulesProvider.getRepositoryRules()).generateAllLinks(model);
+		List<String> initialLinks = links(model);
+		assertEquals(4, initialLinks.size());
+
+		LinksMaintainer linksMaintainer = new LinksMaintainer(model, RepositoryRulesProvider.getRepositoryRules());
+		linksMaintainer.attach();
+		assertTrue(linksMaintainer.isAttached());
+
+		//--- Referenced entity removed : the relations are pending
+		model.removeEntity("AUTHOR");
+		assertEquals(2, linksMaintainer.getNumberOfTablesToRepair()); // AUTHOR and BOOK
+		assertEquals(0, linksMaintainer.repairLinks());
+		assertEquals(0, model.getEntityByTableName("BOOK").getLinksCount());
+
+		//--- Referenced entity added again : the pending relations are generated
+		model.storeEntity(buildEntity("AUTHOR", "Author"));
+		assertEquals(4, linksMaintainer.repairLinks());
+		assertEquals(initialLinks, links(model));
+
+		//--- Foreign key added : only the changed table is repaired
+		EntityInDbModel book = model.getEntityByTableName("BOOK");
+		addForeignKey(book, "FK_BOOK_3", "SHOP");
+		assertEquals(1, linksMaintainer.getNumberOfTablesToRepair());
+		assertEquals(6, linksMaintainer.repairLinks());
+		assertEquals(1, model.getEntityByTableName("SHOP").getLinksCount());
+
+		//--- Foreign key removed
+		book.removeForeignKey(book.getForeignKey("FK_BOOK_1"));
+		assertEquals(4, linksMaintainer.repairLinks());
+		assertEquals(1, model.getEntityByTableName("AUTHOR").getLinksCount());
+		assertEquals(2, book.getLinksCount());
+
+		//--- No more event after detach
+		linksMaintainer.detach();
+		assertFalse(linksMaintainer.isAttached());
+		model.removeEntity("SHOP");
+		assertEquals(0, linksMaintainer.getNumberOfTablesToRepair());
+	}
+}
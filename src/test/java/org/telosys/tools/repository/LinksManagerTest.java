@@ -0,0 +1,142 @@
+package org.telosys.tools.repository;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.RepositoryRulesProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LinksManagerTest extends AbstractTestCase {
+
+	private EntityInDbModel addEntity(RepositoryModel model, String tableName, String className, String... referencedTables) {
+		EntityInDbModel entity = new EntityInDbModel();
+		entity.setDatabaseTable(tableName);
+		entity.setClassName(className);
+		int n = 0 ;
+		for ( String referencedTable : referencedTables ) {
+			n++ ;
+			ForeignKeyInDbModel fk = new ForeignKeyInDbModel();
+			fk.setName("FK_" + tableName + "_" + n);
+			ForeignKeyColumnInDbModel fkColumn = new ForeignKeyColumnInDbModel();
+			fkColumn.setTableName(tableName);
+			fkColumn.setColumnName("COL_" + n);
+			fkColumn.setSequence(1);
+			fkColumn.setTableRef(referencedTable);
+			fkColumn.setReferencedColumnName("ID");
+			fk.storeForeignKeyColumn(fkColumn);
+			entity.storeForeignKey(fk);
+		}
+		model.storeEntity(entity);
+		return entity ;
+	}
+
+	private void addAttribute(EntityInDbModel entity, String columnName, String name, boolean keyAndForeignKey) {
+		AttributeInDbModel attribute = new AttributeInDbModel(entity);
+		attribute.setDatabaseName(columnName);
+		attribute.setName(name);
+		attribute.setKeyElement(keyAndForeignKey);
+		attribute.setFKSimple(keyAndForeignKey);
+		entity.storeAttribute(attribute);
+	}
+
+	private RepositoryModel buildModel(int copies) {
+		RepositoryModel model = new RepositoryModel();
+		for ( int i = 0 ; i < copies ; i++ ) {
+			String suffix = "_" + i ;
+			addEntity(model, "AUTHOR" + suffix, "Author" + i);
+			EntityInDbModel book = addEntity(model, "BOOK" + suffix, "Book" + i,
+					"AUTHOR" + suffix, "AUTHOR" + suffix, "PUBLISHER" + suffix);
+			addAttribute(book, "AUTHOR_NAME", "author" + i, false); // name collision
+			addEntity(model, "PUBLISHER" + suffix, "Publisher" + i);
+			EntityInDbModel employee = addEntity(model, "EMPLOYEE" + suffix, "Employee" + i, "EMPLOYEE" + suffix, "EMPLOYEE" + suffix); // self reference
+			addAttribute(employee, "NAME", "name", false);
+			EntityInDbModel joinTable = addEntity(model, "BOOK_TAG" + suffix, "BookTag" + i, "BOOK" + suffix, "TAG" + suffix);
+			addAttribute(joinTable, "COL_1", "col1", true);
+			addAttribute(joinTable, "COL_2", "col2", true);
+			addEntity(model, "TAG" + suffix, "Tag" + i, "TAG" + suffix);
+			addEntity(model, "ZREF" + suffix, "Zref" + i, "BOOK" + suffix, "ZREF" + suffix, "BOOK" + suffix);
+		}
+		return model ;
+	}
+
+	private List<String> links(RepositoryModel model) {
+		List<String> list = new LinkedList<>();
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			LinkInDbModel[] links = entity.getLinksArray();
+			String[] descriptions = new String[links.length];
+			for ( int i = 0 ; i < links.length ; i++ ) {
+				descriptions[i] = entity.getDatabaseTable() + " : " + links[i].getId() + " " + links[i].getFieldName()
+						+ " mappedBy=" + links[i].getMappedBy() + " " + links[i].getSourceTableName() + "->" + links[i].getTargetTableName() ;
+			}
+			Arrays.sort(descriptions);
+			list.addAll(Arrays.asList(descriptions));
+		}
+		return list ;
+	}
+
+	private LinksManager linksManager(int parallelism) {
+		LinksManager linksManager = new LinksManager(RepositoryRulesProvider.getRepositoryRules());
+		linksManager.setParallelism(parallelism);
+		linksManager.setParallelThreshold(0);
+		return linksManager ;
+	}
+
+	@Test
+	public void testParallelGeneration() throws TelosysToolsException {
+		RepositoryModel serialModel = buildModel(3);
+		RepositoryModel parallelModel = buildModel(3);
+		int serialCount = linksManager(1).generateAllLinks(serialModel);
+		int parallelCount = linksManager(4).generateAllLinks(parallelModel);
+		List<String> serialLinks = links(serialModel);
+		System.out.println(serialLinks);
+		assertEquals(3 * 2 * 10, serialCount);
+		assertEquals(serialCount, parallelCount);
+		assertTrue(serialLinks.contains("BOOK_0 : LINK_FK_FK_BOOK_0_2_O author03 mappedBy=null BOOK_0->AUTHOR_0"));
+		assertEquals(serialLinks, links(parallelModel));
+
+		//--- Regeneration with existing links
+		serialCount = linksManager(1).generateAllLinks(serialModel);
+		parallelCount = linksManager(4).generateAllLinks(parallelModel);
+		assertEquals(serialCount, parallelCount);
+		assertEquals(links(serialModel), links(parallelModel));
+	}
+
+	@Test
+	public void testParallelGenerationFromDatabase() throws TelosysToolsException {
+		printSeparator("testParallelGenerationFromDatabase");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		databaseInMemory.executeSqlAlter(5);
+		RepositoryModel serialModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		RepositoryModel parallelModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.close();
+
+		int serialCount = linksManager(1).generateAllLinks(serialModel);
+		int parallelCount = linksManager(2).generateAllLinks(parallelModel);
+		assertEquals(serialCount, parallelCount);
+		assertEquals(links(serialModel), links(parallelModel));
+	}
+
+	@Test(expected=TelosysToolsException.class)
+	public void testParallelGenerationWithoutReferencedTable() throws TelosysToolsException {
+		RepositoryModel model = buildModel(1);
+		addEntity(model, "LOG", "Log", "UNKNOWN");
+		linksManager(4).generateAllLinks(model);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidParallelism() {
+		linksManager(0);
+	}
+}
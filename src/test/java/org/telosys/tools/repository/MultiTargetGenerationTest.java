@@ -0,0 +1,120 @@
+package org.telosys.tools.repository;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MultiTargetGenerationTest extends AbstractTestCase {
+	
+	private GenerationResult generate(int sqlScriptId, List<GenerationTarget> targets) throws TelosysToolsException {
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(sqlScriptId);
+		try {
+			return getDbModelGenerator(PROJECT_FOLDER).generate(databaseInMemory.getDatabaseConfiguration(), targets);
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+	
+	private LinkInDbModel getLinkByTargetTable(EntityInDbModel entity, String targetTable) {
+		for ( LinkInDbModel link : entity.getLinksArray() ) {
+			if ( targetTable.equals(link.getTargetTableName()) ) {
+				return link ;
+			}
+		}
+		return null ;
+	}
+	
+	@Test
+	public void testTwoSchemas() throws TelosysToolsException {
+		printSeparator("testTwoSchemas");
+		GenerationResult result = generate(10, Arrays.asList(
+				new GenerationTarget(null, "SALES"), new GenerationTarget(null, "HR") ) );
+		RepositoryModel model = result.getRepositoryModel();
+		printModel(model);
+		assertEquals(3, model.getNumberOfEntities());
+		
+		//--- Same name : the table of the first target is kept  
+		EntityInDbModel audit = model.getEntityByTableName("AUDIT");
+		assertEquals("SALES", audit.getDatabaseSchema());
+		assertEquals(1, result.getWarnings().size());
+		assertTrue(result.getWarnings().get(0).contains("HR"));
+		
+		//--- Cross-schema foreign key 
+		EntityInDbModel customer = model.getEntityByTableName("CUSTOMER");
+		assertEquals("SALES", customer.getDatabaseSchema());
+		assertNotNull(getLinkByTargetTable(customer, "EMPLOYEE"));
+		EntityInDbModel employee = model.getEntityByTableName("EMPLOYEE");
+		assertEquals("HR", employee.getDatabaseSchema());
+		assertNotNull(getLinkByTargetTable(employee, "CUSTOMER"));
+		assertNotNull(getLinkByTargetTable(audit, "CUSTOMER"));
+	}
+
+	@Test
+	public void testTargetsOrder() throws TelosysToolsException {
+		printSeparator("testTargetsOrder");
+		GenerationResult result = generate(10, Arrays.asList(
+				new GenerationTarget(null, "HR"), new GenerationTarget(null, "SALES") ) );
+		RepositoryModel model = result.getRepositoryModel();
+		assertEquals(3, model.getNumberOfEntities());
+		EntityInDbModel audit = model.getEntityByTableName("AUDIT");
+		assertEquals("HR", audit.getDatabaseSchema());
+		assertEquals(0, audit.getLinksArray().length);
+		//--- The 'customer' entity has no inverse side link for the ignored 'audit' table 
+		EntityInDbModel customer = model.getEntityByTableName("CUSTOMER");
+		assertEquals(1, customer.getLinksArray().length);
+	}
+
+	@Test
+	public void testForeignKeyToIgnoredTable() throws TelosysToolsException {
+		printSeparator("testForeignKeyToIgnoredTable");
+		GenerationResult result = generate(11, Arrays.asList(
+				new GenerationTarget(null, "SALES"), new GenerationTarget(null, "HR") ) );
+		RepositoryModel model = result.getRepositoryModel();
+		printModel(model);
+		assertEquals(2, model.getNumberOfEntities());
+		assertEquals("SALES", model.getEntityByTableName("AUDIT").getDatabaseSchema());
+		//--- 'HR.AUDIT_ENTRY' references 'HR.AUDIT' (ignored) : no link to 'SALES.AUDIT'
+		EntityInDbModel auditEntry = model.getEntityByTableName("AUDIT_ENTRY");
+		assertEquals("HR", auditEntry.getDatabaseSchema());
+		assertEquals(0, auditEntry.getForeignKeys().length);
+		assertEquals(0, auditEntry.getLinksArray().length);
+		assertEquals(0, model.getEntityByTableName("AUDIT").getLinksArray().length);
+		assertEquals(2, result.getWarnings().size());
+		assertTrue(result.getWarnings().get(1).contains("FK_ENTRY_AUDIT"));
+	}
+
+	@Test
+	public void testForeignKeyOutsideTargets() throws TelosysToolsException {
+		printSeparator("testForeignKeyOutsideTargets");
+		GenerationResult result = generate(10, Arrays.asList(new GenerationTarget(null, "SALES") ) );
+		RepositoryModel model = result.getRepositoryModel();
+		assertEquals(2, model.getNumberOfEntities());
+		EntityInDbModel customer = model.getEntityByTableName("CUSTOMER");
+		assertEquals(0, customer.getForeignKeys().length);
+		assertEquals(1, result.getWarnings().size());
+		assertTrue(result.getWarnings().get(0).contains("EMPLOYEE"));
+	}
+
+	@Test
+	public void testNoTarget() throws TelosysToolsException {
+		printSeparator("testNoTarget");
+		try {
+			generate(10, new LinkedList<GenerationTarget>());
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+	}
+}
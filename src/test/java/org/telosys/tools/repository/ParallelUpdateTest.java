@@ -0,0 +1,72 @@
+package org.telosys.tools.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ChangeOnEntity;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ParallelUpdateTest extends AbstractTestCase {
+
+	private List<String> changedTables(ChangeLog changeLog) {
+		List<String> list = new LinkedList<>();
+		for ( ChangeOnEntity change : changeLog.getChanges() ) {
+			String tableName = change.getEntityAfter() != null ? 
+					change.getEntityAfter().getDatabaseTable() : change.getEntityBefore().getDatabaseTable() ;
+			list.add(change.getChangeType() + ":" + tableName + ":" + change.getNumberOfChanges());
+		}
+		return list ;
+	}
+	
+	private String logWithoutDate(ByteArrayOutputStream baos) {
+		String log = baos.toString();
+		return log.substring(log.indexOf('\n') + 1); // skip "Update date : ..."
+	}
+	
+	@Test
+	public void testParallelUpdate() throws TelosysToolsException {
+		printSeparator("testParallelUpdate");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel serialModel   = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		RepositoryModel parallelModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.executeSqlAlter(5);
+
+		ByteArrayOutputStream serialLog = new ByteArrayOutputStream();
+		DbModelUpdator serialUpdator = getDbModelUpdator(PROJECT_FOLDER, serialLog);
+		assertEquals(DbModelUpdator.DEFAULT_UPDATE_PARALLELISM, serialUpdator.getUpdateParallelism());
+		ChangeLog serialChangeLog = serialUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), serialModel);
+		
+		ByteArrayOutputStream parallelLog = new ByteArrayOutputStream();
+		DbModelUpdator parallelUpdator = getDbModelUpdator(PROJECT_FOLDER, parallelLog);
+		parallelUpdator.setUpdateParallelism(4);
+		ChangeLog parallelChangeLog = parallelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), parallelModel);
+		databaseInMemory.close();
+		System.out.println(parallelLog.toString());
+
+		assertEquals(2, parallelChangeLog.getNumberOfEntitiesCreated());
+		assertEquals(serialChangeLog.getNumberOfEntitiesCreated(), parallelChangeLog.getNumberOfEntitiesCreated());
+		assertEquals(serialChangeLog.getNumberOfEntitiesUpdated(), parallelChangeLog.getNumberOfEntitiesUpdated());
+		assertEquals(serialChangeLog.getNumberOfEntitiesDeleted(), parallelChangeLog.getNumberOfEntitiesDeleted());
+		assertEquals(changedTables(serialChangeLog), changedTables(parallelChangeLog));
+		assertEquals(logWithoutDate(serialLog), logWithoutDate(parallelLog));
+
+		//--- Same models after update (entities and links)
+		assertEquals(serialModel.getNumberOfEntities(), parallelModel.getNumberOfEntities());
+		assertNotNull(parallelModel.getEntityByTableName("BADGE"));
+		assertEquals(serialModel.getEntityByTableName("TEACHER").getLinksCount(), 
+				parallelModel.getEntityByTableName("TEACHER").getLinksCount());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidParallelism() throws TelosysToolsException {
+		getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).setUpdateParallelism(0);
+	}
+}
@@ -0,0 +1,79 @@
+package org.telosys.tools.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RefreshTablesTest extends AbstractTestCase {
+
+	@Test
+	public void testRefreshTablesByName() throws TelosysToolsException {
+		printSeparator("testRefreshTablesByName");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel repositoryModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		EntityInDbModel student = repositoryModel.getEntityByTableName("STUDENT");
+		databaseInMemory.executeSqlAlter(5);
+		
+		//--- Only TEACHER and BADGE (unknown table ignored)
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ChangeLog changeLog = getDbModelUpdator(PROJECT_FOLDER, baos).refreshTables(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel, Arrays.asList("TEACHER", "BADGE", "NOPE"));
+		System.out.println(baos.toString());
+		assertEquals(1, changeLog.getNumberOfEntitiesCreated());
+		assertEquals(1, changeLog.getNumberOfEntitiesUpdated());
+		assertEquals(0, changeLog.getNumberOfEntitiesDeleted());
+		assertEquals(3, repositoryModel.getNumberOfEntities());
+		assertNotNull(repositoryModel.getEntityByTableName("BADGE"));
+		assertNull(repositoryModel.getEntityByTableName("TEAM")); // not refreshed
+		assertTrue(student == repositoryModel.getEntityByTableName("STUDENT")); // not refreshed
+		assertEquals(1, student.getForeignKeys().length); 
+		
+		//--- FK flags and links of the refreshed entities 
+		EntityInDbModel teacher = repositoryModel.getEntityByTableName("TEACHER");
+		assertTrue(teacher.getAttributeByColumnName("BADGE_CODE").isFKSimple());
+		assertEquals(1, repositoryModel.getEntityByTableName("BADGE").getLinksCount());
+		
+		//--- Pattern : TEAM created, TEACHER unchanged
+		changeLog = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).refreshTables(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel, "TEA%");
+		databaseInMemory.close();
+		assertEquals(1, changeLog.getNumberOfEntities());
+		assertEquals(1, changeLog.getNumberOfEntitiesCreated());
+		assertNotNull(repositoryModel.getEntityByTableName("TEAM"));
+		assertEquals(4, repositoryModel.getNumberOfEntities());
+	}
+
+	@Test
+	public void testRefreshDeletedTable() throws TelosysToolsException {
+		printSeparator("testRefreshDeletedTable");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(6);
+		RepositoryModel repositoryModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.executeSqlAlter(6); // STUDENT dropped
+		
+		//--- STUDENT out of the refreshed tables => not deleted
+		ChangeLog changeLog = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).refreshTables(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel, Arrays.asList("TEACHER"));
+		assertEquals(0, changeLog.getNumberOfEntities());
+		assertNotNull(repositoryModel.getEntityByTableName("STUDENT"));
+
+		//--- STUDENT in the refreshed tables => deleted
+		changeLog = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).refreshTables(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel, "STU_ENT");
+		databaseInMemory.close();
+		assertEquals(1, changeLog.getNumberOfEntitiesDeleted());
+		assertNull(repositoryModel.getEntityByTableName("STUDENT"));
+		assertEquals(0, repositoryModel.getEntityByTableName("TEACHER").getLinksCount());
+	}
+}
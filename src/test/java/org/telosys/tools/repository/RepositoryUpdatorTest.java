@@ -1,10 +1,12 @@
 package org.telosys.tools.repository;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 
 import org.junit.Test;
@@ -112,6 +114,12 @@ public class RepositoryUpdatorTest extends AbstractTestCase {
 		assertEquals(0, studentAfter.getForeignKeys().length );// One FK removed 
 //		assertEquals(0, studentAfter.getLinks().length ); 
 		assertEquals(0, studentAfter.getLinks().size() ); 
+		//--- FK information 'before' not changed by the links update (before state rebuilt after the update)
+		assertTrue(studentBefore.getAttributeByColumnName("TEACHER_CODE").isFKSimple() );
+		assertEquals("Teacher", studentBefore.getAttributeByColumnName("TEACHER_CODE").getReferencedEntityClassName() );
+		assertEquals(1, studentBefore.getAttributeByColumnName("TEACHER_CODE").getFKParts().size() );
+		assertFalse(studentAfter.getAttributeByColumnName("TEACHER_CODE").isFK() );
+		assertEquals(0, studentAfter.getAttributeByColumnName("TEACHER_CODE").getFKParts().size() );
 
 		//--- Entity "TEACHER BEFORE/AFTER"
 		EntityInDbModel teacherBefore = teacherChange.getEntityBefore();
@@ -122,6 +130,8 @@ public class RepositoryUpdatorTest extends AbstractTestCase {
 		EntityInDbModel teacherAfter = teacherChange.getEntityAfter();
 		assertNotNull(teacherAfter);
 		assertEquals(1, teacherAfter.getForeignKeys().length );// One FK added 
+		assertNull(teacherBefore.getAttributeByColumnName("BADGE_CODE") );
+		assertTrue(teacherAfter.getAttributeByColumnName("BADGE_CODE").isFKSimple() );
 //		assertEquals(1, teacherBefore.getLinks().length ); // Owning side link for FK
 		assertEquals(1, teacherBefore.getLinks().size() ); // Owning side link for FK
 
@@ -259,6 +269,115 @@ public class RepositoryUpdatorTest extends AbstractTestCase {
 		assertEquals("TEAM", linkToTeam.getTargetTableName() );
 	}
 
+	@Test
+	public void testFingerprint() throws TelosysToolsException {
+		printSeparator("testFingerprint");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		RepositoryModel repositoryModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		EntityInDbModel teacher = repositoryModel.getEntityByTableName("TEACHER");
+		String fingerprint = teacher.getDatabaseFingerprint();
+		assertEquals(64, fingerprint.length());
+		
+		//--- Change in the model (not in the database) : not detected with the same fingerprint 
+		teacher.getAttributeByColumnName("NAME").setDatabaseSize("99");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ChangeLog changeLog = getDbModelUpdator(PROJECT_FOLDER, baos).updateRepository(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		assertEquals(0, changeLog.getNumberOfEntities());
+		assertEquals("99", teacher.getAttributeByColumnName("NAME").getDatabaseSize());
+		
+		//--- Without fingerprint : detailed comparison 
+		teacher.setDatabaseFingerprint(null);
+		changeLog = getDbModelUpdator(PROJECT_FOLDER, baos).updateRepository(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		databaseInMemory.close();
+		assertEquals(1, changeLog.getNumberOfEntitiesUpdated());
+		assertEquals("40", teacher.getAttributeByColumnName("NAME").getDatabaseSize());
+		assertEquals(fingerprint, teacher.getDatabaseFingerprint());
+	}
+
+	@Test
+	public void testDryRun() throws TelosysToolsException {
+		printSeparator("testDryRun");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel repositoryModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		EntityInDbModel teacher = repositoryModel.getEntityByTableName("TEACHER");
+		String fingerprint = teacher.getDatabaseFingerprint();
+		int teacherLinks = teacher.getLinksCount();
+		databaseInMemory.executeSqlAlter(5);
+		
+		//--- Dry run : ChangeLog without change in the model 
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, baos);
+		dbModelUpdator.setDryRun(true);
+		assertTrue(dbModelUpdator.isDryRun());
+		ChangeLog dryRunChangeLog = dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		printChangeLog(dryRunChangeLog);
+		assertEquals(2, dryRunChangeLog.getNumberOfEntitiesCreated() );
+		assertEquals(2, repositoryModel.getNumberOfEntities() );
+		assertNull(repositoryModel.getEntityByTableName("BADGE"));
+		assertTrue(teacher == repositoryModel.getEntityByTableName("TEACHER"));
+		assertNull(teacher.getAttributeByColumnName("BADGE_CODE"));
+		assertEquals(fingerprint, teacher.getDatabaseFingerprint());
+		assertEquals(teacherLinks, teacher.getLinksCount());
+		for ( ChangeOnEntity change : dryRunChangeLog.getChangesByType(ChangeType.UPDATED) ) {
+			assertTrue( change.getEntityBefore() == repositoryModel.getEntityByTableName(change.getEntityBefore().getDatabaseTable()) );
+			assertTrue( change.getEntityAfter() != change.getEntityBefore() );
+		}
+		
+		//--- Real update : same changes 
+		ChangeLog changeLog = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).updateRepository(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		databaseInMemory.close();
+		assertEquals(changeLog.getNumberOfEntitiesCreated(), dryRunChangeLog.getNumberOfEntitiesCreated() );
+		assertEquals(changeLog.getNumberOfEntitiesUpdated(), dryRunChangeLog.getNumberOfEntitiesUpdated() );
+		assertEquals(changeLog.getNumberOfEntitiesDeleted(), dryRunChangeLog.getNumberOfEntitiesDeleted() );
+		assertEquals(4, repositoryModel.getNumberOfEntities() );
+		assertNotNull(teacher.getAttributeByColumnName("BADGE_CODE"));
+	}
+
+	@Test
+	public void testSchemaVersion() throws TelosysToolsException {
+		printSeparator("testSchemaVersion");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel repositoryModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		String version = repositoryModel.getDatabaseSchemaVersion();
+		assertTrue(version.startsWith("h2:"));
+		
+		//--- Same schema : update skipped 
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ChangeLog changeLog = getDbModelUpdator(PROJECT_FOLDER, baos).updateRepository(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		System.out.println(baos.toString());
+		assertEquals(0, changeLog.getNumberOfEntities());
+		assertTrue(baos.toString().contains("database schema unchanged"));
+		assertEquals(version, repositoryModel.getDatabaseSchemaVersion());
+
+		//--- Schema changed : full update and new version 
+		databaseInMemory.executeSqlAlter(5);
+		baos = new ByteArrayOutputStream();
+		changeLog = getDbModelUpdator(PROJECT_FOLDER, baos).updateRepository(
+				databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		assertFalse(baos.toString().contains("database schema unchanged"));
+		assertEquals(2, changeLog.getNumberOfEntitiesCreated());
+		assertEquals(4, repositoryModel.getNumberOfEntities());
+		assertFalse(version.equals(repositoryModel.getDatabaseSchemaVersion()));
+		
+		//--- Check disabled : full update
+		version = repositoryModel.getDatabaseSchemaVersion();
+		baos = new ByteArrayOutputStream();
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, baos);
+		dbModelUpdator.setSchemaVersionCheck(false);
+		changeLog = dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		databaseInMemory.close();
+		assertEquals(0, changeLog.getNumberOfEntities());
+		assertFalse(baos.toString().contains("database schema unchanged"));
+		assertEquals("", repositoryModel.getDatabaseSchemaVersion());
+	}
+
 	//===================================================================================================
 	
 	private void checkChangeLog(ChangeLog changeLog, RepositoryModel repositoryModel ) {
@@ -0,0 +1,73 @@
+package org.telosys.tools.repository;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.repository.metadata.TableMetadata;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TablesReconciliationTest {
+	
+	private RepositoryModel buildModel(String... tableNames) {
+		RepositoryModel model = new RepositoryModel();
+		for ( String tableName : tableNames ) {
+			EntityInDbModel entity = new EntityInDbModel();
+			entity.setDatabaseTable(tableName);
+			entity.setClassName(tableName);
+			model.storeEntity(entity);
+		}
+		return model ;
+	}
+	
+	private List<TableMetadata> buildTables(String... tableNames) {
+		List<TableMetadata> tables = new LinkedList<>();
+		for ( String tableName : tableNames ) {
+			tables.add(new TableMetadata(null, null, tableName, "TABLE", ""));
+		}
+		return tables ;
+	}
+	
+	@Test
+	public void testReconciliation() {
+		RepositoryModel model = buildModel("A", "B", "C", "E");
+		TablesReconciliation reconciliation = new TablesReconciliation(model, buildTables("F", "B", "D", "B", "A"));
+		assertEquals(Arrays.asList("F", "D"), new LinkedList<>(reconciliation.getCreatedTables()));
+		assertEquals(Arrays.asList("B", "A"), new LinkedList<>(reconciliation.getUpdatedTables()));
+		assertEquals(Arrays.asList("C", "E"), reconciliation.getDeletedTables());
+		assertTrue(reconciliation.hasDuplicatedTables());
+	}
+
+	@Test
+	public void testVoidModel() {
+		TablesReconciliation reconciliation = new TablesReconciliation(new RepositoryModel(), buildTables("B", "A"));
+		assertEquals(2, reconciliation.getCreatedTables().size());
+		assertEquals(0, reconciliation.getUpdatedTables().size());
+		assertEquals(0, reconciliation.getDeletedTables().size());
+		assertFalse(reconciliation.hasDuplicatedTables());
+	}
+
+	@Test
+	public void testNoTable() {
+		TablesReconciliation reconciliation = new TablesReconciliation(buildModel("B", "A"), buildTables());
+		assertEquals(0, reconciliation.getCreatedTables().size());
+		assertEquals(0, reconciliation.getUpdatedTables().size());
+		assertEquals(Arrays.asList("A", "B"), reconciliation.getDeletedTables());
+	}
+
+	@Test
+	public void testScope() {
+		RepositoryModel model = buildModel("A", "B", "C", "E");
+		TablesReconciliation reconciliation = new TablesReconciliation(model, buildTables("B", "F"), 
+				Arrays.asList("E", "B", "F", "X", "C"));
+		assertEquals(Arrays.asList("F"), new LinkedList<>(reconciliation.getCreatedTables()));
+		assertEquals(Arrays.asList("B"), new LinkedList<>(reconciliation.getUpdatedTables()));
+		assertEquals(Arrays.asList("C", "E"), reconciliation.getDeletedTables()); // "A" out of scope
+	}
+}
@@ -0,0 +1,300 @@
+package org.telosys.tools.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class UpdateJournalTest extends AbstractTestCase {
+
+	/**
+	 * Returns a description of the model state (entities, columns, FK flags, foreign keys and links)
+	 * @param model
+	 * @return
+	 */
+	private String describe(RepositoryModel model) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(model.getDatabaseSchemaVersion()).append('\n');
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			sb.append(entity.getDatabaseTable()).append(" ").append(entity.getDatabaseFingerprint()).append('\n');
+			for ( AttributeInDbModel attribute : entity.getAttributesArray() ) {
+				sb.append(" . ").append(attribute.getDatabaseName()).append(" ").append(attribute.getDatabaseType())
+					.append(" fk=").append(attribute.isFK()).append('\n');
+			}
+			for ( ForeignKeyInDbModel fk : entity.getForeignKeys() ) {
+				sb.append(" FK ").append(fk.getName()).append('\n');
+			}
+			for ( LinkInDbModel link : entity.getLinksArray() ) {
+				sb.append(" LINK ").append(link.getId()).append(" ").append(link.getFieldName()).append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testUndoRedo() throws TelosysToolsException {
+		printSeparator("testUndoRedo");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		String state0 = describe(model);
+		databaseInMemory.executeSqlAlter(5);
+		
+		UpdateJournal journal = new UpdateJournal();
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(journal);
+		ChangeLog changeLog = dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		String state1 = describe(model);
+		assertFalse(state0.equals(state1));
+		assertEquals(1, journal.getRuns().size());
+		//--- CREATED and UPDATED entities + no 'LINKS' operation (all the entities have changed)
+		assertEquals(changeLog.getNumberOfEntities(), journal.getRuns().get(0).getOperations().size());
+		
+		//--- Undo : state before the update 
+		assertTrue(journal.canUndo());
+		journal.undo(model);
+		System.out.println(describe(model));
+		assertEquals(state0, describe(model));
+		assertFalse(journal.canUndo());
+		assertTrue(journal.canRedo());
+
+		//--- Redo : state after the update 
+		journal.redo(model);
+		assertEquals(state1, describe(model));
+		assertFalse(journal.canRedo());
+		
+		//--- Same schema : nothing recorded 
+		dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(journal);
+		dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+		assertEquals(1, journal.getRuns().size());
+	}
+
+	@Test
+	public void testLinksOperation() throws TelosysToolsException {
+		printSeparator("testLinksOperation");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(6);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		String state0 = describe(model);
+		assertEquals(1, model.getEntityByTableName("TEACHER").getLinksCount());
+		
+		//--- STUDENT deleted => inverse side link removed in TEACHER (not in the ChangeLog)
+		databaseInMemory.executeSqlAlter(6);
+		UpdateJournal journal = new UpdateJournal();
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(journal);
+		dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+		assertEquals(0, model.getEntityByTableName("TEACHER").getLinksCount());
+		UpdateJournalRun run = journal.getRuns().get(0);
+		assertEquals(2, run.getOperations().size());
+		assertEquals(UpdateJournalOperation.Type.DELETE, run.getOperations().get(0).getType());
+		assertEquals(UpdateJournalOperation.Type.LINKS, run.getOperations().get(1).getType());
+		assertEquals("TEACHER", run.getOperations().get(1).getTableName());
+		
+		journal.undo(model);
+		assertEquals(state0, describe(model));
+		assertEquals(1, model.getEntityByTableName("TEACHER").getLinksCount());
+	}
+
+	@Test
+	public void testPersistence() throws TelosysToolsException {
+		printSeparator("testPersistence");
+		File file = new File(TestsEnv.getTmpExistingFolder("journal"), "update.journal");
+		if ( file.exists() ) {
+			file.delete();
+		}
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		String state0 = describe(model);
+		
+		//--- 2 updates : tables created, then STUDENT deleted 
+		databaseInMemory.executeSqlAlter(5);
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(new UpdateJournal(file));
+		ChangeLog changeLog = dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		assertEquals(2, changeLog.getNumberOfEntitiesCreated());
+		String state1 = describe(model);
+		
+		databaseInMemory.executeSqlAlter(6);
+		dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(new UpdateJournal(file));
+		changeLog = dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+		assertEquals(1, changeLog.getNumberOfEntitiesDeleted());
+		String state2 = describe(model);
+
+		//--- New session : undo the 2 updates 
+		UpdateJournal journal = new UpdateJournal(file);
+		assertEquals(2, journal.getRuns().size());
+		assertEquals(2, journal.getPosition());
+		journal.undo(model);
+		assertEquals(state1, describe(model));
+		journal.undo(model);
+		assertEquals(state0, describe(model));
+		
+		//--- New session : position restored, redo 
+		journal = new UpdateJournal(file);
+		assertEquals(0, journal.getPosition());
+		journal.redo(model);
+		assertEquals(state1, describe(model));
+		journal = new UpdateJournal(file);
+		journal.redo(model);
+		assertEquals(state2, describe(model));
+		assertEquals(2, new UpdateJournal(file).getPosition());
+	}
+
+	@Test
+	public void testInvalidOperationNotApplied() throws TelosysToolsException {
+		printSeparator("testInvalidOperationNotApplied");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(6);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.executeSqlAlter(6);
+		UpdateJournal journal = new UpdateJournal();
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(journal);
+		dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+		
+		//--- Entity of the 'LINKS' operation removed : nothing reverted 
+		model.removeEntity("TEACHER");
+		String state = describe(model);
+		try {
+			journal.undo(model);
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+		assertEquals(state, describe(model));
+		assertEquals(1, journal.getPosition());
+		
+		//--- Model in another state (schema version) : nothing reverted 
+		model.setDatabaseSchemaVersion("other");
+		state = describe(model);
+		try {
+			journal.undo(model);
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			assertTrue(e.getMessage().contains("schema version"));
+		}
+		assertEquals(state, describe(model));
+		assertEquals(1, journal.getPosition());
+	}
+
+	@Test
+	public void testTornLastRecord() throws TelosysToolsException, IOException {
+		printSeparator("testTornLastRecord");
+		File file = new File(TestsEnv.getTmpExistingFolder("journal"), "torn.journal");
+		if ( file.exists() ) {
+			file.delete();
+		}
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		RepositoryModel model1 = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		String state0 = describe(model);
+		
+		//--- 2 updates (the 2nd model keeps the state of the 1rst update)
+		databaseInMemory.executeSqlAlter(5);
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(new UpdateJournal(file));
+		dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		long length1 = file.length();
+		getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).updateRepository(databaseInMemory.getDatabaseConfiguration(), model1);
+		databaseInMemory.executeSqlAlter(6);
+		dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(new UpdateJournal(file));
+		dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+		String state2 = describe(model);
+		
+		//--- Crash during the 2nd record : torn tail ignored and removed 
+		try ( RandomAccessFile raf = new RandomAccessFile(file, "rw") ) {
+			raf.setLength(file.length() - 10);
+		}
+		UpdateJournal journal = new UpdateJournal(file);
+		assertEquals(1, journal.getRuns().size());
+		assertEquals(1, journal.getPosition());
+		assertEquals(length1, file.length());
+		
+		//--- The model is not in the state of the 1rst run 
+		try {
+			journal.undo(model);
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+		assertEquals(state2, describe(model));
+		
+		//--- Model in the state of the 1rst run : undo recorded after the valid records 
+		journal.undo(model1);
+		assertEquals(state0, describe(model1));
+		assertEquals(length1 + 1, file.length());
+		journal = new UpdateJournal(file);
+		assertEquals(1, journal.getRuns().size());
+		assertEquals(0, journal.getPosition());
+	}
+
+	@Test
+	public void testInvalidRecordLength() throws TelosysToolsException, IOException {
+		printSeparator("testInvalidRecordLength");
+		File file = new File(TestsEnv.getTmpExistingFolder("journal"), "length.journal");
+		if ( file.exists() ) {
+			file.delete();
+		}
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel model = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.executeSqlAlter(5);
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.setUpdateJournal(new UpdateJournal(file));
+		dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+		long length1 = file.length();
+		
+		//--- Length greater than the end of the file : torn tail ignored and removed 
+		try ( RandomAccessFile raf = new RandomAccessFile(file, "rw") ) {
+			raf.seek(length1);
+			raf.writeByte('R');
+			raf.writeInt(Integer.MAX_VALUE);
+			raf.write(new byte[20]);
+		}
+		UpdateJournal journal = new UpdateJournal(file);
+		assertEquals(1, journal.getRuns().size());
+		assertEquals(length1, file.length());
+		
+		//--- Negative length : invalid file 
+		try ( RandomAccessFile raf = new RandomAccessFile(file, "rw") ) {
+			raf.seek(length1);
+			raf.writeByte('R');
+			raf.writeInt(-5);
+			raf.write(new byte[20]);
+		}
+		try {
+			new UpdateJournal(file);
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+	}
+}
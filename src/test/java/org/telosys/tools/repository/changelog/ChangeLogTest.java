@@ -1,6 +1,7 @@
 package org.telosys.tools.repository.changelog;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -173,4 +174,130 @@ public class ChangeLogTest {
 		assertTrue( changeLog.getChangesByType(ChangeType.UPDATED).size() == 0 );
 	}
 
+	private AttributeInDbModel buildColumn(EntityInDbModel entity, String name, String size) {
+		AttributeInDbModel column = new AttributeInDbModel(entity);
+		column.setDatabaseName(name);
+		column.setDatabaseTypeName("VARCHAR");
+		column.setDatabaseSize(size);
+		entity.storeAttribute(column);
+		return column ;
+	}
+	
+	@Test
+	public void testUpdatedInPlace() throws TelosysToolsException {
+		
+		System.out.println("testUpdatedInPlace");
+		EntityInDbModel entity = new EntityInDbModel("Foo", "FOO");
+		entity.setDatabaseComment("comment 1");
+		AttributeInDbModel name = buildColumn(entity, "NAME", "20");
+		AttributeInDbModel code = buildColumn(entity, "CODE", "2");
+		ForeignKeyInDbModel fkBefore = new ForeignKeyInDbModel();
+		fkBefore.setName("FK_FOO");
+		entity.storeForeignKey(fkBefore);
+		
+		//--- Update in place : only the changes are kept 
+		ChangeOnEntity changeOnEntity = new ChangeOnEntity(entity);
+		assertEquals(ChangeType.UPDATED, changeOnEntity.getChangeType());
+		assertEquals("FOO", changeOnEntity.getEntityName());
+		entity.setDatabaseComment("comment 2");
+		changeOnEntity.setDatabaseCommentHasChanged(true);
+		ColumnState nameBefore = new ColumnState(name);
+		name.setDatabaseSize("40");
+		changeOnEntity.addChangeOnColumn(new ChangeOnColumn(nameBefore, name));
+		entity.removeAttribute(code);
+		changeOnEntity.addChangeOnColumn(new ChangeOnColumn(ChangeType.DELETED, code, null));
+		AttributeInDbModel label = buildColumn(entity, "LABEL", "10");
+		changeOnEntity.addChangeOnColumn(new ChangeOnColumn(ChangeType.CREATED, null, label));
+		ForeignKeyInDbModel fkAfter = new ForeignKeyInDbModel();
+		fkAfter.setName("FK_FOO");
+		entity.storeForeignKey(fkAfter);
+		changeOnEntity.addChangeOnForeignKey(new ChangeOnForeignKey(ChangeType.UPDATED, fkBefore, fkAfter));
+		assertEquals(5, changeOnEntity.getNumberOfChanges());
+		
+		//--- 'after state' = the entity 
+		assertTrue( changeOnEntity.getEntityAfter() == entity );
+		
+		//--- 'before state' rebuilt on demand 
+		EntityInDbModel before = changeOnEntity.getEntityBefore();
+		assertTrue( before != entity );
+		assertEquals("comment 1", before.getDatabaseComment());
+		assertEquals(2, before.getAttributesArray().length);
+		assertEquals("20", before.getAttributeByColumnName("NAME").getDatabaseSize());
+		assertNotNull(before.getAttributeByColumnName("CODE"));
+		assertTrue(before.getAttributeByColumnName("LABEL") == null);
+		assertNotNull(before.getForeignKey("FK_FOO"));
+		assertTrue(before.getForeignKey("FK_FOO") != fkBefore); // copy
+		
+		//--- 'before state' built once : the next changes are not visible 
+		entity.setDatabaseComment("comment 3");
+		name.setName("renamed");
+		assertTrue( changeOnEntity.getEntityBefore() == before );
+		assertEquals("comment 1", before.getDatabaseComment());
+		assertFalse("renamed".equals(before.getAttributeByColumnName("NAME").getName()));
+		
+		//--- Column 'before state' 
+		ChangeOnColumn changeOnColumn = changeOnEntity.getChangesOnColumn().get(0);
+		assertEquals("20", changeOnColumn.getColumnStateBefore().getDatabaseSize());
+		assertEquals("20", changeOnColumn.getColumnBefore().getDatabaseSize());
+		assertEquals("NAME", changeOnColumn.getColumnBefore().getDatabaseName());
+		assertTrue( changeOnColumn.getColumnBefore() == changeOnColumn.getColumnBefore() ); // no copy for each call
+		assertTrue( changeOnColumn.getColumnBefore() == before.getAttributeByColumnName("NAME") );
+		
+		//--- The entity is unchanged 
+		assertEquals("comment 3", entity.getDatabaseComment());
+		assertTrue(entity.getForeignKey("FK_FOO") == fkAfter);
+		assertEquals("40", name.getDatabaseSize());
+		assertEquals(2, entity.getAttributesArray().length);
+	}
+
+	@Test
+	public void testIndexes() throws TelosysToolsException {
+		
+		System.out.println("testIndexes");
+		ChangeLog changeLog = new ChangeLog();
+		changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, new EntityInDbModel("A", "A")));
+		changeLog.log(new ChangeOnEntity(ChangeType.DELETED, new EntityInDbModel("B", "B"), null));
+		changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, new EntityInDbModel("C", "C")));
+		ChangeOnEntity changeOnEntity = new ChangeOnEntity(new EntityInDbModel("D", "D"));
+		changeOnEntity.setDatabaseTypeHasChanged(true);
+		changeOnEntity.setDatabaseTypeHasChanged(true);
+		changeOnEntity.setDatabaseCommentHasChanged(true);
+		changeOnEntity.setDatabaseCommentHasChanged(false);
+		assertEquals(1, changeOnEntity.getNumberOfChanges() );
+		changeLog.log(changeOnEntity);
+		
+		assertEquals(4, changeLog.getNumberOfEntities() );
+		assertEquals(2, changeLog.getNumberOfEntitiesCreated() );
+		assertEquals(1, changeLog.getNumberOfEntitiesUpdated() );
+		assertEquals(1, changeLog.getNumberOfEntitiesDeleted() );
+		assertEquals("C", changeLog.getChangesByType(ChangeType.CREATED).get(1).getEntityName() );
+		assertTrue( changeLog.getChangeByEntityName("D") == changeOnEntity );
+		assertTrue( changeLog.getChangeByEntityName("X") == null );
+		
+		//--- Duplicated name 
+		changeLog.log(new ChangeOnEntity(ChangeType.DELETED, new EntityInDbModel("A", "A"), null));
+		try {
+			changeLog.getChangeByEntityName("A");
+			fail("Exception expected");
+		} catch (RuntimeException e) {
+			// Expected exception 
+		}
+		assertEquals(2, changeLog.getNumberOfEntitiesDeleted() );
+		
+		//--- Lists modified by the caller 
+		List<ChangeOnEntity> created = changeLog.getChangesByType(ChangeType.CREATED);
+		created.clear(); // new list 
+		assertEquals(2, changeLog.getNumberOfEntitiesCreated() );
+		List<ChangeOnEntity> allChanges = changeLog.getChanges();
+		allChanges.remove(4); // 2nd 'A' 
+		allChanges.remove(0); // 1rst 'A'
+		assertEquals(3, changeLog.getNumberOfEntities() );
+		assertEquals(1, changeLog.getNumberOfEntitiesCreated() );
+		assertEquals(1, changeLog.getNumberOfEntitiesDeleted() );
+		assertTrue( changeLog.getChangeByEntityName("A") == null );
+		assertEquals("C", changeLog.getChangesByType(ChangeType.CREATED).get(0).getEntityName() );
+		changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, new EntityInDbModel("E", "E")));
+		assertEquals(2, changeLog.getNumberOfEntitiesCreated() );
+		assertNotNull( changeLog.getChangeByEntityName("E") );
+	}
 }
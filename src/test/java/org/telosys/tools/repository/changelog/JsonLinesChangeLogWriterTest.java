@@ -0,0 +1,87 @@
+package org.telosys.tools.repository.changelog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.AbstractTestCase;
+import org.telosys.tools.repository.DatabaseInMemory;
+import org.telosys.tools.repository.DbModelUpdator;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonLinesChangeLogWriterTest extends AbstractTestCase {
+
+	@Test
+	public void testJsonLines() {
+		EntityInDbModel before = new EntityInDbModel("Foo", "FOO");
+		EntityInDbModel after  = new EntityInDbModel("Foo", "FOO");
+		ChangeOnEntity change = new ChangeOnEntity(ChangeType.UPDATED, before, after);
+		AttributeInDbModel column = new AttributeInDbModel(after);
+		column.setDatabaseName("NAME");
+		column.setDatabaseComment("the \"name\"\n");
+		change.addChangeOnColumn(new ChangeOnColumn(ChangeType.CREATED, null, column));
+		
+		StringWriter stringWriter = new StringWriter();
+		JsonLinesChangeLogWriter writer = new JsonLinesChangeLogWriter(stringWriter);
+		ChangeLog changeLog = new ChangeLog();
+		changeLog.addListener(writer);
+		changeLog.log(change);
+		// flushed after each entity 
+		String[] lines = stringWriter.toString().split("\n");
+		writer.close();
+		
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("{\"type\":\"column\",\"change\":\"CREATED\",\"entity\":\"FOO\",\"column\":\"NAME\",\"before\":null,\"after\":{\"name\":\"NAME\""));
+		assertTrue(lines[0].contains("\"comment\":\"the \\\"name\\\"\\n\"}"));
+		assertEquals("{\"type\":\"entity\",\"change\":\"UPDATED\",\"entity\":\"FOO\",\"changes\":1,\"typeChanged\":false,\"commentChanged\":false}", lines[1]);
+	}
+
+	@Test
+	public void testListenerDuringUpdate() throws TelosysToolsException {
+		printSeparator("testListenerDuringUpdate");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		RepositoryModel repositoryModel = getDbModelGenerator(PROJECT_FOLDER).generate( databaseInMemory.getDatabaseConfiguration() );
+		databaseInMemory.executeSqlAlter(5);
+		
+		final List<String> events = new LinkedList<>();
+		StringWriter stringWriter = new StringWriter();
+		DbModelUpdator dbModelUpdator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		dbModelUpdator.addChangeLogListener(new JsonLinesChangeLogWriter(stringWriter));
+		dbModelUpdator.addChangeLogListener(new ChangeLogListener() {
+			@Override
+			public void columnChanged(ChangeOnEntity changeOnEntity, ChangeOnColumn changeOnColumn) {
+				events.add("column");
+			}
+			@Override
+			public void foreignKeyChanged(ChangeOnEntity changeOnEntity, ChangeOnForeignKey changeOnForeignKey) {
+				events.add("foreignKey");
+			}
+			@Override
+			public void entityChanged(ChangeOnEntity changeOnEntity) {
+				events.add(changeOnEntity.getChangeType() + ":" + changeOnEntity.getEntityName());
+			}
+		});
+		ChangeLog changeLog = dbModelUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), repositoryModel);
+		databaseInMemory.close();
+		System.out.println(stringWriter.toString());
+		System.out.println(events);
+		
+		int entities = 0 ;
+		for ( String event : events ) {
+			if ( event.contains(":") ) entities++;
+		}
+		assertEquals(changeLog.getNumberOfEntities(), entities);
+		assertTrue(events.contains("CREATED:BADGE"));
+		assertTrue(events.contains("column")); // TEACHER.BADGE_CODE
+		assertEquals(events.size(), stringWriter.toString().split("\n").length);
+	}
+}
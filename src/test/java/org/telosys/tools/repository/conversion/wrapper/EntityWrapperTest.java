@@ -3,7 +3,7 @@ package org.telosys.tools.repository.conversion.wrapper;
 //import static org.junit.Assert.assertEquals;
 //import static org.junit.Assert.assertFalse;
 //import static org.junit.Assert.assertNotNull;
-//import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNull;
 //import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -26,6 +26,7 @@ public class EntityWrapperTest {
 	private static final String CATALOG_VALUE  = "MYCATALOG" ;
 	private static final String TYPE_VALUE     = "TABLE" ;
 	private static final String COMMENT_VALUE  = "MYCOMMENT" ;
+	private static final String FINGERPRINT_VALUE = "0123456789abcdef" ;
 
 	//-----------------------------------------------------------------------------------
 	@Test
@@ -119,4 +120,20 @@ public class EntityWrapperTest {
 		assertEquals(TYPE_VALUE, entity.getDatabaseType() );
 		assertEquals("", entity.getDatabaseComment() ); // Void comment
 	}
+	//-----------------------------------------------------------------------------------
+	@Test
+	public void testFingerprint() throws TelosysToolsException {
+		System.out.println("testFingerprint");
+		Document doc = Xml.createDomDocument();
+		EntityInDbModel entity = createEntity();
+		//--- No fingerprint => no attribute 
+		Element element = Wrappers.ENTITY_WRAPPER.getXmlDesc(entity, doc);
+		assertNull(element.getAttributeNode(RepositoryConst.TABLE_DATABASE_FINGERPRINT));
+		assertEquals("", Wrappers.ENTITY_WRAPPER.getEntity(element).getDatabaseFingerprint() );
+		//--- Fingerprint
+		entity.setDatabaseFingerprint(FINGERPRINT_VALUE);
+		element = Wrappers.ENTITY_WRAPPER.getXmlDesc(entity, doc);
+		checkAttribute(element, RepositoryConst.TABLE_DATABASE_FINGERPRINT, FINGERPRINT_VALUE);
+		assertEquals(FINGERPRINT_VALUE, Wrappers.ENTITY_WRAPPER.getEntity(element).getDatabaseFingerprint() );
+	}
 }
@@ -0,0 +1,104 @@
+package org.telosys.tools.repository.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.logger.ConsoleLogger;
+
+public class RepositoryLoggerTest {
+
+	private static class MemoryLogger extends ConsoleLogger {
+		private final List<String> messages = new LinkedList<>();
+		@Override
+		public void log(String s) {
+			messages.add(s);
+		}
+		@Override
+		public void error(String s) {
+			messages.add("ERROR:" + s);
+		}
+	}
+	
+	private static class CountingMessage implements LogMessage {
+		private int count = 0 ;
+		@Override
+		public String getMessage() {
+			count++;
+			return "lazy" ;
+		}
+	}
+	
+	private static class CountingArg {
+		private int count = 0 ;
+		@Override
+		public String toString() {
+			count++;
+			return "arg" ;
+		}
+	}
+
+	@Test
+	public void testFormat() {
+		assertEquals("Table 'T1' ( catalog = 'C', schema = 'null' )", 
+				RepositoryLogger.format("Table '{}' ( catalog = '{}', schema = '{}' )", "T1", "C", null, 3) );
+		assertEquals("a 1 b {}", RepositoryLogger.format("a {} b {}", 1, null, null, 1) );
+		assertEquals("no placeholder", RepositoryLogger.format("no placeholder", 1, 2, 3, 3) );
+	}
+	
+	@Test
+	public void testDebugLevel() {
+		MemoryLogger logger = new MemoryLogger();
+		RepositoryLogger log = new RepositoryLogger(logger, LogLevel.DEBUG);
+		assertTrue(log.isDebugEnabled());
+		log.debug("column {} : {}", "ID", 4);
+		log.info("info");
+		log.error("error {}", "E1");
+		CountingMessage message = new CountingMessage();
+		log.debug(message);
+		assertEquals(1, message.count);
+		assertEquals(4, logger.messages.size());
+		assertEquals("column ID : 4", logger.messages.get(0));
+		assertEquals("ERROR:error E1", logger.messages.get(2));
+	}
+
+	@Test
+	public void testInfoLevel() {
+		MemoryLogger logger = new MemoryLogger();
+		RepositoryLogger log = new RepositoryLogger(logger, LogLevel.INFO);
+		assertFalse(log.isDebugEnabled());
+		assertTrue(log.isInfoEnabled());
+		CountingArg arg = new CountingArg();
+		CountingMessage message = new CountingMessage();
+		log.debug("column {}", arg);
+		log.debug(message);
+		log.info("table {}", arg);
+		assertEquals(1, arg.count);
+		assertEquals(0, message.count);
+		assertEquals(1, logger.messages.size());
+	}
+
+	@Test
+	public void testNoOp() {
+		CountingArg arg = new CountingArg();
+		CountingMessage message = new CountingMessage();
+		RepositoryLogger log = RepositoryLogger.noOp();
+		assertEquals(LogLevel.NONE, log.getLevel());
+		assertFalse(log.isErrorEnabled());
+		log.debug("column {}", arg);
+		log.info(message);
+		log.error("error {}", arg);
+		assertEquals(0, arg.count);
+		assertEquals(0, message.count);
+		
+		// null logger => no-op
+		log = new RepositoryLogger(null, LogLevel.DEBUG);
+		assertEquals(LogLevel.NONE, log.getLevel());
+		log.debug("column {}", arg);
+		assertEquals(0, arg.count);
+	}
+}
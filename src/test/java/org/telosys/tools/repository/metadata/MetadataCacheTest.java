@@ -0,0 +1,203 @@
+package org.telosys.tools.repository.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.AbstractTestCase;
+import org.telosys.tools.repository.DatabaseInMemory;
+import org.telosys.tools.repository.DbModelGenerator;
+import org.telosys.tools.repository.DbModelUpdator;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetadataCacheTest extends AbstractTestCase {
+	
+	private static final String PROJECT_FOLDER = "project2" ;
+
+	/**
+	 * Cache with a manual clock
+	 */
+	private class TestCache extends MetadataCache {
+		private long time = 1000 ;
+		public TestCache(long timeToLive, int maxSize) {
+			super(timeToLive, maxSize);
+		}
+		@Override
+		protected long currentTime() {
+			return time;
+		}
+	}
+	
+	private MetadataCacheKey key(int databaseId, String schema) {
+		return new MetadataCacheKey(databaseId, null, schema, "%", new String[] {"TABLE"}, null, null);
+	}
+	
+	private List<TableMetadata> tables(String... names) {
+		List<TableMetadata> list = new LinkedList<>();
+		for ( String name : names ) {
+			list.add(new TableMetadata(null, "S", name, "TABLE", null));
+		}
+		return list ;
+	}
+	
+	@Test
+	public void testKey() {
+		assertEquals(key(1, "S1"), key(1, "S1"));
+		assertEquals(key(1, "S1").hashCode(), key(1, "S1").hashCode());
+		assertFalse(key(1, "S1").equals(key(2, "S1")));
+		assertFalse(key(1, "S1").equals(key(1, "S2")));
+		assertFalse(key(1, null).equals(key(1, "S2")));
+		assertFalse(key(1, "S1").equals(new MetadataCacheKey(1, null, "S1", "%", new String[] {"VIEW"}, null, null)));
+	}
+	
+	@Test
+	public void testTimeToLive() {
+		TestCache cache = new TestCache(100, 10);
+		assertNull(cache.get(key(1, "S1")));
+		cache.put(key(1, "S1"), tables("A", "B"));
+		cache.time = 1050 ;
+		List<TableMetadata> list = cache.get(key(1, "S1"));
+		assertNotNull(list);
+		assertEquals(2, list.size());
+		cache.time = 1100 ;
+		assertNull(cache.get(key(1, "S1")));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testMaxSize() {
+		TestCache cache = new TestCache(1000, 2);
+		cache.put(key(1, "S1"), tables("A"));
+		cache.put(key(1, "S2"), tables("B"));
+		assertNotNull(cache.get(key(1, "S1"))); // S1 becomes the most recently used 
+		cache.put(key(1, "S3"), tables("C"));   // S2 evicted
+		assertEquals(2, cache.size());
+		assertNull(cache.get(key(1, "S2")));
+		assertNotNull(cache.get(key(1, "S1")));
+		assertNotNull(cache.get(key(1, "S3")));
+		assertEquals(1, cache.getEvictionCount());
+		System.out.println(cache);
+	}
+
+	@Test
+	public void testInvalidate() {
+		MetadataCache cache = new MetadataCache();
+		cache.put(key(1, "S1"), tables("A"));
+		cache.put(key(1, "S2"), tables("B"));
+		cache.put(key(2, "S1"), tables("C"));
+		assertEquals(2, cache.invalidate(1));
+		assertEquals(1, cache.size());
+		assertTrue(cache.invalidate(key(2, "S1")));
+		assertFalse(cache.invalidate(key(2, "S1")));
+		cache.put(key(3, "S1"), tables("D"));
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+		cache.resetStatistics();
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void testCachedListNotModifiable() {
+		MetadataCache cache = new MetadataCache();
+		cache.put(key(1, "S1"), tables("A"));
+		cache.get(key(1, "S1")).clear();
+	}
+
+	@Test
+	public void testSharedByGeneratorAndUpdator() throws TelosysToolsException {
+		printSeparator("testSharedByGeneratorAndUpdator");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		
+		MetadataCache cache = new MetadataCache();
+		DbModelGenerator generator = getDbModelGenerator(PROJECT_FOLDER);
+		generator.setMetadataCache(cache);
+		RepositoryModel model = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		assertEquals(2, model.getNumberOfEntities());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		
+		DbModelUpdator updator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		updator.setSchemaVersionCheck(false); // same schema version : the meta-data would not be loaded
+		updator.setMetadataCache(cache);
+		ChangeLog changeLog = updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		assertEquals(0, changeLog.getNumberOfEntities());
+		assertEquals(1, cache.getHitCount());
+
+		//--- After invalidation the database is queried again
+		cache.invalidate(databaseInMemory.getDatabaseId());
+		databaseInMemory.executeSqlAlter(5);
+		updator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		updator.setMetadataCache(cache);
+		changeLog = updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		assertEquals(2, cache.getMissCount());
+		assertTrue(changeLog.getNumberOfEntities() > 0);
+		databaseInMemory.close();
+	}
+
+	@Test
+	public void testSchemaVersion() {
+		MetadataCache cache = new MetadataCache();
+		cache.put(key(1, "S1"), tables("A"), "v1");
+		assertNotNull(cache.get(key(1, "S1"), "v1"));
+		assertNotNull(cache.get(key(1, "S1"))); // version not checked
+		assertNull(cache.get(key(1, "S1"), "v2")); // stale entry removed
+		assertEquals(0, cache.size());
+		cache.put(key(1, "S1"), tables("A"));
+		assertNull(cache.get(key(1, "S1"), "v1")); // version unknown
+	}
+
+	@Test
+	public void testSchemaChangedWithinTimeToLive() throws TelosysToolsException {
+		printSeparator("testSchemaChangedWithinTimeToLive");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		
+		MetadataCache cache = new MetadataCache();
+		DbModelGenerator generator = getDbModelGenerator(PROJECT_FOLDER);
+		generator.setMetadataCache(cache);
+		RepositoryModel model = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		String version = model.getDatabaseSchemaVersion();
+		assertEquals(1, cache.getMissCount());
+
+		//--- Table altered : the cached tables are not used 
+		databaseInMemory.executeSqlAlter(5);
+		DbModelUpdator updator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		updator.setMetadataCache(cache);
+		ChangeLog changeLog = updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertTrue(changeLog.getNumberOfEntities() > 0);
+		assertEquals(4, model.getNumberOfEntities());
+		assertFalse(version.equals(model.getDatabaseSchemaVersion()));
+
+		//--- Nothing altered : update skipped, the model is up to date 
+		updator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		updator.setMetadataCache(cache);
+		changeLog = updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		assertEquals(0, changeLog.getNumberOfEntities());
+		assertEquals(4, model.getNumberOfEntities());
+		
+		//--- Same version : the cached tables are used 
+		updator = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		updator.setMetadataCache(cache);
+		updator.setSchemaVersionCheck(false);
+		changeLog = updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		assertEquals(0, changeLog.getNumberOfEntities());
+		assertEquals(1, cache.getHitCount());
+		databaseInMemory.close();
+	}
+}
@@ -0,0 +1,165 @@
+package org.telosys.tools.repository.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.AbstractTestCase;
+import org.telosys.tools.repository.DatabaseInMemory;
+import org.telosys.tools.repository.DbModelGenerator;
+import org.telosys.tools.repository.DbModelUpdator;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class MetadataSnapshotTest extends AbstractTestCase {
+	
+	private static final String PROJECT_FOLDER = "project2" ;
+
+	private void checkSameModel(RepositoryModel expected, RepositoryModel model) {
+		assertEquals(expected.getDatabaseId(), model.getDatabaseId());
+		assertEquals(expected.getDatabaseProductName(), model.getDatabaseProductName());
+		assertEquals(expected.getNumberOfEntities(), model.getNumberOfEntities());
+		for ( EntityInDbModel expectedEntity : expected.getEntitiesArraySortedByTableName() ) {
+			EntityInDbModel entity = model.getEntityByTableName(expectedEntity.getDatabaseTable());
+			assertNotNull(entity);
+			assertEquals(expectedEntity.getClassName(), entity.getClassName());
+			assertEquals(expectedEntity.getAttributesArray().length, entity.getAttributesArray().length);
+			assertEquals(expectedEntity.getForeignKeys().length, entity.getForeignKeys().length);
+			LinkInDbModel[] expectedLinks = expectedEntity.getLinksArray();
+			LinkInDbModel[] links = entity.getLinksArray();
+			assertEquals(expectedLinks.length, links.length);
+			for ( int i = 0 ; i < links.length ; i++ ) {
+				assertEquals(expectedLinks[i].getFieldName(), links[i].getFieldName());
+			}
+		}
+	}
+
+	@Test
+	public void testSaveAndLoad() throws TelosysToolsException {
+		printSeparator("testSaveAndLoad");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		
+		DbModelGenerator generator = getDbModelGenerator(PROJECT_FOLDER);
+		MetadataSnapshot snapshot = generator.takeMetadataSnapshot(databaseInMemory.getDatabaseConfiguration());
+		RepositoryModel expected = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		databaseInMemory.close();
+		assertEquals(2, snapshot.getNumberOfTables());
+		
+		File file = TestsEnv.getTmpFile("snapshot-test-2.dbsnap");
+		TestsEnv.getTmpExistingFolder("");
+		new MetadataSnapshotManager(file).save(snapshot);
+		System.out.println("Snapshot saved in " + file.getAbsolutePath() + " (" + file.length() + " bytes)");
+		
+		MetadataSnapshot snapshot2 = new MetadataSnapshotManager(file).load();
+		assertEquals(snapshot.getDatabaseId(), snapshot2.getDatabaseId());
+		assertEquals(snapshot.getDatabaseProductName(), snapshot2.getDatabaseProductName());
+		assertEquals(snapshot.getSnapshotDate(), snapshot2.getSnapshotDate());
+		assertEquals(2, snapshot2.getNumberOfTables());
+		TableMetadata student = null ;
+		for ( TableMetadata table : snapshot2.getTables() ) {
+			if ( "STUDENT".equals(table.getTableName()) ) {
+				student = table ;
+			}
+		}
+		assertNotNull(student);
+		assertNotNull(student.getColumnByName("TEACHER_CODE1"));
+		assertEquals(2, student.getForeignKeys().size());
+		
+		//--- Generation without database
+		RepositoryModel model = generator.generate(snapshot2);
+		printModel(model);
+		checkSameModel(expected, model);
+	}
+
+	@Test(expected=TelosysToolsException.class)
+	public void testLoadInvalidFile() throws TelosysToolsException {
+		printSeparator("testLoadInvalidFile");
+		new MetadataSnapshotManager(new File("src/test/resources/repo/BookStoreDERBY.dbrep")).load();
+	}
+
+	@Test
+	public void testUpdateFromSnapshot() throws TelosysToolsException {
+		printSeparator("testUpdateFromSnapshot");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		
+		DbModelGenerator generator = getDbModelGenerator(PROJECT_FOLDER);
+		RepositoryModel model1 = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		RepositoryModel model2 = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		
+		databaseInMemory.executeSqlAlter(5);
+		MetadataSnapshot snapshot = generator.takeMetadataSnapshot(databaseInMemory.getDatabaseConfiguration());
+		
+		//--- Update from the database
+		DbModelUpdator updator1 = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		ChangeLog changeLog1 = updator1.updateRepository(databaseInMemory.getDatabaseConfiguration(), model1);
+		databaseInMemory.close();
+		
+		//--- Update from the snapshot (no database)
+		DbModelUpdator updator2 = getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream());
+		ChangeLog changeLog2 = updator2.updateRepository(snapshot, model2);
+		printChangeLog(changeLog2);
+		
+		assertEquals(4, model2.getNumberOfEntities());
+		assertEquals("", model2.getDatabaseSchemaVersion()); // the next database update is not skipped
+		assertEquals(changeLog1.getNumberOfEntities(), changeLog2.getNumberOfEntities());
+		assertEquals(changeLog1.getNumberOfEntitiesCreated(), changeLog2.getNumberOfEntitiesCreated());
+		assertEquals(changeLog1.getNumberOfEntitiesUpdated(), changeLog2.getNumberOfEntitiesUpdated());
+		assertEquals(changeLog1.getNumberOfEntitiesDeleted(), changeLog2.getNumberOfEntitiesDeleted());
+		checkSameModel(model1, model2);
+	}
+
+	@Test
+	public void testLoadClassNotAccepted() throws TelosysToolsException, IOException {
+		printSeparator("testLoadClassNotAccepted");
+		File file = TestsEnv.getTmpFile("snapshot-test-class.dbsnap");
+		TestsEnv.getTmpExistingFolder("");
+		try ( ObjectOutputStream out = new ObjectOutputStream( new GZIPOutputStream( new FileOutputStream(file) ) ) ) {
+			out.writeInt(0x54444253);
+			out.writeInt(1);
+			out.writeObject(new EntityInDbModel("Foo", "FOO")); // serializable but not a snapshot class
+		}
+		try {
+			new MetadataSnapshotManager(file).load();
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage() + " / " + e.getCause());
+			assertTrue(e.getCause().getMessage().contains("EntityInDbModel"));
+		}
+	}
+
+	@Test
+	public void testUpdateFromOtherDatabaseSnapshot() throws TelosysToolsException {
+		printSeparator("testUpdateFromOtherDatabaseSnapshot");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		DbModelGenerator generator = getDbModelGenerator(PROJECT_FOLDER);
+		RepositoryModel model = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		MetadataSnapshot snapshot = generator.takeMetadataSnapshot(databaseInMemory.getDatabaseConfiguration());
+		databaseInMemory.close();
+		
+		model.setDatabaseId(DEFAULT_DATABASE_ID + 1);
+		try {
+			getDbModelUpdator(PROJECT_FOLDER, new ByteArrayOutputStream()).updateRepository(snapshot, model);
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+		assertEquals(2, model.getNumberOfEntities());
+	}
+}
@@ -0,0 +1,131 @@
+package org.telosys.tools.repository.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SchemaVersionStrategyTest {
+
+	/**
+	 * Fake JDBC connection recording the parameters bound by the strategy <br>
+	 * (a query executed with an unbound parameter fails as with a real driver)
+	 */
+	private static class FakeConnection implements InvocationHandler {
+
+		private final List<String> bindings = new ArrayList<>();
+		private boolean bound = false ;
+
+		public Connection getConnection() {
+			return proxy(Connection.class, this);
+		}
+
+		private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+			return type.cast(Proxy.newProxyInstance(SchemaVersionStrategyTest.class.getClassLoader(),
+					new Class<?>[] { type }, handler));
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if ( "prepareStatement".equals(method.getName()) ) {
+				bound = ! ((String) args[0]).contains("?") ;
+				return proxy(PreparedStatement.class, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						switch ( method.getName() ) {
+						case "setString" :
+							bound = true ;
+							bindings.add("'" + args[1] + "'");
+							return null ;
+						case "setNull" :
+							bound = true ;
+							bindings.add("NULL:" + args[1]);
+							return null ;
+						case "executeQuery" :
+							if ( ! bound ) {
+								throw new SQLException("No value specified for parameter 1");
+							}
+							return resultSet();
+						default :
+							return null ;
+						}
+					}
+				});
+			}
+			return null ;
+		}
+
+		private ResultSet resultSet() {
+			return proxy(ResultSet.class, new InvocationHandler() {
+				private int row = 0 ;
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					switch ( method.getName() ) {
+					case "next" :
+						return ++row == 1 ;
+					case "getString" :
+						return "VALUE" ;
+					case "getMetaData" :
+						return proxy(ResultSetMetaData.class, new InvocationHandler() {
+							@Override
+							public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+								return "getColumnCount".equals(method.getName()) ? 1 : null ;
+							}
+						});
+					default :
+						return null ;
+					}
+				}
+			});
+		}
+	}
+
+	@Test
+	public void testPostgreSqlWithoutSchema() throws SQLException {
+		FakeConnection fake = new FakeConnection();
+		StringBuilder sb = new StringBuilder();
+		int count = new PostgreSqlSchemaVersionStrategy().appendSchemaState(fake.getConnection(), null, sb);
+		assertEquals(1, count);
+		assertEquals(2, fake.bindings.size());
+		assertEquals("NULL:" + Types.VARCHAR, fake.bindings.get(0));
+		assertEquals("NULL:" + Types.VARCHAR, fake.bindings.get(1));
+		assertTrue(sb.toString().contains("VALUE"));
+	}
+
+	@Test
+	public void testPostgreSqlWithVoidSchema() throws SQLException {
+		FakeConnection fake = new FakeConnection();
+		new PostgreSqlSchemaVersionStrategy().appendSchemaState(fake.getConnection(), "", new StringBuilder());
+		assertEquals("NULL:" + Types.VARCHAR, fake.bindings.get(0));
+		assertEquals("NULL:" + Types.VARCHAR, fake.bindings.get(1));
+	}
+
+	@Test
+	public void testPostgreSqlWithSchema() throws SQLException {
+		FakeConnection fake = new FakeConnection();
+		new PostgreSqlSchemaVersionStrategy().appendSchemaState(fake.getConnection(), "sales", new StringBuilder());
+		assertEquals("'sales'", fake.bindings.get(0));
+		assertEquals("'sales'", fake.bindings.get(1));
+	}
+
+	@Test
+	public void testH2WithVoidSchema() throws SQLException {
+		FakeConnection fake = new FakeConnection();
+		//--- "all schemas" queries : no parameter to bind
+		int count = new H2SchemaVersionStrategy().appendSchemaState(fake.getConnection(), "", new StringBuilder());
+		assertEquals(1, count);
+		assertEquals(0, fake.bindings.size());
+	}
+}
@@ -0,0 +1,51 @@
+package org.telosys.tools.repository.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+
+import org.junit.Test;
+
+public class TableFingerprintTest {
+
+	private ColumnMetadata column(String name, int size) {
+		return new ColumnMetadata(name, "VARCHAR", Types.VARCHAR, size, false, false, false, 0, null, "");
+	}
+	
+	private ForeignKeyMetadata foreignKey(String name, int deleteRule) {
+		ForeignKeyMetadata fk = new ForeignKeyMetadata(name);
+		fk.addForeignKeyColumn(new ForeignKeyColumnMetadata(1, "STUDENT", "TEACHER_CODE", "TEACHER", "CODE", 
+				DatabaseMetaData.importedKeyNoAction, deleteRule, DatabaseMetaData.importedKeyNotDeferrable));
+		return fk ;
+	}
+	
+	private TableMetadata table(String columnName1, String columnName2, int size, int deleteRule) {
+		TableMetadata table = new TableMetadata(null, "PUBLIC", "STUDENT", "TABLE", "");
+		table.addColumn(column(columnName1, size));
+		table.addColumn(column(columnName2, size));
+		table.addForeignKey(foreignKey("FK1", deleteRule));
+		return table ;
+	}
+	
+	@Test
+	public void testSameFingerprint() {
+		String fingerprint = TableFingerprint.compute(table("A", "B", 10, DatabaseMetaData.importedKeyCascade));
+		assertEquals(64, fingerprint.length());
+		assertEquals(fingerprint, TableFingerprint.compute(table("A", "B", 10, DatabaseMetaData.importedKeyCascade)));
+		//--- Columns order has no impact
+		assertEquals(fingerprint, TableFingerprint.compute(table("B", "A", 10, DatabaseMetaData.importedKeyCascade)));
+	}
+
+	@Test
+	public void testDifferentFingerprint() {
+		String fingerprint = TableFingerprint.compute(table("A", "B", 10, DatabaseMetaData.importedKeyCascade));
+		assertNotEquals(fingerprint, TableFingerprint.compute(table("A", "B", 20, DatabaseMetaData.importedKeyCascade)));
+		assertNotEquals(fingerprint, TableFingerprint.compute(table("A", "C", 10, DatabaseMetaData.importedKeyCascade)));
+		assertNotEquals(fingerprint, TableFingerprint.compute(table("A", "B", 10, DatabaseMetaData.importedKeyRestrict)));
+		//--- No ambiguity between consecutive values 
+		assertNotEquals(TableFingerprint.compute(table("AB", "C", 10, DatabaseMetaData.importedKeyCascade)), 
+				TableFingerprint.compute(table("A", "BC", 10, DatabaseMetaData.importedKeyCascade)));
+	}
+}
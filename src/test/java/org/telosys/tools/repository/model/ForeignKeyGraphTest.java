@@ -0,0 +1,170 @@
+package org.telosys.tools.repository.model;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ForeignKeyGraphTest {
+
+	private void addEntity(RepositoryModel model, String tableName, String... referencedTables) {
+		EntityInDbModel entity = new EntityInDbModel();
+		entity.setDatabaseTable(tableName);
+		int n = 0 ;
+		for ( String referencedTable : referencedTables ) {
+			n++ ;
+			ForeignKeyInDbModel fk = new ForeignKeyInDbModel();
+			fk.setName("FK_" + tableName + "_" + n);
+			ForeignKeyColumnInDbModel fkColumn = new ForeignKeyColumnInDbModel();
+			fkColumn.setTableName(tableName);
+			fkColumn.setColumnName("COL_" + n);
+			fkColumn.setSequence(1);
+			fkColumn.setTableRef(referencedTable);
+			fkColumn.setReferencedColumnName("ID");
+			fk.storeForeignKeyColumn(fkColumn);
+			entity.storeForeignKey(fk);
+		}
+		model.storeEntity(entity);
+	}
+	
+	private int position(int[] order, int i) {
+		for ( int k = 0 ; k < order.length ; k++ ) {
+			if ( order[k] == i ) {
+				return k ;
+			}
+		}
+		return -1 ;
+	}
+	
+	@Test
+	public void testAcyclic() {
+		RepositoryModel model = new RepositoryModel();
+		addEntity(model, "ORDER_ITEM", "ORDERS", "PRODUCT", "PRODUCT"); // duplicated reference
+		addEntity(model, "ORDERS", "CUSTOMER");
+		addEntity(model, "CUSTOMER", "COUNTRY");
+		addEntity(model, "PRODUCT");
+		addEntity(model, "LOG", "UNKNOWN");
+
+		ForeignKeyGraph graph = model.getForeignKeyGraph();
+		assertTrue(graph == model.getForeignKeyGraph());
+		assertEquals(5, graph.size());
+		assertEquals(3, graph.getEdgesCount());
+		assertEquals(2, graph.getUnresolvedForeignKeysCount()); // COUNTRY and UNKNOWN
+		assertFalse(graph.hasCycles());
+		assertEquals(5, graph.getComponentsCount());
+		
+		int item = graph.getIndex("ORDER_ITEM");
+		int orders = graph.getIndex("ORDERS");
+		int customer = graph.getIndex("CUSTOMER");
+		int product = graph.getIndex("PRODUCT");
+		assertEquals(-1, graph.getIndex("COUNTRY"));
+		assertEquals(2, graph.getReferencedCount(item));
+		assertEquals(orders, graph.getReferenced(item, 0));
+		assertEquals(product, graph.getReferenced(item, 1));
+		assertEquals(1, graph.getReferencingCount(product));
+		assertEquals(item, graph.getReferencing(product, 0));
+		
+		int[] insertion = graph.getInsertionOrder();
+		assertTrue(position(insertion, customer) < position(insertion, orders));
+		assertTrue(position(insertion, orders) < position(insertion, item));
+		assertTrue(position(insertion, product) < position(insertion, item));
+		int[] deletion = graph.getDeletionOrder();
+		assertTrue(position(deletion, item) < position(deletion, orders));
+		System.out.println(graph.getTableNamesInInsertionOrder());
+		
+		assertTrue(graph.isReachable(item, customer));
+		assertFalse(graph.isReachable(customer, item));
+		assertFalse(graph.isReachable(item, item));
+		assertFalse(graph.isReachable(product, customer));
+		assertEquals(3, graph.getReachableCount(item));
+		assertEquals(0, graph.getReachableCount(customer));
+		
+		//--- Invalidated by a change 
+		model.removeEntity("LOG");
+		assertEquals(4, model.getForeignKeyGraph().size());
+	}
+
+	@Test
+	public void testCycles() {
+		RepositoryModel model = new RepositoryModel();
+		addEntity(model, "A", "B");
+		addEntity(model, "B", "C");
+		addEntity(model, "C", "A");
+		addEntity(model, "D", "A");
+		addEntity(model, "E");
+		addEntity(model, "EMPLOYEE", "EMPLOYEE", "E"); // self reference
+
+		ForeignKeyGraph graph = model.getForeignKeyGraph();
+		assertTrue(graph.hasCycles());
+		assertEquals(4, graph.getComponentsCount());
+		int a = graph.getIndex("A");
+		int b = graph.getIndex("B");
+		int c = graph.getIndex("C");
+		int d = graph.getIndex("D");
+		int e = graph.getIndex("E");
+		int employee = graph.getIndex("EMPLOYEE");
+		assertEquals(graph.getComponent(a), graph.getComponent(b));
+		assertEquals(graph.getComponent(a), graph.getComponent(c));
+		assertEquals(3, graph.getComponentSize(graph.getComponent(a)));
+		assertTrue(graph.isInCycle(a));
+		assertFalse(graph.isInCycle(d));
+		assertTrue(graph.isInCycle(employee));
+		assertTrue(graph.isSelfReferencing(employee));
+		assertFalse(graph.isInCycle(e));
+		
+		//--- The cycle entities are consecutive and before the entities referencing them 
+		int[] insertion = graph.getInsertionOrder();
+		int[] cycle = { position(insertion, a), position(insertion, b), position(insertion, c) };
+		Arrays.sort(cycle);
+		assertEquals(2, cycle[2] - cycle[0]);
+		assertTrue(cycle[2] < position(insertion, d));
+		assertTrue(position(insertion, e) < position(insertion, employee));
+		
+		assertTrue(graph.isReachable(a, a));
+		assertTrue(graph.isReachable(c, b));
+		assertTrue(graph.isReachable(d, c));
+		assertFalse(graph.isReachable(a, d));
+		assertTrue(graph.isReachable(employee, employee));
+		assertEquals(3, graph.getReachableCount(a));
+		assertEquals(3, graph.getReachableCount(d));
+		assertEquals(2, graph.getReachableCount(employee));
+	}
+
+	@Test
+	public void testLargeModel() {
+		int n = 10000 ;
+		RepositoryModel model = new RepositoryModel();
+		for ( int i = 0 ; i < n ; i++ ) {
+			// each table references the 2 previous tables, every 1000 tables a cycle of 2 tables
+			String name = String.format("T%05d", i);
+			if ( i % 1000 == 1 ) {
+				addEntity(model, name, String.format("T%05d", i - 1), String.format("T%05d", i + 1));
+			}
+			else if ( i >= 2 ) {
+				addEntity(model, name, String.format("T%05d", i - 1), String.format("T%05d", i - 2));
+			}
+			else {
+				addEntity(model, name);
+			}
+		}
+		long start = System.nanoTime();
+		ForeignKeyGraph graph = model.getForeignKeyGraph();
+		int[] insertion = graph.getInsertionOrder();
+		boolean reachable = graph.isReachable(graph.getIndex("T09999"), graph.getIndex("T00000"));
+		long elapsed = System.nanoTime() - start ;
+		System.out.println("Graph of " + n + " tables : " + ( elapsed / 1000000 ) + " ms");
+		assertEquals(n, insertion.length);
+		assertTrue(reachable);
+		assertTrue(graph.hasCycles());
+		assertEquals(n - 10, graph.getComponentsCount());
+		for ( int i = 0 ; i < n ; i++ ) {
+			for ( int k = 0 ; k < graph.getReferencedCount(i) ; k++ ) {
+				int j = graph.getReferenced(i, k);
+				assertTrue( graph.getComponent(j) <= graph.getComponent(i) );
+			}
+		}
+	}
+}
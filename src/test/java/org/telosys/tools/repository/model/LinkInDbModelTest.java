@@ -3,11 +3,19 @@ package org.telosys.tools.repository.model;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 import org.telosys.tools.generic.model.Cardinality;
 import org.telosys.tools.generic.model.FetchType;
 import org.telosys.tools.generic.model.Optional;
+import org.telosys.tools.repository.model.comparators.LinkComparator;
+import org.telosys.tools.repository.model.comparators.LinkComparatorOnTableNames;
 
 public class LinkInDbModelTest {
 
@@ -63,4 +71,59 @@ public class LinkInDbModelTest {
 		assertFalse(link.getCascadeOptions().isCascadeRemove());
 	}
 
+	@Test
+	public void testSortKey() {
+		LinkInDbModel link = new LinkInDbModel();
+		link.setSourceTableName("BOOK");
+		link.setTargetTableName("AUTHOR");
+		assertEquals("BOOK-AUTHOR", link.getSortKey());
+		assertTrue(link.getSortKey() == link.getSortKey()); // cached
+		link.setTargetTableName("PUBLISHER");
+		assertEquals("BOOK-PUBLISHER", link.getSortKey());
+		link.setSourceTableName(null);
+		assertEquals("null-PUBLISHER", link.getSortKey());
+	}
+
+	private LinkInDbModel buildLink(String source, String target) {
+		LinkInDbModel link = new LinkInDbModel();
+		link.setSourceTableName(source);
+		link.setTargetTableName(target);
+		return link ;
+	}
+
+	private List<String> sortKeys(List<LinkInDbModel> links) {
+		List<String> keys = new ArrayList<>();
+		for ( LinkInDbModel link : links ) {
+			keys.add(link.getSourceTableName() + "-" + link.getTargetTableName());
+		}
+		return keys ;
+	}
+
+	@Test
+	public void testComparatorsOrder() {
+		String[] names = { "A", "A-B", "A_B", "A B", "AB", "B", "B-A", "", "null", null, "A+", "a" } ;
+		List<LinkInDbModel> links = new ArrayList<>();
+		for ( String source : names ) {
+			for ( String target : names ) {
+				links.add(buildLink(source, target));
+			}
+		}
+		//--- Expected order : the concatenated keys 
+		List<String> expected = sortKeys(links);
+		Collections.sort(expected);
+		
+		Collections.shuffle(links, new Random(1));
+		Collections.sort(links, new LinkComparator(LinkComparator.ASC));
+		assertEquals(expected, sortKeys(links));
+
+		Collections.shuffle(links, new Random(2));
+		Collections.sort(links, new LinkComparatorOnTableNames(LinkComparatorOnTableNames.ASC));
+		assertEquals(expected, sortKeys(links));
+
+		Collections.shuffle(links, new Random(3));
+		Collections.sort(links, new LinkComparatorOnTableNames(LinkComparatorOnTableNames.DESC));
+		Collections.reverse(expected);
+		assertEquals(expected, sortKeys(links));
+	}
+
 }
@@ -0,0 +1,127 @@
+package org.telosys.tools.repository.model.comparators;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+
+/**
+ * JMH benchmark : sort of large links and entities sets <br>
+ * String concatenation for each comparison vs cached sort keys vs direct comparison of the names <br>
+ * Run with the 'main' method (not a unit test)
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComparatorsBenchmark {
+
+	private static final int TABLES = 2000 ;
+	
+	private static final int LINKS  = 20000 ;
+
+	/**
+	 * Original implementation : 2 Strings built for each comparison
+	 */
+	private static final Comparator<LinkInDbModel> CONCATENATION_COMPARATOR = new Comparator<LinkInDbModel>() {
+		@Override
+		public int compare(LinkInDbModel link1, LinkInDbModel link2) {
+			String s1 = link1.getSourceTableName() + "-" + link1.getTargetTableName() ;
+			String s2 = link2.getSourceTableName() + "-" + link2.getTargetTableName() ;
+			return s1.compareTo(s2);
+		}
+	};
+	
+	private LinkInDbModel[] links ;
+	
+	private EntityInDbModel[] entities ;
+
+	private String tableName(int i) {
+		return String.format("SCHEMA_TABLE_%05d", i);
+	}
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		links = new LinkInDbModel[LINKS];
+		for ( int i = 0 ; i < LINKS ; i++ ) {
+			LinkInDbModel link = new LinkInDbModel();
+			link.setSourceTableName(tableName(random.nextInt(TABLES)));
+			link.setTargetTableName(tableName(random.nextInt(TABLES)));
+			links[i] = link ;
+		}
+		entities = new EntityInDbModel[TABLES];
+		for ( int i = 0 ; i < TABLES ; i++ ) {
+			EntityInDbModel entity = new EntityInDbModel();
+			entity.setDatabaseTable(tableName(random.nextInt(TABLES)));
+			entity.setClassName("Entity" + random.nextInt(TABLES));
+			entities[i] = entity ;
+		}
+	}
+
+	private void sortLinks(Comparator<LinkInDbModel> comparator, Blackhole blackhole) {
+		LinkInDbModel[] array = links.clone();
+		Arrays.sort(array, comparator);
+		blackhole.consume(array);
+	}
+
+	private void sortEntities(Comparator<EntityInDbModel> comparator, Blackhole blackhole) {
+		EntityInDbModel[] array = entities.clone();
+		Arrays.sort(array, comparator);
+		blackhole.consume(array);
+	}
+
+	@Benchmark
+	public void sortLinksConcatenation(Blackhole blackhole) {
+		sortLinks(CONCATENATION_COMPARATOR, blackhole);
+	}
+
+	@Benchmark
+	public void sortLinksSortKey(Blackhole blackhole) {
+		sortLinks(new LinkComparator(LinkComparator.ASC), blackhole);
+	}
+
+	@Benchmark
+	public void sortLinksTableNames(Blackhole blackhole) {
+		sortLinks(new LinkComparatorOnTableNames(LinkComparatorOnTableNames.ASC), blackhole);
+	}
+
+	@Benchmark
+	public void sortEntitiesOnTableName(Blackhole blackhole) {
+		sortEntities(new EntityComparatorOnTableName(), blackhole);
+	}
+
+	@Benchmark
+	public void sortEntitiesOnClassName(Blackhole blackhole) {
+		sortEntities(new EntityComparatorOnClassName(), blackhole);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(ComparatorsBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build();
+		new Runner(options).run();
+	}
+}
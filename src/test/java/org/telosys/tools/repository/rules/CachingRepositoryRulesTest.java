@@ -0,0 +1,103 @@
+package org.telosys.tools.repository.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CachingRepositoryRulesTest {
+
+	private static final String[] NAMES = { "ID", "CODE", "NAME", "CREATED_AT", "UPDATED_BY", "FIRST_NAME", "_LAST_NAME_", 
+			"ORDER_ITEM", "a", "", "date_naissance" } ;
+	
+	private static final int[] TYPES = { Types.VARCHAR, Types.INTEGER, Types.DATE, Types.TIMESTAMP, Types.BOOLEAN, Types.DECIMAL } ;
+	
+	private void checkSameResults(RepositoryRules expected, RepositoryRules rules) {
+		for ( String name : NAMES ) {
+			assertEquals(expected.getEntityClassName(name), rules.getEntityClassName(name));
+			assertEquals(expected.getAttributeName(name), rules.getAttributeName(name));
+			assertEquals(expected.getAttributeGuiLabel(name), rules.getAttributeGuiLabel(name));
+		}
+		for ( int type : TYPES ) {
+			assertEquals(expected.getAttributeType("xxx", type, true), rules.getAttributeType("xxx", type, true));
+			assertEquals(expected.getAttributeType("xxx", type, false), rules.getAttributeType("xxx", type, false));
+			assertEquals(expected.getAttributeGuiType("xxx", type), rules.getAttributeGuiType("xxx", type));
+		}
+	}
+	
+	@Test
+	public void testSameResults() {
+		StandardRepositoryRules standardRules = new StandardRepositoryRules();
+		CachingRepositoryRules rules = new CachingRepositoryRules(standardRules);
+		checkSameResults(standardRules, rules); // 1st time : misses
+		checkSameResults(standardRules, rules); // 2nd time : hits
+		System.out.println(rules);
+		assertEquals(rules.getMissCount(), rules.getHitCount());
+		assertEquals(0.5, rules.getHitRate(), 0.0001);
+		
+		assertEquals("", rules.getEntityClassName(null));
+		assertEquals("", rules.getAttributeName(null));
+		assertEquals("", rules.getAttributeGuiLabel(null));
+	}
+
+	@Test
+	public void testStatistics() {
+		CachingRepositoryRules rules = new CachingRepositoryRules(new StandardRepositoryRules());
+		assertEquals(0.0, rules.getHitRate(), 0.0);
+		assertEquals("id", rules.getAttributeName("ID"));
+		assertEquals("id", rules.getAttributeName("ID"));
+		assertEquals("id", rules.getAttributeName("ID"));
+		assertEquals(2, rules.getHitCount());
+		assertEquals(1, rules.getMissCount());
+		assertEquals(1, rules.getSize());
+		rules.clear();
+		assertEquals(0, rules.getSize());
+		assertEquals(0, rules.getHitCount());
+	}
+
+	@Test
+	public void testMaxSize() {
+		CachingRepositoryRules rules = new CachingRepositoryRules(new StandardRepositoryRules(), 3);
+		for ( int i = 0 ; i < 10 ; i++ ) {
+			assertEquals("col" + i, rules.getAttributeName("COL" + i));
+			assertTrue(rules.getSize() <= 3);
+		}
+	}
+
+	@Test
+	public void testConcurrentAccess() throws InterruptedException {
+		final StandardRepositoryRules standardRules = new StandardRepositoryRules();
+		final CachingRepositoryRules rules = new CachingRepositoryRules(standardRules, 8);
+		final AtomicInteger errors = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for ( int t = 0 ; t < threads.length ; t++ ) {
+			threads[t] = new Thread( new Runnable() {
+				@Override
+				public void run() {
+					for ( int i = 0 ; i < 2000 ; i++ ) {
+						String name = NAMES[i % NAMES.length] + "_" + ( i % 13 ) ;
+						if ( ! standardRules.getAttributeName(name).equals(rules.getAttributeName(name)) ) {
+							errors.incrementAndGet();
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+		assertEquals(0, errors.get());
+		assertEquals(8000, rules.getHitCount() + rules.getMissCount());
+	}
+
+	@Test
+	public void testProvider() {
+		//--- Plain rules : no process-wide cache 
+		assertFalse(RepositoryRulesProvider.getRepositoryRules() instanceof CachingRepositoryRules);
+	}
+}
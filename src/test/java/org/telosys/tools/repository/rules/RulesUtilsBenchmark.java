@@ -0,0 +1,81 @@
+package org.telosys.tools.repository.rules;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark : single pass implementations vs StringTokenizer implementations <br>
+ * Run with the 'main' method (not a unit test)
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RulesUtilsBenchmark {
+
+	/**
+	 * Typical table and column names 
+	 */
+	private static final String[] NAMES = { 
+			"ID", "CODE", "NAME", "LABEL", "DESCRIPTION", "STATUS", "VERSION",
+			"CREATED_AT", "CREATED_BY", "UPDATED_AT", "UPDATED_BY", "DELETED_FLAG",
+			"FIRST_NAME", "LAST_NAME", "BIRTH_DATE", "EMAIL_ADDRESS", "PHONE_NUMBER",
+			"CUSTOMER_ID", "ORDER_ID", "ORDER_ITEM_ID", "PRODUCT_CODE", "UNIT_PRICE", "QUANTITY",
+			"SHIPPING_ADDRESS_LINE_1", "SHIPPING_ADDRESS_LINE_2", "POSTAL_CODE", "COUNTRY_CODE",
+			"customer_order", "order_item", "product_category", "employee_department_history" } ;
+	
+	private final RulesUtils rulesUtils = new RulesUtils();
+	
+	@Benchmark
+	public void camelCaseSinglePass(Blackhole blackhole) {
+		for ( String name : NAMES ) {
+			blackhole.consume(rulesUtils.camelCase(name, "_"));
+		}
+	}
+
+	@Benchmark
+	public void camelCaseTokenizer(Blackhole blackhole) {
+		for ( String name : NAMES ) {
+			blackhole.consume(rulesUtils.camelCaseWithTokenizer(name, "_"));
+		}
+	}
+
+	@Benchmark
+	public void separatedWordsSinglePass(Blackhole blackhole) {
+		for ( String name : NAMES ) {
+			blackhole.consume(rulesUtils.separatedWords(name, "_"));
+		}
+	}
+
+	@Benchmark
+	public void separatedWordsTokenizer(Blackhole blackhole) {
+		for ( String name : NAMES ) {
+			blackhole.consume(rulesUtils.separatedWordsWithTokenizer(name, "_"));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RulesUtilsBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,64 @@
+package org.telosys.tools.repository.rules;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class RulesUtilsTest {
+
+	private static final String[] CORPUS = { 
+			"", " ", "_", "__", "A", "a", "AB", "ab", "aB_cD", "ORDER_ITEM", "order_item", "_ABCD_", "__A__B__", 
+			"  CREATED_AT  ", "\tUPDATED_BY\n", "ID", "CODE_1", "X_2_Y", "A B", "first-name", "ID_", "_ID",
+			"ÉTÉ_ÉCOLE", "STRASSE_GROß", "ÀB_çd", "İD_CODE", "ﬁle_name", "mixed_Ünï_CÔDE" } ;
+	
+	private static final String[] SEPARATORS = { "_", "_-", " ", "X", "x" } ;
+	
+	private void checkSameResults() {
+		RulesUtils rulesUtils = new RulesUtils();
+		for ( String separator : SEPARATORS ) {
+			for ( String s : CORPUS ) {
+				assertEquals("camelCase('" + s + "','" + separator + "')", 
+						rulesUtils.camelCaseWithTokenizer(s, separator), rulesUtils.camelCase(s, separator));
+				assertEquals("separatedWords('" + s + "','" + separator + "')", 
+						rulesUtils.separatedWordsWithTokenizer(s, separator), rulesUtils.separatedWords(s, separator));
+			}
+		}
+	}
+	
+	@Test
+	public void testCamelCase() {
+		RulesUtils rulesUtils = new RulesUtils();
+		assertEquals("", rulesUtils.camelCase(null, "_"));
+		assertEquals("", rulesUtils.camelCase("", "_"));
+		assertEquals("OrderItem", rulesUtils.camelCase("ORDER_ITEM", "_"));
+		assertEquals("OrderItem", rulesUtils.camelCase(" _order__item_ ", "_"));
+		assertEquals("FirstName", rulesUtils.camelCase("FIRST-NAME", "_-"));
+	}
+
+	@Test
+	public void testSeparatedWords() {
+		RulesUtils rulesUtils = new RulesUtils();
+		assertEquals("", rulesUtils.separatedWords(null, "_"));
+		assertEquals("", rulesUtils.separatedWords("", "_"));
+		assertEquals("Order item", rulesUtils.separatedWords("ORDER_ITEM", "_"));
+		assertEquals("Order item", rulesUtils.separatedWords(" _order__item_ ", "_"));
+	}
+
+	@Test
+	public void testSameResultsAsTokenizer() {
+		checkSameResults();
+	}
+
+	@Test
+	public void testSameResultsAsTokenizerWithTurkishLocale() {
+		Locale defaultLocale = Locale.getDefault();
+		try {
+			Locale.setDefault(new Locale("tr", "TR"));
+			checkSameResults();
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+}
@@ -0,0 +1,32 @@
+-- TEST WITH 2 SCHEMAS : CROSS-SCHEMA FK AND SAME TABLE NAME IN BOTH SCHEMAS 
+DROP ALL OBJECTS;
+
+CREATE SCHEMA hr ;
+CREATE SCHEMA sales ;
+
+CREATE TABLE hr.employee (
+  id INTEGER NOT NULL,
+  name VARCHAR(40),
+  PRIMARY KEY(id)
+);
+
+CREATE TABLE hr.audit (
+  id INTEGER NOT NULL,
+  label VARCHAR(80),
+  PRIMARY KEY(id)
+);
+
+CREATE TABLE sales.customer (
+  id INTEGER NOT NULL,
+  name VARCHAR(40),
+  employee_id INTEGER,
+  PRIMARY KEY(id),
+  CONSTRAINT fk_customer_employee FOREIGN KEY(employee_id) REFERENCES hr.employee(id)
+);
+
+CREATE TABLE sales.audit (
+  id INTEGER NOT NULL,
+  customer_id INTEGER,
+  PRIMARY KEY(id),
+  CONSTRAINT fk_audit_customer FOREIGN KEY(customer_id) REFERENCES sales.customer(id)
+);
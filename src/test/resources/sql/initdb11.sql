@@ -0,0 +1,24 @@
+-- TEST WITH 2 SCHEMAS : FK REFERENCING A TABLE NAME EXISTING IN BOTH SCHEMAS 
+DROP ALL OBJECTS;
+
+CREATE SCHEMA hr ;
+CREATE SCHEMA sales ;
+
+CREATE TABLE hr.audit (
+  id INTEGER NOT NULL,
+  label VARCHAR(80),
+  PRIMARY KEY(id)
+);
+
+CREATE TABLE hr.audit_entry (
+  id INTEGER NOT NULL,
+  audit_id INTEGER,
+  PRIMARY KEY(id),
+  CONSTRAINT fk_entry_audit FOREIGN KEY(audit_id) REFERENCES hr.audit(id)
+);
+
+CREATE TABLE sales.audit (
+  id INTEGER NOT NULL,
+  amount INTEGER,
+  PRIMARY KEY(id)
+);